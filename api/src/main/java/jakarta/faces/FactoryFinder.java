@@ -39,10 +39,12 @@
 import java.security.AccessController;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -99,6 +101,14 @@
     private static Map<ClassLoader, Map<String, Object>> factories
             = new HashMap<ClassLoader, Map<String, Object>>(5);
 
+    /**
+     * The factories already created, by class loader, to look them up without locking. The tables are immutable,
+     * a new one replaces the previous one each time a factory is created, and they are only written while holding
+     * the registeredFactoryNames monitor.
+     */
+    private static final Map<ClassLoader, Map<String, Object>> createdFactories
+            = new ConcurrentHashMap<ClassLoader, Map<String, Object>>(5);
+
     static
     {        
         FACTORY_MAPPING.put(APPLICATION_FACTORY, ApplicationFactory.class);
@@ -261,6 +271,17 @@ private static Object _getFactory(String factoryName) throws FacesException
     {
         ClassLoader classLoader = ClassUtils.getContextClassLoader();
 
+        // ConcurrentHashMap does not take null keys, without a class loader the locked path reports the error
+        Map<String, Object> created = classLoader == null ? null : createdFactories.get(classLoader);
+        if (created != null)
+        {
+            Object factory = created.get(factoryName);
+            if (factory != null)
+            {
+                return factory;
+            }
+        }
+
         // This code must be synchronized because this could cause a problem when
         // using update feature each time of myfaces (org.apache.myfaces.CONFIG_REFRESH_PERIOD)
         // In this moment, a concurrency problem could happen
@@ -308,6 +329,7 @@ private static Object _getFactory(String factoryName) throws FacesException
             factory = factoryMap.get(factoryName);
             if (factory != null)
             {
+                publishFactory(classLoader, factoryMap, factoryName, factory);
                 return factory;
             }
 
@@ -332,14 +354,46 @@ private static Object _getFactory(String factoryName) throws FacesException
         synchronized (factoryClassNames)
         {
             // check if someone else already installed the factory
-            if (factoryMap.get(factoryName) == null)
+            Object installed = factoryMap.get(factoryName);
+            if (installed == null)
             {
                 factoryMap.put(factoryName, factory);
             }
+            else
+            {
+                factory = installed;
+            }
         }
 
+        publishFactory(classLoader, factoryMap, factoryName, factory);
+
         return factory;
     }
+
+    private static void publishFactory(ClassLoader classLoader, Map<String, Object> factoryMap, String factoryName,
+            Object factory)
+    {
+        if (classLoader == null)
+        {
+            return;
+        }
+
+        synchronized (registeredFactoryNames)
+        {
+            // the factories could have been released meanwhile
+            if (factories.get(classLoader) != factoryMap)
+            {
+                return;
+            }
+
+            Map<String, Object> created = createdFactories.get(classLoader);
+            Map<String, Object> table = created == null
+                    ? new HashMap<String, Object>(FACTORY_MAPPING.size())
+                    : new HashMap<String, Object>(created);
+            table.put(factoryName, factory);
+            createdFactories.put(classLoader, Collections.unmodifiableMap(table));
+        }
+    }
     
     private static Object getInjectionProvider()
     {
@@ -664,6 +718,10 @@ private static void _releaseFactories() throws FacesException
         synchronized (registeredFactoryNames)
         {
             factoryMap = factories.remove(classLoader);
+            if (classLoader != null)
+            {
+                createdFactories.remove(classLoader);
+            }
 
             // _registeredFactoryNames has as value type Map<String,List> and this must
             // be cleaned before release (for gc).
@@ -210,6 +210,7 @@ public void setParent(UIComponent parent)
                 {
                     _updateInView(this, true);
                 }
+                _ClientIdIndex.componentAdded(facesContext, this);
             }
         }
     }
@@ -181,6 +181,11 @@ public class UIData extends UIComponentBase implements NamingContainer, UniqueId
     private boolean _isValidChilds = true;
 
     private Object _initialDescendantComponentState = null;
+
+    /**
+     * If the child components hold the initial descendant state, so it does not need to be restored.
+     */
+    private boolean _descendantStateUnchanged = false;
     
     private Object _initialDescendantFullComponentState = null;
 
@@ -318,6 +323,12 @@ public void restoreState(EditableValueHolder evh)
             evh.setValid(_valid);
             evh.setSubmittedValue(_submittedValue);
         }
+
+        public boolean isUnchanged(EditableValueHolder evh)
+        {
+            return _value == evh.getLocalValue() && _localValueSet == evh.isLocalValueSet()
+                    && _valid == evh.isValid() && _submittedValue == evh.getSubmittedValue();
+        }
     }
 
     /**
@@ -556,6 +567,12 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
                 // be pushed to the "restoreState" method of all the child
                 // components to set them up to represent a clean row.
                 _initialDescendantComponentState = saveDescendantComponentStates(this, false, false);
+                _descendantStateUnchanged = true;
+            }
+            else
+            {
+                // anybody could have changed them while not positioned on a row
+                _descendantStateUnchanged = false;
             }
         }
         else
@@ -569,10 +586,24 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
                 // move off it, so save the (partial) state of the components
                 // representing the current row. Later if this row is revisited
                 // then we can restore this state.
-                Collection<Object[]> savedRowState = saveDescendantComponentStates(this, false, false);
-                if (savedRowState != null)
+                // Rows whose components still hold the initial state are not saved, restoring the
+                // initial state gives the same result.
+                _descendantStateUnchanged = isDescendantComponentStateUnchanged(this, false,
+                        _initialDescendantComponentState, false);
+                if (_descendantStateUnchanged)
                 {
-                    _rowStates.put(getContainerClientId(facesContext), savedRowState);
+                    if (!_rowStates.isEmpty())
+                    {
+                        _rowStates.remove(getContainerClientId(facesContext));
+                    }
+                }
+                else
+                {
+                    Collection<Object[]> savedRowState = saveDescendantComponentStates(this, false, false);
+                    if (savedRowState != null)
+                    {
+                        _rowStates.put(getContainerClientId(facesContext), savedRowState);
+                    }
                 }
             }
         }
@@ -612,7 +643,7 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
             // If no initial state, skip row restore state code
             if (_initialDescendantComponentState != null)
             {
-                restoreDescendantComponentStates(this, false, _initialDescendantComponentState, false);
+                restoreInitialDescendantComponentStates();
             }
             else
             {
@@ -630,7 +661,7 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
                 // If no initial state, skip row restore state code
                 if (_initialDescendantComponentState != null)
                 {
-                    restoreDescendantComponentStates(this, false, _initialDescendantComponentState, false);
+                    restoreInitialDescendantComponentStates();
                 }
                 else
                 {
@@ -644,10 +675,28 @@ private void setRowIndexWithoutPreserveComponentState(int rowIndex)
                 // state that was previously saved. Fields not in the
                 // partial saved state are left with their original values.
                 restoreDescendantComponentStates(this, false, rowState, false);
+                _descendantStateUnchanged = false;
             }
         }
     }
 
+    /**
+     * Restore the initial state of the child components, or only reset their client ids if they were left
+     * unchanged on the previous row.
+     */
+    private void restoreInitialDescendantComponentStates()
+    {
+        if (_descendantStateUnchanged)
+        {
+            restoreDescendantComponentWithoutRestoreState(this, false, false);
+        }
+        else
+        {
+            restoreDescendantComponentStates(this, false, _initialDescendantComponentState, false);
+            _descendantStateUnchanged = true;
+        }
+    }
+
     private void setRowIndexPreserveComponentState(int rowIndex)
     {
         if (rowIndex < -1)
@@ -893,6 +942,100 @@ private void restoreDescendantComponentWithoutRestoreState(UIComponent parent, b
         }
     }
 
+    /**
+     * Check if the child components of this component still hold the given state, saved by method
+     * saveDescendantComponentStates. Nothing is saved, so rows which were only visited do not allocate anything.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isDescendantComponentStateUnchanged(UIComponent parent, boolean iterateFacets, Object state,
+                                                        boolean checkChildFacets)
+    {
+        List<? extends Object[]> stateCollection = (List<? extends Object[]>) state;
+        int descendantStateIndex = 0;
+
+        if (iterateFacets && parent.getFacetCount() > 0)
+        {
+            for (UIComponent component : parent.getFacets().values())
+            {
+                if (!component.isTransient())
+                {
+                    Object[] object = descendantStateIndex < stateCollection.size()
+                            ? stateCollection.get(descendantStateIndex) : LEAF_NO_STATE;
+                    if (!isComponentStateUnchanged(component, object, checkChildFacets))
+                    {
+                        return false;
+                    }
+                    descendantStateIndex++;
+                }
+            }
+        }
+
+        if (parent.getChildCount() > 0)
+        {
+            for (int i = 0; i < parent.getChildCount(); i++)
+            {
+                UIComponent component = parent.getChildren().get(i);
+                if (!component.isTransient())
+                {
+                    Object[] object = descendantStateIndex < stateCollection.size()
+                            ? stateCollection.get(descendantStateIndex) : LEAF_NO_STATE;
+                    if (!isComponentStateUnchanged(component, object, checkChildFacets))
+                    {
+                        return false;
+                    }
+                    descendantStateIndex++;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isComponentStateUnchanged(UIComponent component, Object[] object, boolean checkChildFacets)
+    {
+        if (component instanceof EditableValueHolder)
+        {
+            if (object[0] == null
+                    || !((EditableValueHolderState) object[0]).isUnchanged((EditableValueHolder) component))
+            {
+                return false;
+            }
+        }
+        if (object[1] != null)
+        {
+            return isDescendantComponentStateUnchanged(component, checkChildFacets, object[1], true);
+        }
+        // no state saved for the descendants, unless an EditableValueHolder was added since
+        return !hasEditableValueHolderDescendant(component, checkChildFacets);
+    }
+
+    private boolean hasEditableValueHolderDescendant(UIComponent parent, boolean iterateFacets)
+    {
+        if (iterateFacets && parent.getFacetCount() > 0)
+        {
+            for (UIComponent component : parent.getFacets().values())
+            {
+                if (!component.isTransient() && (component instanceof EditableValueHolder
+                        || hasEditableValueHolderDescendant(component, true)))
+                {
+                    return true;
+                }
+            }
+        }
+        if (parent.getChildCount() > 0)
+        {
+            for (int i = 0; i < parent.getChildCount(); i++)
+            {
+                UIComponent component = parent.getChildren().get(i);
+                if (!component.isTransient() && (component instanceof EditableValueHolder
+                        || hasEditableValueHolderDescendant(component, true)))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Walk the tree of child components of this UIData, saving the parts of their state that can vary between rows.
      * <p>
@@ -38,6 +38,7 @@
 
 import jakarta.el.MethodExpression;
 import jakarta.el.ValueExpression;
+import jakarta.faces.FacesException;
 import jakarta.faces.FactoryFinder;
 import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.StateManager;
@@ -95,6 +96,15 @@ public class UIViewRoot extends UIComponentBase implements UniqueIdVendor
     public static final String VIEWROOT_PHASE_LISTENER_QUEUES_EXCEPTIONS_PARAM_NAME
             = "jakarta.faces.VIEWROOT_PHASE_LISTENER_QUEUES_EXCEPTIONS";
 
+    /**
+     * Keep an index of the components of the view by client id, so invokeOnComponent on the view root goes
+     * straight to the target instead of walking the tree, and a partial visitTree, like the partial execute and
+     * render of an ajax request, skips the subtrees without any of the ids to visit. Useful for big views with many
+     * ajax requests.
+     */
+    @JSFWebConfigParam(defaultValue="false", expectedValues="true, false", since="4.0", tags="performance")
+    private static final String CLIENT_ID_INDEX_PARAM_NAME = "org.apache.myfaces.CLIENT_ID_INDEX";
+
     private transient Logger logger = null;
 
     private static final PhaseProcessor APPLY_REQUEST_VALUES_PROCESSOR = new ApplyRequestValuesPhaseProcessor();
@@ -170,6 +180,7 @@ public class UIViewRoot extends UIComponentBase implements UniqueIdVendor
     private transient int _resetSaveStateMode = 0;
     private transient boolean _resourceDependencyUniqueId;
     private transient Map<String,Object> _attributesMap;
+    private transient _ClientIdIndex _clientIdIndex;
     
     /**
      * Construct an instance of the UIViewRoot.
@@ -903,6 +914,48 @@ public Map<String, Object> getViewMap(boolean create)
         return _viewScope;
     }
     
+    @Override
+    public boolean invokeOnComponent(FacesContext context, String clientId, ContextCallback callback)
+            throws FacesException
+    {
+        if (context == null || clientId == null || callback == null)
+        {
+            throw new NullPointerException();
+        }
+
+        if (_isClientIdIndexEnabled(context))
+        {
+            UIComponent target = _getValidClientIdIndex(context).find(context, clientId);
+            if (target != null && target != this && _invokeOnIndexedComponent(context, target, clientId, callback))
+            {
+                return true;
+            }
+        }
+
+        return super.invokeOnComponent(context, clientId, callback);
+    }
+
+    @Override
+    public boolean visitTree(VisitContext context, VisitCallback callback)
+    {
+        FacesContext facesContext = context.getFacesContext();
+        if (_isClientIdIndexEnabled(facesContext))
+        {
+            Collection<String> idsToVisit = context.getIdsToVisit();
+            if (idsToVisit != VisitContext.ALL_IDS && !idsToVisit.isEmpty())
+            {
+                Map<UIComponent, Boolean> paths = _getValidClientIdIndex(facesContext).findPaths(facesContext,
+                        idsToVisit);
+                if (paths != null)
+                {
+                    return super.visitTree(new _PrunedVisitContext(context, paths), callback);
+                }
+            }
+        }
+
+        return super.visitTree(context, callback);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1790,6 +1843,64 @@ else if (event.getPhaseId().equals(phaseId))
         return new Events(anyPhase, onPhase);
     }
     
+    /**
+     * Push the ancestors of the target into the EL like walking the tree would, then let the target handle it.
+     */
+    private boolean _invokeOnIndexedComponent(FacesContext context, UIComponent target, String clientId,
+            ContextCallback callback)
+    {
+        List<UIComponent> ancestors = new ArrayList<>();
+        for (UIComponent parent = target.getParent(); parent != null; parent = parent.getParent())
+        {
+            ancestors.add(parent);
+        }
+
+        int pushed = 0;
+        try
+        {
+            for (int i = ancestors.size() - 1; i >= 0; i--)
+            {
+                UIComponent ancestor = ancestors.get(i);
+                ancestor.pushComponentToEL(context, ancestor);
+                pushed++;
+            }
+            return target.invokeOnComponent(context, clientId, callback);
+        }
+        finally
+        {
+            for (int i = ancestors.size() - pushed; i < ancestors.size(); i++)
+            {
+                ancestors.get(i).popComponentFromEL(context);
+            }
+        }
+    }
+
+    private boolean _isClientIdIndexEnabled(FacesContext context)
+    {
+        ExternalContext ec = context.getExternalContext();
+        Boolean enabled = (Boolean) ec.getApplicationMap().get(CLIENT_ID_INDEX_PARAM_NAME);
+        if (enabled == null)
+        {
+            enabled = "true".equalsIgnoreCase(ec.getInitParameter(CLIENT_ID_INDEX_PARAM_NAME));
+            ec.getApplicationMap().put(CLIENT_ID_INDEX_PARAM_NAME, enabled);
+        }
+        return enabled;
+    }
+
+    _ClientIdIndex _getClientIdIndex()
+    {
+        return _clientIdIndex;
+    }
+
+    private _ClientIdIndex _getValidClientIdIndex(FacesContext context)
+    {
+        if (_clientIdIndex == null || !_clientIdIndex.isValid())
+        {
+            _clientIdIndex = new _ClientIdIndex(context, this);
+        }
+        return _clientIdIndex;
+    }
+
     private Logger _getLogger()
     {
         if (logger == null)
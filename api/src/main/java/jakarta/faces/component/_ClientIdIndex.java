@@ -0,0 +1,272 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package jakarta.faces.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.faces.component.visit.VisitCallback;
+import jakarta.faces.component.visit.VisitContext;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Index of the components of a view by client id, used by UIViewRoot.invokeOnComponent to go straight to the target
+ * instead of walking the tree, and by UIViewRoot.visitTree to skip the subtrees without any of the ids to visit.
+ * 
+ * <p>The descendants of a component which overrides invokeOnComponent, like UIData, are not indexed, because their
+ * client ids depend on the row; a lookup for them starts from that component. Components added to the view are
+ * indexed on the next lookup. Every hit is checked, the component must still be in the view and have the same
+ * client id, otherwise the caller walks the tree as usual.</p>
+ */
+class _ClientIdIndex
+{
+    private static final int MAX_ADDED = 1000;
+
+    /**
+     * If the invokeOnComponent of a class only walks the facets and children, so its descendants can be indexed.
+     */
+    private static final ClassValue<Boolean> WALKS_DESCENDANTS = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                Class<?> declaringClass = type.getMethod("invokeOnComponent",
+                        FacesContext.class, String.class, ContextCallback.class).getDeclaringClass();
+                return declaringClass == UIComponent.class || declaringClass == UIComponentBase.class
+                        || declaringClass == UIForm.class || declaringClass == UIViewRoot.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
+
+    /**
+     * If the visitTree of a class only visits the facets and children, so a partial visit can skip its subtrees.
+     */
+    private static final ClassValue<Boolean> VISITS_DESCENDANTS = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                Class<?> declaringClass = type.getMethod("visitTree",
+                        VisitContext.class, VisitCallback.class).getDeclaringClass();
+                return declaringClass == UIComponent.class || declaringClass == UIComponentBase.class
+                        || declaringClass == UIForm.class || declaringClass == UINamingContainer.class
+                        || declaringClass == UIViewRoot.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
+
+    private final UIViewRoot _viewRoot;
+    private final Map<String, UIComponent> _components = new HashMap<>();
+    private List<UIComponent> _added;
+    private boolean _valid = true;
+
+    _ClientIdIndex(FacesContext context, UIViewRoot viewRoot)
+    {
+        _viewRoot = viewRoot;
+        index(context, viewRoot);
+    }
+
+    /**
+     * Called when a component is added to the view of the current FacesContext.
+     */
+    static void componentAdded(FacesContext context, UIComponent component)
+    {
+        UIViewRoot viewRoot = context.getViewRoot();
+        if (viewRoot != null)
+        {
+            _ClientIdIndex index = viewRoot._getClientIdIndex();
+            if (index != null)
+            {
+                index.added(component);
+            }
+        }
+    }
+
+    private void added(UIComponent component)
+    {
+        if (_added == null)
+        {
+            _added = new ArrayList<>();
+        }
+        else if (_added.size() >= MAX_ADDED)
+        {
+            // the view is rebuilt, not worth tracking
+            _valid = false;
+            _added = null;
+            return;
+        }
+        _added.add(component);
+    }
+
+    /**
+     * @return false if the index must be built again
+     */
+    boolean isValid()
+    {
+        return _valid;
+    }
+
+    /**
+     * @return the component with the given client id, the closest ancestor of it which does not let its descendants
+     *     be indexed, or null if it has to be searched in the tree
+     */
+    UIComponent find(FacesContext context, String clientId)
+    {
+        if (_added != null)
+        {
+            List<UIComponent> added = _added;
+            _added = null;
+            for (int i = 0; i < added.size(); i++)
+            {
+                UIComponent component = added.get(i);
+                if (isIndexable(component))
+                {
+                    index(context, component);
+                }
+            }
+        }
+
+        UIComponent component = get(context, clientId);
+        if (component != null)
+        {
+            return component;
+        }
+
+        char separatorChar = UINamingContainer.getSeparatorChar(context);
+        for (int i = clientId.lastIndexOf(separatorChar); i > 0; i = clientId.lastIndexOf(separatorChar, i - 1))
+        {
+            component = get(context, clientId.substring(0, i));
+            if (component != null)
+            {
+                return WALKS_DESCENDANTS.get(component.getClass()) ? null : component;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the components from the view root down to the components with the given client ids, mapped to true for
+     *     the ones whose whole subtree must be visited, or null if a client id has to be searched in the tree
+     */
+    Map<UIComponent, Boolean> findPaths(FacesContext context, Collection<String> clientIds)
+    {
+        Map<UIComponent, Boolean> paths = new IdentityHashMap<>();
+        for (String clientId : clientIds)
+        {
+            UIComponent component = find(context, clientId);
+            if (component == null)
+            {
+                return null;
+            }
+
+            // below a component which visits its descendants its own way, or iterates them, visit everything
+            UIComponent subtree = WALKS_DESCENDANTS.get(component.getClass()) ? null : component;
+            for (UIComponent parent = component.getParent(); parent != null; parent = parent.getParent())
+            {
+                if (!VISITS_DESCENDANTS.get(parent.getClass()))
+                {
+                    subtree = parent;
+                }
+            }
+
+            UIComponent path = subtree == null ? component : subtree;
+            paths.merge(path, subtree != null, Boolean::logicalOr);
+            for (path = path.getParent(); path != null; path = path.getParent())
+            {
+                paths.putIfAbsent(path, Boolean.FALSE);
+            }
+        }
+        return paths;
+    }
+
+    private UIComponent get(FacesContext context, String clientId)
+    {
+        UIComponent component = _components.get(clientId);
+        if (component != null && !(isIndexable(component) && clientId.equals(component.getClientId(context))))
+        {
+            _components.remove(clientId);
+            return null;
+        }
+        return component;
+    }
+
+    /**
+     * @return true if the component is in the view and all its ancestors let their descendants be indexed
+     */
+    private boolean isIndexable(UIComponent component)
+    {
+        UIComponent parent = component.getParent();
+        while (parent != null)
+        {
+            if (parent == _viewRoot)
+            {
+                return true;
+            }
+            if (!WALKS_DESCENDANTS.get(parent.getClass()))
+            {
+                return false;
+            }
+            parent = parent.getParent();
+        }
+        return component == _viewRoot;
+    }
+
+    private void index(FacesContext context, UIComponent component)
+    {
+        if (!WALKS_DESCENDANTS.get(component.getClass()))
+        {
+            // its own invokeOnComponent could not ask for the client id, do not create an id here
+            if (component.getId() != null)
+            {
+                _components.putIfAbsent(component.getClientId(context), component);
+            }
+            return;
+        }
+
+        // the first one wins, like when walking the tree
+        _components.putIfAbsent(component.getClientId(context), component);
+        if (component.getFacetCount() > 0)
+        {
+            for (UIComponent facet : component.getFacets().values())
+            {
+                index(context, facet);
+            }
+        }
+        for (int i = 0, childCount = component.getChildCount(); i < childCount; i++)
+        {
+            index(context, component.getChildren().get(i));
+        }
+    }
+}
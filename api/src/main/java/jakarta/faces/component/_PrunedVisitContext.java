@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package jakarta.faces.component;
+
+import java.util.Map;
+
+import jakarta.faces.component.visit.VisitCallback;
+import jakarta.faces.component.visit.VisitContext;
+import jakarta.faces.component.visit.VisitContextWrapper;
+import jakarta.faces.component.visit.VisitResult;
+
+/**
+ * Partial visit which rejects the components outside the paths to the ids to visit, found with the client id index.
+ * Everything else, including the order of the visit and the hints, is left to the wrapped context.
+ */
+class _PrunedVisitContext extends VisitContextWrapper
+{
+    private final Map<UIComponent, Boolean> _paths;
+    private final int _idsToVisitCount;
+
+    _PrunedVisitContext(VisitContext delegate, Map<UIComponent, Boolean> paths)
+    {
+        super(delegate);
+        _paths = paths;
+        _idsToVisitCount = delegate.getIdsToVisit().size();
+    }
+
+    @Override
+    public VisitResult invokeVisitCallback(UIComponent component, VisitCallback callback)
+    {
+        if (isOutsidePaths(component))
+        {
+            return VisitResult.REJECT;
+        }
+        return getWrapped().invokeVisitCallback(component, callback);
+    }
+
+    private boolean isOutsidePaths(UIComponent component)
+    {
+        if (getWrapped().getIdsToVisit().size() != _idsToVisitCount)
+        {
+            // a callback added ids, the paths do not cover them
+            return false;
+        }
+
+        for (UIComponent parent = component; parent != null; parent = parent.getParent())
+        {
+            Boolean subtree = _paths.get(parent);
+            if (subtree != null)
+            {
+                return parent != component && !subtree;
+            }
+        }
+        return false;
+    }
+}
@@ -31,6 +31,7 @@
 import java.time.format.FormatStyle;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQuery;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -42,6 +43,7 @@
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFConverter;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFJspProperty;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFProperty;
+import org.apache.myfaces.core.api.shared.FormatterCache;
 import org.apache.myfaces.core.api.shared.MessageUtils;
 
 /**
@@ -118,7 +120,7 @@ public Object getAsObject(FacesContext facesContext, UIComponent uiComponent, St
             {
                 if (isJava8DateTimeFormatter())
                 {
-                    DateTimeFormatter format = getDateTimeFormatter();
+                    DateTimeFormatter format = getDateTimeFormatter(facesContext);
                     try
                     {
                         TemporalQuery tq = getTemporalQuery();
@@ -173,7 +175,7 @@ else if (type.equals(TYPE_LOCAL_DATE_TIME) || type.equals(TYPE_OFFSET_DATE_TIME)
                 }
                 else
                 {
-                    DateFormat format = getDateFormat();
+                    DateFormat format = getDateFormat(facesContext);
                     TimeZone tz = getTimeZone();
                     if( tz != null )
                     {
@@ -236,7 +238,7 @@ public String getAsString(FacesContext facesContext, UIComponent uiComponent, Ob
 
         if (isJava8DateTimeFormatter())
         {
-            DateTimeFormatter format = getDateTimeFormatter();
+            DateTimeFormatter format = getDateTimeFormatter(facesContext);
             
             if (value instanceof TemporalAccessor)
             {
@@ -254,7 +256,7 @@ public String getAsString(FacesContext facesContext, UIComponent uiComponent, Ob
         }
         else
         {        
-            DateFormat format = getDateFormat();
+            DateFormat format = getDateFormat(facesContext);
             TimeZone tz = getTimeZone(); 
             if (tz != null)
             {
@@ -272,15 +274,27 @@ public String getAsString(FacesContext facesContext, UIComponent uiComponent, Ob
         }
     }
 
-    private DateFormat getDateFormat()
+    private DateFormat getDateFormat(FacesContext facesContext)
     {
         String type = getType();
+        String pattern = _pattern;
+        String dateStyle = getDateStyle();
+        String timeStyle = getTimeStyle();
+        Locale locale = getLocale();
+        return FormatterCache.getFormat(facesContext,
+                Arrays.asList(DateFormat.class, type, pattern, dateStyle, timeStyle, locale),
+                () -> createDateFormat(type, pattern, dateStyle, timeStyle, locale));
+    }
+
+    private DateFormat createDateFormat(String type, String pattern, String dateStyle, String timeStyle,
+            Locale locale)
+    {
         DateFormat format;
-        if (_pattern != null)
+        if (pattern != null)
         {
             try 
             {
-                format = new SimpleDateFormat(_pattern, getLocale());
+                format = new SimpleDateFormat(pattern, locale);
             } 
                 catch (IllegalArgumentException iae)
             {
@@ -289,17 +303,17 @@ private DateFormat getDateFormat()
         }
         else if (type.equals(TYPE_DATE))
         {
-            format = DateFormat.getDateInstance(calcStyle(getDateStyle()), getLocale());
+            format = DateFormat.getDateInstance(calcStyle(dateStyle), locale);
         }
         else if (type.equals(TYPE_TIME))
         {
-            format = DateFormat.getTimeInstance(calcStyle(getTimeStyle()), getLocale());
+            format = DateFormat.getTimeInstance(calcStyle(timeStyle), locale);
         }
         else if (type.equals(TYPE_BOTH))
         {
-            format = DateFormat.getDateTimeInstance(calcStyle(getDateStyle()),
-                                                    calcStyle(getTimeStyle()),
-                                                    getLocale());
+            format = DateFormat.getDateTimeInstance(calcStyle(dateStyle),
+                                                    calcStyle(timeStyle),
+                                                    locale);
         }
         else
         {
@@ -311,14 +325,24 @@ else if (type.equals(TYPE_BOTH))
         return format;
     }
     
-    private DateTimeFormatter getDateTimeFormatter()
+    private DateTimeFormatter getDateTimeFormatter(FacesContext facesContext)
     {
-        DateTimeFormatter formatter = null;
         String type = getType();
         String pattern = getPattern();
+        String dateStyle = getDateStyle();
+        String timeStyle = getTimeStyle();
+        Locale locale = getLocale();
+        return FormatterCache.getDateTimeFormatter(facesContext,
+                Arrays.asList(DateTimeFormatter.class, type, pattern, dateStyle, timeStyle, locale),
+                () -> createDateTimeFormatter(type, pattern, dateStyle, timeStyle, locale));
+    }
+
+    private DateTimeFormatter createDateTimeFormatter(String type, String pattern, String dateStyle,
+            String timeStyle, Locale locale)
+    {
+        DateTimeFormatter formatter = null;
         if (pattern != null && pattern.length() > 0)
         {
-            Locale locale = getLocale();
             if (locale == null)
             {
                 formatter = DateTimeFormatter.ofPattern(pattern);
@@ -332,25 +356,24 @@ private DateTimeFormatter getDateTimeFormatter()
         {
             if (TYPE_LOCAL_DATE.equals(type))
             {
-                formatter = DateTimeFormatter.ofLocalizedDate(calcFormatStyle(getDateStyle()));
+                formatter = DateTimeFormatter.ofLocalizedDate(calcFormatStyle(dateStyle));
             }
             else if (TYPE_LOCAL_DATE_TIME.equals(type) )
             {
-                String timeStyle = getTimeStyle();
                 if (timeStyle != null && timeStyle.length() > 0)
                 {
                     formatter = DateTimeFormatter.ofLocalizedDateTime(
-                            calcFormatStyle(getDateStyle()), calcFormatStyle(timeStyle));
+                            calcFormatStyle(dateStyle), calcFormatStyle(timeStyle));
                 }
                 else
                 {
                     formatter = DateTimeFormatter.ofLocalizedDateTime(
-                            calcFormatStyle(getDateStyle()));
+                            calcFormatStyle(dateStyle));
                 }
             }
             else if (TYPE_LOCAL_TIME.equals(type) )
             {
-                formatter = DateTimeFormatter.ofLocalizedTime(calcFormatStyle(getTimeStyle()));
+                formatter = DateTimeFormatter.ofLocalizedTime(calcFormatStyle(timeStyle));
             }
             else if (TYPE_OFFSET_TIME.equals(type))
             {
@@ -365,7 +388,6 @@ else if (TYPE_ZONED_DATE_TIME.equals(type))
                 formatter = DateTimeFormatter.ISO_ZONED_DATE_TIME;
             }
             
-            Locale locale = getLocale();
             if (locale != null)
             {
                 formatter = formatter.withLocale(locale);
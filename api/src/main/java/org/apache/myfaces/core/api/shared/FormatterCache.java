@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.api.shared;
+
+import java.text.Format;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Application wide cache of the formatters created by the standard converters.
+ * 
+ * <p>DateTimeFormatter instances are immutable and shared. java.text formats are not thread safe, so the cache keeps
+ * a prototype and every caller gets its own clone, which is still much cheaper than parsing the pattern and loading
+ * the locale data again.</p>
+ */
+public final class FormatterCache
+{
+    private static final String CACHE_KEY = FormatterCache.class.getName() + ".CACHE";
+
+    private static final int MAX_SIZE = 1000;
+
+    private FormatterCache()
+    {
+    }
+
+    /**
+     * @param key all the settings used by the factory
+     * @param factory creates the formatter on a miss, what it throws is not cached
+     */
+    public static DateTimeFormatter getDateTimeFormatter(FacesContext facesContext, List<Object> key,
+            Supplier<DateTimeFormatter> factory)
+    {
+        return (DateTimeFormatter) get(facesContext, key, factory);
+    }
+
+    /**
+     * @param key all the settings used by the factory
+     * @param factory creates the prototype on a miss, what it throws is not cached
+     * @return a clone of the prototype, which the caller can modify
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Format> T getFormat(FacesContext facesContext, List<Object> key, Supplier<T> factory)
+    {
+        Format prototype = (Format) get(facesContext, key, factory);
+        return prototype == null ? null : (T) prototype.clone();
+    }
+
+    private static Object get(FacesContext facesContext, List<Object> key, Supplier<?> factory)
+    {
+        Map<List<Object>, Object> cache = getCache(facesContext.getExternalContext());
+
+        Object formatter = cache.get(key);
+        if (formatter == null)
+        {
+            formatter = factory.get();
+            if (formatter != null)
+            {
+                if (cache.size() >= MAX_SIZE)
+                {
+                    // patterns or locales computed per request, not worth an eviction policy
+                    cache.clear();
+                }
+                Object existing = cache.putIfAbsent(key, formatter);
+                if (existing != null)
+                {
+                    formatter = existing;
+                }
+            }
+        }
+        return formatter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<List<Object>, Object> getCache(ExternalContext ec)
+    {
+        Map<String, Object> applicationMap = ec.getApplicationMap();
+        Map<List<Object>, Object> cache = (Map<List<Object>, Object>) applicationMap.get(CACHE_KEY);
+        if (cache == null)
+        {
+            cache = new ConcurrentHashMap<>();
+            // requests racing on the first lookup all use the same cache
+            Map<List<Object>, Object> existing = (Map<List<Object>, Object>) applicationMap.putIfAbsent(CACHE_KEY,
+                    cache);
+            if (existing != null)
+            {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+}
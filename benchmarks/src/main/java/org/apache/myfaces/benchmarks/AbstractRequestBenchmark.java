@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import jakarta.el.ExpressionFactory;
+
+import org.apache.myfaces.test.core.AbstractMyFacesRequestTestCase;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class of the benchmarks that run requests. It starts MyFaces in the mock container of
+ * {@link AbstractMyFacesRequestTestCase} once per trial, with the pages of
+ * org/apache/myfaces/benchmarks/webapp, the Tomcat EL implementation and the Production project stage.
+ *
+ * <p>Every thread gets its own container, so the benchmarks measure a request and not the contention between
+ * requests.</p>
+ */
+@State(Scope.Thread)
+public abstract class AbstractRequestBenchmark extends AbstractMyFacesRequestTestCase
+{
+    private static final String WEBAPP = "org/apache/myfaces/benchmarks/webapp/";
+
+    /**
+     * The webapp extracted from benchmarks.jar, shared by the threads of the fork.
+     */
+    private static File extractedWebapp;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception
+    {
+        setUp();
+        servletContext.setAttribute("benchmarkBean", new BenchmarkBean());
+        setUpBenchmark();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws Exception
+    {
+        tearDown();
+    }
+
+    /**
+     * Called once MyFaces is started, before the first invocation.
+     */
+    protected void setUpBenchmark() throws Exception
+    {
+    }
+
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter("jakarta.faces.PROJECT_STAGE", "Production");
+    }
+
+    @Override
+    protected String getWebappResourcePath()
+    {
+        return WEBAPP;
+    }
+
+    @Override
+    protected URI getWebappContextURI()
+    {
+        URL url = AbstractRequestBenchmark.class.getClassLoader().getResource(WEBAPP);
+        if (url == null || !"jar".equals(url.getProtocol()))
+        {
+            return super.getWebappContextURI();
+        }
+        // the document root of the mock servlet context must be a directory
+        return extractWebapp(url).toURI();
+    }
+
+    private static synchronized File extractWebapp(URL url)
+    {
+        if (extractedWebapp != null)
+        {
+            return extractedWebapp;
+        }
+
+        try
+        {
+            Path root = Files.createTempDirectory("myfaces-benchmarks");
+            JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements())
+            {
+                JarEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().startsWith(WEBAPP))
+                {
+                    continue;
+                }
+
+                Path file = root.resolve(entry.getName().substring(WEBAPP.length()));
+                Files.createDirectories(file.getParent());
+                try (InputStream in = jar.getInputStream(entry))
+                {
+                    Files.copy(in, file);
+                }
+            }
+
+            // deleteOnExit deletes in reverse order, so the directories are registered before their content
+            try (Stream<Path> files = Files.walk(root))
+            {
+                files.forEach(path -> path.toFile().deleteOnExit());
+            }
+
+            extractedWebapp = root.toFile();
+            return extractedWebapp;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Cannot extract " + WEBAPP + " from " + url, e);
+        }
+    }
+
+    @Override
+    protected ExpressionFactory createExpressionFactory()
+    {
+        return new org.apache.el.ExpressionFactoryImpl();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The bean of the benchmark pages, put in the application map as "benchmarkBean".
+ */
+public class BenchmarkBean implements Serializable
+{
+    public static final int ROWS = 50;
+
+    private String name = "MyFaces";
+    private int count;
+    private final List<Row> rows = new ArrayList<>(ROWS);
+
+    public BenchmarkBean()
+    {
+        for (int i = 0; i < ROWS; i++)
+        {
+            rows.add(new Row(i, "Row <" + i + "> & \"value\""));
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    public void setCount(int count)
+    {
+        this.count = count;
+    }
+
+    public List<Row> getRows()
+    {
+        return rows;
+    }
+
+    public String submit()
+    {
+        return null;
+    }
+
+    public static class Row implements Serializable
+    {
+        private final int id;
+        private String value;
+
+        public Row(int id, String value)
+        {
+            this.id = id;
+            this.value = value;
+        }
+
+        public int getId()
+        {
+            return id;
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public void setValue(String value)
+        {
+            this.value = value;
+        }
+    }
+}
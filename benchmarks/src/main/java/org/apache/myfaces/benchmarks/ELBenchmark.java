@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.el.ELContext;
+import jakarta.el.ValueExpression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * EL evaluation through the resolver chain of MyFaces: a bean of the application map, an implicit object, and
+ * Application.evaluateExpressionGet, which also parses the expression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ELBenchmark extends AbstractRequestBenchmark
+{
+    private ValueExpression beanProperty;
+    private ValueExpression implicitObject;
+    private ELContext elContext;
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        // the request stays open, the expressions are evaluated in its context
+        startViewRequest("/page.xhtml");
+        processLifecycleExecuteAndRender();
+
+        elContext = facesContext.getELContext();
+        beanProperty = application.getExpressionFactory()
+                .createValueExpression(elContext, "#{benchmarkBean.name}", String.class);
+        implicitObject = application.getExpressionFactory()
+                .createValueExpression(elContext, "#{facesContext.viewRoot.viewId}", String.class);
+    }
+
+    @Benchmark
+    public Object beanProperty()
+    {
+        return beanProperty.getValue(elContext);
+    }
+
+    @Benchmark
+    public Object implicitObject()
+    {
+        return implicitObject.getValue(elContext);
+    }
+
+    @Benchmark
+    public Object evaluateExpressionGet()
+    {
+        return application.evaluateExpressionGet(facesContext, "#{benchmarkBean.rows[1].value}", String.class);
+    }
+}
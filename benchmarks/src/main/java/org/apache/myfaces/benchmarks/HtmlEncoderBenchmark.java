@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.renderkit.html.util.HTMLEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HTMLEncoder on text without anything to escape, which is the common case, and on text full of markup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlEncoderBenchmark
+{
+    @Param({"plain", "markup", "nonLatin"})
+    public String text;
+
+    private String value;
+    private final StringWriter writer = new StringWriter(1024);
+
+    @Setup
+    public void setUp()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10; i++)
+        {
+            if ("plain".equals(text))
+            {
+                sb.append("The quick brown fox jumps over the lazy dog. ");
+            }
+            else if ("markup".equals(text))
+            {
+                sb.append("<b>\"Fox\" & 'dog'</b>  over\nthe <i>lazy</i> one. ");
+            }
+            else
+            {
+                sb.append("Der schnelle braune Fuchs springt \u00fcber den faulen Hund \u20ac. ");
+            }
+        }
+        value = sb.toString();
+    }
+
+    @Benchmark
+    public int encodeToWriter() throws IOException
+    {
+        writer.getBuffer().setLength(0);
+        HTMLEncoder.encode(writer, value, true, true, true);
+        return writer.getBuffer().length();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Postback round trip with partial state saving: each invocation renders the view restored by the previous
+ * postback, submits its form and runs the execute phases of the new postback. With dataTable.xhtml and
+ * repeat.xhtml the decode, validation and update phases iterate over the rows of h:dataTable and ui:repeat.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostbackBenchmark extends AbstractRequestBenchmark
+{
+    @Param({"/page.xhtml", "/dataTable.xhtml", "/repeat.xhtml"})
+    public String viewId;
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        startViewRequest(viewId);
+        processLifecycleExecuteAndRender();
+    }
+
+    @Benchmark
+    public Object postback() throws Exception
+    {
+        // renders the current request, then starts the postback
+        client.submit("mainForm:submit");
+        processLifecycleExecute();
+        return facesContext.getViewRoot();
+    }
+}
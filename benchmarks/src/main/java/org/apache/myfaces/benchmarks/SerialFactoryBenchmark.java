@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.view.StateManagementStrategy;
+
+import org.apache.myfaces.application.viewstate.StateUtils;
+import org.apache.myfaces.spi.impl.CompactSerialFactory;
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of the state of dataTable.xhtml by the SerialFactory, without compression and encryption:
+ * the java serialization of DefaultSerialFactory against the compact encoding of CompactSerialFactory.
+ *
+ * <p>Besides the time and the allocation, serialize reports the size of the serialized state in the
+ * "bytes" counter.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerialFactoryBenchmark extends AbstractRequestBenchmark
+{
+    @Param({"default", "compact"})
+    public String serialFactory;
+
+    private Object state;
+    private byte[] serialized;
+
+    /**
+     * Set, not added, on every invocation, so the reported value is the size of one serialized state.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size
+    {
+        public long bytes;
+    }
+
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(StateUtils.SERIAL_FACTORY, "compact".equals(serialFactory)
+                ? CompactSerialFactory.class.getName() : DefaultSerialFactory.class.getName());
+    }
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        String viewId = "/dataTable.xhtml";
+        startViewRequest(viewId);
+        processLifecycleExecuteAndRender();
+
+        StateManagementStrategy strategy = application.getViewHandler()
+                .getViewDeclarationLanguage(facesContext, viewId)
+                .getStateManagementStrategy(facesContext, viewId);
+        state = strategy.saveView(facesContext);
+        serialized = StateUtils.getAsByteArray(state, externalContext);
+    }
+
+    @Benchmark
+    public byte[] serialize(Size size)
+    {
+        byte[] bytes = StateUtils.getAsByteArray(state, externalContext);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserialize()
+    {
+        return StateUtils.getAsObject(serialized, externalContext);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.faces.application.StateManager;
+import jakarta.faces.view.StateManagementStrategy;
+
+import org.apache.myfaces.application.viewstate.StateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Client side state: serialization, compression and encryption of the state of dataTable.xhtml into the
+ * jakarta.faces.ViewState token and back, with and without partial state saving.
+ *
+ * <p>The "array" codec is the byte[] pipeline StateUtils used before the streaming codec: serialize into an
+ * array, compress, encrypt and base64 encode it, each step into a new array. Compare the gc.alloc.rate.norm of
+ * both codecs.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateUtilsBenchmark extends AbstractRequestBenchmark
+{
+    @Param({"true", "false"})
+    public boolean partialStateSaving;
+
+    @Param({"streaming", "array"})
+    public String codec;
+
+    private Object state;
+    private String token;
+
+    @Override
+    protected void setUpWebConfigParams() throws Exception
+    {
+        super.setUpWebConfigParams();
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME,
+                StateManager.STATE_SAVING_METHOD_CLIENT);
+        servletContext.addInitParameter(StateManager.PARTIAL_STATE_SAVING_PARAM_NAME,
+                String.valueOf(partialStateSaving));
+    }
+
+    @Override
+    protected void setUpBenchmark() throws Exception
+    {
+        String viewId = "/dataTable.xhtml";
+        startViewRequest(viewId);
+        processLifecycleExecuteAndRender();
+
+        // the request stays open, the encoding needs the external context
+        StateManagementStrategy strategy = application.getViewHandler()
+                .getViewDeclarationLanguage(facesContext, viewId)
+                .getStateManagementStrategy(facesContext, viewId);
+        state = strategy.saveView(facesContext);
+        token = StateUtils.construct(state, externalContext);
+    }
+
+    @Benchmark
+    public String construct()
+    {
+        if ("array".equals(codec))
+        {
+            return arrayConstruct(state);
+        }
+        return StateUtils.construct(state, externalContext);
+    }
+
+    @Benchmark
+    public Object reconstruct()
+    {
+        if ("array".equals(codec))
+        {
+            return arrayReconstruct(token);
+        }
+        return StateUtils.reconstruct(token, externalContext);
+    }
+
+    private String arrayConstruct(Object object)
+    {
+        byte[] bytes = StateUtils.getAsByteArray(object, externalContext);
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.compress(bytes);
+        }
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.encrypt(bytes, externalContext);
+        }
+        return new String(StateUtils.encode(bytes), StandardCharsets.ISO_8859_1);
+    }
+
+    private Object arrayReconstruct(String string)
+    {
+        byte[] bytes = StateUtils.decode(string.getBytes(StandardCharsets.ISO_8859_1));
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.decrypt(bytes, externalContext);
+        }
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.decompress(bytes);
+        }
+        return StateUtils.getAsObject(bytes, externalContext);
+    }
+}
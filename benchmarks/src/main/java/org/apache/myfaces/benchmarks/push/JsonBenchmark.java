@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.benchmarks.push;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myfaces.push.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The JSON encoding of a push message, with the current encoder and with {@link LegacyJson}, the encoder before
+ * it cached the bean accessors and pooled its buffers. Compare time and gc.alloc.rate.norm of the two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark
+{
+    private Object message;
+
+    @Setup
+    public void setUp()
+    {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            items.add(new Item(i, "Item \"" + i + "\"\n</script>", i % 2 == 0, new Date(1600000000000L + i)));
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", "update");
+        map.put("count", items.size());
+        map.put("items", items);
+        map.put("tags", new String[] { "a", "b", "c" });
+        message = map;
+    }
+
+    @Benchmark
+    public String encode()
+    {
+        return Json.encode(message);
+    }
+
+    @Benchmark
+    public String legacyEncode()
+    {
+        return LegacyJson.encode(message);
+    }
+
+    public static class Item
+    {
+        private final int id;
+        private final String name;
+        private final boolean active;
+        private final Date modified;
+
+        public Item(int id, String name, boolean active, Date modified)
+        {
+            this.id = id;
+            this.name = name;
+            this.active = active;
+            this.modified = modified;
+        }
+
+        public int getId()
+        {
+            return id;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public boolean isActive()
+        {
+            return active;
+        }
+
+        public Date getModified()
+        {
+            return modified;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.extensions.quarkus.deployment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.myfaces.config.DefaultFacesConfigResourceProvider;
+import org.apache.myfaces.config.element.FacesConfig;
+import org.apache.myfaces.config.element.facelets.FaceletTagLibrary;
+import org.apache.myfaces.config.impl.FacesConfigUnmarshallerImpl;
+import org.apache.myfaces.config.impl.element.FacesConfigImpl;
+import org.apache.myfaces.spi.FaceletConfigResourceProvider;
+import org.apache.myfaces.spi.FaceletConfigResourceProviderFactory;
+import org.apache.myfaces.spi.FacesConfigResourceProvider;
+import org.apache.myfaces.spi.FacesConfigResourceProviderFactory;
+import org.apache.myfaces.util.lang.ClassUtils;
+import org.apache.myfaces.view.facelets.compiler.DefaultFaceletConfigResourceProvider;
+import org.apache.myfaces.view.facelets.compiler.TagLibraryConfigUnmarshallerImpl;
+import org.xml.sax.SAXException;
+
+import io.quarkus.deployment.annotations.BuildProducer;
+import io.quarkus.deployment.builditem.GeneratedResourceBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBuildItem;
+import org.apache.myfaces.core.extensions.quarkus.runtime.MyFacesRecorder;
+import org.apache.myfaces.core.extensions.quarkus.runtime.spi.PrecompiledFacesConfig;
+
+/**
+ * Parses the faces configuration files at build time, so the application does not parse them at startup.
+ *
+ * <p>Only the files which do not depend on init parameters are parsed here, like the DefaultFacesConfigurationProvider
+ * would do: the standard faces-config, the META-INF ones, the /WEB-INF/faces-config.xml and the META-INF facelet
+ * tag libraries. The configuration is serialized into a generated resource, which the recorder reads back.</p>
+ *
+ * <p>There is no ExternalContext at build time to ask the FacesConfigResourceProviderFactory or the
+ * FaceletConfigResourceProviderFactory, so if the application registers its own provider or factory as a service,
+ * the META-INF files are left to be located and parsed at runtime.</p>
+ */
+public class FacesConfigBuildStep
+{
+    public static final String PRECOMPILED_FACES_CONFIG_RESOURCE = "META-INF/myfaces-precompiled-faces-config.ser";
+
+    private static final String STANDARD_FACES_CONFIG_RESOURCE = "META-INF/standard-faces-config.xml";
+
+    private static final String DEFAULT_FACES_CONFIG = "/WEB-INF/faces-config.xml";
+
+    private static final String WEB_APP_FACES_CONFIG_RESOURCE = "META-INF/resources/WEB-INF/faces-config.xml";
+
+    private static final String SERVICES = "META-INF/services/";
+
+    public static void build(MyFacesRecorder recorder,
+            BuildProducer<GeneratedResourceBuildItem> generatedResource,
+            BuildProducer<NativeImageResourceBuildItem> nativeImageResource) throws IOException
+    {
+        PrecompiledFacesConfig precompiled = new PrecompiledFacesConfig();
+        try
+        {
+            FacesConfigUnmarshallerImpl unmarshaller = new FacesConfigUnmarshallerImpl(null);
+
+            URL standard = ClassUtils.getResource(STANDARD_FACES_CONFIG_RESOURCE);
+            if (standard == null)
+            {
+                throw new IOException("Standard faces config " + STANDARD_FACES_CONFIG_RESOURCE + " not found");
+            }
+            precompiled.setStandardFacesConfig(parse(unmarshaller, standard, STANDARD_FACES_CONFIG_RESOURCE));
+
+            if (!isServiceRegistered(FacesConfigResourceProviderFactory.class, FacesConfigResourceProvider.class))
+            {
+                List<FacesConfig> classloaderFacesConfig = new ArrayList<>();
+                for (URL url : new DefaultFacesConfigResourceProvider().getMetaInfConfigurationResources(null))
+                {
+                    classloaderFacesConfig.add(parse(unmarshaller, url, url.toExternalForm()));
+                }
+                precompiled.setClassloaderFacesConfig(classloaderFacesConfig);
+            }
+
+            URL webApp = ClassUtils.getResource(WEB_APP_FACES_CONFIG_RESOURCE);
+            if (webApp != null)
+            {
+                // like at runtime, an empty faces-config.xml is not parsed
+                if (read(webApp).trim().isEmpty())
+                {
+                    precompiled.setWebAppFacesConfig(new FacesConfigImpl());
+                }
+                else
+                {
+                    precompiled.setWebAppFacesConfig(parse(unmarshaller, webApp, DEFAULT_FACES_CONFIG));
+                }
+            }
+        }
+        catch (SAXException e)
+        {
+            throw new IOException(e);
+        }
+
+        if (!isServiceRegistered(FaceletConfigResourceProviderFactory.class, FaceletConfigResourceProvider.class))
+        {
+            List<FacesConfig> faceletTaglibFacesConfig = new ArrayList<>();
+            for (URL url : new DefaultFaceletConfigResourceProvider().getFaceletTagLibConfigurationResources(null))
+            {
+                FaceletTagLibrary tl = TagLibraryConfigUnmarshallerImpl.create(url);
+                if (tl != null)
+                {
+                    FacesConfigImpl config = new FacesConfigImpl();
+                    config.addFaceletTagLibrary(tl);
+                    faceletTaglibFacesConfig.add(config);
+                }
+            }
+            precompiled.setClassloaderFaceletTaglibFacesConfig(faceletTaglibFacesConfig);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+        {
+            out.writeObject(precompiled);
+        }
+
+        generatedResource.produce(new GeneratedResourceBuildItem(PRECOMPILED_FACES_CONFIG_RESOURCE,
+                bytes.toByteArray()));
+        nativeImageResource.produce(new NativeImageResourceBuildItem(PRECOMPILED_FACES_CONFIG_RESOURCE));
+
+        recorder.registerPrecompiledFacesConfig(PRECOMPILED_FACES_CONFIG_RESOURCE);
+    }
+
+    /**
+     * Like the default ServiceProviderFinder, looks for the META-INF/services files of the given SPIs.
+     */
+    static boolean isServiceRegistered(Class<?>... spis)
+    {
+        for (Class<?> spi : spis)
+        {
+            if (!ClassUtils.getResources(SERVICES + spi.getName(), FacesConfigBuildStep.class).isEmpty())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FacesConfig parse(FacesConfigUnmarshallerImpl unmarshaller, URL url, String systemId)
+            throws IOException, SAXException
+    {
+        try (InputStream stream = openStreamWithoutCache(url))
+        {
+            return unmarshaller.getFacesConfig(stream, systemId);
+        }
+    }
+
+    private static String read(URL url) throws IOException
+    {
+        try (InputStream stream = openStreamWithoutCache(url))
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = stream.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static InputStream openStreamWithoutCache(URL url) throws IOException
+    {
+        URLConnection connection = url.openConnection();
+        connection.setUseCaches(false);
+        return connection.getInputStream();
+    }
+}
@@ -74,9 +74,12 @@
 import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.annotations.ExecutionTime;
 import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.ApplicationArchive;
 import io.quarkus.deployment.builditem.AdditionalApplicationArchiveMarkerBuildItem;
+import io.quarkus.deployment.builditem.ApplicationArchivesBuildItem;
 import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.GeneratedResourceBuildItem;
 import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBuildItem;
 import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBundleBuildItem;
 import io.quarkus.deployment.builditem.nativeimage.ReflectiveClassBuildItem;
@@ -95,10 +98,15 @@
 import io.quarkus.undertow.deployment.WebMetadataBuildItem;
 
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.el.ELResolver;
 import javax.enterprise.inject.Produces;
 import jakarta.faces.FactoryFinder;
@@ -203,6 +211,12 @@
         QuarkusExceptionHandlerFactory.class.getName()
     };
 
+    /**
+     * The namespaces of the composite tags, the quotes keep the composite libraries of a view from matching.
+     */
+    private static final Pattern COMPOSITE_NAMESPACE = Pattern.compile("[\"'](jakarta\\.faces\\.composite"
+            + "|http://xmlns\\.jcp\\.org/jsf/composite|http://java\\.sun\\.com/jsf/composite)[\"']");
+
     @BuildStep
     void buildFeature(BuildProducer<FeatureBuildItem> feature) throws IOException
     {
@@ -313,6 +327,8 @@ void buildRecommendedInitParams(BuildProducer<ServletInitParamBuildItem> initPar
                 MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "15"));
         initParam.produce(new ServletInitParamBuildItem(
                 MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "3"));
+        initParam.produce(new ServletInitParamBuildItem(
+                MyfacesConfig.FACELETS_PRECOMPILE, "true"));
 
         // MyFaces uses default 0, which means always recompile
         if (ProjectStage.valueOf(projectStage.get()) == ProjectStage.Development)
@@ -370,6 +386,55 @@ void buildMangedPropertyProducers(BeanRegistrationPhaseBuildItem beanRegistratio
         ManagedPropertyBuildStep.build(beanRegistrationPhase, beanConfigurators);
     }
 
+    @BuildStep
+    @Record(ExecutionTime.STATIC_INIT)
+    void buildPrecompiledFacesConfig(MyFacesRecorder recorder,
+            BuildProducer<GeneratedResourceBuildItem> generatedResource,
+            BuildProducer<NativeImageResourceBuildItem> nativeImageResource) throws IOException
+    {
+        FacesConfigBuildStep.build(recorder, generatedResource, nativeImageResource);
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.STATIC_INIT)
+    void buildFaceletsPrecompile(MyFacesRecorder recorder, ApplicationArchivesBuildItem applicationArchives)
+            throws IOException
+    {
+        // the facelets can only be compiled with a running application, so only collect them here
+        for (ApplicationArchive archive : applicationArchives.getAllApplicationArchives())
+        {
+            Path resources = archive.getArchiveRoot().resolve("META-INF/resources");
+            if (!Files.isDirectory(resources))
+            {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(resources))
+            {
+                List<String> facelets = files
+                        .filter(file -> file.toString().endsWith(ViewHandler.DEFAULT_FACELETS_SUFFIX))
+                        .map(file -> '/' + resources.relativize(file).toString().replace('\\', '/'))
+                        .sorted()
+                        .collect(Collectors.toList());
+                for (String facelet : facelets)
+                {
+                    // The composite components of a jar are classpath resources under META-INF/resources/<library>
+                    // and not under /resources, they would be compiled as views
+                    if (facelet.startsWith("/resources/")
+                            || !isCompositeComponent(resources.resolve(facelet.substring(1))))
+                    {
+                        recorder.registerFacelet(facelet);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isCompositeComponent(Path facelet) throws IOException
+    {
+        String content = new String(Files.readAllBytes(facelet), StandardCharsets.UTF_8);
+        return COMPOSITE_NAMESPACE.matcher(content).find();
+    }
+
     @BuildStep
     @Record(ExecutionTime.STATIC_INIT)
     void buildFacesDataModels(MyFacesRecorder recorder,
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.extensions.quarkus.deployment;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.myfaces.core.extensions.quarkus.runtime.MyFacesRecorder;
+import org.apache.myfaces.core.extensions.quarkus.runtime.spi.PrecompiledFacesConfig;
+import org.apache.myfaces.spi.FacesConfigResourceProvider;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.quarkus.deployment.builditem.GeneratedResourceBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.NativeImageResourceBuildItem;
+
+public class FacesConfigBuildStepTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<GeneratedResourceBuildItem> generatedResources = new ArrayList<>();
+    private final List<NativeImageResourceBuildItem> nativeImageResources = new ArrayList<>();
+    private final List<String> registered = new ArrayList<>();
+
+    private final MyFacesRecorder recorder = new MyFacesRecorder()
+    {
+        @Override
+        public void registerPrecompiledFacesConfig(String resource)
+        {
+            registered.add(resource);
+        }
+    };
+
+    @Test
+    public void testBuild() throws Exception
+    {
+        FacesConfigBuildStep.build(recorder, generatedResources::add, nativeImageResources::add);
+
+        Assert.assertEquals(1, generatedResources.size());
+        Assert.assertEquals(FacesConfigBuildStep.PRECOMPILED_FACES_CONFIG_RESOURCE,
+                generatedResources.get(0).getName());
+        Assert.assertEquals(1, nativeImageResources.size());
+        Assert.assertEquals(1, registered.size());
+        Assert.assertEquals(FacesConfigBuildStep.PRECOMPILED_FACES_CONFIG_RESOURCE, registered.get(0));
+
+        PrecompiledFacesConfig precompiled = read(generatedResources.get(0));
+        Assert.assertNotNull(precompiled.getStandardFacesConfig());
+        Assert.assertFalse(precompiled.getStandardFacesConfig().getFactories().isEmpty());
+        Assert.assertNotNull(precompiled.getClassloaderFacesConfig());
+        Assert.assertNotNull(precompiled.getClassloaderFaceletTaglibFacesConfig());
+    }
+
+    @Test
+    public void testCustomFacesConfigResourceProvider() throws Exception
+    {
+        File service = new File(folder.getRoot(), "META-INF/services/" + FacesConfigResourceProvider.class.getName());
+        service.getParentFile().mkdirs();
+        Files.write(service.toPath(), "org.example.CustomProvider".getBytes(StandardCharsets.UTF_8));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, original))
+        {
+            thread.setContextClassLoader(loader);
+            FacesConfigBuildStep.build(recorder, generatedResources::add, nativeImageResources::add);
+        }
+        finally
+        {
+            thread.setContextClassLoader(original);
+        }
+
+        PrecompiledFacesConfig precompiled = read(generatedResources.get(0));
+        Assert.assertNotNull(precompiled.getStandardFacesConfig());
+        // left to the custom provider at runtime
+        Assert.assertNull(precompiled.getClassloaderFacesConfig());
+        Assert.assertNotNull(precompiled.getClassloaderFaceletTaglibFacesConfig());
+    }
+
+    private static PrecompiledFacesConfig read(GeneratedResourceBuildItem item)
+            throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(item.getClassData())))
+        {
+            return (PrecompiledFacesConfig) in.readObject();
+        }
+    }
+}
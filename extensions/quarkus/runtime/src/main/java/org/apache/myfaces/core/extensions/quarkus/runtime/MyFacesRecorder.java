@@ -18,16 +18,22 @@
  */
 package org.apache.myfaces.core.extensions.quarkus.runtime;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.lang.annotation.Annotation;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.faces.model.DataModel;
 
+import org.apache.myfaces.core.extensions.quarkus.runtime.spi.PrecompiledFacesConfig;
 import org.apache.myfaces.flow.FlowReference;
+import org.apache.myfaces.util.MyFacesObjectInputStream;
 import org.apache.myfaces.util.lang.ClassUtils;
 
 import io.quarkus.runtime.annotations.Recorder;
@@ -38,6 +44,14 @@
     public static final Map<Class<? extends Annotation>, Set<Class<?>>> ANNOTATED_CLASSES = new LinkedHashMap<>();
     public static final Map<Class<? extends DataModel>, Class<?>> FACES_DATA_MODELS = new LinkedHashMap<>();
     public static final Map<Class, FlowReference> FLOW_REFERENCES = new ConcurrentHashMap<Class, FlowReference>();
+    public static final Set<String> FACELETS = new LinkedHashSet<>();
+
+    private static volatile PrecompiledFacesConfig precompiledFacesConfig;
+
+    public static PrecompiledFacesConfig getPrecompiledFacesConfig()
+    {
+        return precompiledFacesConfig;
+    }
 
     @SuppressWarnings("unchecked") //cast to (Class<? extends Annotation>)
     public void registerAnnotatedClass(String annotationName, String clazzName)
@@ -65,4 +79,32 @@ public void registerFlowReference(String clazzName, String definingDocumentId, S
 
         FLOW_REFERENCES.put(clazz, new FlowReference(definingDocumentId, flowId));
     }
+
+    public void registerFacelet(String path)
+    {
+        FACELETS.add(path);
+    }
+
+    /**
+     * Reads the faces configuration serialized at build time. In a native image this runs while the image is
+     * built, so the parsed configuration is part of the image heap.
+     */
+    public void registerPrecompiledFacesConfig(String resource)
+    {
+        try (InputStream stream = ClassUtils.getResourceAsStream(resource))
+        {
+            if (stream == null)
+            {
+                throw new IllegalStateException("Precompiled faces config " + resource + " not found");
+            }
+            try (ObjectInputStream in = new MyFacesObjectInputStream(stream))
+            {
+                precompiledFacesConfig = (PrecompiledFacesConfig) in.readObject();
+            }
+        }
+        catch (IOException | ClassNotFoundException e)
+        {
+            throw new IllegalStateException("Cannot read the precompiled faces config " + resource, e);
+        }
+    }
 }
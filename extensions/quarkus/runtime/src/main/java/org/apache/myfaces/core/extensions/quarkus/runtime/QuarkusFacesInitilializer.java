@@ -28,6 +28,7 @@
 import org.apache.myfaces.cdi.config.FacesConfigBeanHolder;
 import org.apache.myfaces.cdi.model.FacesDataModelManager;
 import org.apache.myfaces.spi.FactoryFinderProviderFactory;
+import org.apache.myfaces.view.facelets.FaceletsPrecompiler;
 import org.apache.myfaces.webapp.DefaultFacesInitilializer;
 
 import org.apache.myfaces.core.extensions.quarkus.runtime.spi.QuarkusFactoryFinderProviderFactory;
@@ -55,6 +56,12 @@ public void initFaces(ServletContext servletContext)
         }
         facesDataModelManager.init();
 
+        // the facelets found at build time, so the precompilation does not look them up again
+        if (!MyFacesRecorder.FACELETS.isEmpty())
+        {
+            servletContext.setAttribute(FaceletsPrecompiler.FACELETS, MyFacesRecorder.FACELETS);
+        }
+
         super.initFaces(servletContext);
     }
 }
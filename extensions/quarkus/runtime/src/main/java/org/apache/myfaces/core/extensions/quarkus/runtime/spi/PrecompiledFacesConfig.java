@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.extensions.quarkus.runtime.spi;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.apache.myfaces.config.element.FacesConfig;
+
+/**
+ * The faces configuration files parsed at build time, the ones which do not depend on the init parameters.
+ */
+public class PrecompiledFacesConfig implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private FacesConfig standardFacesConfig;
+    private List<FacesConfig> classloaderFacesConfig;
+    private FacesConfig webAppFacesConfig;
+    private List<FacesConfig> classloaderFaceletTaglibFacesConfig;
+
+    public FacesConfig getStandardFacesConfig()
+    {
+        return standardFacesConfig;
+    }
+
+    public void setStandardFacesConfig(FacesConfig standardFacesConfig)
+    {
+        this.standardFacesConfig = standardFacesConfig;
+    }
+
+    /**
+     * @return the META-INF faces-config files, null if the application registers its own
+     * FacesConfigResourceProvider, so they are located at runtime.
+     */
+    public List<FacesConfig> getClassloaderFacesConfig()
+    {
+        return classloaderFacesConfig;
+    }
+
+    public void setClassloaderFacesConfig(List<FacesConfig> classloaderFacesConfig)
+    {
+        this.classloaderFacesConfig = classloaderFacesConfig;
+    }
+
+    /**
+     * @return the /WEB-INF/faces-config.xml, null if the application has none.
+     */
+    public FacesConfig getWebAppFacesConfig()
+    {
+        return webAppFacesConfig;
+    }
+
+    public void setWebAppFacesConfig(FacesConfig webAppFacesConfig)
+    {
+        this.webAppFacesConfig = webAppFacesConfig;
+    }
+
+    /**
+     * @return the META-INF facelet tag libraries, null if the application registers its own
+     * FaceletConfigResourceProvider, so they are located at runtime.
+     */
+    public List<FacesConfig> getClassloaderFaceletTaglibFacesConfig()
+    {
+        return classloaderFaceletTaglibFacesConfig;
+    }
+
+    public void setClassloaderFaceletTaglibFacesConfig(List<FacesConfig> classloaderFaceletTaglibFacesConfig)
+    {
+        this.classloaderFaceletTaglibFacesConfig = classloaderFaceletTaglibFacesConfig;
+    }
+}
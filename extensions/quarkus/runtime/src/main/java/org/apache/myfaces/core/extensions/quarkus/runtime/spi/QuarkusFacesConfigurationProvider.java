@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.extensions.quarkus.runtime.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.config.DefaultFacesConfigurationProvider;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.config.element.FacesConfig;
+
+import org.apache.myfaces.core.extensions.quarkus.runtime.MyFacesRecorder;
+
+/**
+ * FacesConfigurationProvider which uses the faces configuration files parsed at Quarkus Deployment-time.
+ * The files which depend on init parameters or are contributed at runtime are still parsed here.
+ */
+public class QuarkusFacesConfigurationProvider extends DefaultFacesConfigurationProvider
+{
+
+    @Override
+    public FacesConfig getStandardFacesConfig(ExternalContext ectx)
+    {
+        PrecompiledFacesConfig precompiled = getPrecompiledFacesConfig(ectx);
+        if (precompiled == null)
+        {
+            return super.getStandardFacesConfig(ectx);
+        }
+        return precompiled.getStandardFacesConfig();
+    }
+
+    @Override
+    public List<FacesConfig> getClassloaderFacesConfig(ExternalContext ectx)
+    {
+        PrecompiledFacesConfig precompiled = getPrecompiledFacesConfig(ectx);
+        if (precompiled == null || precompiled.getClassloaderFacesConfig() == null)
+        {
+            return super.getClassloaderFacesConfig(ectx);
+        }
+        return new ArrayList<>(precompiled.getClassloaderFacesConfig());
+    }
+
+    @Override
+    public FacesConfig getWebAppFacesConfig(ExternalContext ectx)
+    {
+        PrecompiledFacesConfig precompiled = getPrecompiledFacesConfig(ectx);
+        if (precompiled == null)
+        {
+            return super.getWebAppFacesConfig(ectx);
+        }
+        return precompiled.getWebAppFacesConfig();
+    }
+
+    @Override
+    protected List<FacesConfig> getClassloaderFaceletTaglibFacesConfig(ExternalContext externalContext)
+    {
+        PrecompiledFacesConfig precompiled = getPrecompiledFacesConfig(externalContext);
+        if (precompiled == null || precompiled.getClassloaderFaceletTaglibFacesConfig() == null)
+        {
+            return super.getClassloaderFaceletTaglibFacesConfig(externalContext);
+        }
+        return new ArrayList<>(precompiled.getClassloaderFaceletTaglibFacesConfig());
+    }
+
+    /**
+     * The files are parsed without validation at build time, so they are parsed again if the validation is enabled.
+     */
+    private PrecompiledFacesConfig getPrecompiledFacesConfig(ExternalContext ectx)
+    {
+        if (MyfacesConfig.getCurrentInstance(ectx).isValidateXML())
+        {
+            return null;
+        }
+        return MyFacesRecorder.getPrecompiledFacesConfig();
+    }
+
+}
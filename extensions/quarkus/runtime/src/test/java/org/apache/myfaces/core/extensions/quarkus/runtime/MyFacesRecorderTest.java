@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.core.extensions.quarkus.runtime;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.apache.myfaces.config.impl.element.FacesConfigImpl;
+import org.apache.myfaces.core.extensions.quarkus.runtime.spi.PrecompiledFacesConfig;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MyFacesRecorderTest
+{
+    private static final String RESOURCE = "META-INF/test-precompiled-faces-config.ser";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRegisterPrecompiledFacesConfig() throws Exception
+    {
+        FacesConfigImpl standard = new FacesConfigImpl();
+        standard.addComponent("test.Component", "test.ComponentClass");
+        FacesConfigImpl metaInf = new FacesConfigImpl();
+        metaInf.setName("metaInf");
+
+        PrecompiledFacesConfig precompiled = new PrecompiledFacesConfig();
+        precompiled.setStandardFacesConfig(standard);
+        precompiled.setClassloaderFacesConfig(Collections.singletonList(metaInf));
+        write(precompiled);
+
+        withResources(() -> new MyFacesRecorder().registerPrecompiledFacesConfig(RESOURCE));
+
+        PrecompiledFacesConfig registered = MyFacesRecorder.getPrecompiledFacesConfig();
+        Assert.assertNotSame(precompiled, registered);
+        Assert.assertEquals("test.ComponentClass",
+                registered.getStandardFacesConfig().getComponents().get("test.Component"));
+        Assert.assertEquals(1, registered.getClassloaderFacesConfig().size());
+        Assert.assertEquals("metaInf", registered.getClassloaderFacesConfig().get(0).getName());
+        // no /WEB-INF/faces-config.xml, taglibs left to the runtime
+        Assert.assertNull(registered.getWebAppFacesConfig());
+        Assert.assertNull(registered.getClassloaderFaceletTaglibFacesConfig());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPrecompiledFacesConfigNotFound() throws Exception
+    {
+        withResources(() -> new MyFacesRecorder().registerPrecompiledFacesConfig(RESOURCE));
+    }
+
+    private void write(PrecompiledFacesConfig precompiled) throws IOException
+    {
+        File file = new File(folder.getRoot(), RESOURCE);
+        file.getParentFile().mkdirs();
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file)))
+        {
+            out.writeObject(precompiled);
+        }
+    }
+
+    private void withResources(Runnable runnable) throws IOException
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, original))
+        {
+            thread.setContextClassLoader(loader);
+            runnable.run();
+        }
+        finally
+        {
+            thread.setContextClassLoader(original);
+        }
+    }
+}
@@ -272,7 +272,9 @@ public ApplicationImpl()
         
         elResolver = new Lazy<>(() ->
         {
-            CompositeELResolver celr = new CompositeELResolver();
+            CompositeELResolver celr = _myfacesConfig.isElResolverCache()
+                    ? new org.apache.myfaces.el.resolver.CompositeELResolver(true)
+                    : new CompositeELResolver();
 
             new DefaultELResolverBuilder(_runtimeConfig, _myfacesConfig)
                     .build(getFacesContext(), celr);
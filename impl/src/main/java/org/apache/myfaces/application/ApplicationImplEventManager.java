@@ -20,7 +20,9 @@
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
@@ -46,6 +48,12 @@
     
     private ConcurrentHashMap<Class<? extends SystemEvent>, List<EventInfo>> globalListeners
             = new ConcurrentHashMap<>();
+    /**
+     * The global listeners of an event class that apply to a source base type, in subscription order.
+     * The entries of an event class are dropped when one of its listeners is added or removed.
+     */
+    private ConcurrentHashMap<Class<? extends SystemEvent>, Map<Class<?>, List<EventInfo>>> dispatchTable
+            = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Class<? extends SystemEvent>, Constructor<? extends SystemEvent>> constructorCache
             = new ConcurrentHashMap<>();
     
@@ -92,7 +100,7 @@ public void publishEvent(FacesContext facesContext, Class<? extends SystemEvent>
 
             
             // global listeners
-            List<EventInfo> eventInfos = globalListeners.get(systemEventClass);
+            List<EventInfo> eventInfos = getGlobalListeners(systemEventClass, sourceBaseType);
             event = processGlobalListeners(facesContext, eventInfos, systemEventClass, source, event, sourceBaseType);
         }
         catch (AbortProcessingException e)
@@ -113,12 +121,8 @@ public void subscribeToEvent(Class<? extends SystemEvent> systemEventClass, Syst
     public void subscribeToEvent(Class<? extends SystemEvent> systemEventClass, Class<?> sourceClass,
                                  SystemEventListener listener)
     {
-        List<EventInfo> eventInfos = globalListeners.get(systemEventClass);
-        if (eventInfos == null)
-        {
-            eventInfos = new CopyOnWriteArrayList<>();
-            globalListeners.put(systemEventClass, eventInfos);
-        }
+        List<EventInfo> eventInfos = globalListeners.computeIfAbsent(systemEventClass,
+                k -> new CopyOnWriteArrayList<>());
 
         EventInfo eventInfo = new EventInfo();
         eventInfo.systemEventClass = systemEventClass;
@@ -126,6 +130,7 @@ public void subscribeToEvent(Class<? extends SystemEvent> systemEventClass, Clas
         eventInfo.listener = listener;
         
         eventInfos.add(eventInfo);
+        dispatchTable.remove(systemEventClass);
     }
     
     public void unsubscribeFromEvent(Class<? extends SystemEvent> systemEventClass, SystemEventListener listener)
@@ -150,11 +155,43 @@ public void unsubscribeFromEvent(Class<? extends SystemEvent> systemEventClass,
         {
             eventInfos.removeIf(e -> e.sourceClass == sourceClass && e.listener.equals(listener));
         }
+        dispatchTable.remove(systemEventClass);
     }
-    
-  
-    
-    
+
+    /**
+     * Returns the global listeners of the event class that apply to the source base type, without checking
+     * the source class of every listener on each event.
+     */
+    protected List<EventInfo> getGlobalListeners(Class<? extends SystemEvent> systemEventClass,
+            Class<?> sourceBaseType)
+    {
+        List<EventInfo> eventInfos = globalListeners.get(systemEventClass);
+        if (eventInfos == null || eventInfos.isEmpty())
+        {
+            return null;
+        }
+
+        // the table must be read before the listeners, so an entry computed from an outdated list is put in
+        // a table already dropped by subscribeToEvent or unsubscribeFromEvent
+        Map<Class<?>, List<EventInfo>> bySourceBaseType = dispatchTable.computeIfAbsent(systemEventClass,
+                k -> new ConcurrentHashMap<>());
+        List<EventInfo> applicable = bySourceBaseType.get(sourceBaseType);
+        if (applicable == null)
+        {
+            applicable = new ArrayList<>(eventInfos.size());
+            for (EventInfo eventInfo : eventInfos)
+            {
+                if (eventInfo.sourceClass == null || eventInfo.sourceClass.isAssignableFrom(sourceBaseType))
+                {
+                    applicable.add(eventInfo);
+                }
+            }
+            applicable = applicable.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(applicable);
+            bySourceBaseType.put(sourceBaseType, applicable);
+        }
+        return applicable;
+    }
+
     protected SystemEvent createEvent(Class<? extends SystemEvent> systemEventClass, FacesContext facesContext,
             Object source)
     {
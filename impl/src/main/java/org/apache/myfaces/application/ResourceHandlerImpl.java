@@ -40,6 +40,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -66,6 +67,8 @@
 import org.apache.myfaces.resource.ContractResource;
 import org.apache.myfaces.resource.ContractResourceLoader;
 import org.apache.myfaces.resource.ResourceCachedInfo;
+import org.apache.myfaces.resource.ResourceContent;
+import org.apache.myfaces.resource.ResourceFingerprints;
 import org.apache.myfaces.util.lang.Assert;
 import org.apache.myfaces.util.lang.SkipMatchIterator;
 
@@ -192,7 +195,8 @@ libraryName, isAllowSlashesLibraryName()))
             resource = new ResourceImpl(resourceValue.getResourceMeta(), resourceValue.getResourceLoader(),
                     getResourceHandlerSupport(), contentType, 
                     resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getURL() : null, 
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null);
+                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null,
+                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getFingerprint() : null);
         }
         else
         {
@@ -212,7 +216,8 @@ libraryName, isAllowSlashesLibraryName()))
                         // cache it
                         getResourceHandlerCache().putResource(resourceName, libraryName, contentType,
                                 localePrefix, contractPreferred, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                    ((ResourceImpl) resource).getFingerprint()));
                         resolved = true;
                         break;
                     }
@@ -237,7 +242,8 @@ libraryName, isAllowSlashesLibraryName()))
                             getResourceHandlerCache().putResource(
                                     resourceName, libraryName, contentType,
                                     localePrefix, contract, resourceMeta, loader,
-                                    new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                    new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                        ((ResourceImpl) resource).getFingerprint()));
                             resolved = true;
                             break;
                         }
@@ -259,7 +265,8 @@ libraryName, isAllowSlashesLibraryName()))
                         // cache it
                         getResourceHandlerCache().putResource(resourceName, libraryName, contentType,
                                 localePrefix, null, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                    ((ResourceImpl) resource).getFingerprint()));
                         break;
                     }
                 }
@@ -561,7 +568,7 @@ libraryName, isAllowSlashesLibraryName()))
 
         if (!resource.userAgentNeedsUpdate(facesContext))
         {
-            httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            sendNotModified(facesContext, httpServletResponse, resource);
             return;
         }
 
@@ -580,6 +587,13 @@ libraryName, isAllowSlashesLibraryName()))
         //serve up the bytes (taken from trinidad ResourceServlet)
         try
         {
+            ResourceContent content = getResourceContent(resource);
+            if (content != null)
+            {
+                sendResourceContent(facesContext, httpServletResponse, headers, content);
+                return;
+            }
+
             InputStream in = resource.getInputStream();
             OutputStream out = httpServletResponse.getOutputStream();
             byte[] buffer = new byte[this.getResourceBufferSize()];
@@ -628,6 +642,251 @@ libraryName, isAllowSlashesLibraryName()))
         }
     }
 
+    private void sendNotModified(FacesContext facesContext, HttpServletResponse httpServletResponse,
+            Resource resource)
+    {
+        // RFC 7232: the ETag and the cache headers must be sent with the 304 response too
+        Map<String, String> headers = resource.getResponseHeaders();
+        for (Map.Entry<String, String> entry : headers.entrySet())
+        {
+            httpServletResponse.setHeader(entry.getKey(), entry.getValue());
+        }
+
+        String etag = headers.get("ETag");
+        if (etag != null)
+        {
+            // the ETag of the representation that would have been sent
+            try
+            {
+                ResourceContent content = getResourceContent(resource);
+                if (content != null && (content.getGzip() != null || content.getBrotli() != null))
+                {
+                    httpServletResponse.addHeader("Vary", "Accept-Encoding");
+                    httpServletResponse.setHeader("ETag", ResourceFingerprints.getEncodedETag(etag,
+                            getContentEncoding(content, facesContext.getExternalContext().getRequestHeaderMap())));
+                }
+            }
+            catch (IOException e)
+            {
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Cannot load the content of resource " + resource.getResourceName(), e);
+                }
+            }
+        }
+        httpServletResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    /**
+     * @return the cached content of the resource, or null if it must be streamed.
+     */
+    private ResourceContent getResourceContent(Resource resource) throws IOException
+    {
+        if (!(resource instanceof ResourceImpl) || !getResourceHandlerCache().isResourceContentCacheEnabled())
+        {
+            return null;
+        }
+        URL url = resource.getURL();
+        if (url == null)
+        {
+            return null;
+        }
+
+        String key = url.toExternalForm();
+        ResourceContent content = getResourceHandlerCache().getResourceContent(key);
+        if (content == null)
+        {
+            content = ResourceContent.load((ResourceImpl) resource, getResourceBufferSize());
+            getResourceHandlerCache().putResourceContent(key, content);
+        }
+        return content == ResourceContent.NOT_CACHEABLE ? null : content;
+    }
+
+    private void sendResourceContent(FacesContext facesContext, HttpServletResponse httpServletResponse,
+            Map<String, String> headers, ResourceContent content) throws IOException
+    {
+        Map<String, String> requestHeaders = facesContext.getExternalContext().getRequestHeaderMap();
+        String range = requestHeaders.get("Range");
+
+        httpServletResponse.setHeader("Accept-Ranges", "bytes");
+        if (content.getGzip() != null || content.getBrotli() != null)
+        {
+            httpServletResponse.addHeader("Vary", "Accept-Encoding");
+
+            String encoding = getContentEncoding(content, requestHeaders);
+            if (encoding != null)
+            {
+                byte[] encoded = encoding.equals("br") ? content.getBrotli() : content.getGzip();
+                String etag = headers.get("ETag");
+                if (etag != null)
+                {
+                    httpServletResponse.setHeader("ETag", ResourceFingerprints.getEncodedETag(etag, encoding));
+                }
+                httpServletResponse.setHeader("Content-Encoding", encoding);
+                httpServletResponse.setContentLength(encoded.length);
+                try (OutputStream out = httpServletResponse.getOutputStream())
+                {
+                    out.write(encoded);
+                }
+                return;
+            }
+        }
+
+        int length = content.getLength();
+        int[] bytes = null;
+        if (range != null)
+        {
+            // RFC 7233: a range with a stale validator is ignored and the whole content is sent. The ranges are
+            // served from the identity content, so the ETags of the compressed representations do not match.
+            String ifRange = requestHeaders.get("If-Range");
+            if (ifRange == null || ifRange.equals(headers.get(ifRange.startsWith("\"") ? "ETag" : "Last-Modified")))
+            {
+                bytes = parseRange(range, length);
+            }
+        }
+
+        if (bytes != null && bytes.length == 0)
+        {
+            httpServletResponse.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            httpServletResponse.setHeader("Content-Range", "bytes */" + length);
+            httpServletResponse.setContentLength(0);
+            return;
+        }
+
+        int offset = 0;
+        if (bytes != null)
+        {
+            offset = bytes[0];
+            httpServletResponse.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            httpServletResponse.setHeader("Content-Range", "bytes " + bytes[0] + '-' + bytes[1] + '/' + length);
+            length = bytes[1] - bytes[0] + 1;
+        }
+
+        httpServletResponse.setContentLength(length);
+        try (OutputStream out = httpServletResponse.getOutputStream())
+        {
+            content.writeTo(out, offset, length, new byte[getResourceBufferSize()]);
+        }
+    }
+
+    /**
+     * @return the Content-Encoding the content is sent with, or null for the identity content.
+     */
+    static String getContentEncoding(ResourceContent content, Map<String, String> requestHeaders)
+    {
+        // ranges are only served from the identity content
+        if (requestHeaders.get("Range") != null)
+        {
+            return null;
+        }
+        String acceptEncoding = requestHeaders.get("Accept-Encoding");
+        if (content.getBrotli() != null && isEncodingAccepted(acceptEncoding, "br"))
+        {
+            return "br";
+        }
+        if (content.getGzip() != null && isEncodingAccepted(acceptEncoding, "gzip"))
+        {
+            return "gzip";
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the Accept-Encoding header lists the encoding, or the wildcard, without q=0.
+     */
+    static boolean isEncodingAccepted(String acceptEncoding, String encoding)
+    {
+        if (acceptEncoding == null)
+        {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String token : acceptEncoding.split(","))
+        {
+            String[] parts = token.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(encoding))
+            {
+                return isQualityAccepted(parts);
+            }
+            if (name.equals("*"))
+            {
+                wildcard = isQualityAccepted(parts);
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isQualityAccepted(String[] parts)
+    {
+        for (int i = 1; i < parts.length; i++)
+        {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q="))
+            {
+                try
+                {
+                    return Double.parseDouble(param.substring(2).trim()) > 0;
+                }
+                catch (NumberFormatException e)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a single byte range, multiple ranges are answered with the whole content.
+     * 
+     * @return the first and the last byte of the range, an empty array if the range cannot be satisfied,
+     *         or null if the whole content must be sent.
+     */
+    static int[] parseRange(String range, int length)
+    {
+        if (!range.startsWith("bytes="))
+        {
+            return null;
+        }
+        String spec = range.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0)
+        {
+            return null;
+        }
+
+        try
+        {
+            if (dash == 0)
+            {
+                long suffix = Long.parseLong(spec.substring(1).trim());
+                if (suffix <= 0 || length == 0)
+                {
+                    return new int[0];
+                }
+                return new int[] { (int) Math.max(0, length - suffix), length - 1 };
+            }
+
+            long first = Long.parseLong(spec.substring(0, dash).trim());
+            String lastSpec = spec.substring(dash + 1).trim();
+            long last = lastSpec.isEmpty() ? Long.MAX_VALUE : Long.parseLong(lastSpec);
+            if (last < first)
+            {
+                return null;
+            }
+            if (first >= length)
+            {
+                return new int[0];
+            }
+            return new int[] { (int) first, (int) Math.min(last, length - 1) };
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
     private static boolean isConnectionAbort(IOException e)
     {
         return e.getClass().getCanonicalName().equals("org.apache.catalina.connector.ClientAbortException")
@@ -1025,7 +1284,8 @@ public Resource createResourceFromId(String resourceId)
             resource = new ResourceImpl(resourceValue.getResourceMeta(), resourceValue.getResourceLoader(),
                     getResourceHandlerSupport(), contentType,
                     resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getURL() : null, 
-                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null);
+                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getRequestPath() : null,
+                    resourceValue.getCachedInfo() != null ? resourceValue.getCachedInfo().getFingerprint() : null);
         }
         else
         {
@@ -1046,7 +1306,8 @@ public Resource createResourceFromId(String resourceId)
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                ((ResourceImpl) resource).getFingerprint()));
                         
                         resolved = true;
                         break;
@@ -1072,7 +1333,8 @@ public Resource createResourceFromId(String resourceId)
 
                             // cache it
                             getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                                new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                    ((ResourceImpl) resource).getFingerprint()));
 
                             resolved = true;
                             break;
@@ -1095,7 +1357,8 @@ public Resource createResourceFromId(String resourceId)
 
                         // cache it
                         getResourceHandlerCache().putResource(resourceId, resourceMeta, loader, 
-                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath()));
+                            new ResourceCachedInfo(resource.getURL(), resource.getRequestPath(),
+                                ((ResourceImpl) resource).getFingerprint()));
                         break;
                     }
                 }
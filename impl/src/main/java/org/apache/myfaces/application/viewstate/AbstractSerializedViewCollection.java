@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.Serializable;
+import jakarta.faces.context.FacesContext;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.spi.ViewScopeProvider;
+import org.apache.myfaces.spi.ViewStateStore;
+
+/**
+ * The views stored in session by {@link StateCacheServerSide}, created by the {@link SessionViewStorageFactory}.
+ * 
+ * <p>Holds no state itself, each implementation serializes only its own structures.</p>
+ */
+abstract class AbstractSerializedViewCollection implements Serializable
+{
+    private static final long serialVersionUID = 3580134519214553614L;
+
+    public void put(FacesContext context, Object state, SerializedViewKey key, SerializedViewKey previousRestoredKey)
+    {
+        put(context, state, key, previousRestoredKey, null, null);
+    }
+
+    public abstract void put(FacesContext context, Object state, 
+        SerializedViewKey key, SerializedViewKey previousRestoredKey,
+        ViewScopeProvider viewScopeProvider, String viewScopeId);
+
+    public abstract void putLastWindowKey(FacesContext context, String id, SerializedViewKey key);
+
+    public abstract SerializedViewKey getLastWindowKey(FacesContext context, String id);
+
+    public abstract Object get(SerializedViewKey key);
+
+    /**
+     * Release the state of a discarded view, when it is not kept inside this collection.
+     */
+    void discardState(FacesContext context, SerializedViewKey key, Object state)
+    {
+        if (state instanceof StateCacheServerSide.SessionAttributeViewState)
+        {
+            context.getExternalContext().getSessionMap().remove(
+                    ((StateCacheServerSide.SessionAttributeViewState) state).getAttributeName());
+        }
+        else if (state instanceof StateCacheServerSide.StoredViewState)
+        {
+            ViewStateStore viewStateStore = (ViewStateStore) context.getExternalContext().getApplicationMap()
+                    .get(MyfacesConfig.VIEW_STATE_STORE);
+            String sessionKey = viewStateStore == null ? null
+                    : ViewStateStore.getSessionKey(context.getExternalContext(), false);
+            if (sessionKey != null)
+            {
+                viewStateStore.remove(context, sessionKey, key);
+            }
+        }
+    }
+
+    protected Integer getNumberOfSequentialViewsInSession(FacesContext context)
+    {
+        return MyfacesConfig.getCurrentInstance(context).getNumberOfSequentialViewsInSession();
+    }
+
+    /**
+     * Reads the amount (default = 20) of views to be stored in session.
+     * @see ServerSideStateCacheImpl#NUMBER_OF_VIEWS_IN_SESSION_PARAM
+     * @param context FacesContext for the current request, we are processing
+     * @return Number vf views stored in the session
+     */
+    protected int getNumberOfViewsInSession(FacesContext context)
+    {
+        return MyfacesConfig.getCurrentInstance(context).getNumberOfViewsInSession();
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.lifecycle.ClientWindow;
+import org.apache.myfaces.spi.ViewScopeProvider;
+
+/**
+ * SerializedViewCollection that does not lock the whole collection on every save.
+ * 
+ * <p>Lookups go to a concurrent map. The LRU order is kept by a linked map per client window,
+ * guarded by its own lock, so parallel requests of different windows do not contend. Moving a
+ * refreshed view to the end or discarding the oldest one is O(1), the global limit of views in session
+ * is applied discarding the view with the oldest stamp between the windows (there are just a few).</p>
+ * 
+ * <p>The precedence used by NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION is stored on each entry, so the
+ * algorithm is the same as in {@link SerializedViewCollection}.</p>
+ */
+class ConcurrentSerializedViewCollection extends AbstractSerializedViewCollection
+{
+    private static final long serialVersionUID = 4190476823170282741L;
+
+    private static final Object[] EMPTY_STATES = new Object[]{null, null};
+
+    private static final String NO_WINDOW = "";
+
+    private final ConcurrentHashMap<SerializedViewKey, ViewEntry> _views = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, WindowViews> _windows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> _viewScopeIdCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger _size = new AtomicInteger();
+    private final AtomicLong _stamp = new AtomicLong();
+
+    @Override
+    public void put(FacesContext context, Object state, 
+        SerializedViewKey key, SerializedViewKey previousRestoredKey,
+        ViewScopeProvider viewScopeProvider, String viewScopeId)
+    {
+        if (state == null)
+        {
+            state = EMPTY_STATES;
+        }
+        else if (state instanceof Object[] &&
+            ((Object[])state).length == 2 &&
+            ((Object[])state)[0] == null &&
+            ((Object[])state)[1] == null)
+        {
+            // The generated state can be considered zero, set it as null
+            // into the map.
+            state = null;
+        }
+
+        ViewEntry entry = _views.get(key);
+        if (entry != null)
+        {
+            // Update the state, the viewScopeId does not change.
+            entry.state = state;
+            // Make sure the view is at the end of the discard queue
+            WindowViews window = entry.window;
+            synchronized (window)
+            {
+                if (window.entries.remove(key, entry))
+                {
+                    entry.stamp = _stamp.incrementAndGet();
+                    window.entries.put(key, entry);
+                    window.updateEldestStamp();
+                    return;
+                }
+            }
+            // discarded in the meantime, add it again
+        }
+
+        Integer maxCount = getNumberOfSequentialViewsInSession(context);
+        if (maxCount == null || _views.isEmpty())
+        {
+            // Note when the session is invalidated, the map is empty, but we could have a not null
+            // previousRestoredKey (the last one before invalidate the session).
+            previousRestoredKey = null;
+        }
+
+        entry = new ViewEntry(state, previousRestoredKey, viewScopeProvider != null ? viewScopeId : null);
+        if (entry.viewScopeId != null)
+        {
+            _viewScopeIdCounts.merge(entry.viewScopeId, 1, Integer::sum);
+        }
+        add(getWindowId(context), key, entry);
+
+        if (previousRestoredKey != null && maxCount > 0)
+        {
+            int count = 0;
+            SerializedViewKey previousKey = key;
+            do
+            {
+                ViewEntry previousEntry = _views.get(previousKey);
+                previousKey = previousEntry == null ? null : previousEntry.previousKey;
+                count++;
+            }
+            while (previousKey != null && count < maxCount);
+
+            // Remove the key and all the views before it in the sequence
+            while (previousKey != null)
+            {
+                ViewEntry removed = remove(context, viewScopeProvider, previousKey);
+                previousKey = removed == null ? null : removed.previousKey;
+            }
+        }
+
+        int views = getNumberOfViewsInSession(context);
+        while (_size.get() > views && removeOldest(context, viewScopeProvider))
+        {
+            // do nothing
+        }
+    }
+
+    @Override
+    public void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
+    {
+        // If the window has no views anymore, there is nothing to chain with.
+        WindowViews window = _windows.get(id);
+        if (window != null)
+        {
+            window.lastKey = key;
+        }
+    }
+
+    @Override
+    public SerializedViewKey getLastWindowKey(FacesContext context, String id)
+    {
+        WindowViews window = _windows.get(id);
+        return window == null ? null : window.lastKey;
+    }
+
+    @Override
+    public Object get(SerializedViewKey key)
+    {
+        ViewEntry entry = _views.get(key);
+        if (entry == null)
+        {
+            return null;
+        }
+        Object value = entry.state;
+        if (value == null)
+        {
+            return EMPTY_STATES;
+        }
+        else if (value instanceof Object[] &&
+            ((Object[])value).length == 2 &&
+            ((Object[])value)[0] == null &&
+            ((Object[])value)[1] == null)
+        {
+            // Remember inside the state map null is stored as an empty array.
+            return null;
+        }
+        return value;
+    }
+
+    protected String getWindowId(FacesContext context)
+    {
+        ClientWindow clientWindow = context.getExternalContext().getClientWindow();
+        return clientWindow == null || clientWindow.getId() == null ? NO_WINDOW : clientWindow.getId();
+    }
+
+    private void add(String windowId, SerializedViewKey key, ViewEntry entry)
+    {
+        while (true)
+        {
+            WindowViews window = _windows.computeIfAbsent(windowId, WindowViews::new);
+            synchronized (window)
+            {
+                // the window could be discarded by other thread after computeIfAbsent
+                if (!window.discarded)
+                {
+                    entry.window = window;
+                    entry.stamp = _stamp.incrementAndGet();
+                    if (window.entries.put(key, entry) == null)
+                    {
+                        _size.incrementAndGet();
+                    }
+                    _views.put(key, entry);
+                    window.updateEldestStamp();
+                    return;
+                }
+            }
+        }
+    }
+
+    private ViewEntry remove(FacesContext context, ViewScopeProvider viewScopeProvider, SerializedViewKey key)
+    {
+        ViewEntry entry = _views.get(key);
+        if (entry == null)
+        {
+            return null;
+        }
+        WindowViews window = entry.window;
+        synchronized (window)
+        {
+            if (!window.entries.remove(key, entry))
+            {
+                return null;
+            }
+            afterRemove(window, key, entry);
+        }
+        releaseViewScope(context, viewScopeProvider, entry);
+        discardState(context, key, entry.state);
+        return entry;
+    }
+
+    private boolean removeOldest(FacesContext context, ViewScopeProvider viewScopeProvider)
+    {
+        WindowViews oldest = null;
+        for (WindowViews window : _windows.values())
+        {
+            if (oldest == null || window.eldestStamp < oldest.eldestStamp)
+            {
+                oldest = window;
+            }
+        }
+        if (oldest == null)
+        {
+            return false;
+        }
+
+        SerializedViewKey key = null;
+        ViewEntry entry = null;
+        synchronized (oldest)
+        {
+            Iterator<Map.Entry<SerializedViewKey, ViewEntry>> it = oldest.entries.entrySet().iterator();
+            if (it.hasNext())
+            {
+                Map.Entry<SerializedViewKey, ViewEntry> eldest = it.next();
+                it.remove();
+                key = eldest.getKey();
+                entry = eldest.getValue();
+                afterRemove(oldest, key, entry);
+            }
+        }
+        if (entry == null)
+        {
+            return false;
+        }
+        releaseViewScope(context, viewScopeProvider, entry);
+        discardState(context, key, entry.state);
+
+        // The discarded view is the oldest one, so the views before it in its sequence are not
+        // stored anymore, but just to be sure clean the precedence of the chain.
+        SerializedViewKey previousKey = entry.previousKey;
+        while (previousKey != null)
+        {
+            ViewEntry previousEntry = _views.get(previousKey);
+            if (previousEntry == null)
+            {
+                break;
+            }
+            previousKey = previousEntry.previousKey;
+            previousEntry.previousKey = null;
+        }
+        return true;
+    }
+
+    /**
+     * Must be called holding the lock of the window.
+     */
+    private void afterRemove(WindowViews window, SerializedViewKey key, ViewEntry entry)
+    {
+        _views.remove(key, entry);
+        _size.decrementAndGet();
+        window.updateEldestStamp();
+        if (window.entries.isEmpty())
+        {
+            window.discarded = true;
+            _windows.remove(window.id, window);
+        }
+    }
+
+    private void releaseViewScope(FacesContext context, ViewScopeProvider viewScopeProvider, ViewEntry entry)
+    {
+        if (viewScopeProvider != null && entry.viewScopeId != null)
+        {
+            Integer count = _viewScopeIdCounts.computeIfPresent(entry.viewScopeId,
+                    (id, vscount) -> vscount > 1 ? vscount - 1 : null);
+            if (count == null)
+            {
+                viewScopeProvider.destroyViewScopeMap(context, entry.viewScopeId);
+            }
+        }
+    }
+
+    private static class ViewEntry implements Serializable
+    {
+        private static final long serialVersionUID = -2613904729520547563L;
+
+        private volatile Object state;
+        private volatile SerializedViewKey previousKey;
+        private final String viewScopeId;
+        private WindowViews window;
+        private long stamp;
+
+        ViewEntry(Object state, SerializedViewKey previousKey, String viewScopeId)
+        {
+            this.state = state;
+            this.previousKey = previousKey;
+            this.viewScopeId = viewScopeId;
+        }
+    }
+
+    private static class WindowViews implements Serializable
+    {
+        private static final long serialVersionUID = 6871924361739425133L;
+
+        private final String id;
+        private final LinkedHashMap<SerializedViewKey, ViewEntry> entries = new LinkedHashMap<>();
+        private volatile long eldestStamp = Long.MAX_VALUE;
+        private volatile SerializedViewKey lastKey;
+        private boolean discarded;
+
+        WindowViews(String id)
+        {
+            this.id = id;
+        }
+
+        void updateEldestStamp()
+        {
+            eldestStamp = entries.isEmpty() ? Long.MAX_VALUE : entries.values().iterator().next().stamp;
+        }
+    }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.myfaces.application.viewstate;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -32,7 +31,7 @@
 /**
  *
  */
-class SerializedViewCollection implements Serializable
+class SerializedViewCollection extends AbstractSerializedViewCollection
 {
     private static final Logger log = Logger.getLogger(SerializedViewCollection.class.getName());
 
@@ -57,11 +56,7 @@ class SerializedViewCollection implements Serializable
     private final Map<SerializedViewKey, SerializedViewKey> _precedence = new HashMap<>();
     private Map<String, SerializedViewKey> _lastWindowKeys = null;
 
-    public void put(FacesContext context, Object state, SerializedViewKey key, SerializedViewKey previousRestoredKey)
-    {
-        put(context, state, key, previousRestoredKey, null, null);
-    }
-    
+    @Override
     public synchronized void put(FacesContext context, Object state, 
         SerializedViewKey key, SerializedViewKey previousRestoredKey,
         ViewScopeProvider viewScopeProvider, String viewScopeId)
@@ -161,7 +156,7 @@ else if (state instanceof Object[] &&
                         // do nothing
                     }
 
-                    _serializedViews.remove(keyToRemove);
+                    discardState(context, keyToRemove, _serializedViews.remove(keyToRemove));
                     
                     if (viewScopeProvider != null && _viewScopeIds != null)
                     {
@@ -204,7 +199,7 @@ else if (state instanceof Object[] &&
                 while (keyToRemove != null);
             }
 
-            _serializedViews.remove(key);
+            discardState(context, key, _serializedViews.remove(key));
             
             if (viewScopeProvider != null && _viewScopeIds != null)
             {
@@ -227,22 +222,7 @@ else if (state instanceof Object[] &&
         }
     }
 
-    protected Integer getNumberOfSequentialViewsInSession(FacesContext context)
-    {
-        return MyfacesConfig.getCurrentInstance(context).getNumberOfSequentialViewsInSession();
-    }
-
-    /**
-     * Reads the amount (default = 20) of views to be stored in session.
-     * @see ServerSideStateCacheImpl#NUMBER_OF_VIEWS_IN_SESSION_PARAM
-     * @param context FacesContext for the current request, we are processing
-     * @return Number vf views stored in the session
-     */
-    protected int getNumberOfViewsInSession(FacesContext context)
-    {
-        return MyfacesConfig.getCurrentInstance(context).getNumberOfViewsInSession();
-    }
-
+    @Override
     public synchronized void putLastWindowKey(FacesContext context, String id, SerializedViewKey key)
     {
         if (_lastWindowKeys == null)
@@ -261,6 +241,7 @@ public synchronized void putLastWindowKey(FacesContext context, String id, Seria
         _lastWindowKeys.put(id, key);
     }
 
+    @Override
     public SerializedViewKey getLastWindowKey(FacesContext context, String id)
     {
         if (_lastWindowKeys != null)
@@ -270,6 +251,7 @@ public SerializedViewKey getLastWindowKey(FacesContext context, String id)
         return null;
     }
 
+    @Override
     public Object get(SerializedViewKey key)
     {
         Object value = _serializedViews.get(key);
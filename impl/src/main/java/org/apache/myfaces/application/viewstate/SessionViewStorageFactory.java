@@ -39,7 +39,7 @@ public KeyFactory<K> getKeyFactory()
         return keyFactory;
     }
 
-    public abstract SerializedViewCollection createSerializedViewCollection(FacesContext context);
+    public abstract AbstractSerializedViewCollection createSerializedViewCollection(FacesContext context);
 
     public abstract SerializedViewKey createSerializedViewKey(
         FacesContext facesContext, String viewId, K key);
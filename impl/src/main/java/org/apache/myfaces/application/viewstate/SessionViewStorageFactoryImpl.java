@@ -32,7 +32,7 @@ public SessionViewStorageFactoryImpl(KeyFactory<byte[]> keyFactory)
     }
 
     @Override
-    public SerializedViewCollection createSerializedViewCollection(FacesContext context)
+    public AbstractSerializedViewCollection createSerializedViewCollection(FacesContext context)
     {
         return new SerializedViewCollection();
     }
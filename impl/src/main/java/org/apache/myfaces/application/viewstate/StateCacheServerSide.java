@@ -28,6 +28,7 @@
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -47,6 +48,7 @@
 import org.apache.myfaces.util.MyFacesObjectInputStream;
 import org.apache.myfaces.spi.ViewScopeProvider;
 import org.apache.myfaces.spi.ViewScopeProviderFactory;
+import org.apache.myfaces.spi.ViewStateStore;
 import org.apache.myfaces.view.ViewScopeProxyMap;
 
 class StateCacheServerSide extends StateCache<Object, Object>
@@ -74,10 +76,12 @@ class StateCacheServerSide extends StateCache<Object, Object>
     private final int numberOfSequentialViewsInSession;
     private final boolean serializeStateInSession;
     private final boolean compressStateInSession;
+    private final boolean viewSessionAttributePerView;
     
     private final SessionViewStorageFactory sessionViewStorageFactory;
     private final CsrfSessionTokenFactory csrfSessionTokenFactory;
     private final StateTokenProcessor stateTokenProcessor;
+    private final ViewStateStore viewStateStore;
     
     public StateCacheServerSide()
     {
@@ -88,15 +92,17 @@ public StateCacheServerSide()
         numberOfSequentialViewsInSession = config.getNumberOfSequentialViewsInSession();
         serializeStateInSession = config.isSerializeStateInSession();
         compressStateInSession = config.isCompressStateInSession();
+        viewSessionAttributePerView = config.isViewSessionAttributePerView();
         
         String randomMode = config.getRandomKeyInViewStateSessionToken();
+        KeyFactory<byte[]> keyFactory;
         if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_SECURE_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            keyFactory = new KeyFactorySecureRandom(facesContext);
         }
         else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(randomMode))
         {
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactoryRandom(facesContext));
+            keyFactory = new KeyFactoryRandom(facesContext);
         }
         else
         {
@@ -106,7 +112,15 @@ else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(rand
                         + randomMode + "\" is not supported (anymore)."
                         + " Fallback to \"secureRandom\"");
             }
-            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(new KeyFactorySecureRandom(facesContext));
+            keyFactory = new KeyFactorySecureRandom(facesContext);
+        }
+        if (config.isConcurrentViewsInSession())
+        {
+            sessionViewStorageFactory = new ConcurrentSessionViewStorageFactoryImpl(keyFactory);
+        }
+        else
+        {
+            sessionViewStorageFactory = new SessionViewStorageFactoryImpl(keyFactory);
         }
         
         String csrfRandomMode = config.getRandomKeyInCsrfSessionToken();
@@ -120,6 +134,9 @@ else if (MyfacesConfig.RANDOM_KEY_IN_VIEW_STATE_SESSION_TOKEN_RANDOM.equals(rand
         }
         
         stateTokenProcessor = new StateTokenProcessorServerSide();
+        
+        viewStateStore = (ViewStateStore) facesContext.getExternalContext().getApplicationMap().get(
+                MyfacesConfig.VIEW_STATE_STORE);
     }
     
     //------------------------------------- METHODS COPIED FROM JspStateManagerImpl--------------------------------
@@ -136,7 +153,7 @@ protected Object getServerStateId(FacesContext facesContext, Object state)
     protected void saveSerializedViewInSession(FacesContext context, Object serializedView)
     {
         Map<String, Object> sessionMap = context.getExternalContext().getSessionMap();
-        SerializedViewCollection viewCollection = (SerializedViewCollection)
+        AbstractSerializedViewCollection viewCollection = (AbstractSerializedViewCollection)
                 sessionMap.get(SERIALIZED_VIEW_SESSION_ATTR);
         if (viewCollection == null)
         {
@@ -191,17 +208,33 @@ else if (viewMap instanceof FacesWrapper)
             }
 
         }
+        Object state = serializeView(context, serializedView);
+        if (viewStateStore != null && state instanceof byte[])
+        {
+            viewStateStore.put(context, ViewStateStore.getSessionKey(context.getExternalContext(), true), nextKey,
+                    (byte[]) state);
+            state = StoredViewState.INSTANCE;
+        }
+        else if (viewSessionAttributePerView && state != null)
+        {
+            // Keep the collection small, so only the new view is replicated along with it
+            String viewId = context.getViewRoot().getViewId();
+            String attributeName = SERIALIZED_VIEW_SESSION_ATTR + '.' + (viewId == null ? 0 : viewId.hashCode())
+                    + '.' + sessionViewStorageFactory.getKeyFactory().encode(getNextViewSequence(context));
+            sessionMap.put(attributeName, state);
+            state = new SessionAttributeViewState(attributeName);
+        }
         if (viewScopeProxyMap != null)
         {
             ViewScopeProviderFactory factory = ViewScopeProviderFactory.getViewScopeHandlerFactory(
                 context.getExternalContext());
             ViewScopeProvider handler = factory.getViewScopeHandler(context.getExternalContext());
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key,
+            viewCollection.put(context, state, nextKey, key,
                     handler, viewScopeProxyMap.getViewScopeId());
         }
         else
         {
-            viewCollection.put(context, serializeView(context, serializedView), nextKey, key);
+            viewCollection.put(context, state, nextKey, key);
         }
 
         ClientWindow clientWindow = context.getExternalContext().getClientWindow();
@@ -226,14 +259,27 @@ protected Object getSerializedViewFromSession(FacesContext context, String viewI
         }
         else
         {
-            SerializedViewCollection viewCollection = (SerializedViewCollection) externalContext
+            AbstractSerializedViewCollection viewCollection = (AbstractSerializedViewCollection) externalContext
                     .getSessionMap().get(SERIALIZED_VIEW_SESSION_ATTR);
             if (viewCollection != null)
             {
                 if (sequence != null)
                 {
-                    Object state = viewCollection.get(
-                            sessionViewStorageFactory.createSerializedViewKey(context, viewId, sequence));
+                    SerializedViewKey key = sessionViewStorageFactory.createSerializedViewKey(
+                            context, viewId, sequence);
+                    Object state = viewCollection.get(key);
+                    if (state instanceof StoredViewState)
+                    {
+                        // The session only holds the key, the state is in the ViewStateStore
+                        String sessionKey = viewStateStore == null ? null
+                                : ViewStateStore.getSessionKey(externalContext, false);
+                        state = sessionKey == null ? null : viewStateStore.get(context, sessionKey, key);
+                    }
+                    else if (state instanceof SessionAttributeViewState)
+                    {
+                        state = externalContext.getSessionMap().get(
+                                ((SessionAttributeViewState) state).getAttributeName());
+                    }
                     if (state != null)
                     {
                         serializedView = deserializeView(state);
@@ -316,7 +362,8 @@ protected Object serializeView(FacesContext context, Object serializedView)
             log.finest("Entering serializeView");
         }
 
-        if (serializeStateInSession)
+        // the ViewStateStore only accepts serialized states
+        if (serializeStateInSession || viewStateStore != null)
         {
             if (log.isLoggable(Level.FINEST))
             {
@@ -519,4 +566,39 @@ protected SessionViewStorageFactory getSessionViewStorageFactory()
     {
         return sessionViewStorageFactory;
     }
+
+    /**
+     * Stored in the SerializedViewCollection instead of the state when a ViewStateStore is used.
+     */
+    static final class StoredViewState implements Serializable
+    {
+        private static final long serialVersionUID = -5243101374513658190L;
+
+        static final StoredViewState INSTANCE = new StoredViewState();
+
+        private Object readResolve()
+        {
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * Stored in the SerializedViewCollection instead of the state when every view has its own session attribute.
+     */
+    static final class SessionAttributeViewState implements Serializable
+    {
+        private static final long serialVersionUID = 2876236532950385934L;
+
+        private final String attributeName;
+
+        SessionAttributeViewState(String attributeName)
+        {
+            this.attributeName = attributeName;
+        }
+
+        String getAttributeName()
+        {
+            return attributeName;
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.security.GeneralSecurityException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * Application scoped pool of initialized {@link Cipher} and {@link Mac} instances used by {@link StateUtils}.
+ *
+ * <p>Creating them costs a JCA provider lookup plus a key init on every postback. A Cipher that finished with
+ * doFinal returns to the state of its last init, and a Mac resets itself on doFinal, so both can be handed
+ * to the next request as is. Instances are borrowed exclusively, an instance that failed in the middle of an
+ * operation must not be released, it is simply dropped.</p>
+ *
+ * <p>AEAD ciphers (GCM) need a fresh IV for every encryption, so they are pooled uninitialized and the
+ * caller inits them.</p>
+ */
+final class StateCryptoPool
+{
+    private static final int MAX_IDLE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final SecretKey secretKey;
+    private final SecretKey macSecretKey;
+    private final String transformation;
+    private final String macAlgorithm;
+    private final byte[] iv;
+    private final boolean aead;
+
+    private final Queue<Cipher> encryptCiphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Cipher> decryptCiphers = new ConcurrentLinkedQueue<>();
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleEncryptCiphers = new AtomicInteger();
+    private final AtomicInteger idleDecryptCiphers = new AtomicInteger();
+    private final AtomicInteger idleMacs = new AtomicInteger();
+
+    StateCryptoPool(SecretKey secretKey, SecretKey macSecretKey, String transformation, String macAlgorithm,
+            byte[] iv, boolean aead)
+    {
+        this.secretKey = secretKey;
+        this.macSecretKey = macSecretKey;
+        this.transformation = transformation;
+        this.macAlgorithm = macAlgorithm;
+        this.iv = iv;
+        this.aead = aead;
+    }
+
+    /**
+     * @return true if this pool was created for the given keys and transformation, false if the configuration
+     *         has changed and the pool must be replaced.
+     */
+    boolean isCompatible(SecretKey secretKey, SecretKey macSecretKey, String transformation)
+    {
+        return this.secretKey == secretKey
+                && this.macSecretKey == macSecretKey
+                && this.transformation.equals(transformation);
+    }
+
+    Cipher borrowCipher(int mode) throws GeneralSecurityException
+    {
+        Cipher cipher = poll(mode == Cipher.ENCRYPT_MODE ? encryptCiphers : decryptCiphers,
+                mode == Cipher.ENCRYPT_MODE ? idleEncryptCiphers : idleDecryptCiphers);
+        if (cipher == null)
+        {
+            cipher = Cipher.getInstance(transformation);
+            if (!aead)
+            {
+                if (iv != null)
+                {
+                    cipher.init(mode, secretKey, new IvParameterSpec(iv));
+                }
+                else
+                {
+                    cipher.init(mode, secretKey);
+                }
+            }
+        }
+        return cipher;
+    }
+
+    void releaseCipher(int mode, Cipher cipher)
+    {
+        offer(mode == Cipher.ENCRYPT_MODE ? encryptCiphers : decryptCiphers,
+                mode == Cipher.ENCRYPT_MODE ? idleEncryptCiphers : idleDecryptCiphers, cipher);
+    }
+
+    Mac borrowMac() throws GeneralSecurityException
+    {
+        Mac mac = poll(macs, idleMacs);
+        if (mac == null)
+        {
+            mac = Mac.getInstance(macAlgorithm);
+            mac.init(macSecretKey);
+        }
+        return mac;
+    }
+
+    void releaseMac(Mac mac)
+    {
+        mac.reset();
+        offer(macs, idleMacs, mac);
+    }
+
+    private static <T> T poll(Queue<T> queue, AtomicInteger idle)
+    {
+        T instance = queue.poll();
+        if (instance != null)
+        {
+            idle.decrementAndGet();
+        }
+        return instance;
+    }
+
+    private static <T> void offer(Queue<T> queue, AtomicInteger idle, T instance)
+    {
+        if (idle.incrementAndGet() <= MAX_IDLE)
+        {
+            queue.offer(instance);
+        }
+        else
+        {
+            idle.decrementAndGet();
+        }
+    }
+}
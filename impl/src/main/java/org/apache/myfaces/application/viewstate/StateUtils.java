@@ -22,18 +22,23 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Map;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import jakarta.faces.FacesException;
@@ -43,6 +48,7 @@
 
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
 import org.apache.myfaces.util.lang.Assert;
+import org.apache.myfaces.util.lang.FastByteArrayOutputStream;
 import org.apache.myfaces.spi.SerialFactory;
 
 /**
@@ -66,6 +72,11 @@
  * <i>org.apache.myfaces.ALGORITHM.IV</i> parameter</li>
  * <li>The default MAC algorithm can be overridden using the
  * <i>org.apache.myfaces.MAC_ALGORITHM</i> parameter</li>
+ * <li>If <i>org.apache.myfaces.ALGORITHM.PARAMETERS</i> selects GCM (e.g. "GCM/NoPadding" with AES), the
+ * view state is encrypted and authenticated in one pass (AEAD). A random IV is generated for every
+ * view state and no separate MAC is appended.</li>
+ * <li>Initialized Cipher and Mac instances are pooled per application, unless one of the
+ * SecretKey caches is disabled</li>
  * </ul>
  *
  * <p>The secret is interpreted as base 64 encoded.  In other
@@ -95,7 +106,20 @@
     public static final String DEFAULT_ALGORITHM = "AES";
     public static final String DEFAULT_ALGORITHM_PARAMS = "ECB/PKCS5Padding";
 
+    /**
+     * Prefix of the algorithm parameters that select the AEAD mode.
+     */
+    public static final String AEAD_ALGORITHM_PARAMS_PREFIX = "GCM";
+
     public static final String INIT_PREFIX = "org.apache.myfaces.";
+
+    private static final int DEFAULT_CONSTRUCT_BUFFER_SIZE = 1024;
+
+    static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final SecureRandom GCM_IV_RANDOM = new SecureRandom();
+
+    private static final String CRYPTO_POOL_KEY = StateCryptoPool.class.getName();
     
     /**
      * Indicate if the view state is encrypted or not. By default, encryption is enabled.
@@ -144,6 +168,8 @@
      * Defines the factory class name using for serialize/deserialize the view state returned 
      * by state manager into a byte array. The expected class must implement
      * {@link org.apache.myfaces.spi.SerialFactory} interface.
+     * {@link org.apache.myfaces.spi.impl.CompactSerialFactory} provides a compact binary encoding
+     * for the component state, with Java serialization as fallback.
      */
     @JSFWebConfigParam(name="org.apache.myfaces.SERIAL_FACTORY", since="1.1",group="state",tags="performance")
     public static final String SERIAL_FACTORY = INIT_PREFIX + "SERIAL_FACTORY";
@@ -185,7 +211,7 @@ private StateUtils()
         //nope
     }
 
-    private static void testConfiguration(ExternalContext ctx)
+    static void testConfiguration(ExternalContext ctx)
     {
         String algorithmParams = ctx.getInitParameter(INIT_ALGORITHM_PARAM);
         if (algorithmParams != null && algorithmParams.startsWith("CBC"))
@@ -199,6 +225,27 @@ private static void testConfiguration(ExternalContext ctx)
                         " with " + INIT_ALGORITHM_IV);
             }
         }
+        if (algorithmParams != null && algorithmParams.startsWith(AEAD_ALGORITHM_PARAMS_PREFIX))
+        {
+            if (ctx.getInitParameter(INIT_ALGORITHM_IV) != null)
+            {
+                // reusing an IV with GCM breaks both confidentiality and authenticity
+                throw new FacesException(INIT_ALGORITHM_PARAM +
+                        " parameter has been set with GCM mode," +
+                        " which generates a random initialization vector per view state," +
+                        " remove " + INIT_ALGORITHM_IV);
+            }
+        }
+    }
+
+    /**
+     * @return true if the configured algorithm parameters select an AEAD mode (GCM), which encrypts and
+     *         authenticates in one pass, so no separate MAC is used.
+     */
+    public static boolean isAead(ExternalContext ctx)
+    {
+        String algorithmParams = ctx.getInitParameter(INIT_ALGORITHM_PARAM);
+        return algorithmParams != null && algorithmParams.startsWith(AEAD_ALGORITHM_PARAMS_PREFIX);
     }
     
     public static Cipher createCipher(ExternalContext externalContext, int mode) throws Exception
@@ -237,6 +284,102 @@ public static Mac createMac(ExternalContext externalContext) throws Exception
 
         return mac;
     }
+
+    /**
+     * Returns the pool of initialized Cipher/Mac instances for the current configuration, or null if one of
+     * the SecretKey caches is disabled. In that case the keys are created for every request and are possibly
+     * not thread safe, so instances bound to them are not shared either.
+     */
+    static StateCryptoPool getCryptoPool(ExternalContext ctx)
+    {
+        if ("false".equals(ctx.getInitParameter(INIT_SECRET_KEY_CACHE))
+                || "false".equals(ctx.getInitParameter(INIT_MAC_SECRET_KEY_CACHE)))
+        {
+            return null;
+        }
+
+        Map<String, Object> applicationMap = ctx.getApplicationMap();
+        SecretKey secretKey = getSecret(ctx);
+        SecretKey macSecretKey = getMacSecret(ctx);
+        String transformation = findAlgorithm(ctx) + '/' + findAlgorithmParams(ctx);
+
+        StateCryptoPool pool = (StateCryptoPool) applicationMap.get(CRYPTO_POOL_KEY);
+        if (pool == null || !pool.isCompatible(secretKey, macSecretKey, transformation))
+        {
+            pool = new StateCryptoPool(secretKey, macSecretKey, transformation, findMacAlgorithm(ctx),
+                    findInitializationVector(ctx), isAead(ctx));
+            applicationMap.put(CRYPTO_POOL_KEY, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Borrows a Cipher from the pool, or creates one if the pool is null. For the non AEAD modes it is
+     * initialized for the given mode, AEAD ciphers must be initialized by the caller with
+     * {@link #initAeadEncrypt(ExternalContext, Cipher)} or
+     * {@link #initAeadDecrypt(ExternalContext, Cipher, byte[], int)}.
+     */
+    static Cipher acquireCipher(ExternalContext ctx, StateCryptoPool pool, int mode) throws Exception
+    {
+        if (pool != null)
+        {
+            return pool.borrowCipher(mode);
+        }
+        if (isAead(ctx))
+        {
+            return Cipher.getInstance(findAlgorithm(ctx) + '/' + findAlgorithmParams(ctx));
+        }
+        return createCipher(ctx, mode);
+    }
+
+    /**
+     * Gives back a Cipher that completed its last operation with doFinal.
+     */
+    static void releaseCipher(StateCryptoPool pool, int mode, Cipher cipher)
+    {
+        if (pool != null)
+        {
+            pool.releaseCipher(mode, cipher);
+        }
+    }
+
+    static Mac acquireMac(ExternalContext ctx, StateCryptoPool pool) throws Exception
+    {
+        if (pool != null)
+        {
+            return pool.borrowMac();
+        }
+        return createMac(ctx);
+    }
+
+    static void releaseMac(StateCryptoPool pool, Mac mac)
+    {
+        if (pool != null)
+        {
+            pool.releaseMac(mac);
+        }
+    }
+
+    /**
+     * Initializes an AEAD cipher for encryption with a fresh random IV and returns the IV, which has to be
+     * prepended to the cipher text.
+     */
+    static byte[] initAeadEncrypt(ExternalContext ctx, Cipher cipher) throws Exception
+    {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        GCM_IV_RANDOM.nextBytes(iv);
+        cipher.init(Cipher.ENCRYPT_MODE, getSecret(ctx), new GCMParameterSpec(GCM_TAG_LENGTH, iv));
+        return iv;
+    }
+
+    /**
+     * Initializes an AEAD cipher for decryption with the IV found at the given offset of the token.
+     */
+    static void initAeadDecrypt(ExternalContext ctx, Cipher cipher, byte[] secure, int offset) throws Exception
+    {
+        cipher.init(Cipher.DECRYPT_MODE, getSecret(ctx),
+                new GCMParameterSpec(GCM_TAG_LENGTH, secure, offset, GCM_IV_LENGTH));
+    }
     
     public static boolean enableCompression(ExternalContext externalContext)
     {
@@ -254,28 +397,22 @@ public static boolean isSecure(ExternalContext externalContext)
 
     /**
      * This fires during the Render Response phase, saving state.
+     * 
+     * @see StreamingStateCodec
      */
     public static final String construct(Object object, ExternalContext ctx)
     {
-        byte[] bytes = getAsByteArray(object, ctx);
-        if (enableCompression(ctx))
-        {
-            bytes = compress(bytes);
-        }
-        if (isSecure(ctx))
-        {
-            bytes = encrypt(bytes, ctx);
-        }
-        bytes = encode(bytes);
-
+        FastByteArrayOutputStream out = new FastByteArrayOutputStream(DEFAULT_CONSTRUCT_BUFFER_SIZE);
         try
         {
-            return new String(bytes, ZIP_CHARSET);
+            StreamingStateCodec.encode(object, ctx, out);
         }
-        catch (UnsupportedEncodingException e)
+        catch (IOException e)
         {
             throw new FacesException(e);
         }
+        // Base64 output is plain ASCII, so this is the only copy of the token
+        return new String(out.getByteArray(), 0, out.getSize(), StandardCharsets.ISO_8859_1);
     }
 
     /**
@@ -310,8 +447,22 @@ public static byte[] encrypt(byte[] insecure, ExternalContext externalContext)
 
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.ENCRYPT_MODE);
+            StateCryptoPool pool = getCryptoPool(externalContext);
+            if (isAead(externalContext))
+            {
+                // IV + cipher text + authentication tag
+                Cipher cipher = acquireCipher(externalContext, pool, Cipher.ENCRYPT_MODE);
+                byte[] iv = initAeadEncrypt(externalContext, cipher);
+                byte[] secure = new byte[iv.length + cipher.getOutputSize(insecure.length)];
+                System.arraycopy(iv, 0, secure, 0, iv.length);
+                cipher.doFinal(insecure, 0, insecure.length, secure, iv.length);
+                releaseCipher(pool, Cipher.ENCRYPT_MODE, cipher);
+
+                return secure;
+            }
+
+            Mac mac = acquireMac(externalContext, pool);
+            Cipher cipher = acquireCipher(externalContext, pool, Cipher.ENCRYPT_MODE);
 
             //EtM (Encrypt-then-MAC) Composition Approach
             int macLenght = mac.getMacLength();
@@ -319,7 +470,10 @@ public static byte[] encrypt(byte[] insecure, ExternalContext externalContext)
             int secureCount = cipher.doFinal(insecure, 0, insecure.length, secure);
             mac.update(secure, 0, secureCount);
             mac.doFinal(secure, secureCount);
-                        
+
+            releaseCipher(pool, Cipher.ENCRYPT_MODE, cipher);
+            releaseMac(pool, mac);
+
             return secure;
         }
         catch (Exception e)
@@ -358,10 +512,11 @@ public static final byte[] encode(byte[] bytes)
 
     /**
      * This fires during the Restore View phase, restoring state.
+     * 
+     * @see StreamingStateCodec
      */
     public static final Object reconstruct(String string, ExternalContext ctx)
     {
-        byte[] bytes;
         try
         {
             if (log.isLoggable(Level.FINE))
@@ -369,18 +524,7 @@ public static final Object reconstruct(String string, ExternalContext ctx)
                 log.fine("Processing state : " + string);
             }
 
-            bytes = string.getBytes(ZIP_CHARSET);
-            bytes = decode(bytes);
-            if (isSecure(ctx))
-            {
-                bytes = decrypt(bytes, ctx);
-            }
-            if (enableCompression(ctx))
-            {
-                bytes = decompress(bytes);
-            }
-
-            return getAsObject(bytes, ctx);
+            return StreamingStateCodec.decode(string, ctx);
         }
         catch (Throwable e)
         {
@@ -435,8 +579,32 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
 
         try
         {
-            Mac mac = createMac(externalContext);
-            Cipher cipher = createCipher(externalContext, Cipher.DECRYPT_MODE);
+            StateCryptoPool pool = getCryptoPool(externalContext);
+            if (isAead(externalContext))
+            {
+                if (secure.length < GCM_IV_LENGTH)
+                {
+                    throw new ViewExpiredException();
+                }
+
+                Cipher cipher = acquireCipher(externalContext, pool, Cipher.DECRYPT_MODE);
+                initAeadDecrypt(externalContext, cipher, secure, 0);
+                byte[] insecure;
+                try
+                {
+                    insecure = cipher.doFinal(secure, GCM_IV_LENGTH, secure.length - GCM_IV_LENGTH);
+                }
+                catch (AEADBadTagException e)
+                {
+                    throw new ViewExpiredException();
+                }
+                releaseCipher(pool, Cipher.DECRYPT_MODE, cipher);
+
+                return insecure;
+            }
+
+            Mac mac = acquireMac(externalContext, pool);
+            Cipher cipher = acquireCipher(externalContext, pool, Cipher.DECRYPT_MODE);
 
             //EtM (Encrypt-then-MAC) Composition Approach
             int macLenght = mac.getMacLength();
@@ -458,12 +626,16 @@ public static byte[] decrypt(byte[] secure, ExternalContext externalContext)
                     //break;
                 }
             }
+            releaseMac(pool, mac);
             if (!isMacEqual)
             {
                 throw new ViewExpiredException();
             }
             
-            return cipher.doFinal(secure, 0, secure.length - macLenght);
+            byte[] insecure = cipher.doFinal(secure, 0, secure.length - macLenght);
+            releaseCipher(pool, Cipher.DECRYPT_MODE, cipher);
+
+            return insecure;
         }
         catch (Exception e)
         {
@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import jakarta.faces.FacesException;
+import jakarta.faces.application.ViewExpiredException;
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.util.lang.Assert;
+import org.apache.myfaces.util.lang.FastByteArrayInputStream;
+
+/**
+ * <p>Streaming variant of the client side view state pipeline implemented by {@link StateUtils}.</p>
+ *
+ * <p>{@link StateUtils#construct(Object, ExternalContext)} used to materialize a full byte array after every
+ * stage (serialize, gzip, encrypt, Base64, String). This codec chains
+ * <code>ObjectOutputStream -&gt; GZIP -&gt; Cipher/Mac -&gt; Base64</code> through fixed size buffers straight
+ * into an {@link OutputStream}, so the only copy proportional to the state size is the one held by the target
+ * stream.
+ * The restore path runs the same chain in reverse. The produced tokens are byte for byte compatible with
+ * the array based methods of {@link StateUtils}, so both can be mixed freely.</p>
+ */
+public final class StreamingStateCodec
+{
+    private static final int BUFFER_SIZE = 8192;
+
+    private StreamingStateCodec()
+    {
+        //nope
+    }
+
+    /**
+     * Serializes, compresses (optional), encrypts (optional) and Base64 encodes the state into the stream,
+     * as ISO-8859-1 bytes. The stream is flushed, but not closed.
+     */
+    public static void encode(Object state, ExternalContext ctx, OutputStream outputStream) throws IOException
+    {
+        Assert.notNull(ctx, "ctx");
+        Assert.notNull(outputStream, "outputStream");
+
+        SerialFactory serialFactory = getSerialFactory(ctx);
+
+        OutputStream out = Base64.getEncoder().wrap(new NonClosingOutputStream(outputStream));
+        StateCryptoPool pool = null;
+        Cipher cipher = null;
+        Mac mac = null;
+        if (StateUtils.isSecure(ctx))
+        {
+            StateUtils.testConfiguration(ctx);
+            try
+            {
+                pool = StateUtils.getCryptoPool(ctx);
+                cipher = StateUtils.acquireCipher(ctx, pool, Cipher.ENCRYPT_MODE);
+                if (StateUtils.isAead(ctx))
+                {
+                    // the IV travels in clear in front of the cipher text, GCM authenticates it
+                    out.write(StateUtils.initAeadEncrypt(ctx, cipher));
+                }
+                else
+                {
+                    mac = StateUtils.acquireMac(ctx, pool);
+                }
+            }
+            catch (Exception e)
+            {
+                throw new FacesException(e);
+            }
+            out = new EncryptThenMacOutputStream(out, cipher, mac);
+        }
+        if (StateUtils.enableCompression(ctx))
+        {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+
+        // closing the chain finishes gzip, appends cipher padding + MAC, writes the Base64 padding
+        // and flushes everything into the target stream
+        try (OutputStream chain = out)
+        {
+            serialFactory.writeObject(state, chain);
+        }
+
+        // only reached if doFinal completed, so the instances are clean again
+        if (cipher != null)
+        {
+            StateUtils.releaseCipher(pool, Cipher.ENCRYPT_MODE, cipher);
+        }
+        if (mac != null)
+        {
+            StateUtils.releaseMac(pool, mac);
+        }
+    }
+
+    /**
+     * Reverses {@link #encode(Object, ExternalContext, OutputStream)}. When encryption is enabled the MAC is verified
+     * over the whole token before any byte is decrypted or deserialized.
+     */
+    public static Object decode(String token, ExternalContext ctx) throws Exception
+    {
+        Assert.notNull(token, "token");
+        Assert.notNull(ctx, "ctx");
+
+        SerialFactory serialFactory = getSerialFactory(ctx);
+
+        InputStream in;
+        StateCryptoPool pool = null;
+        Cipher cipher = null;
+        if (StateUtils.isSecure(ctx))
+        {
+            StateUtils.testConfiguration(ctx);
+            pool = StateUtils.getCryptoPool(ctx);
+
+            byte[] secure = Base64.getDecoder().decode(token);
+            if (StateUtils.isAead(ctx))
+            {
+                if (secure.length < StateUtils.GCM_IV_LENGTH)
+                {
+                    throw new ViewExpiredException();
+                }
+                // GCM verifies the tag before it releases any plain text
+                cipher = StateUtils.acquireCipher(ctx, pool, Cipher.DECRYPT_MODE);
+                StateUtils.initAeadDecrypt(ctx, cipher, secure, 0);
+                in = new CipherInputStream(new ByteArrayInputStream(secure, StateUtils.GCM_IV_LENGTH,
+                        secure.length - StateUtils.GCM_IV_LENGTH), cipher);
+            }
+            else
+            {
+                // The MAC has to be checked before decrypting (EtM), so the cipher text must be fully available.
+                Mac mac = StateUtils.acquireMac(ctx, pool);
+                int macLength = mac.getMacLength();
+                int secureLength = secure.length - macLength;
+                if (secureLength < 0)
+                {
+                    throw new ViewExpiredException();
+                }
+
+                mac.update(secure, 0, secureLength);
+                byte[] signedDigestHash = mac.doFinal();
+                StateUtils.releaseMac(pool, mac);
+
+                // MYFACES-2934 compare *ALL* bytes of the hash
+                int diff = 0;
+                for (int i = 0; i < macLength; i++)
+                {
+                    diff |= signedDigestHash[i] ^ secure[secureLength + i];
+                }
+                if (diff != 0)
+                {
+                    throw new ViewExpiredException();
+                }
+
+                cipher = StateUtils.acquireCipher(ctx, pool, Cipher.DECRYPT_MODE);
+                in = new CipherInputStream(new FastByteArrayInputStream(secure, secureLength), cipher);
+            }
+        }
+        else
+        {
+            in = Base64.getDecoder().wrap(new Latin1StringInputStream(token));
+        }
+
+        if (StateUtils.enableCompression(ctx))
+        {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+
+        Object state;
+        try (InputStream chain = in)
+        {
+            state = serialFactory.readObject(chain);
+        }
+
+        // CipherInputStream.close() completes the cipher with doFinal, so it can be reused
+        if (cipher != null)
+        {
+            StateUtils.releaseCipher(pool, Cipher.DECRYPT_MODE, cipher);
+        }
+        return state;
+    }
+
+    private static SerialFactory getSerialFactory(ExternalContext ctx)
+    {
+        // get the Factory that was instantiated @ startup
+        SerialFactory serialFactory = (SerialFactory) ctx.getApplicationMap().get(StateUtils.SERIAL_FACTORY);
+        Assert.notNull(serialFactory, "serialFactory");
+        return serialFactory;
+    }
+
+    /**
+     * Encrypt-then-MAC stage: every chunk is pushed through the cipher, the resulting cipher text is fed into
+     * the MAC and forwarded. On close the final cipher block and the MAC are appended, exactly like
+     * {@link StateUtils#encrypt(byte[], ExternalContext)} lays them out. With an AEAD cipher the mac is null
+     * and the authentication tag is part of the final block.
+     */
+    private static final class EncryptThenMacOutputStream extends FilterOutputStream
+    {
+        private final Cipher cipher;
+        private final Mac mac;
+        private byte[] buffer;
+        private boolean closed;
+
+        EncryptThenMacOutputStream(OutputStream out, Cipher cipher, Mac mac)
+        {
+            super(out);
+            this.cipher = cipher;
+            this.mac = mac;
+            this.buffer = new byte[cipher.getOutputSize(BUFFER_SIZE)];
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            ensureCapacity(cipher.getOutputSize(len));
+            try
+            {
+                int count = cipher.update(b, off, len, buffer, 0);
+                forward(count);
+            }
+            catch (ShortBufferException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            // nothing to flush until the final block is known, the cipher keeps the partial block
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+
+            try
+            {
+                ensureCapacity(cipher.getOutputSize(0));
+                int count = cipher.doFinal(buffer, 0);
+                forward(count);
+                if (mac != null)
+                {
+                    out.write(mac.doFinal());
+                }
+            }
+            catch (IOException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new IOException(e);
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+
+        private void forward(int count) throws IOException
+        {
+            if (count > 0)
+            {
+                if (mac != null)
+                {
+                    mac.update(buffer, 0, count);
+                }
+                out.write(buffer, 0, count);
+            }
+        }
+
+        private void ensureCapacity(int size)
+        {
+            if (size > buffer.length)
+            {
+                buffer = new byte[size];
+            }
+        }
+    }
+
+    /**
+     * Keeps the caller's stream open when the codec chain is closed.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream
+    {
+        NonClosingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the chars of a Base64 token as ISO-8859-1 bytes without copying the String.
+     */
+    private static final class Latin1StringInputStream extends InputStream
+    {
+        private final String value;
+        private int pos;
+
+        Latin1StringInputStream(String value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public int read()
+        {
+            return pos < value.length() ? (value.charAt(pos++) & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            int available = value.length() - pos;
+            if (available <= 0)
+            {
+                return -1;
+            }
+            if (len > available)
+            {
+                len = available;
+            }
+            for (int i = 0; i < len; i++)
+            {
+                b[off + i] = (byte) value.charAt(pos++);
+            }
+            return len;
+        }
+
+        @Override
+        public int available()
+        {
+            return value.length() - pos;
+        }
+    }
+}
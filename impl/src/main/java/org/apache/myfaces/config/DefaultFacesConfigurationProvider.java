@@ -735,6 +735,17 @@ private FacesConfig parseFacesConfig(ExternalContext ectx, String systemId, URL
 
     @Override
     public List<FacesConfig> getFaceletTaglibFacesConfig(ExternalContext externalContext)
+    {
+        List<FacesConfig> facesConfigFilesList = new ArrayList<>();
+        facesConfigFilesList.addAll(getContextSpecifiedFaceletTaglibFacesConfig(externalContext));
+        facesConfigFilesList.addAll(getClassloaderFaceletTaglibFacesConfig(externalContext));
+        return facesConfigFilesList;
+    }
+
+    /**
+     * The facelet tag libraries listed in the {@link ViewHandler#FACELETS_LIBRARIES_PARAM_NAME} init parameter.
+     */
+    protected List<FacesConfig> getContextSpecifiedFaceletTaglibFacesConfig(ExternalContext externalContext)
     {
         List<FacesConfig> facesConfigFilesList = new ArrayList<>();
         
@@ -771,7 +782,15 @@ public List<FacesConfig> getFaceletTaglibFacesConfig(ExternalContext externalCon
                 }
             }
         }
-        
+        return facesConfigFilesList;
+    }
+
+    /**
+     * The facelet tag libraries found by the {@link FaceletConfigResourceProvider}, the META-INF ones by default.
+     */
+    protected List<FacesConfig> getClassloaderFaceletTaglibFacesConfig(ExternalContext externalContext)
+    {
+        List<FacesConfig> facesConfigFilesList = new ArrayList<>();
         try
         {
             FaceletConfigResourceProvider provider = FaceletConfigResourceProviderFactory.
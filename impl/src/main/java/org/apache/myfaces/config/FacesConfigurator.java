@@ -129,6 +129,7 @@
 import org.apache.myfaces.renderkit.LazyRenderKit;
 import org.apache.myfaces.spi.impl.DefaultSerialFactory;
 import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.spi.ViewStateStore;
 import org.apache.myfaces.spi.FacesConfigurationMerger;
 import org.apache.myfaces.spi.FacesConfigurationMergerFactory;
 import org.apache.myfaces.spi.InjectionProvider;
@@ -502,6 +503,7 @@ public void configure() throws FacesException
         configureRuntimeConfig();
         configureLifecycle();
         handleSerialFactory();
+        handleViewStateStore();
         configureFlowHandler();
 
         configureProtectedViews();
@@ -1240,6 +1242,32 @@ private void handleSerialFactory()
         _externalContext.getApplicationMap().put(StateUtils.SERIAL_FACTORY, serialFactory);
     }
 
+    private void handleViewStateStore()
+    {
+        String viewStateStoreClass = _externalContext.getInitParameter(MyfacesConfig.VIEW_STATE_STORE);
+        if (viewStateStoreClass == null
+                || _externalContext.getApplicationMap().containsKey(MyfacesConfig.VIEW_STATE_STORE))
+        {
+            return;
+        }
+
+        try
+        {
+            ViewStateStore viewStateStore = (ViewStateStore) ClassUtils.newInstance(viewStateStoreClass);
+            viewStateStore.init(_externalContext);
+            log.fine("View state store : " + viewStateStore.getClass());
+            _externalContext.getApplicationMap().put(MyfacesConfig.VIEW_STATE_STORE, viewStateStore);
+        }
+        catch (ClassCastException e)
+        {
+            log.log(Level.SEVERE, "Make sure '" + viewStateStoreClass + "' implements the correct interface", e);
+        }
+        catch (Exception e)
+        {
+            log.log(Level.SEVERE, "Cannot create view state store, the states will be stored in session", e);
+        }
+    }
+
     private void configureFlowHandler()
     {
         FacesContext facesContext = getFacesContext();
@@ -230,6 +230,34 @@
         "org.apache.myfaces.COMPONENT_UNIQUE_IDS_CACHE_SIZE";
     private static final int COMPONENT_UNIQUE_IDS_CACHE_SIZE_DEFAULT = 200;
 
+    /**
+     * Use a concurrent FaceletCache that compiles each facelet only once when many requests ask for it at the
+     * same time.
+     * 
+     * <p>Requests never check the last modified time of the facelets. If jakarta.faces.FACELETS_REFRESH_PERIOD
+     * is greater than 0, a background thread invalidates the facelets of an exploded deployment as soon as
+     * their file changes, using a WatchService, and checks the other ones every refresh period.
+     * Not used if org.apache.myfaces.CACHE_EL_EXPRESSIONS is alwaysRecompile.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "4.0", expectedValues="true, false",
+            group="viewhandler", tags="performance")
+    public static final String CONCURRENT_FACELET_CACHE =
+        "org.apache.myfaces.CONCURRENT_FACELET_CACHE";
+    private static final boolean CONCURRENT_FACELET_CACHE_DEFAULT = false;
+
+    /**
+     * Compile all the facelets of the application at startup, so the first requests do not compile them.
+     * 
+     * <p>The views, templates and composite components are compiled in parallel and kept in the FaceletCache.
+     * Only used in Production, because in the other project stages the facelets are compiled again when they
+     * change. Facelets which cannot be compiled are logged and compiled again on the first request.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "4.0", expectedValues="true, false",
+            group="viewhandler", tags="performance")
+    public static final String FACELETS_PRECOMPILE =
+        "org.apache.myfaces.FACELETS_PRECOMPILE";
+    private static final boolean FACELETS_PRECOMPILE_DEFAULT = false;
+
     /**
      * If this param is set to true, a check will be done in Restore View Phase to check
      * if the viewId exists or not and if it does not exists, a 404 response will be thrown.
@@ -391,6 +419,23 @@
     public static final String USE_CDI_FOR_ANNOTATION_SCANNING
             = "org.apache.myfaces.annotation.USE_CDI_FOR_ANNOTATION_SCANNING";
     private static final boolean USE_CDI_FOR_ANNOTATION_SCANNING_DEFAULT = false;
+
+    /**
+     * Scans the jars and /WEB-INF/classes for annotations in parallel, on a fork join pool with one thread per
+     * processor. The classes are loaded in the startup thread. Disabled by default, as it starts its own threads
+     * in the container.
+     */
+    @JSFWebConfigParam(since="4.0", tags = "performance", defaultValue = "false", expectedValues="true, false")
+    public static final String ANNOTATION_SCAN_PARALLEL = "org.apache.myfaces.annotation.SCAN_PARALLEL";
+    private static final boolean ANNOTATION_SCAN_PARALLEL_DEFAULT = false;
+
+    /**
+     * Keeps the annotated class names found in each jar in an index file in the work directory of the
+     * application. On the next start, a jar with the same path, size and last modified time is not scanned again.
+     */
+    @JSFWebConfigParam(since="4.0", tags = "performance", defaultValue = "false", expectedValues="true, false")
+    public static final String ANNOTATION_SCAN_INDEX = "org.apache.myfaces.annotation.SCAN_INDEX";
+    private static final boolean ANNOTATION_SCAN_INDEX_DEFAULT = false;
     
     
     /**
@@ -414,6 +459,21 @@
     public static final String RESOURCE_HANDLER_CACHE_ENABLED = 
         "org.apache.myfaces.RESOURCE_HANDLER_CACHE_ENABLED";
     private static final boolean RESOURCE_HANDLER_CACHE_ENABLED_DEFAULT = true;
+
+    /**
+     * Number of resources whose final content is kept in memory by the default ResourceHandler, 0 disables it.
+     * 
+     * <p>The cached content is the one sent to the client, after value expressions are evaluated, with a gzip
+     * variant for text resources and the brotli variant if a precompressed "name.br" file is found next to the
+     * resource. Resources bigger than 1MB are mapped from their file when possible, otherwise they are streamed
+     * as usual. Cached resources are sent with Content-Length and support Range requests. Only used if
+     * org.apache.myfaces.RESOURCE_HANDLER_CACHE_ENABLED is true.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "0", since = "4.0", group="resources", 
+            classType="java.lang.Integer", tags="performance")
+    public static final String RESOURCE_CONTENT_CACHE_SIZE = 
+        "org.apache.myfaces.RESOURCE_CONTENT_CACHE_SIZE";
+    private static final int RESOURCE_CONTENT_CACHE_SIZE_DEFAULT = 0;
     
     /**
      * Servlet context init parameter which defines which packages to scan
@@ -535,6 +595,48 @@
             = "org.apache.myfaces.USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION";
     private static final boolean USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION_DEFAULT = false;
     
+    /**
+     * Use a concurrent structure to store the views in session, instead of a collection that is
+     * locked on every save. 
+     * 
+     * <p>The views are kept in one LRU list per client window, so parallel requests for different
+     * windows of the same session do not block each other, and discarding the oldest view does not
+     * require scan all the stored keys. Only applicable if state saving method is "server" (= default).
+     * The default value is false.</p>
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="false", expectedValues="true, false", group="state",
+            tags="performance")
+    public static final String CONCURRENT_VIEWS_IN_SESSION
+            = "org.apache.myfaces.CONCURRENT_VIEWS_IN_SESSION";
+    private static final boolean CONCURRENT_VIEWS_IN_SESSION_DEFAULT = false;
+    
+    /**
+     * Class name of a org.apache.myfaces.spi.ViewStateStore implementation used to keep the state of the
+     * views outside of the session. Only the keys of the views are kept in session.
+     * 
+     * <p>MyFaces provides org.apache.myfaces.spi.impl.FileViewStateStore, that stores the states on memory
+     * mapped files under the temp dir of the web application. Only applicable if state saving method is
+     * "server" (= default). By default the states are stored in session.</p>
+     */
+    @JSFWebConfigParam(since="4.0", group="state", tags="performance")
+    public static final String VIEW_STATE_STORE = "org.apache.myfaces.VIEW_STATE_STORE";
+    
+    /**
+     * Store the state of every view in its own session attribute, instead of inside the attribute that holds
+     * the collection of views.
+     * 
+     * <p>Containers with session replication ship every attribute that is set during a request, so with the
+     * default layout the states of all the views in session are replicated on every request. With this
+     * option only the state of the new view, the keys of the collection and the removed attributes are
+     * replicated. Only applicable if state saving method is "server" (= default). The default value is
+     * false.</p>
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="false", expectedValues="true, false", group="state",
+            tags="performance")
+    public static final String VIEW_SESSION_ATTRIBUTE_PER_VIEW
+            = "org.apache.myfaces.VIEW_SESSION_ATTRIBUTE_PER_VIEW";
+    private static final boolean VIEW_SESSION_ATTRIBUTE_PER_VIEW_DEFAULT = false;
+    
     /**
      * Add autocomplete="off" to the view state hidden field. Enabled by default.
      */
@@ -582,6 +684,18 @@
              + "'ELResolver Instances Provided by Faces'")
     public static final String EL_RESOLVER_PREDICATE = "org.apache.myfaces.EL_RESOLVER_PREDICATE";
 
+    /**
+     * Remember which ELResolver of the chain resolved a property, per base class and property class (or per
+     * identifier for a null base), and ask that one first the next time.
+     * 
+     * <p>Only the resolvers whose answer depends on nothing but these are skipped,
+     * the others are still asked in order, so the result is the same as walking the whole chain.</p>
+     */
+    @JSFWebConfigParam(defaultValue = "false", since = "4.0", expectedValues="true, false", group="EL",
+            tags="performance")
+    public static final String EL_RESOLVER_CACHE = "org.apache.myfaces.EL_RESOLVER_CACHE";
+    private static final boolean EL_RESOLVER_CACHE_DEFAULT = false;
+
     @JSFWebConfigParam(defaultValue = "500", since = "2.0.2", group="viewhandler", tags="performance", 
             classType="java.lang.Integer",
             desc="Controls the size of the viewId related caches: " + 
@@ -673,6 +787,21 @@
     public final static String MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW
             = "org.apache.myfaces.MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW";
     private static final boolean MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW_DEFAULT = false;
+
+    /**
+     * Indicates if the partial state of the view is saved by position instead of clientId.
+     * 
+     * <p>By default the state of each component is stored on a map keyed by its clientId, and restoring the view
+     * calculates the clientId of every component to find its state. When this param is enabled, the state is stored
+     * as a tree that follows the static structure built by the vdl (child index and facet name), so the state is
+     * smaller and is restored walking the tree once, without calculate any clientId. Components added or removed 
+     * dynamically are still saved by clientId. This mode is not used when the view pool is enabled for the view.</p>
+     */
+    @JSFWebConfigParam(since = "4.0", defaultValue = "false", expectedValues = "true, false",
+            group = "state", tags = "performance")
+    public final static String POSITIONAL_PARTIAL_STATE_SAVING
+            = "org.apache.myfaces.POSITIONAL_PARTIAL_STATE_SAVING";
+    private static final boolean POSITIONAL_PARTIAL_STATE_SAVING_DEFAULT = false;
   
     /**
      * Class implementing ResourceResolver interface used to locate facelet resources. 
@@ -728,6 +857,18 @@
             = "org.apache.myfaces.RESOURCE_CACHE_LAST_MODIFIED";
     private static final boolean RESOURCE_CACHE_LAST_MODIFIED_DEFAULT = true;
 
+    /**
+     * Add a hash of the content of the resources to their request path, and send a strong ETag for them.
+     * 
+     * <p>Requests for a fingerprinted URL are answered with "Cache-Control: public, max-age=31536000, immutable",
+     * because a new version of the resource gets a new URL. The fingerprints of the resources on the classpath
+     * are computed at startup. Resources that could contain value expressions are not fingerprinted. Ignored
+     * when the ProjectStage is Development.</p>
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="false", expectedValues="true, false", tags="performance")
+    public static final String RESOURCE_FINGERPRINT = "org.apache.myfaces.RESOURCE_FINGERPRINT";
+    private static final boolean RESOURCE_FINGERPRINT_DEFAULT = false;
+
     /**
      * Indicate if log all web config params should be done before initialize the webapp. 
      * <p>
@@ -770,6 +911,27 @@
     @JSFWebConfigParam(name="org.apache.myfaces.WEBSOCKET_MAX_CONNECTIONS", since="2.3")
     public static final String WEBSOCKET_MAX_CONNECTIONS = "org.apache.myfaces.WEBSOCKET_MAX_CONNECTIONS";
     public static final Integer WEBSOCKET_MAX_CONNECTIONS_DEFAULT = 5000;
+
+    /**
+     * Number of push messages that can wait to be sent to one websocket session. Each session sends its messages
+     * one after the other, in order, so a slow client only fills its own queue.
+     */
+    @JSFWebConfigParam(defaultValue = "64", since = "4.0", classType="java.lang.Integer", tags="performance")
+    public static final String WEBSOCKET_MAX_QUEUED_MESSAGES = "org.apache.myfaces.WEBSOCKET_MAX_QUEUED_MESSAGES";
+    private static final int WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT = 64;
+
+    /**
+     * What to do when the queue of a websocket session is full: "dropOldest" drops the oldest waiting message,
+     * "coalesce" only keeps the latest message of the channel, "disconnect" closes the session of the slow client.
+     * The futures of the dropped messages are cancelled.
+     */
+    @JSFWebConfigParam(defaultValue = "dropOldest", since = "4.0", expectedValues = "dropOldest, coalesce, disconnect",
+            tags="performance")
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY = "org.apache.myfaces.WEBSOCKET_QUEUE_OVERFLOW_POLICY";
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY_DROP_OLDEST = "dropOldest";
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY_COALESCE = "coalesce";
+    public static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY_DISCONNECT = "disconnect";
+    private static final String WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT = WEBSOCKET_QUEUE_OVERFLOW_POLICY_DROP_OLDEST;
     
     
     /**
@@ -821,6 +983,8 @@
     private String defaultResponseWriterContentTypeMode = DEFAULT_RESPONSE_WRITER_CONTENT_TYPE_MODE_DEFAULT;
     private boolean viewUniqueIdsCacheEnabled = VIEW_UNIQUE_IDS_CACHE_ENABLED_DEFAULT;
     private int componentUniqueIdsCacheSize = COMPONENT_UNIQUE_IDS_CACHE_SIZE_DEFAULT;
+    private boolean concurrentFaceletCache = CONCURRENT_FACELET_CACHE_DEFAULT;
+    private boolean faceletsPrecompile = FACELETS_PRECOMPILE_DEFAULT;
     private boolean strictJsf2ViewNotFound = STRICT_JSF_2_VIEW_NOT_FOUND_DEFAULT;
     private boolean earlyFlushEnabled = EARLY_FLUSH_ENABLED_DEFAULT;
     private boolean strictJsf2FaceletsCompatibility = STRICT_JSF_2_FACELETS_COMPATIBILITY_DEFAULT;
@@ -834,8 +998,11 @@
     private boolean strictJsf2OriginHeaderAppPath = STRICT_JSF_2_ORIGIN_HEADER_APP_PATH_DEFAULT;
     private int resourceBufferSize = RESOURCE_BUFFER_SIZE_DEFAULT;
     private boolean useCdiForAnnotationScanning = USE_CDI_FOR_ANNOTATION_SCANNING_DEFAULT;
+    private boolean annotationScanParallel = ANNOTATION_SCAN_PARALLEL_DEFAULT;
+    private boolean annotationScanIndex = ANNOTATION_SCAN_INDEX_DEFAULT;
     private boolean resourceHandlerCacheEnabled = RESOURCE_HANDLER_CACHE_ENABLED_DEFAULT;
     private int resourceHandlerCacheSize = RESOURCE_HANDLER_CACHE_SIZE_DEFAULT;
+    private int resourceContentCacheSize = RESOURCE_CONTENT_CACHE_SIZE_DEFAULT;
     private String scanPackages;
     private long websocketMaxIdleTimeout = WEBSOCKET_MAX_IDLE_TIMEOUT_DEFAULT;
     private Integer websocketEndpointPort;
@@ -851,11 +1018,14 @@
     private boolean serializeStateInSession = false;
     private boolean compressStateInSession = COMPRESS_STATE_IN_SESSION_DEFAULT;
     private boolean useFlashScopePurgeViewsInSession = USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION_DEFAULT;
+    private boolean concurrentViewsInSession = CONCURRENT_VIEWS_IN_SESSION_DEFAULT;
+    private boolean viewSessionAttributePerView = VIEW_SESSION_ATTRIBUTE_PER_VIEW_DEFAULT;
     private boolean autocompleteOffViewState = AUTOCOMPLETE_OFF_VIEW_STATE_DEFAULT;
     private long resourceMaxTimeExpires = RESOURCE_MAX_TIME_EXPIRES_DEFAULT;
     private boolean lazyLoadConfigObjects = LAZY_LOAD_CONFIG_OBJECTS_DEFAULT;
     private String elResolverComparator;
     private String elResolverPredicate;
+    private boolean elResolverCache = EL_RESOLVER_CACHE_DEFAULT;
     private boolean viewIdExistsCacheEnabled = VIEWID_EXISTS_CACHE_ENABLED_DEFAULT;
     private boolean viewIdProtectedCacheEnabled = VIEWID_PROTECTED_CACHE_ENABLED_DEFAULT;
     private boolean viewIdDeriveCacheEnabled = VIEWID_DERIVE_CACHE_ENABLED_DEFAULT;
@@ -869,6 +1039,7 @@
     private String[] fullStateSavingViewIds;
     private int faceletsBufferSize = 1024;
     private boolean markInitialStateWhenApplyBuildView = MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW_DEFAULT;
+    private boolean positionalPartialStateSaving = POSITIONAL_PARTIAL_STATE_SAVING_DEFAULT;
     private String resourceResolver;
     private String[] viewSuffix = new String[] { ViewHandler.DEFAULT_SUFFIX };
     private String[] faceletsViewMappings = new String[] {};
@@ -876,8 +1047,11 @@
     private ELExpressionCacheMode elExpressionCacheMode;
     private boolean wrapTagExceptionsAsContextAware = WRAP_TAG_EXCEPTIONS_AS_CONTEXT_AWARE_DEFAULT;
     private boolean resourceCacheLastModified = RESOURCE_CACHE_LAST_MODIFIED_DEFAULT;
+    private boolean resourceFingerprint = RESOURCE_FINGERPRINT_DEFAULT;
     private boolean logWebContextParams = false;
     private int websocketMaxConnections = WEBSOCKET_MAX_CONNECTIONS_DEFAULT;
+    private int websocketMaxQueuedMessages = WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT;
+    private String websocketQueueOverflowPolicy = WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT;
     private boolean renderClientBehaviorScriptsAsString = RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING_DEFAULT;
     private boolean alwaysForceSessionCreation = ALWAYS_FORCE_SESSION_CREATION_DEFAULT;
     private ResourceBundle.Control resourceBundleControl;
@@ -1021,6 +1195,10 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
 
         cfg.componentUniqueIdsCacheSize = getInt(extCtx, COMPONENT_UNIQUE_IDS_CACHE_SIZE, 
                 COMPONENT_UNIQUE_IDS_CACHE_SIZE_DEFAULT);
+        cfg.concurrentFaceletCache = getBoolean(extCtx, CONCURRENT_FACELET_CACHE,
+                CONCURRENT_FACELET_CACHE_DEFAULT);
+        cfg.faceletsPrecompile = getBoolean(extCtx, FACELETS_PRECOMPILE,
+                FACELETS_PRECOMPILE_DEFAULT);
 
         cfg.strictJsf2ViewNotFound = getBoolean(extCtx, STRICT_JSF_2_VIEW_NOT_FOUND,
                 STRICT_JSF_2_VIEW_NOT_FOUND_DEFAULT);
@@ -1116,6 +1294,12 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         cfg.useCdiForAnnotationScanning = getBoolean(extCtx, USE_CDI_FOR_ANNOTATION_SCANNING,
                 USE_CDI_FOR_ANNOTATION_SCANNING_DEFAULT);
         
+        cfg.annotationScanParallel = getBoolean(extCtx, ANNOTATION_SCAN_PARALLEL,
+                ANNOTATION_SCAN_PARALLEL_DEFAULT);
+        
+        cfg.annotationScanIndex = getBoolean(extCtx, ANNOTATION_SCAN_INDEX,
+                ANNOTATION_SCAN_INDEX_DEFAULT);
+        
         cfg.resourceHandlerCacheEnabled = getBoolean(extCtx, RESOURCE_HANDLER_CACHE_ENABLED,
                 RESOURCE_HANDLER_CACHE_ENABLED_DEFAULT);
         if (cfg.projectStage != ProjectStage.Production)
@@ -1126,6 +1310,9 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         cfg.resourceHandlerCacheSize = getInt(extCtx, RESOURCE_HANDLER_CACHE_SIZE,
                 RESOURCE_HANDLER_CACHE_SIZE_DEFAULT);
         
+        cfg.resourceContentCacheSize = getInt(extCtx, RESOURCE_CONTENT_CACHE_SIZE,
+                RESOURCE_CONTENT_CACHE_SIZE_DEFAULT);
+        
         cfg.scanPackages = getString(extCtx, SCAN_PACKAGES,
                 null);
         
@@ -1177,6 +1364,12 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.useFlashScopePurgeViewsInSession = getBoolean(extCtx, USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION,
                 USE_FLASH_SCOPE_PURGE_VIEWS_IN_SESSION_DEFAULT);
+        
+        cfg.concurrentViewsInSession = getBoolean(extCtx, CONCURRENT_VIEWS_IN_SESSION,
+                CONCURRENT_VIEWS_IN_SESSION_DEFAULT);
+        
+        cfg.viewSessionAttributePerView = getBoolean(extCtx, VIEW_SESSION_ATTRIBUTE_PER_VIEW,
+                VIEW_SESSION_ATTRIBUTE_PER_VIEW_DEFAULT);
 
         cfg.autocompleteOffViewState = getBoolean(extCtx, AUTOCOMPLETE_OFF_VIEW_STATE,
                 AUTOCOMPLETE_OFF_VIEW_STATE_DEFAULT);
@@ -1192,6 +1385,8 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.elResolverPredicate = getString(extCtx, EL_RESOLVER_PREDICATE,
                 null);
+        cfg.elResolverCache = getBoolean(extCtx, EL_RESOLVER_CACHE,
+                EL_RESOLVER_CACHE_DEFAULT);
         
         cfg.viewIdExistsCacheEnabled = getBoolean(extCtx, VIEWID_EXISTS_CACHE_ENABLED,
                 VIEWID_EXISTS_CACHE_ENABLED_DEFAULT);
@@ -1247,6 +1442,9 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.markInitialStateWhenApplyBuildView = getBoolean(extCtx, MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW,
                 MARK_INITIAL_STATE_WHEN_APPLY_BUILD_VIEW_DEFAULT);
+
+        cfg.positionalPartialStateSaving = getBoolean(extCtx, POSITIONAL_PARTIAL_STATE_SAVING,
+                POSITIONAL_PARTIAL_STATE_SAVING_DEFAULT);
         
         cfg.resourceResolver = getString(extCtx, FACELETS_RESOURCE_RESOLVER,
                 null);
@@ -1276,6 +1474,12 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
             cfg.resourceCacheLastModified = false;
         }
         
+        cfg.resourceFingerprint = getBoolean(extCtx, RESOURCE_FINGERPRINT, RESOURCE_FINGERPRINT_DEFAULT);
+        if (cfg.projectStage == ProjectStage.Development)
+        {
+            cfg.resourceFingerprint = false;
+        }
+        
         String logWebContextParams = getString(extCtx, LOG_WEB_CONTEXT_PARAMS,
                 LOG_WEB_CONTEXT_PARAMS_DEFAULT);    
         if (logWebContextParams.equals("false") || (logWebContextParams.equals("auto")
@@ -1290,6 +1494,10 @@ else if (refreshTransientBuildOnPSS.equalsIgnoreCase("true") ||
         
         cfg.websocketMaxConnections = getInt(extCtx, WEBSOCKET_MAX_CONNECTIONS,
                 WEBSOCKET_MAX_CONNECTIONS_DEFAULT);
+        cfg.websocketMaxQueuedMessages = getInt(extCtx, WEBSOCKET_MAX_QUEUED_MESSAGES,
+                WEBSOCKET_MAX_QUEUED_MESSAGES_DEFAULT);
+        cfg.websocketQueueOverflowPolicy = getString(extCtx, WEBSOCKET_QUEUE_OVERFLOW_POLICY,
+                WEBSOCKET_QUEUE_OVERFLOW_POLICY_DEFAULT);
 
         cfg.renderClientBehaviorScriptsAsString = getBoolean(extCtx, RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING,
                 RENDER_CLIENTBEHAVIOR_SCRIPTS_AS_STRING_DEFAULT);
@@ -1466,6 +1674,16 @@ public int getComponentUniqueIdsCacheSize()
         return componentUniqueIdsCacheSize;
     }
 
+    public boolean isConcurrentFaceletCache()
+    {
+        return concurrentFaceletCache;
+    }
+
+    public boolean isFaceletsPrecompile()
+    {
+        return faceletsPrecompile;
+    }
+
     public boolean isStrictJsf2ViewNotFound()
     {
         return strictJsf2ViewNotFound;
@@ -1531,6 +1749,16 @@ public boolean isUseCdiForAnnotationScanning()
         return useCdiForAnnotationScanning;
     }
 
+    public boolean isAnnotationScanParallel()
+    {
+        return annotationScanParallel;
+    }
+
+    public boolean isAnnotationScanIndex()
+    {
+        return annotationScanIndex;
+    }
+
     public boolean isResourceHandlerCacheEnabled()
     {
         return resourceHandlerCacheEnabled;
@@ -1541,6 +1769,11 @@ public int getResourceHandlerCacheSize()
         return resourceHandlerCacheSize;
     }
 
+    public int getResourceContentCacheSize()
+    {
+        return resourceContentCacheSize;
+    }
+
     public String getScanPackages()
     {
         return scanPackages;
@@ -1606,6 +1839,16 @@ public boolean isUseFlashScopePurgeViewsInSession()
         return useFlashScopePurgeViewsInSession;
     }
 
+    public boolean isConcurrentViewsInSession()
+    {
+        return concurrentViewsInSession;
+    }
+
+    public boolean isViewSessionAttributePerView()
+    {
+        return viewSessionAttributePerView;
+    }
+
     public boolean isAutocompleteOffViewState()
     {
         return autocompleteOffViewState;
@@ -1631,6 +1874,11 @@ public String getElResolverPredicate()
         return elResolverPredicate;
     }
 
+    public boolean isElResolverCache()
+    {
+        return elResolverCache;
+    }
+
     public int getViewIdCacheSize()
     {
         return viewIdCacheSize;
@@ -1686,6 +1934,11 @@ public boolean isMarkInitialStateWhenApplyBuildView()
         return markInitialStateWhenApplyBuildView;
     }
 
+    public boolean isPositionalPartialStateSaving()
+    {
+        return positionalPartialStateSaving;
+    }
+
     public String getResourceResolver()
     {
         return resourceResolver;
@@ -1736,6 +1989,11 @@ public boolean isResourceCacheLastModified()
         return resourceCacheLastModified;
     }
 
+    public boolean isResourceFingerprint()
+    {
+        return resourceFingerprint;
+    }
+
     public boolean isLogWebContextParams()
     {
         return logWebContextParams;
@@ -1746,6 +2004,16 @@ public int getWebsocketMaxConnections()
         return websocketMaxConnections;
     }
 
+    public int getWebsocketMaxQueuedMessages()
+    {
+        return websocketMaxQueuedMessages;
+    }
+
+    public String getWebsocketQueueOverflowPolicy()
+    {
+        return websocketQueueOverflowPolicy;
+    }
+
     public boolean isRenderClientBehaviorScriptsAsString()
     {
         return renderClientBehaviorScriptsAsString;
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.config.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The class names that could contain annotations found in each scanned jar, kept in the work directory
+ * between restarts.
+ *
+ * <p>A jar is identified by its path, size and last modified time, so a jar that changed is scanned again.
+ * The index is discarded if it was written for other annotations, and only keeps the jars of the last scan.</p>
+ */
+final class AnnotationScanIndex
+{
+    private static final Logger log = Logger.getLogger(AnnotationScanIndex.class.getName());
+
+    static final String FILE_NAME = "myfaces-annotation-scan.idx";
+
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final String annotations;
+
+    /**
+     * The jars read from the file.
+     */
+    private final Map<String, Entry> previous = new HashMap<>();
+
+    /**
+     * The jars of the current scan, written back to the file.
+     */
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private volatile boolean modified;
+
+    private AnnotationScanIndex(File file, String annotations)
+    {
+        this.file = file;
+        this.annotations = annotations;
+    }
+
+    static AnnotationScanIndex load(File directory, Collection<String> annotationNames)
+    {
+        AnnotationScanIndex index = new AnnotationScanIndex(new File(directory, FILE_NAME),
+                String.join(",", new TreeSet<>(annotationNames)));
+        if (index.file.isFile())
+        {
+            try
+            {
+                index.read();
+            }
+            catch (IOException | RuntimeException e)
+            {
+                log.log(Level.WARNING, "Cannot read the annotation scan index " + index.file + ", it is ignored", e);
+                index.previous.clear();
+            }
+        }
+        return index;
+    }
+
+    private void read() throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))
+        {
+            if (in.readInt() != VERSION || !annotations.equals(in.readUTF()))
+            {
+                return;
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                String path = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                int classCount = in.readInt();
+                List<String> classNames = new ArrayList<>(classCount);
+                for (int j = 0; j < classCount; j++)
+                {
+                    classNames.add(in.readUTF());
+                }
+                previous.put(path, new Entry(size, lastModified, Collections.unmodifiableList(classNames)));
+            }
+        }
+    }
+
+    /**
+     * @return the class names found the last time the jar was scanned, or null if it was not scanned or changed.
+     */
+    List<String> get(File jar, long size, long lastModified)
+    {
+        Entry entry = previous.get(jar.getPath());
+        if (entry == null || entry.size != size || entry.lastModified != lastModified)
+        {
+            return null;
+        }
+        current.put(jar.getPath(), entry);
+        return entry.classNames;
+    }
+
+    /**
+     * @param size the size of the jar before it was scanned
+     * @param lastModified the last modified time of the jar before it was scanned
+     */
+    void put(File jar, long size, long lastModified, List<String> classNames)
+    {
+        current.put(jar.getPath(), new Entry(size, lastModified, classNames));
+        modified = true;
+    }
+
+    /**
+     * Writes the index if a jar was scanned, added or removed. The file is replaced at once, so a failed write
+     * or a concurrent start of the application never leaves a partial index.
+     */
+    void store()
+    {
+        if (!modified && current.size() == previous.size())
+        {
+            return;
+        }
+
+        File tmp = null;
+        try
+        {
+            Files.createDirectories(file.getParentFile().toPath());
+            tmp = File.createTempFile(FILE_NAME, ".tmp", file.getParentFile());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tmp.toPath()))))
+            {
+                out.writeInt(VERSION);
+                out.writeUTF(annotations);
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet())
+                {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().lastModified);
+                    out.writeInt(entry.getValue().classNames.size());
+                    for (String className : entry.getValue().classNames)
+                    {
+                        out.writeUTF(className);
+                    }
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.log(Level.WARNING, "Cannot write the annotation scan index " + file, e);
+        }
+        finally
+        {
+            if (tmp != null && !tmp.delete())
+            {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    private static final class Entry
+    {
+        private final long size;
+        private final long lastModified;
+        private final List<String> classNames;
+
+        Entry(long size, long lastModified, List<String> classNames)
+        {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.classNames = classNames;
+        }
+    }
+}
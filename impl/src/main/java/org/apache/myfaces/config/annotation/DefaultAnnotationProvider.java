@@ -18,7 +18,9 @@
  */
 package org.apache.myfaces.config.annotation;
 
+import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.net.JarURLConnection;
@@ -30,9 +32,15 @@
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
@@ -49,6 +57,7 @@
 import jakarta.faces.render.FacesRenderer;
 import jakarta.faces.validator.FacesValidator;
 import jakarta.faces.view.facelets.FaceletsResourceResolver;
+import jakarta.servlet.ServletContext;
 
 import org.apache.myfaces.cdi.util.CDIUtils;
 import org.apache.myfaces.config.MyfacesConfig;
@@ -206,25 +215,178 @@ protected Collection<Class<?>> getAnnotatedMetaInfClasses(ExternalContext ctx, S
     {
         if (urls != null && !urls.isEmpty())
         {
-            List<Class<?>> list = new ArrayList<>();
+            MyfacesConfig config = MyfacesConfig.getCurrentInstance(ctx);
+            AnnotationScanIndex index = null;
+            if (config.isAnnotationScanIndex())
+            {
+                File workDirectory = (File) ctx.getApplicationMap().get(ServletContext.TEMPDIR);
+                if (workDirectory != null)
+                {
+                    index = AnnotationScanIndex.load(workDirectory, JSF_ANNOTATION_NAMES);
+                }
+                else if (log.isLoggable(Level.FINE))
+                {
+                    log.fine("No work directory available, the annotation scan index is not used");
+                }
+            }
+
+            long start = System.nanoTime();
+            List<Callable<JarScan>> tasks = new ArrayList<>(urls.size());
             for (URL url : urls)
+            {
+                AnnotationScanIndex jarIndex = index;
+                tasks.add(() -> scanJar(url, jarIndex));
+            }
+            List<JarScan> scans = invokeAll(tasks, config.isAnnotationScanParallel());
+
+            // the same jar could be found by several urls
+            Set<String> classNames = new LinkedHashSet<>();
+            for (JarScan scan : scans)
+            {
+                classNames.addAll(scan.classNames);
+            }
+            List<Class<?>> list = new ArrayList<>(classNames.size());
+            loadClasses(getArchiveClassLoader(), classNames, list);
+
+            if (index != null)
+            {
+                index.store();
+            }
+            logJarScans(scans, System.nanoTime() - start);
+            return list;
+        }
+        return Collections.emptyList();
+    }
+
+    private JarScan scanJar(URL url, AnnotationScanIndex index)
+    {
+        long start = System.nanoTime();
+        JarScan scan = new JarScan(url);
+        try
+        {
+            JarFile jarFile = getJarFile(url);
+            if (jarFile != null)
             {
                 try
                 {
-                    JarFile jarFile = getJarFile(url);
-                    if (jarFile != null)
+                    File file = new File(jarFile.getName());
+                    // read before the scan, so a jar replaced meanwhile is scanned again next time
+                    long size = file.length();
+                    long lastModified = file.lastModified();
+
+                    List<String> classNames = null;
+                    if (index != null && lastModified != 0)
+                    {
+                        classNames = index.get(file, size, lastModified);
+                        scan.indexed = classNames != null;
+                    }
+                    if (classNames == null)
                     {
-                        archiveClasses(jarFile, list);
+                        classNames = archiveClassNames(jarFile);
+                        if (index != null && lastModified != 0)
+                        {
+                            index.put(file, size, lastModified, classNames);
+                        }
                     }
+                    scan.classNames = classNames;
                 }
-                catch(IOException e)
+                finally
                 {
-                    log.log(Level.SEVERE, "cannot scan jar file for annotations:"+url, e);
+                    // not shared, the connection does not use caches
+                    jarFile.close();
                 }
             }
-            return list;
         }
-        return Collections.emptyList();
+        catch(IOException e)
+        {
+            log.log(Level.SEVERE, "cannot scan jar file for annotations:"+url, e);
+        }
+        scan.time = System.nanoTime() - start;
+        return scan;
+    }
+
+    private void logJarScans(List<JarScan> scans, long time)
+    {
+        if (log.isLoggable(Level.FINE))
+        {
+            for (JarScan scan : scans)
+            {
+                log.fine("Scanned " + scan.url + " for annotations in " + TimeUnit.NANOSECONDS.toMillis(scan.time)
+                        + "ms" + (scan.indexed ? " (index)" : "") + ", " + scan.classNames.size() + " classes");
+            }
+        }
+
+        if (log.isLoggable(Level.INFO))
+        {
+            int indexed = 0;
+            for (JarScan scan : scans)
+            {
+                if (scan.indexed)
+                {
+                    indexed++;
+                }
+            }
+
+            List<JarScan> slowest = new ArrayList<>(scans);
+            slowest.sort((s1, s2) -> Long.compare(s2.time, s1.time));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < slowest.size() && i < 5; i++)
+            {
+                sb.append("\n    ").append(slowest.get(i).url).append(": ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(slowest.get(i).time)).append("ms");
+            }
+            log.info("Scanned " + scans.size() + " jars for annotations in " + TimeUnit.NANOSECONDS.toMillis(time)
+                    + "ms (" + indexed + " from the index), slowest jars:" + sb);
+        }
+    }
+
+    /**
+     * Runs the tasks on a fork join pool, or in the current thread.
+     *
+     * @return the results in the order of the tasks
+     */
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks, boolean parallel)
+    {
+        List<T> results = new ArrayList<>(tasks.size());
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+        if (!parallel || parallelism < 2)
+        {
+            for (Callable<T> task : tasks)
+            {
+                try
+                {
+                    results.add(task.call());
+                }
+                catch (Exception e)
+                {
+                    throw new FacesException(e);
+                }
+            }
+            return results;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            for (Future<T> future : pool.invokeAll(tasks))
+            {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FacesException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new FacesException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
     }
 
     protected Collection<Class<?>> getAnnotatedWebInfClasses(ExternalContext ctx) throws IOException
@@ -271,7 +433,7 @@ private List<Class<?>> packageClasses(final ExternalContext externalContext, fin
                 URL url = new URL(jarURLString);
                 JarFile jarFile = ((JarURLConnection) url.openConnection()).getJarFile();
 
-                archiveClasses(jarFile, list);
+                loadClasses(getArchiveClassLoader(), archiveClassNames(jarFile), list);
             }
             else
             {
@@ -286,23 +448,14 @@ private List<Class<?>> packageClasses(final ExternalContext externalContext, fin
     }    
     
     /**
-     * <p>Return a list of classes to examine from the specified JAR archive.
+     * <p>Return the names of the classes to examine from the specified JAR archive.
      * If this archive has no classes in it, a zero-length list is returned.</p>
      *
-     * @param context <code>ExternalContext</code> instance for
-     *  this application
      * @param jar <code>JarFile</code> for the archive to be scanned
-     *
-     * @exception ClassNotFoundException if a located class cannot be loaded
      */
-    private List<Class<?>> archiveClasses(JarFile jar, List<Class<?>> list)
+    private List<String> archiveClassNames(JarFile jar)
     {
-        // Accumulate and return a list of classes in this JAR file
-        ClassLoader loader = ClassUtils.getContextClassLoader();
-        if (loader == null)
-        {
-            loader = this.getClass().getClassLoader();
-        }
+        List<String> list = new ArrayList<>();
         Enumeration<JarEntry> entries = jar.entries();
         while (entries.hasMoreElements())
         {
@@ -321,11 +474,9 @@ private List<Class<?>> archiveClasses(JarFile jar, List<Class<?>> list)
                 continue; // This is not a class
             }
 
-            DataInputStream in = null;
-            boolean couldContainAnnotation = false;
-            try
+            boolean couldContainAnnotation;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(jar.getInputStream(entry))))
             {
-                in = new DataInputStream(jar.getInputStream(entry));
                 couldContainAnnotation = ClassByteCodeAnnotationFilter.couldContainAnnotationsOnClassDef(in,
                         JSF_ANNOTATION_NAMES);
             }
@@ -341,42 +492,49 @@ private List<Class<?>> archiveClasses(JarFile jar, List<Class<?>> list)
                     log.fine("IOException when filtering class " + name + " for annotations");
                 }
             }
-            finally
-            {
-                if (in != null)
-                {
-                    try
-                    {
-                        in.close();
-                    }
-                    catch (IOException e)
-                    {
-                        // No Op
-                    }
-                }
-            }
 
             if (couldContainAnnotation)
             {
                 name = name.substring(0, name.length() - 6); // Trim ".class"
-                Class<?> clazz = null;
-                try
-                {
-                    clazz = loader.loadClass(name.replace('/', '.'));
-                }
-                catch (NoClassDefFoundError | Exception e)
-                {
-                    // Skip this class - we cannot analyze classes we cannot load
-                }
-                // Skip this class - we cannot analyze classes we cannot load
-                if (clazz != null)
-                {
-                    list.add(clazz);
-                }
+                list.add(name.replace('/', '.'));
             }
         }
         return list;
+    }
 
+    private ClassLoader getArchiveClassLoader()
+    {
+        ClassLoader loader = ClassUtils.getContextClassLoader();
+        if (loader == null)
+        {
+            loader = this.getClass().getClassLoader();
+        }
+        return loader;
+    }
+
+    /**
+     * Loads the classes in the current thread, the class loader of the application could not support
+     * loading classes from other threads.
+     */
+    private static void loadClasses(ClassLoader loader, Collection<String> classNames, List<Class<?>> list)
+    {
+        for (String className : classNames)
+        {
+            Class<?> clazz = null;
+            try
+            {
+                clazz = loader.loadClass(className);
+            }
+            catch (NoClassDefFoundError | Exception e)
+            {
+                // Skip this class - we cannot analyze classes we cannot load
+            }
+            // Skip this class - we cannot analyze classes we cannot load
+            if (clazz != null)
+            {
+                list.add(clazz);
+            }
+        }
     }
     
     /**
@@ -392,26 +550,40 @@ private List<Class<?>> archiveClasses(JarFile jar, List<Class<?>> list)
      */
     private List<Class<?>> webClasses(ExternalContext externalContext)
     {
-        List<Class<?>> list = new ArrayList<>();
-        webClasses(externalContext, WEB_CLASSES_PREFIX, list);
+        List<String> paths = new ArrayList<>();
+        webClasses(externalContext, WEB_CLASSES_PREFIX, paths);
+
+        List<Callable<String>> tasks = new ArrayList<>(paths.size());
+        for (String path : paths)
+        {
+            tasks.add(() -> webClassName(externalContext, path));
+        }
+        List<String> classNames = new ArrayList<>(paths.size());
+        for (String className : invokeAll(tasks,
+                MyfacesConfig.getCurrentInstance(externalContext).isAnnotationScanParallel()))
+        {
+            if (className != null)
+            {
+                classNames.add(className);
+            }
+        }
+
+        List<Class<?>> list = new ArrayList<>(classNames.size());
+        loadClasses(ClassUtils.getCurrentLoader(this), classNames, list);
         return list;
     }
 
     /**
-     * <p>Add classes found in the specified directory to the specified
+     * <p>Add the paths of the classes found in the specified directory to the specified
      * list, recursively calling this method when a directory is encountered.</p>
      *
      * @param externalContext <code>ExternalContext</code> instance for
      *  this application
      * @param prefix Prefix specifying the "directory path" to be searched
      * @param list List to be appended to
-     *
-     * @exception ClassNotFoundException if a located class cannot be loaded
      */
-    private void webClasses(ExternalContext externalContext, String prefix, List<Class<?>> list)
+    private void webClasses(ExternalContext externalContext, String prefix, List<String> list)
     {
-        ClassLoader loader = ClassUtils.getCurrentLoader(this);
-
         Set<String> paths = externalContext.getResourcePaths(prefix);
         if (paths == null)
         {
@@ -422,8 +594,6 @@ private void webClasses(ExternalContext externalContext, String prefix, List<Cla
             log.finest("webClasses(" + prefix + ") - Received " + paths.size() + " paths to check");
         }
 
-        String path = null;
-
         if (paths.isEmpty())
         {
             if (log.isLoggable(Level.WARNING))
@@ -440,76 +610,55 @@ private void webClasses(ExternalContext externalContext, String prefix, List<Cla
         }
         else
         {
-            for (Object pathObject : paths)
+            for (String path : paths)
             {
-                path = (String) pathObject;
                 if (path.endsWith("/"))
                 {
                     webClasses(externalContext, path, list);
                 }
                 else if (path.endsWith(".class"))
                 {
-                    DataInputStream in = null;
-                    boolean couldContainAnnotation = false;
-                    try
-                    {
-                        in = new DataInputStream(externalContext.getResourceAsStream(path));
-                        couldContainAnnotation = ClassByteCodeAnnotationFilter.couldContainAnnotationsOnClassDef(in,
-                                JSF_ANNOTATION_NAMES);
-                    }
-                    catch (IOException e)
-                    {
-                        // Include this class - we can't scan this class using
-                        // the filter, but it could be valid, so we need to
-                        // load it using the classLoader. Anyway, log a debug
-                        // message.
-                        couldContainAnnotation = true;
-                        if (log.isLoggable(Level.FINE))
-                        {
-                            log.fine("IOException when filtering class " + path + " for annotations");
-                        }
-                    }
-                    finally
-                    {
-                        if (in != null)
-                        {
-                            try
-                            {
-                                in.close();
-                            }
-                            catch (IOException e)
-                            {
-                                // No Op
-                            }
-                        }
-                    }
-
-                    if (couldContainAnnotation)
-                    {
-                        //Load it and add it to list for later processing
-                        path = path.substring(WEB_CLASSES_PREFIX.length()); // Strip prefix
-                        path = path.substring(0, path.length() - 6); // Strip suffix
-                        path = path.replace('/', '.'); // Convert to FQCN
-
-                        Class<?> clazz = null;
-                        try
-                        {
-                            clazz = loader.loadClass(path);
-                        }
-                        catch (NoClassDefFoundError | Exception e)
-                        {
-                            // Skip this class - we cannot analyze classes we cannot load
-                        }
-                        // Skip this class - we cannot analyze classes we cannot load
-                        if (clazz != null)
-                        {
-                            list.add(clazz);
-                        }
-                    }
+                    list.add(path);
                 }
             }
         }
     }
+
+    /**
+     * @return the name of the class if it could contain annotations, otherwise null.
+     */
+    private String webClassName(ExternalContext externalContext, String path)
+    {
+        boolean couldContainAnnotation;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                externalContext.getResourceAsStream(path))))
+        {
+            couldContainAnnotation = ClassByteCodeAnnotationFilter.couldContainAnnotationsOnClassDef(in,
+                    JSF_ANNOTATION_NAMES);
+        }
+        catch (IOException e)
+        {
+            // Include this class - we can't scan this class using
+            // the filter, but it could be valid, so we need to
+            // load it using the classLoader. Anyway, log a debug
+            // message.
+            couldContainAnnotation = true;
+            if (log.isLoggable(Level.FINE))
+            {
+                log.fine("IOException when filtering class " + path + " for annotations");
+            }
+        }
+
+        if (!couldContainAnnotation)
+        {
+            return null;
+        }
+
+        //Load it and add it to list for later processing
+        String className = path.substring(WEB_CLASSES_PREFIX.length()); // Strip prefix
+        className = className.substring(0, className.length() - 6); // Strip suffix
+        return className.replace('/', '.'); // Convert to FQCN
+    }
     
     private JarFile getJarFile(URL url) throws IOException
     {
@@ -566,6 +715,22 @@ private static JarFile _getAlternativeJarFile(URL url) throws IOException
     }
 
     
+    /**
+     * The result of the scan of one jar.
+     */
+    private static final class JarScan
+    {
+        private final URL url;
+        private List<String> classNames = Collections.emptyList();
+        private long time;
+        private boolean indexed;
+
+        JarScan(URL url)
+        {
+            this.url = url;
+        }
+    }
+
     private void processClass(Map<Class<? extends Annotation>,Set<Class<?>>> map, Class<?> clazz)
     {
         Annotation[] annotations = clazz.getAnnotations();
@@ -20,22 +20,186 @@
 
 import java.beans.FeatureDescriptor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import jakarta.el.ArrayELResolver;
+import jakarta.el.BeanELResolver;
 import jakarta.el.ELContext;
 import jakarta.el.ELResolver;
+import jakarta.el.ListELResolver;
+import jakarta.el.MapELResolver;
+import jakarta.el.ResourceBundleELResolver;
+
+import org.apache.myfaces.el.resolver.implicitobject.ImplicitObjectResolver;
 
 /**
+ * CompositeELResolver which can remember which resolver of the chain resolved the value the last time, per class of
+ * the base and class of the property, or per property name for the top level identifiers (null base).
+ * 
+ * <p>The next getValue for the same key does not ask the resolvers before that one whose answer only depends on
+ * that key, they would not resolve it this time either. All the other resolvers before it are still asked in order,
+ * so the result is always the one of the whole chain. If none of them resolves the value anymore, the entry is
+ * dropped and the whole chain is walked again.</p>
+ * 
  * @author Mathias Broekelmann (latest modification by $Author$)
  * @version $Revision$ $Date$
  */
 public class CompositeELResolver extends jakarta.el.CompositeELResolver
 {
+    /**
+     * The resolvers whose getValue resolves or not only depending on the class of the base and of the property, or
+     * on the property name if the base is null.
+     */
+    private static final Set<Class<?>> STATIC_RESOLVERS = new HashSet<>(Arrays.asList(
+            ImplicitObjectResolver.class,
+            ResourceBundleResolver.class,
+            EmptyStringToNullELResolver.class,
+            LambdaBeanELResolver.class,
+            ResourceBundleELResolver.class,
+            MapELResolver.class,
+            ListELResolver.class,
+            ArrayELResolver.class,
+            BeanELResolver.class));
+
     private Collection<ELResolver> _elResolvers;
 
+    private volatile ELResolver[] _resolvers = new ELResolver[0];
+
+    /**
+     * Base class -> property class -> resolvers to ask. Bounded by the classes of the application.
+     */
+    private final Map<Class<?>, Map<Class<?>, int[]>> _resolverCache;
+
+    /**
+     * Top level identifier -> resolvers to ask. Bounded by the identifiers used in the expressions.
+     */
+    private final Map<String, int[]> _identifierCache;
+
+    /**
+     * Only created, and updated, when the resolver cache is enabled.
+     */
+    private final LongAdder _cacheHits;
+    private final LongAdder _cacheMisses;
+
+    public CompositeELResolver()
+    {
+        this(false);
+    }
+
+    /**
+     * @param resolverCache if the resolver which resolved a value is remembered, see the class description
+     */
+    public CompositeELResolver(boolean resolverCache)
+    {
+        _resolverCache = resolverCache ? new ConcurrentHashMap<>() : null;
+        _identifierCache = resolverCache ? new ConcurrentHashMap<>() : null;
+        _cacheHits = resolverCache ? new LongAdder() : null;
+        _cacheMisses = resolverCache ? new LongAdder() : null;
+    }
+
+    @Override
+    public Object getValue(ELContext context, Object base, Object property)
+    {
+        if (_resolverCache == null || property == null || (base == null && !(property instanceof String)))
+        {
+            return super.getValue(context, base, property);
+        }
+
+        ELResolver[] resolvers = _resolvers;
+
+        Map<Class<?>, int[]> propertyCache = null;
+        int[] plan;
+        if (base == null)
+        {
+            plan = _identifierCache.get(property);
+        }
+        else
+        {
+            propertyCache = _resolverCache.get(base.getClass());
+            plan = propertyCache == null ? null : propertyCache.get(property.getClass());
+        }
+
+        if (plan != null)
+        {
+            context.setPropertyResolved(false);
+            for (int index : plan)
+            {
+                Object value = resolvers[index].getValue(context, base, property);
+                if (context.isPropertyResolved())
+                {
+                    _cacheHits.increment();
+                    return value;
+                }
+            }
+        }
+
+        _cacheMisses.increment();
+        context.setPropertyResolved(false);
+        for (int i = 0; i < resolvers.length; i++)
+        {
+            Object value = resolvers[i].getValue(context, base, property);
+            if (context.isPropertyResolved())
+            {
+                int[] resolvedPlan = plan(resolvers, i);
+                if (base == null)
+                {
+                    _identifierCache.put((String) property, resolvedPlan);
+                }
+                else
+                {
+                    if (propertyCache == null)
+                    {
+                        propertyCache = _resolverCache.computeIfAbsent(base.getClass(),
+                                k -> new ConcurrentHashMap<>(4));
+                    }
+                    propertyCache.put(property.getClass(), resolvedPlan);
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static int[] plan(ELResolver[] resolvers, int resolved)
+    {
+        int[] plan = new int[resolved + 1];
+        int size = 0;
+        for (int i = 0; i < resolved; i++)
+        {
+            if (!STATIC_RESOLVERS.contains(resolvers[i].getClass()))
+            {
+                plan[size++] = i;
+            }
+        }
+        plan[size++] = resolved;
+        return size == plan.length ? plan : Arrays.copyOf(plan, size);
+    }
+
+    /**
+     * @return the number of getValue calls resolved by a remembered resolver, 0 if the resolver cache is disabled
+     */
+    public long getCacheHits()
+    {
+        return _cacheHits == null ? 0 : _cacheHits.sum();
+    }
+
+    /**
+     * @return the number of getValue calls which walked the whole chain, 0 if the resolver cache is disabled
+     */
+    public long getCacheMisses()
+    {
+        return _cacheMisses == null ? 0 : _cacheMisses.sum();
+    }
+
     @Override
     public Iterator<FeatureDescriptor> getFeatureDescriptors(final ELContext context, final Object base)
     {
@@ -62,6 +226,15 @@ public final synchronized void add(final ELResolver elResolver)
         }
 
         _elResolvers.add(elResolver);
+
+        ELResolver[] resolvers = Arrays.copyOf(_resolvers, _resolvers.length + 1);
+        resolvers[resolvers.length - 1] = elResolver;
+        _resolvers = resolvers;
+        if (_resolverCache != null)
+        {
+            _resolverCache.clear();
+            _identifierCache.clear();
+        }
     }
 
     private static class CompositeIterator implements Iterator<FeatureDescriptor>
@@ -18,7 +18,9 @@
  */
 package org.apache.myfaces.push;
 
+import org.apache.myfaces.push.cdi.WebsocketApplicationBean;
 import org.apache.myfaces.push.cdi.WebsocketApplicationSessionHolder;
+import org.apache.myfaces.push.cdi.WebsocketChannelMetadata;
 import java.io.IOException;
 import java.io.Serializable;
 import jakarta.enterprise.inject.spi.BeanManager;
@@ -33,6 +35,7 @@
 import jakarta.websocket.Endpoint;
 import jakarta.websocket.EndpointConfig;
 import jakarta.websocket.Session;
+import org.apache.myfaces.cdi.util.CDIUtils;
 
 /**
  *
@@ -76,6 +79,20 @@ public void onOpen(Session session, EndpointConfig config)
             Serializable user = (Serializable) session.getUserProperties().get(WebsocketConfigurator.WEBSOCKET_USER);
 
             BeanManager beanManager = CDI.current().getBeanManager();
+
+            // The token is removed from application scope on close, register it again if this is a reconnection
+            WebsocketChannelMetadata metadata = (WebsocketChannelMetadata) config.getUserProperties().get(
+                    WebsocketConfigurator.WEBSOCKET_METADATA);
+            if (metadata != null)
+            {
+                WebsocketApplicationBean appTokenBean = CDIUtils.get(beanManager,
+                        WebsocketApplicationBean.class, false);
+                if (appTokenBean != null)
+                {
+                    appTokenBean.registerWebsocketSession(channelToken, metadata);
+                }
+            }
+
             beanManager.fireEvent(new WebsocketEvent(channel, user, null), OPENED);
             
             session.getUserProperties().put(
@@ -120,7 +137,25 @@ public void onClose(Session session, CloseReason closeReason)
         }
         finally
         {
-            WebsocketApplicationSessionHolder.removeSession(channelToken);
+            WebsocketApplicationSessionHolder.removeSession(channel, channelToken);
+            deregisterWebsocketSession(channelToken);
+        }
+    }
+
+    private void deregisterWebsocketSession(String channelToken)
+    {
+        try
+        {
+            WebsocketApplicationBean appTokenBean = CDIUtils.get(CDI.current().getBeanManager(),
+                    WebsocketApplicationBean.class, false);
+            if (appTokenBean != null)
+            {
+                appTokenBean.deregisterWebsocketSession(channelToken);
+            }
+        }
+        catch(Exception e)
+        {
+            //No op, same as above. The token stays registered but there is no session to send to.
         }
     }
 
@@ -18,19 +18,33 @@
  */
 package org.apache.myfaces.push;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Array;
+import java.lang.reflect.Method;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TimeZone;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.myfaces.core.api.shared.lang.LambdaPropertyDescriptor;
+import org.apache.myfaces.core.api.shared.lang.PropertyDescriptorUtils;
 
 /**
  * A simple JSON encoder.
@@ -39,15 +53,29 @@
  *      org.omnifaces.util.Utils
  *      Copyright 2016 OmniFaces and the original author or authors.
  * 
+ * <p>The properties of a bean class are introspected once, their getters are called through a
+ * {@link LambdaPropertyDescriptor} when possible. The JSON is written into a char buffer reused by the thread.</p>
+ * 
  * @author Arjan Tijms
  * @author Bauke Scholtz
  */
 public final class Json
 {
     // Constants ------------------------------------------------------------------------------------------------------
+    private static final Logger log = Logger.getLogger(Json.class.getName());
+
     private static final String ERROR_INVALID_BEAN = "Cannot introspect object of type '%s' as bean.";
     private static final String ERROR_INVALID_GETTER = "Cannot invoke getter of property '%s' of bean '%s'.";
 
+    private static final ClassValue<BeanProperty[]> BEAN_PROPERTIES = new ClassValue<BeanProperty[]>()
+    {
+        @Override
+        protected BeanProperty[] computeValue(Class<?> type)
+        {
+            return getBeanProperties(type);
+        }
+    };
+
     // Constructors ---------------------------------------------------------------------------------------------------
     private Json()
     {
@@ -69,184 +97,438 @@ private Json()
      */
     public static String encode(Object object)
     {
-        StringBuilder builder = new StringBuilder();
-        encode(object, builder);
-        return builder.toString();
+        JsonOutput output = new JsonOutput(null);
+        try
+        {
+            encode(object, output);
+            return output.toString();
+        }
+        catch (IOException e)
+        {
+            // there is no writer
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            output.release();
+        }
+    }
+
+    /**
+     * Encodes the given object as JSON into the given writer, see {@link #encode(Object)}. The writer is not flushed.
+     *
+     * @param object The object to be encoded as JSON.
+     * @param writer The writer the JSON-encoded representation of the given object is written to.
+     * @throws IOException When the writer fails.
+     * @throws IllegalArgumentException When the given object or one of its properties cannot be inspected as a bean.
+     */
+    public static void encode(Object object, Writer writer) throws IOException
+    {
+        JsonOutput output = new JsonOutput(writer);
+        try
+        {
+            encode(object, output);
+            output.flush();
+        }
+        finally
+        {
+            output.release();
+        }
     }
 
     /**
      * Method allowing tail recursion (prevents potential stack overflow on deeply nested structures).
      */
-    private static void encode(Object object, StringBuilder builder)
+    private static void encode(Object object, JsonOutput output) throws IOException
     {
         if (object == null)
         {
-            builder.append("null");
+            output.write("null");
         }
         else if (object instanceof Boolean || object instanceof Number)
         {
-            builder.append(object.toString());
+            output.write(object.toString());
         }
         else if (object instanceof CharSequence)
         {
-            builder.append('"').append(escapeJS(object.toString(), false)).append('"');
+            encodeString(object.toString(), output);
         }
         else if (object instanceof Date)
         {
-            builder.append('"').append(formatRFC1123((Date) object)).append('"');
+            output.write('"');
+            output.write(formatRFC1123((Date) object));
+            output.write('"');
         }
         else if (object instanceof Collection<?>)
         {
-            encodeCollection((Collection<?>) object, builder);
+            encodeCollection((Collection<?>) object, output);
         }
         else if (object.getClass().isArray())
         {
-            encodeArray(object, builder);
+            encodeArray(object, output);
         }
         else if (object instanceof Map<?, ?>)
         {
-            encodeMap((Map<?, ?>) object, builder);
+            encodeMap((Map<?, ?>) object, output);
         }
         else if (object instanceof Class<?>)
         {
-            encode(((Class<?>) object).getName(), builder);
+            encodeString(((Class<?>) object).getName(), output);
         }
         else
         {
-            encodeBean(object, builder);
+            encodeBean(object, output);
         }
     }
 
+    /**
+     * Encode a Java string as JS string.
+     */
+    private static void encodeString(String string, JsonOutput output) throws IOException
+    {
+        output.write('"');
+        escapeJS(string, false, output);
+        output.write('"');
+    }
+
     /**
      * Encode a Java collection as JS array.
      */
-    private static void encodeCollection(Collection<?> collection, StringBuilder builder)
+    private static void encodeCollection(Collection<?> collection, JsonOutput output) throws IOException
     {
-        builder.append('[');
+        output.write('[');
         int i = 0;
 
         for (Object element : collection)
         {
             if (i++ > 0)
             {
-                builder.append(',');
+                output.write(',');
             }
 
-            encode(element, builder);
+            encode(element, output);
         }
 
-        builder.append(']');
+        output.write(']');
     }
 
     /**
      * Encode a Java array as JS array.
      */
-    private static void encodeArray(Object array, StringBuilder builder)
+    private static void encodeArray(Object array, JsonOutput output) throws IOException
     {
-        builder.append('[');
-        int length = Array.getLength(array);
+        output.write('[');
 
-        for (int i = 0; i < length; i++)
+        if (array instanceof Object[])
         {
-            if (i > 0)
+            Object[] objects = (Object[]) array;
+            for (int i = 0; i < objects.length; i++)
             {
-                builder.append(',');
+                if (i > 0)
+                {
+                    output.write(',');
+                }
+
+                encode(objects[i], output);
             }
+        }
+        else
+        {
+            int length = Array.getLength(array);
 
-            encode(Array.get(array, i), builder);
+            for (int i = 0; i < length; i++)
+            {
+                if (i > 0)
+                {
+                    output.write(',');
+                }
+
+                encode(Array.get(array, i), output);
+            }
         }
 
-        builder.append(']');
+        output.write(']');
     }
 
     /**
      * Encode a Java map as JS object.
      */
-    private static void encodeMap(Map<?, ?> map, StringBuilder builder)
+    private static void encodeMap(Map<?, ?> map, JsonOutput output) throws IOException
     {
-        builder.append('{');
+        output.write('{');
         int i = 0;
 
         for (Entry<?, ?> entry : map.entrySet())
         {
             if (i++ > 0)
             {
-                builder.append(',');
+                output.write(',');
             }
 
-            encode(String.valueOf(entry.getKey()), builder);
-            builder.append(':');
-            encode(entry.getValue(), builder);
+            encodeString(String.valueOf(entry.getKey()), output);
+            output.write(':');
+            encode(entry.getValue(), output);
         }
 
-        builder.append('}');
+        output.write('}');
     }
 
     /**
      * Encode a Java bean as JS object.
      */
-    private static void encodeBean(Object bean, StringBuilder builder)
+    private static void encodeBean(Object bean, JsonOutput output) throws IOException
+    {
+        output.write('{');
+        int i = 0;
+
+        for (BeanProperty property : BEAN_PROPERTIES.get(bean.getClass()))
+        {
+            Object value = property.getValue(bean);
+
+            if (value == null)
+            {
+                continue;
+            }
+
+            if (i++ > 0)
+            {
+                output.write(',');
+            }
+
+            output.write(property.key);
+            encode(value, output);
+        }
+
+        output.write('}');
+    }
+
+    private static BeanProperty[] getBeanProperties(Class<?> type)
     {
-        BeanInfo beanInfo;
+        PropertyDescriptor[] propertyDescriptors;
 
         try
         {
-            beanInfo = Introspector.getBeanInfo(bean.getClass());
+            propertyDescriptors = Introspector.getBeanInfo(type).getPropertyDescriptors();
         }
         catch (IntrospectionException e)
         {
-            throw new IllegalArgumentException(
-                    String.format(ERROR_INVALID_BEAN, bean.getClass()), e);
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_BEAN, type), e);
         }
 
-        builder.append('{');
-        int i = 0;
+        Map<String, LambdaPropertyDescriptor> lambdaPropertyDescriptors;
+        try
+        {
+            lambdaPropertyDescriptors = PropertyDescriptorUtils.getLambdaPropertyDescriptors(type);
+        }
+        catch (Throwable e)
+        {
+            // e.g. no access to the class, the getters are invoked by reflection
+            if (log.isLoggable(Level.FINEST))
+            {
+                log.log(Level.FINEST, "Could not generate LambdaPropertyDescriptor for " + type.getName(), e);
+            }
+            lambdaPropertyDescriptors = Collections.emptyMap();
+        }
 
-        for (PropertyDescriptor property : beanInfo.getPropertyDescriptors())
+        List<BeanProperty> properties = new ArrayList<>(propertyDescriptors.length);
+        for (PropertyDescriptor property : propertyDescriptors)
         {
             if (property.getReadMethod() == null || "class".equals(property.getName()))
             {
                 continue;
             }
 
-            Object value;
+            LambdaPropertyDescriptor lambdaPropertyDescriptor = lambdaPropertyDescriptors.get(property.getName());
+            properties.add(new BeanProperty(type, property.getName(), property.getReadMethod(),
+                    lambdaPropertyDescriptor == null ? null : lambdaPropertyDescriptor.getReadFunction()));
+        }
+        return properties.toArray(new BeanProperty[properties.size()]);
+    }
 
+    /**
+     * A readable property of a bean class, with its name already encoded as JS object key.
+     */
+    private static final class BeanProperty
+    {
+        private final Class<?> beanClass;
+        private final String name;
+        private final char[] key;
+        private final Method readMethod;
+        private final Function<Object, Object> readFunction;
+
+        BeanProperty(Class<?> beanClass, String name, Method readMethod, Function<Object, Object> readFunction)
+        {
+            this.beanClass = beanClass;
+            this.name = name;
+            this.key = ('"' + escapeJS(name, false) + "\":").toCharArray();
+            this.readMethod = readMethod;
+            this.readFunction = readFunction;
+        }
+
+        Object getValue(Object bean)
+        {
             try
             {
-                value = property.getReadMethod().invoke(bean);
+                if (readFunction != null)
+                {
+                    return readFunction.apply(bean);
+                }
+                return readMethod.invoke(bean);
             }
             catch (Exception e)
             {
-                throw new IllegalArgumentException(
-                        String.format(ERROR_INVALID_GETTER, property.getName(), bean.getClass()), e);
+                throw new IllegalArgumentException(String.format(ERROR_INVALID_GETTER, name, beanClass), e);
             }
+        }
+    }
 
-            if (value == null)
+    /**
+     * Buffers the JSON in a char array reused by the thread. Without writer the array grows until the end,
+     * otherwise it is written to the writer every time it is full.
+     */
+    private static final class JsonOutput
+    {
+        private static final int BUFFER_SIZE = 1024;
+
+        /**
+         * Bigger buffers are not kept, so a single big message does not stay in memory.
+         */
+        private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+        private static final ThreadLocal<char[]> BUFFERS = new ThreadLocal<>();
+
+        private final Writer writer;
+        private char[] buffer;
+        private int length;
+
+        JsonOutput(Writer writer)
+        {
+            this.writer = writer;
+
+            // taken from the pool while in use, in case a getter encodes JSON too
+            buffer = BUFFERS.get();
+            if (buffer == null)
             {
-                continue;
+                buffer = new char[BUFFER_SIZE];
+            }
+            else
+            {
+                BUFFERS.remove();
             }
+        }
 
-            if (i++ > 0)
+        void write(char c) throws IOException
+        {
+            if (length == buffer.length)
             {
-                builder.append(',');
+                makeRoom(1);
             }
+            buffer[length++] = c;
+        }
 
-            encode(property.getName(), builder);
-            builder.append(':');
-            encode(value, builder);
+        void write(char[] chars) throws IOException
+        {
+            if (length + chars.length > buffer.length)
+            {
+                makeRoom(chars.length);
+            }
+            if (chars.length > buffer.length)
+            {
+                writer.write(chars);
+                return;
+            }
+            System.arraycopy(chars, 0, buffer, length, chars.length);
+            length += chars.length;
         }
 
-        builder.append('}');
+        void write(String string) throws IOException
+        {
+            write(string, 0, string.length());
+        }
+
+        void write(String string, int start, int end) throws IOException
+        {
+            int count = end - start;
+            if (length + count > buffer.length)
+            {
+                makeRoom(count);
+            }
+            if (count > buffer.length)
+            {
+                writer.write(string, start, count);
+                return;
+            }
+            string.getChars(start, end, buffer, length);
+            length += count;
+        }
+
+        /**
+         * Writes the buffer to the writer or grows it. With a writer the count could still not fit.
+         */
+        private void makeRoom(int count) throws IOException
+        {
+            if (writer != null)
+            {
+                flush();
+            }
+            else
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+            }
+        }
+
+        void flush() throws IOException
+        {
+            if (length > 0)
+            {
+                writer.write(buffer, 0, length);
+                length = 0;
+            }
+        }
+
+        void release()
+        {
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE)
+            {
+                BUFFERS.set(buffer);
+            }
+            buffer = null;
+        }
+
+        @Override
+        public String toString()
+        {
+            return new String(buffer, 0, length);
+        }
     }
 
-    
     // Escaping/unescaping --------------------------------------------------------------------------------------------
     
-    private static final int UNICODE_3_BYTES = 0xfff;
-    private static final int UNICODE_2_BYTES = 0xff;
-    private static final int UNICODE_1_BYTE = 0xf;
     private static final int UNICODE_END_PRINTABLE_ASCII = 0x7f;
     private static final int UNICODE_BEGIN_PRINTABLE_ASCII = 0x20;    
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * The escaped form of the ASCII characters, null if the character is written as is.
+     */
+    private static final String[] ASCII_ESCAPES = new String[UNICODE_END_PRINTABLE_ASCII + 1];
+
+    static
+    {
+        for (int c = 0; c < UNICODE_BEGIN_PRINTABLE_ASCII; c++)
+        {
+            ASCII_ESCAPES[c] = String.format("\\u%04x", c);
+        }
+        ASCII_ESCAPES['\b'] = "\\b";
+        ASCII_ESCAPES['\n'] = "\\n";
+        ASCII_ESCAPES['\t'] = "\\t";
+        ASCII_ESCAPES['\f'] = "\\f";
+        ASCII_ESCAPES['\r'] = "\\r";
+        ASCII_ESCAPES['"'] = "\\\"";
+        ASCII_ESCAPES['\\'] = "\\\\";
+        ASCII_ESCAPES['/'] = "\\/";
+    }
     
     /**
      * Escapes the given string according the JavaScript code rules. This escapes among others the special characters,
@@ -265,98 +547,80 @@ public static String escapeJS(String string, boolean escapeSingleQuote)
             return null;
         }
 
-        StringBuilder builder = new StringBuilder(string.length());
+        JsonOutput output = new JsonOutput(null);
+        try
+        {
+            escapeJS(string, escapeSingleQuote, output);
+            return output.toString();
+        }
+        catch (IOException e)
+        {
+            // there is no writer
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            output.release();
+        }
+    }
+
+    /**
+     * Writes the runs of characters that need no escaping straight from the string.
+     */
+    private static void escapeJS(String string, boolean escapeSingleQuote, JsonOutput output) throws IOException
+    {
+        int length = string.length();
+        int start = 0;
 
-        for (char c : string.toCharArray())
+        for (int i = 0; i < length; i++)
         {
-            if (c > UNICODE_3_BYTES)
-            {
-                builder.append("\\u").append(Integer.toHexString(c));
-            }
-            else if (c > UNICODE_2_BYTES)
+            char c = string.charAt(i);
+            String escape = null;
+            if (c <= UNICODE_END_PRINTABLE_ASCII)
             {
-                builder.append("\\u0").append(Integer.toHexString(c));
+                escape = ASCII_ESCAPES[c];
+                if (escape == null)
+                {
+                    if (c != '\'' || !escapeSingleQuote)
+                    {
+                        continue;
+                    }
+                    escape = "\\'";
+                }
             }
-            else if (c > UNICODE_END_PRINTABLE_ASCII)
+
+            if (start < i)
             {
-                builder.append("\\u00").append(Integer.toHexString(c));
+                output.write(string, start, i);
             }
-            else if (c < UNICODE_BEGIN_PRINTABLE_ASCII)
+            start = i + 1;
+
+            if (escape != null)
             {
-                escapeJSControlCharacter(builder, c);
+                output.write(escape);
             }
             else
             {
-                escapeJSASCIICharacter(builder, c, escapeSingleQuote);
+                output.write('\\');
+                output.write('u');
+                output.write(HEX_DIGITS[(c >> 12) & 0xf]);
+                output.write(HEX_DIGITS[(c >> 8) & 0xf]);
+                output.write(HEX_DIGITS[(c >> 4) & 0xf]);
+                output.write(HEX_DIGITS[c & 0xf]);
             }
         }
 
-        return builder.toString();
-    }
-
-    private static void escapeJSControlCharacter(StringBuilder builder, char c)
-    {
-        switch (c)
-        {
-            case '\b':
-                builder.append('\\').append('b');
-                break;
-            case '\n':
-                builder.append('\\').append('n');
-                break;
-            case '\t':
-                builder.append('\\').append('t');
-                break;
-            case '\f':
-                builder.append('\\').append('f');
-                break;
-            case '\r':
-                builder.append('\\').append('r');
-                break;
-            default:
-                if (c > UNICODE_1_BYTE)
-                {
-                    builder.append("\\u00").append(Integer.toHexString(c));
-                }
-                else
-                {
-                    builder.append("\\u000").append(Integer.toHexString(c));
-                }
-
-                break;
-        }
-    }
-
-    private static void escapeJSASCIICharacter(StringBuilder builder, char c, boolean escapeSingleQuote)
-    {
-        switch (c)
+        if (start < length)
         {
-            case '\'':
-                if (escapeSingleQuote)
-                {
-                    builder.append('\\');
-                }
-                builder.append('\'');
-                break;
-            case '"':
-                builder.append('\\').append('"');
-                break;
-            case '\\':
-                builder.append('\\').append('\\');
-                break;
-            case '/':
-                builder.append('\\').append('/');
-                break;
-            default:
-                builder.append(c);
-                break;
+            output.write(string, start, length);
         }
     }
     
     // Dates ----------------------------------------------------------------------------------------------------------
     
     private static final String PATTERN_RFC1123_DATE = "EEE, dd MMM yyyy HH:mm:ss zzz";
-    private static final TimeZone TIMEZONE_GMT = TimeZone.getTimeZone("GMT");
+    private static final DateTimeFormatter FORMATTER_RFC1123_DATE = DateTimeFormatter.ofPattern(
+            PATTERN_RFC1123_DATE, Locale.US).withZone(ZoneId.of("GMT"));
     
     /**
      * Formats the given {@link Date} to a string in RFC1123 format. This format is used in HTTP headers and in
@@ -368,9 +632,8 @@ private static void escapeJSASCIICharacter(StringBuilder builder, char c, boolea
      */
     public static String formatRFC1123(Date date)
     {
-        SimpleDateFormat sdf = new SimpleDateFormat(PATTERN_RFC1123_DATE, Locale.US);
-        sdf.setTimeZone(TIMEZONE_GMT);
-        return sdf.format(date);
+        // not date.toInstant(), java.sql.Date does not support it
+        return FORMATTER_RFC1123_DATE.format(Instant.ofEpochMilli(date.getTime()));
     }
 
     /**
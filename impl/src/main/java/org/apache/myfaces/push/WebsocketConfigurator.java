@@ -18,7 +18,6 @@
  */
 package org.apache.myfaces.push;
 
-import java.io.Serializable;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.CDI;
 import jakarta.faces.context.ExternalContext;
@@ -27,6 +26,7 @@
 import jakarta.websocket.server.ServerEndpointConfig;
 import org.apache.myfaces.cdi.util.CDIUtils;
 import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.push.cdi.WebsocketChannelMetadata;
 import org.apache.myfaces.push.cdi.WebsocketSessionBean;
 
 public class WebsocketConfigurator extends ServerEndpointConfig.Configurator
@@ -38,6 +38,8 @@ public class WebsocketConfigurator extends ServerEndpointConfig.Configurator
     
     public static final String WEBSOCKET_USER = "oam.websocket.user";
     
+    public static final String WEBSOCKET_METADATA = "oam.websocket.metadata";
+    
     private final Long maxIdleTimeout;
     
     public WebsocketConfigurator(ExternalContext context)
@@ -73,10 +75,15 @@ public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request,
         
         if (websocketSessionBean != null)
         {
-            Serializable user = websocketSessionBean.getUserFromChannelToken(channelToken);
-            if (user != null)
+            WebsocketChannelMetadata metadata = websocketSessionBean.getMetadataFromChannelToken(channelToken);
+            if (metadata != null)
             {
-                sec.getUserProperties().put(WEBSOCKET_USER, user);
+                if (metadata.getUser() != null)
+                {
+                    sec.getUserProperties().put(WEBSOCKET_USER, metadata.getUser());
+                }
+                // used to register the token again in application scope when the client reconnects
+                sec.getUserProperties().put(WEBSOCKET_METADATA, metadata);
             }
 
             sec.getUserProperties().put(WEBSOCKET_VALID, websocketSessionBean.isTokenValid(channelToken));
@@ -23,7 +23,6 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Future;
@@ -84,7 +83,7 @@ public Set<Future<Void>> send(Object message)
             return Collections.emptySet();
         }
         
-        List<String> channelTokens;
+        Collection<String> channelTokens;
         
         if (viewTokenBean != null && viewTokenBean.isChannelAvailable(channel))
         {
@@ -110,19 +109,7 @@ else if (appTokenBean != null && appTokenBean.isChannelAvailable(getChannel()))
         
         if (channelTokens != null && !channelTokens.isEmpty())
         {
-            Set<Future<Void>> result = null;
-            for (String channelToken : channelTokens)
-            {
-                if (result == null)
-                {
-                    result = WebsocketApplicationSessionHolder.send(channelToken, message);
-                }
-                else
-                {
-                    result.addAll(WebsocketApplicationSessionHolder.send(channelToken, message));
-                }
-            }
-            return result;
+            return WebsocketApplicationSessionHolder.send(channel, channelTokens, new WebsocketMessage(message));
         }
         
         return Collections.emptySet();
@@ -171,13 +158,15 @@ public <S extends Serializable> Map<S, Set<Future<Void>>> send(Object message, C
         }
 
         Map<S, Set<Future<Void>>> result = new HashMap<S, Set<Future<Void>>>();
+        // encoded once for all the users
+        WebsocketMessage websocketMessage = new WebsocketMessage(message);
         
         if (viewTokenBean != null && viewTokenBean.isChannelAvailable(channel))
         {
             // Use view scope for context
             for (S user : users)
             {
-                result.put(user, send(viewTokenBean.getChannelTokensFor(channel, user), message));
+                result.put(user, send(viewTokenBean.getChannelTokensFor(channel, user), websocketMessage));
             }
         }
         else if (sessionTokenBean != null && sessionTokenBean.isChannelAvailable(getChannel()))
@@ -185,7 +174,7 @@ else if (sessionTokenBean != null && sessionTokenBean.isChannelAvailable(getChan
             // Use session scope for context
             for (S user : users)
             {
-                result.put(user, send(sessionTokenBean.getChannelTokensFor(channel, user), message));
+                result.put(user, send(sessionTokenBean.getChannelTokensFor(channel, user), websocketMessage));
             }
         }
         else if (appTokenBean != null && appTokenBean.isChannelAvailable(getChannel()))
@@ -193,7 +182,7 @@ else if (appTokenBean != null && appTokenBean.isChannelAvailable(getChannel()))
             // Use application scope for context
             for (S user : users)
             {
-                result.put(user, send(appTokenBean.getChannelTokensFor(channel, user), message));
+                result.put(user, send(appTokenBean.getChannelTokensFor(channel, user), websocketMessage));
             }
         }
         else
@@ -205,24 +194,11 @@ else if (appTokenBean != null && appTokenBean.isChannelAvailable(getChannel()))
         return result;
     }
     
-    private Set<Future<Void>> send(List<String> channelTokens, Object message)
+    private Set<Future<Void>> send(Collection<String> channelTokens, WebsocketMessage message)
     {
-        if (channelTokens != null && !channelTokens.isEmpty())
+        if (!channelTokens.isEmpty())
         {
-            Set<Future<Void>> result = null;
-            for (int i = 0; i < channelTokens.size(); i++)
-            {
-                String channelToken = channelTokens.get(i);
-                if (result == null)
-                {
-                    result = WebsocketApplicationSessionHolder.send(channelToken, message);
-                }
-                else
-                {
-                    result.addAll(WebsocketApplicationSessionHolder.send(channelToken, message));
-                }
-            }
-            return result;
+            return WebsocketApplicationSessionHolder.send(getChannel(), channelTokens, message);
         }
         return Collections.emptySet();
     }
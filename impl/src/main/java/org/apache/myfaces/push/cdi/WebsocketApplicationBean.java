@@ -16,15 +16,11 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-
 package org.apache.myfaces.push.cdi;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import jakarta.enterprise.context.ApplicationScoped;
 
 @ApplicationScoped
@@ -32,62 +28,55 @@
 {
    
     /**
-     * This map has as key the channel and as values a list of websocket channels
+     * The tokens of the open application scoped websocket sessions, by channel and by channel and user.
+     */
+    private final WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
+
+    /**
+     * The channels that had an application scoped websocket session. A push to them is valid even if no
+     * session is open right now.
      */
-    private Map<String, List<WebsocketChannel>> channelTokenListMap = new HashMap<>(2);
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
 
     public void registerWebsocketSession(String token, WebsocketChannelMetadata metadata)
     {
         if ("application".equals(metadata.getScope()))
         {
-            channelTokenListMap.putIfAbsent(metadata.getChannel(), new ArrayList<>(1));
-            channelTokenListMap.get(metadata.getChannel()).add(new WebsocketChannel(token, metadata));
+            channels.add(metadata.getChannel());
+            registry.register(token, metadata);
         }
     }
+
+    /**
+     * Removes the token of a closed websocket session. A reconnection registers it again on open.
+     * 
+     * @param token 
+     */
+    public void deregisterWebsocketSession(String token)
+    {
+        registry.deregister(token);
+    }
     
     /**
-     * Indicate if the channel mentioned is valid for view scope.
+     * Indicate if the channel mentioned is valid for application scope.
      * 
-     * A channel is valid if there is at least one token that represents a valid connection to this channel.
+     * A channel is valid if there was at least one token that represents a connection to this channel.
      * 
      * @param channel
      * @return 
      */
     public boolean isChannelAvailable(String channel)
     {
-        return channelTokenListMap.containsKey(channel);
+        return channels.contains(channel);
     }
     
-    public List<String> getChannelTokensFor(String channel)
+    public Set<String> getChannelTokensFor(String channel)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                value.add(md.getChannelToken());
-            }
-            return value;
-        }
-        return Collections.emptyList();
+        return registry.getChannelTokens(channel);
     }
     
-    public <S extends Serializable> List<String> getChannelTokensFor(String channel, S user)
+    public <S extends Serializable> Set<String> getChannelTokensFor(String channel, S user)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                if (user.equals(md.getUser()))
-                {
-                    value.add(md.getChannelToken());
-                }
-            }
-            return value;
-        }
-        return null;
+        return registry.getChannelTokens(channel, user);
     }
 }
@@ -21,7 +21,8 @@
 
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Queue;
@@ -29,12 +30,10 @@
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
-import java.util.logging.Logger;
 import jakarta.faces.context.ExternalContext;
 import jakarta.websocket.Session;
 import org.apache.myfaces.config.MyfacesConfig;
 import org.apache.myfaces.push.WebsocketSessionClusterSerializedRestore;
-import org.apache.myfaces.push.Json;
 import org.apache.myfaces.util.lang.ClassUtils;
 import org.apache.myfaces.util.lang.ConcurrentLRUCache;
 
@@ -49,6 +48,9 @@
     private volatile static WeakHashMap<ClassLoader, Queue<String>> clWebsocketRestoredQueue =
             new WeakHashMap<ClassLoader, Queue<String>>();
 
+    private volatile static WeakHashMap<ClassLoader, WebsocketBroadcaster> clWebsocketBroadcaster =
+            new WeakHashMap<ClassLoader, WebsocketBroadcaster>();
+
     public static ConcurrentLRUCache<String, Reference<Session>> getWebsocketSessionLRUCache()
     {
         ClassLoader cl = ClassUtils.getContextClassLoader();
@@ -76,7 +78,10 @@ public static void initWebsocketSessionLRUCache(ExternalContext context)
         ConcurrentLRUCache<String, Reference<Session>> lruCache = (ConcurrentLRUCache<String, Reference<Session>>)
                 WebsocketApplicationSessionHolder.clWebsocketMap.get(cl);
 
-        int size = MyfacesConfig.getCurrentInstance(context).getWebsocketMaxConnections();
+        MyfacesConfig myfacesConfig = MyfacesConfig.getCurrentInstance(context);
+        int size = myfacesConfig.getWebsocketMaxConnections();
+        getBroadcaster().configure(myfacesConfig.getWebsocketMaxQueuedMessages(),
+                myfacesConfig.getWebsocketQueueOverflowPolicy());
 
         ConcurrentLRUCache<String, Reference<Session>> newMetadata = 
                 new ConcurrentLRUCache<>((size * 4 + 3) / 3, size);
@@ -122,6 +127,31 @@ public static void clearWebsocketSessionLRUCache()
     {
         clWebsocketMap.remove(ClassUtils.getContextClassLoader());
         clWebsocketRestoredQueue.remove(ClassUtils.getContextClassLoader());
+        WebsocketBroadcaster broadcaster;
+        synchronized (clWebsocketBroadcaster)
+        {
+            broadcaster = clWebsocketBroadcaster.remove(ClassUtils.getContextClassLoader());
+        }
+        if (broadcaster != null)
+        {
+            broadcaster.shutdown();
+        }
+    }
+
+    public static WebsocketBroadcaster getBroadcaster()
+    {
+        ClassLoader cl = ClassUtils.getContextClassLoader();
+
+        WebsocketBroadcaster broadcaster = WebsocketApplicationSessionHolder.clWebsocketBroadcaster.get(cl);
+        if (broadcaster == null)
+        {
+            synchronized (WebsocketApplicationSessionHolder.clWebsocketBroadcaster)
+            {
+                broadcaster = WebsocketApplicationSessionHolder.clWebsocketBroadcaster.computeIfAbsent(cl,
+                        k -> new WebsocketBroadcaster());
+            }
+        }
+        return broadcaster;
     }
     
     public static boolean addOrUpdateSession(String channelToken, Session session)
@@ -135,6 +165,7 @@ else if (!session.equals(oldInstance.get()))
         {
             getWebsocketSessionLRUCache().put(channelToken, new SoftReference<Session>(session));
         }
+        getBroadcaster().addSession(channelToken, session);
         return true;
     }
 
@@ -148,87 +179,36 @@ else if (!session.equals(oldInstance.get()))
      * @return 
      */
     public static boolean removeSession(String channelToken)
+    {
+        return removeSession(null, channelToken);
+    }
+
+    public static boolean removeSession(String channel, String channelToken)
     {
         getWebsocketSessionLRUCache().remove(channelToken);
+        getBroadcaster().removeSession(channel, channelToken);
         return false;
     }
     
     
     protected static Set<Future<Void>> send(String channelToken, Object message)
     {
-        // Before send, we need to check 
-        synchronizeSessionInstances();
-            
-        Set< Future<Void> > results = new HashSet<>(1);
-        Reference<Session> sessionRef = (channelToken != null) ? getWebsocketSessionLRUCache().get(channelToken) : null;
-
-        if (sessionRef != null && sessionRef.get() != null)
-        {
-            String json = Json.encode(message);
-            Session session = sessionRef.get();
-            if (session.isOpen())
-            {
-                send(session, json, results, 0);
-            }
-            else
-            {
-                //If session is not open, remove the session, because a websocket session after is closed cannot
-                //be alive.
-                getWebsocketSessionLRUCache().remove(channelToken);
-            }
-        }
-        return results;
+        return send(null, Collections.singletonList(channelToken), new WebsocketMessage(message));
     }
 
-    private static final String WARNING_TOMCAT_WEB_SOCKET_BOMBED =
-            "Tomcat cannot handle concurrent push messages. A push message has been sent only after %s retries."
-            + " Consider rate limiting sending push messages. For example, once every 500ms.";    
-    
-    private static void send(Session session, String text, Set<Future<Void>> results, int retries)
-    {
-        try
-        {
-            results.add(session.getAsyncRemote().sendText(text));
-
-            if (retries > 0)
-            {
-                Logger.getLogger(WebsocketApplicationSessionHolder.class.getName())
-                        .warning(String.format(WARNING_TOMCAT_WEB_SOCKET_BOMBED, retries));
-            }
-        }
-        catch (IllegalStateException e)
-        {
-            if (isTomcatWebSocketBombed(session, e))
-            {
-                synchronized (session)
-                {
-                    send(session, text, results, retries + 1);
-                }
-            }
-            else
-            {
-                throw e;
-            }
-        }
-    }
-    
-    // Tomcat related -------------------------------------------------------------------------------------------------
     /**
-     * Returns true if the given WS session is from Tomcat and given illegal state exception is caused by a push bomb
-     * which Tomcat couldn't handle. See also https://bz.apache.org/bugzilla/show_bug.cgi?id=56026 and
-     * https://github.com/omnifaces/omnifaces/issues/234
-     *
-     * @param session The WS session.
-     * @param illegalStateException The illegal state exception.
-     * @return Whether it was Tomcat who couldn't handle the push bomb.
-     * @since 2.5
+     * Sends the message to the open sessions of the tokens, the message is encoded only once.
+     * 
+     * @param channel the channel of the tokens, or null if unknown
      */
-    private static boolean isTomcatWebSocketBombed(Session session, IllegalStateException illegalStateException)
+    static Set<Future<Void>> send(String channel, Collection<String> channelTokens, WebsocketMessage message)
     {
-        return session.getClass().getName().startsWith("org.apache.tomcat.websocket.")
-                && illegalStateException.getMessage().contains("[TEXT_FULL_WRITING]");
+        // Before send, we need to check 
+        synchronizeSessionInstances();
+
+        return getBroadcaster().send(channel, channelTokens, message);
     }
-    
+
     private static void synchronizeSessionInstances()
     {
         Queue<String> queue = getRestoredQueue();
@@ -0,0 +1,480 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jakarta.websocket.Session;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.push.EndpointImpl;
+
+/**
+ * Sends push messages to the open websocket sessions of the application.
+ *
+ * <p>The open sessions are indexed by channel and channel token, so the recipients of a message are resolved
+ * without touching the LRU cache of WebsocketApplicationSessionHolder. The message is encoded once, and it
+ * is added to the {@link WebsocketSessionQueue} of every recipient on the caller thread, which keeps the
+ * order of the messages of a session, and the queues are drained in batches on a bounded executor when there are
+ * many of them. Each recipient gets its own future, completed when the container has sent the message.</p>
+ *
+ * <p>The index holds the open sessions strongly, unlike the soft references of the LRU cache. A session leaves
+ * the index when the endpoint is closed, when its token is replaced or removed, or when a send finds it
+ * closed.</p>
+ */
+public final class WebsocketBroadcaster
+{
+    private static final Logger log = Logger.getLogger(WebsocketBroadcaster.class.getName());
+
+    /**
+     * Sessions drained by one task, smaller sends stay on the caller thread.
+     */
+    static final int BATCH_SIZE = 64;
+
+    /**
+     * Key of the sessions whose endpoint has no channel path parameter.
+     */
+    private static final String NO_CHANNEL = "";
+
+    private final Map<String, Map<String, WebsocketSessionQueue>> channelSessions = new ConcurrentHashMap<>();
+
+    private volatile int maxQueuedMessages = 64;
+    private volatile String overflowPolicy = MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_DROP_OLDEST;
+
+    private volatile ExecutorService executor;
+
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder recipients = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder encodeTime = new LongAdder();
+    private final LongAdder dispatchTime = new LongAdder();
+
+    WebsocketBroadcaster()
+    {
+    }
+
+    void configure(int maxQueuedMessages, String overflowPolicy)
+    {
+        this.maxQueuedMessages = Math.max(1, maxQueuedMessages);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    int getMaxQueuedMessages()
+    {
+        return maxQueuedMessages;
+    }
+
+    String getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+    void addSession(String channelToken, Session session)
+    {
+        queueFor(channelToken, session);
+    }
+
+    private WebsocketSessionQueue queueFor(String channelToken, Session session)
+    {
+        String channel = session.getPathParameters().get(EndpointImpl.PUSH_CHANNEL_PARAMETER);
+        Map<String, WebsocketSessionQueue> queues = channelSessions.computeIfAbsent(
+                channel == null ? NO_CHANNEL : channel, k -> new ConcurrentHashMap<>());
+        WebsocketSessionQueue queue = queues.get(channelToken);
+        if (queue != null && queue.getSession() == session)
+        {
+            return queue;
+        }
+
+        // new connection, or reconnected with the same token
+        WebsocketSessionQueue[] replaced = new WebsocketSessionQueue[1];
+        queue = queues.compute(channelToken, (k, current) ->
+        {
+            if (current != null && current.getSession() == session)
+            {
+                return current;
+            }
+            replaced[0] = current;
+            return new WebsocketSessionQueue(session, this);
+        });
+        if (replaced[0] != null)
+        {
+            replaced[0].clear();
+        }
+        return queue;
+    }
+
+    void removeSession(String channel, String channelToken)
+    {
+        if (channel != null)
+        {
+            Map<String, WebsocketSessionQueue> queues = channelSessions.get(channel);
+            if (queues != null)
+            {
+                remove(queues, channelToken);
+            }
+        }
+        else
+        {
+            for (Map<String, WebsocketSessionQueue> queues : channelSessions.values())
+            {
+                remove(queues, channelToken);
+            }
+        }
+    }
+
+    private static void remove(Map<String, WebsocketSessionQueue> queues, String channelToken)
+    {
+        WebsocketSessionQueue queue = queues.remove(channelToken);
+        if (queue != null)
+        {
+            queue.clear();
+        }
+    }
+
+    /**
+     * @param channel the channel of the tokens, or null if unknown.
+     */
+    Set<Future<Void>> send(String channel, Collection<String> channelTokens, WebsocketMessage message)
+    {
+        long start = System.nanoTime();
+
+        List<WebsocketSessionQueue> sessions = resolve(channel, channelTokens);
+        if (sessions.isEmpty())
+        {
+            return new HashSet<>(1);
+        }
+
+        boolean encoded = message.isEncoded();
+        String text = message.getText();
+        if (!encoded)
+        {
+            encodeTime.add(message.getEncodeTime());
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(sessions.size());
+        for (int i = 0; i < sessions.size(); i++)
+        {
+            futures.add(new CompletableFuture<>());
+        }
+
+        // every message is enqueued on the caller thread, so the messages of a session keep the order of the
+        // send calls, only the draining of large fan-outs goes to the executor
+        for (int i = 0; i < sessions.size(); i++)
+        {
+            sessions.get(i).enqueue(text, futures.get(i));
+        }
+
+        if (sessions.size() <= BATCH_SIZE)
+        {
+            drain(sessions, 0, sessions.size());
+        }
+        else
+        {
+            ExecutorService executor = getExecutor();
+            for (int from = 0; from < sessions.size(); from += BATCH_SIZE)
+            {
+                int batchFrom = from;
+                int batchTo = Math.min(from + BATCH_SIZE, sessions.size());
+                try
+                {
+                    executor.execute(() -> drain(sessions, batchFrom, batchTo));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    drain(sessions, batchFrom, batchTo);
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        messages.increment();
+        recipients.add(sessions.size());
+        dispatchTime.add(elapsed);
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine("Push message on channel " + channel + " dispatched to " + sessions.size()
+                    + " sessions in " + TimeUnit.NANOSECONDS.toMicros(elapsed) + "us");
+        }
+
+        return new HashSet<>(futures);
+    }
+
+    /**
+     * @return the open sessions of the tokens.
+     */
+    private List<WebsocketSessionQueue> resolve(String channel, Collection<String> channelTokens)
+    {
+        Map<String, WebsocketSessionQueue> indexed = null;
+        if (channel != null)
+        {
+            indexed = channelSessions.get(channel);
+            if (indexed == null)
+            {
+                // every open session is indexed, so nobody listens on this channel
+                return new ArrayList<>(0);
+            }
+        }
+        List<WebsocketSessionQueue> sessions = new ArrayList<>(indexed == null
+                ? channelTokens.size() : Math.min(indexed.size(), channelTokens.size()));
+
+        if (indexed == null)
+        {
+            for (String channelToken : channelTokens)
+            {
+                Reference<Session> sessionRef = channelToken == null
+                        ? null : WebsocketApplicationSessionHolder.getWebsocketSessionLRUCache().get(channelToken);
+                Session session = sessionRef == null ? null : sessionRef.get();
+                addIfOpen(sessions, channel, channelToken, session == null ? null : queueFor(channelToken, session));
+            }
+        }
+        else if (channelTokens.size() > indexed.size())
+        {
+            // many tokens are kept for closed connections, start from the open ones
+            Set<String> tokens = channelTokens instanceof Set
+                    ? (Set<String>) channelTokens : new HashSet<>(channelTokens);
+            for (Map.Entry<String, WebsocketSessionQueue> entry : indexed.entrySet())
+            {
+                if (tokens.contains(entry.getKey()))
+                {
+                    addIfOpen(sessions, channel, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        else
+        {
+            for (String channelToken : channelTokens)
+            {
+                addIfOpen(sessions, channel, channelToken, channelToken == null ? null : indexed.get(channelToken));
+            }
+        }
+        return sessions;
+    }
+
+    private void addIfOpen(List<WebsocketSessionQueue> sessions, String channel, String channelToken,
+            WebsocketSessionQueue queue)
+    {
+        if (queue == null)
+        {
+            return;
+        }
+        if (queue.getSession().isOpen())
+        {
+            sessions.add(queue);
+        }
+        else
+        {
+            //If session is not open, remove the session, because a websocket session after is closed cannot
+            //be alive.
+            WebsocketApplicationSessionHolder.removeSession(channel, channelToken);
+        }
+    }
+
+    private static void drain(List<WebsocketSessionQueue> sessions, int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            sessions.get(i).drain();
+        }
+    }
+
+    private ExecutorService getExecutor()
+    {
+        ExecutorService current = executor;
+        if (current == null)
+        {
+            synchronized (this)
+            {
+                current = executor;
+                if (current == null)
+                {
+                    current = createExecutor();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Virtual threads where available. Otherwise a pool of one thread per core, when its queue is full the
+     * caller sends the batch itself.
+     */
+    private static ExecutorService createExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            // before Java 21
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1024), r ->
+                {
+                    Thread thread = new Thread(r, "MyFaces push broadcast " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    void shutdown()
+    {
+        ExecutorService current = executor;
+        if (current != null)
+        {
+            current.shutdown();
+        }
+        for (Map<String, WebsocketSessionQueue> queues : channelSessions.values())
+        {
+            for (WebsocketSessionQueue queue : queues.values())
+            {
+                queue.clear();
+            }
+        }
+        channelSessions.clear();
+    }
+
+    void messageFailed()
+    {
+        failures.increment();
+    }
+
+    void messageDropped()
+    {
+        dropped.increment();
+    }
+
+    void sessionDisconnected()
+    {
+        disconnects.increment();
+    }
+
+    /**
+     * @return the number of send calls that reached at least one open session.
+     */
+    public long getMessages()
+    {
+        return messages.sum();
+    }
+
+    /**
+     * @return the number of sessions the messages have been handed to.
+     */
+    public long getRecipients()
+    {
+        return recipients.sum();
+    }
+
+    /**
+     * @return the number of messages that could not be sent.
+     */
+    public long getFailures()
+    {
+        return failures.sum();
+    }
+
+    /**
+     * @return the number of messages dropped by the overflow policy, or because their session was closed.
+     */
+    public long getDroppedMessages()
+    {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of sessions closed by the disconnect overflow policy.
+     */
+    public long getDisconnectedSessions()
+    {
+        return disconnects.sum();
+    }
+
+    /**
+     * @return the number of messages waiting in the queues of all the sessions.
+     */
+    public int getQueuedMessages()
+    {
+        int queued = 0;
+        for (Map<String, WebsocketSessionQueue> queues : channelSessions.values())
+        {
+            for (WebsocketSessionQueue queue : queues.values())
+            {
+                queued += queue.size();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * @return the number of messages waiting in the longest queue.
+     */
+    public int getMaxQueueDepth()
+    {
+        int max = 0;
+        for (Map<String, WebsocketSessionQueue> queues : channelSessions.values())
+        {
+            for (WebsocketSessionQueue queue : queues.values())
+            {
+                max = Math.max(max, queue.size());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the nanoseconds spent encoding messages.
+     */
+    public long getEncodeTime()
+    {
+        return encodeTime.sum();
+    }
+
+    /**
+     * @return the nanoseconds the callers spent in send, encoding included.
+     */
+    public long getDispatchTime()
+    {
+        return dispatchTime.sum();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The channel tokens of one push scope, indexed by channel and by channel and user.
+ *
+ * <p>It can be updated by concurrent requests and websocket callbacks. The recipients of a push are a read only
+ * view over the index, no list is built per push. Empty channels and users are removed, so the registry only
+ * holds the tokens that are registered.</p>
+ */
+final class WebsocketChannelRegistry implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * channel token -> websocket channel, to deregister a token without knowing its channel.
+     */
+    private final Map<String, WebsocketChannel> channels = new ConcurrentHashMap<>(2);
+
+    /**
+     * channel -> channel tokens
+     */
+    private final Map<String, Set<String>> channelTokens = new ConcurrentHashMap<>(2);
+
+    /**
+     * channel -> user -> channel tokens
+     */
+    private final Map<String, Map<Serializable, Set<String>>> userChannelTokens = new ConcurrentHashMap<>(2);
+
+    /**
+     * @return false if the token was already registered.
+     */
+    boolean register(String channelToken, WebsocketChannelMetadata metadata)
+    {
+        if (channels.putIfAbsent(channelToken, new WebsocketChannel(channelToken, metadata)) != null)
+        {
+            return false;
+        }
+
+        channelTokens.compute(metadata.getChannel(), (channel, tokens) ->
+        {
+            Set<String> value = tokens == null ? ConcurrentHashMap.newKeySet() : tokens;
+            value.add(channelToken);
+            return value;
+        });
+
+        Serializable user = metadata.getUser();
+        if (user != null)
+        {
+            userChannelTokens.compute(metadata.getChannel(), (channel, users) ->
+            {
+                Map<Serializable, Set<String>> value = users == null ? new ConcurrentHashMap<>(2) : users;
+                value.computeIfAbsent(user, k -> ConcurrentHashMap.newKeySet()).add(channelToken);
+                return value;
+            });
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the token was not registered.
+     */
+    boolean deregister(String channelToken)
+    {
+        WebsocketChannel websocketChannel = channels.remove(channelToken);
+        if (websocketChannel == null)
+        {
+            return false;
+        }
+
+        // the mappings are removed inside compute, so a concurrent register never adds to a removed set
+        channelTokens.computeIfPresent(websocketChannel.getChannel(), (channel, tokens) ->
+        {
+            tokens.remove(channelToken);
+            return tokens.isEmpty() ? null : tokens;
+        });
+
+        Serializable user = websocketChannel.getUser();
+        if (user != null)
+        {
+            userChannelTokens.computeIfPresent(websocketChannel.getChannel(), (channel, users) ->
+            {
+                users.computeIfPresent(user, (k, tokens) ->
+                {
+                    tokens.remove(channelToken);
+                    return tokens.isEmpty() ? null : tokens;
+                });
+                return users.isEmpty() ? null : users;
+            });
+        }
+        return true;
+    }
+
+    boolean isChannelAvailable(String channel)
+    {
+        return channelTokens.containsKey(channel);
+    }
+
+    /**
+     * @return a read only view of the tokens of the channel.
+     */
+    Set<String> getChannelTokens(String channel)
+    {
+        Set<String> tokens = channelTokens.get(channel);
+        return tokens == null ? Collections.emptySet() : Collections.unmodifiableSet(tokens);
+    }
+
+    /**
+     * @return a read only view of the tokens of the user in the channel.
+     */
+    Set<String> getChannelTokens(String channel, Serializable user)
+    {
+        Map<Serializable, Set<String>> users = userChannelTokens.get(channel);
+        Set<String> tokens = users == null || user == null ? null : users.get(user);
+        return tokens == null ? Collections.emptySet() : Collections.unmodifiableSet(tokens);
+    }
+
+    void clear()
+    {
+        channels.clear();
+        channelTokens.clear();
+        userChannelTokens.clear();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import org.apache.myfaces.push.Json;
+
+/**
+ * A push message, encoded to JSON only once no matter how many sessions receive it.
+ */
+final class WebsocketMessage
+{
+    private final Object message;
+    private String text;
+    private long encodeTime;
+
+    WebsocketMessage(Object message)
+    {
+        this.message = message;
+    }
+
+    /**
+     * Only called by the thread sending the message.
+     */
+    String getText()
+    {
+        if (text == null)
+        {
+            long start = System.nanoTime();
+            text = Json.encode(message);
+            encodeTime = System.nanoTime() - start;
+        }
+        return text;
+    }
+
+    boolean isEncoded()
+    {
+        return text != null;
+    }
+
+    /**
+     * @return the nanoseconds spent encoding the message, 0 if it has not been encoded.
+     */
+    long getEncodeTime()
+    {
+        return encodeTime;
+    }
+}
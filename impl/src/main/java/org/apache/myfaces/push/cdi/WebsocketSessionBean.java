@@ -20,11 +20,8 @@
 package org.apache.myfaces.push.cdi;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.SessionScoped;
@@ -41,10 +38,9 @@ public class WebsocketSessionBean implements Serializable
 {
     
     /**
-     * This map hold all tokens that are related to the current scope. 
-     * This map use as key channel and as value channelTokens
+     * The tokens of the session scoped websocket sessions, by channel and by channel and user.
      */
-    private Map<String, List<WebsocketChannel> > channelTokenListMap = new ConcurrentHashMap<>(2);    
+    private final WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
     
     /**
      * This map holds all tokens related to the current session and its associated metadata, that will
@@ -66,8 +62,7 @@ public void registerWebsocketSession(String token, WebsocketChannelMetadata meta
     {
         if ("session".equals(metadata.getScope()))
         {
-            channelTokenListMap.putIfAbsent(metadata.getChannel(), new ArrayList<>(1));
-            channelTokenListMap.get(metadata.getChannel()).add(new WebsocketChannel(token, metadata));
+            registry.register(token, metadata);
         }
     }
     
@@ -76,6 +71,11 @@ public boolean isTokenValid(String token)
         return tokenMap.containsKey(token);
     }
     
+    public WebsocketChannelMetadata getMetadataFromChannelToken(String channelToken)
+    {
+        return tokenMap.get(channelToken);
+    }
+    
     public Serializable getUserFromChannelToken(String channelToken)
     {
         if (tokenMap != null)
@@ -99,40 +99,17 @@ public Serializable getUserFromChannelToken(String channelToken)
      */
     public boolean isChannelAvailable(String channel)
     {
-        return channelTokenListMap.containsKey(channel);
+        return registry.isChannelAvailable(channel);
     }
     
-    public List<String> getChannelTokensFor(String channel)
+    public Set<String> getChannelTokensFor(String channel)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                value.add(md.getChannelToken());
-            }
-            return value;
-        }
-        return Collections.emptyList();
+        return registry.getChannelTokens(channel);
     }
     
-    public <S extends Serializable> List<String> getChannelTokensFor(String channel, S user)
+    public <S extends Serializable> Set<String> getChannelTokensFor(String channel, S user)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                if (user.equals(md.getUser()))
-                {
-                    value.add(md.getChannelToken());
-                }
-            }
-            return value;
-        }
-        return null;
+        return registry.getChannelTokens(channel, user);
     }
 
     @PreDestroy
@@ -141,33 +118,13 @@ public void destroy()
         // Since there is an algorithm in place for @PreDestroy and @ViewScoped beans using a session
         // scope bean and @PreDestroy, there is nothing else to do here. But on session expiration
         // it is easier to just clear the map. At the end it will not cause any side effects.
-        channelTokenListMap.clear();
+        registry.clear();
         tokenMap.clear();
     }
     
     public void destroyChannelToken(String channelToken)
     {
-        String channel = null;
-        for (Map.Entry<String, List<WebsocketChannel>> entry : channelTokenListMap.entrySet())
-        {
-            for (Iterator<WebsocketChannel> it = entry.getValue().iterator(); it.hasNext();)
-            {
-                WebsocketChannel wschannel = it.next();
-                if (channelToken.equals(wschannel.getChannelToken()))
-                {
-                    it.remove();
-                    break;
-                }
-            }
-            if (entry.getValue().isEmpty())
-            {
-                channel = entry.getKey();
-            }
-        }
-        if (channel != null)
-        {
-            channelTokenListMap.remove(channel);
-        }
+        registry.deregister(channelToken);
         tokenMap.remove(channelToken);
     }
 }
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import org.apache.myfaces.config.MyfacesConfig;
+
+/**
+ * Outbound messages of one websocket session.
+ *
+ * <p>Producers only enqueue, the thread that finds the queue idle becomes the drainer and sends the messages one
+ * after the other, each one from the completion callback of the previous one. So the messages of a session are
+ * sent in order and never concurrently, which the containers do not support, and a producer never waits for a
+ * slow client. When the queue is full the overflow policy decides which messages are dropped.</p>
+ */
+final class WebsocketSessionQueue
+{
+    private static final Logger log = Logger.getLogger(WebsocketSessionQueue.class.getName());
+
+    private final Session session;
+    private final WebsocketBroadcaster broadcaster;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean disconnected;
+
+    WebsocketSessionQueue(Session session, WebsocketBroadcaster broadcaster)
+    {
+        this.session = session;
+        this.broadcaster = broadcaster;
+    }
+
+    Session getSession()
+    {
+        return session;
+    }
+
+    /**
+     * @return the number of messages waiting to be sent.
+     */
+    int size()
+    {
+        return size.get();
+    }
+
+    void offer(String text, CompletableFuture<Void> future)
+    {
+        enqueue(text, future);
+        drain();
+    }
+
+    /**
+     * Only adds the message to the queue, {@link #drain()} sends it. The messages of the session are sent in the
+     * order they were enqueued, whatever thread drains.
+     */
+    void enqueue(String text, CompletableFuture<Void> future)
+    {
+        if (disconnected)
+        {
+            future.cancel(false);
+            return;
+        }
+
+        queue.offer(new Entry(text, future));
+        if (size.incrementAndGet() > broadcaster.getMaxQueuedMessages())
+        {
+            overflow();
+        }
+    }
+
+    private void overflow()
+    {
+        String policy = broadcaster.getOverflowPolicy();
+        if (MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_DISCONNECT.equals(policy))
+        {
+            disconnect();
+        }
+        else
+        {
+            // coalesce keeps only the latest message, the session only listens to one channel
+            int keep = MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_COALESCE.equals(policy)
+                    ? 1 : broadcaster.getMaxQueuedMessages();
+            while (size.get() > keep)
+            {
+                Entry dropped = poll();
+                if (dropped == null)
+                {
+                    break;
+                }
+                broadcaster.messageDropped();
+                dropped.future.cancel(false);
+            }
+        }
+    }
+
+    private void disconnect()
+    {
+        disconnected = true;
+        broadcaster.sessionDisconnected();
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine("Closing websocket session " + session.getId() + ", its client does not read the messages");
+        }
+        try
+        {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Too many pending messages"));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.log(Level.FINE, "Cannot close websocket session", e);
+        }
+        clear();
+    }
+
+    /**
+     * Cancels the waiting messages.
+     */
+    void clear()
+    {
+        Entry entry;
+        while ((entry = poll()) != null)
+        {
+            broadcaster.messageDropped();
+            entry.future.cancel(false);
+        }
+    }
+
+    private Entry poll()
+    {
+        Entry entry = queue.poll();
+        if (entry != null)
+        {
+            size.decrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Sends the waiting messages, unless another thread or a completion callback is already doing it.
+     */
+    void drain()
+    {
+        while (draining.compareAndSet(false, true))
+        {
+            Entry entry = poll();
+            if (entry == null)
+            {
+                draining.set(false);
+                // a producer could have enqueued after the poll but before the flag was released
+                if (queue.isEmpty())
+                {
+                    return;
+                }
+                continue;
+            }
+
+            if (!send(entry))
+            {
+                // the completion callback goes on with the next message
+                return;
+            }
+            draining.set(false);
+        }
+    }
+
+    /**
+     * @return true if the message was completed before sendText returned, false if the callback will drain.
+     */
+    private boolean send(Entry entry)
+    {
+        if (disconnected || !session.isOpen())
+        {
+            entry.future.cancel(false);
+            return true;
+        }
+
+        // 0 pending, 1 sendText returned first, 2 completed first
+        AtomicInteger state = new AtomicInteger();
+        try
+        {
+            session.getAsyncRemote().sendText(entry.text, result ->
+            {
+                if (result.isOK())
+                {
+                    entry.future.complete(null);
+                }
+                else
+                {
+                    broadcaster.messageFailed();
+                    entry.future.completeExceptionally(result.getException());
+                }
+
+                if (!state.compareAndSet(0, 2))
+                {
+                    draining.set(false);
+                    drain();
+                }
+            });
+        }
+        catch (IllegalStateException e)
+        {
+            broadcaster.messageFailed();
+            entry.future.completeExceptionally(e);
+            return true;
+        }
+        return !state.compareAndSet(0, 1);
+    }
+
+    private static final class Entry
+    {
+        private final String text;
+        private final CompletableFuture<Void> future;
+
+        Entry(String text, CompletableFuture<Void> future)
+        {
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
@@ -20,11 +20,9 @@
 package org.apache.myfaces.push.cdi;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.inject.spi.CDI;
 import jakarta.faces.view.ViewScoped;
@@ -39,10 +37,9 @@ public class WebsocketViewBean implements Serializable
 {
     
     /**
-     * This map hold all tokens that are related to the current scope. 
-     * This map use as key channel and as value channelTokens
+     * The tokens of the view scoped websocket sessions, by channel and by channel and user.
      */
-    private Map<String, List<WebsocketChannel>> channelTokenListMap = new HashMap<>(2, 1f);
+    private final WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
 
     /**
      * This map hold all tokens related to the current view. The reason to do this is the connections must follow
@@ -65,9 +62,7 @@ public void registerWebsocketSession(String token, WebsocketChannelMetadata meta
     {
         if ("view".equals(metadata.getScope()))
         {
-            channelTokenListMap.putIfAbsent(metadata.getChannel(), new ArrayList<>(1));
-            channelTokenListMap.get(metadata.getChannel()).add(new WebsocketChannel(
-                    token, metadata));
+            registry.register(token, metadata);
         }
     }
 
@@ -81,22 +76,12 @@ public void registerWebsocketSession(String token, WebsocketChannelMetadata meta
      */
     public boolean isChannelAvailable(String channel)
     {
-        return channelTokenListMap.containsKey(channel);
+        return registry.isChannelAvailable(channel);
     }
     
-    public List<String> getChannelTokensFor(String channel)
+    public Set<String> getChannelTokensFor(String channel)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                value.add(md.getChannelToken());
-            }
-            return value;
-        }
-        return Collections.emptyList();
+        return registry.getChannelTokens(channel);
     }
     
     public String getChannelToken(WebsocketChannelMetadata metadata)
@@ -118,22 +103,9 @@ public String getChannelToken(WebsocketChannelMetadata metadata)
         return token;
     }
     
-    public <S extends Serializable> List<String> getChannelTokensFor(String channel, S user)
+    public <S extends Serializable> Set<String> getChannelTokensFor(String channel, S user)
     {
-        List<WebsocketChannel> list = channelTokenListMap.get(channel);
-        if (list != null && !list.isEmpty())
-        {
-            List<String> value = new ArrayList<>(list.size());
-            for (WebsocketChannel md : list)
-            {
-                if (user.equals(md.getUser()))
-                {
-                    value.add(md.getChannelToken());
-                }
-            }
-            return value;
-        }
-        return null;
+        return registry.getChannelTokens(channel, user);
     }
     
     @PreDestroy
@@ -153,7 +125,7 @@ public void destroy()
         {
             WebsocketApplicationSessionHolder.removeSession(token);
         }
-        channelTokenListMap.clear();
+        registry.clear();
         tokenList.clear();
     }
 }
\ No newline at end of file
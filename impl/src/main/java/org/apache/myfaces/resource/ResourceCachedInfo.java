@@ -28,11 +28,18 @@
 {
     private final URL url;
     private final String requestPath;
+    private final String fingerprint;
 
     public ResourceCachedInfo(URL url, String requestPath)
+    {
+        this(url, requestPath, null);
+    }
+
+    public ResourceCachedInfo(URL url, String requestPath, String fingerprint)
     {
         this.url = url;
         this.requestPath = requestPath;
+        this.fingerprint = fingerprint;
     }
 
     public URL getURL()
@@ -44,4 +51,9 @@ public String getRequestPath()
     {
         return requestPath;
     }
+
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
 }
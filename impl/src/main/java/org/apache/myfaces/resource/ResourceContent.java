@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The final bytes of a resource, as they are sent to the client, plus the compressed variants.
+ * 
+ * <p>Small resources are held in memory. Bigger ones are mapped from their file, if they are not filtered,
+ * for example when they come from the exploded webapp or from the TempDirFileCacheResourceLoader. Anything
+ * else is {@link #NOT_CACHEABLE} and streamed as usual.</p>
+ */
+public class ResourceContent
+{
+    private static final Logger log = Logger.getLogger(ResourceContent.class.getName());
+
+    /**
+     * Marker cached for the resources that cannot be held by this class, so they are not read again.
+     */
+    public static final ResourceContent NOT_CACHEABLE = new ResourceContent(null, null, null);
+
+    /**
+     * Resources up to this size are kept in memory.
+     */
+    static final int MAX_IN_MEMORY_SIZE = 1024 * 1024;
+
+    /**
+     * Compressing smaller resources does not pay off.
+     */
+    private static final int MIN_COMPRESS_SIZE = 256;
+
+    private static final String BROTLI_SUFFIX = ".br";
+
+    private final ByteBuffer content;
+    private final byte[] gzip;
+    private final byte[] brotli;
+
+    private ResourceContent(ByteBuffer content, byte[] gzip, byte[] brotli)
+    {
+        this.content = content;
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    /**
+     * @return the content, or {@link #NOT_CACHEABLE}.
+     */
+    public static ResourceContent load(ResourceImpl resource, int bufferSize) throws IOException
+    {
+        boolean filtered = resource.couldResourceContainValueExpressions();
+        URL url = resource.getURL();
+        byte[] buffer = new byte[bufferSize];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(bufferSize);
+        try (InputStream in = resource.getInputStream())
+        {
+            if (in == null)
+            {
+                return NOT_CACHEABLE;
+            }
+            int length;
+            while ((length = in.read(buffer)) >= 0)
+            {
+                baos.write(buffer, 0, length);
+                if (baos.size() > MAX_IN_MEMORY_SIZE)
+                {
+                    return filtered ? NOT_CACHEABLE : map(url);
+                }
+            }
+        }
+        byte[] bytes = baos.toByteArray();
+
+        byte[] gzip = null;
+        byte[] brotli = null;
+        if (bytes.length >= MIN_COMPRESS_SIZE && isCompressible(resource.getContentType()))
+        {
+            gzip = gzip(bytes);
+            if (!filtered && url != null)
+            {
+                brotli = readPrecompressed(url, BROTLI_SUFFIX, bufferSize);
+            }
+        }
+        return new ResourceContent(ByteBuffer.wrap(bytes), gzip, brotli);
+    }
+
+    private static ResourceContent map(URL url) throws IOException
+    {
+        if (url == null || !"file".equals(url.getProtocol()))
+        {
+            return NOT_CACHEABLE;
+        }
+        try (FileChannel channel = FileChannel.open(new File(url.toURI()).toPath(), StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                return NOT_CACHEABLE;
+            }
+            // the mapping stays valid after the channel is closed
+            return new ResourceContent(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), null, null);
+        }
+        catch (URISyntaxException e)
+        {
+            return NOT_CACHEABLE;
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(baos))
+        {
+            out.write(bytes);
+        }
+        return baos.size() < bytes.length ? baos.toByteArray() : null;
+    }
+
+    private static byte[] readPrecompressed(URL url, String suffix, int bufferSize)
+    {
+        try (InputStream in = new URL(url.toExternalForm() + suffix).openStream())
+        {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(bufferSize);
+            byte[] buffer = new byte[bufferSize];
+            int length;
+            while ((length = in.read(buffer)) >= 0)
+            {
+                baos.write(buffer, 0, length);
+            }
+            return baos.toByteArray();
+        }
+        catch (IOException e)
+        {
+            // no precompressed variant
+            if (log.isLoggable(Level.FINEST))
+            {
+                log.finest("No " + suffix + " variant for " + url);
+            }
+            return null;
+        }
+    }
+
+    private static boolean isCompressible(String contentType)
+    {
+        if (contentType == null)
+        {
+            return false;
+        }
+        return contentType.startsWith("text/")
+                || contentType.contains("javascript")
+                || contentType.contains("json")
+                || contentType.contains("xml")
+                || contentType.equals("image/x-icon");
+    }
+
+    public int getLength()
+    {
+        return content.limit();
+    }
+
+    /**
+     * Writes the given part of the identity content.
+     */
+    public void writeTo(OutputStream out, int offset, int length, byte[] buffer) throws IOException
+    {
+        ByteBuffer data = content.duplicate();
+        data.limit(offset + length);
+        data.position(offset);
+        if (data.hasArray())
+        {
+            out.write(data.array(), data.arrayOffset() + offset, length);
+            return;
+        }
+        while (data.hasRemaining())
+        {
+            int count = Math.min(buffer.length, data.remaining());
+            data.get(buffer, 0, count);
+            out.write(buffer, 0, count);
+        }
+    }
+
+    /**
+     * @return the gzip variant, or null if there is none.
+     */
+    public byte[] getGzip()
+    {
+        return gzip;
+    }
+
+    /**
+     * @return the brotli variant, or null if there is none.
+     */
+    public byte[] getBrotli()
+    {
+        return brotli;
+    }
+}
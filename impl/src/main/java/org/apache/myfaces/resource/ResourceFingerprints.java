@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.context.ExternalContext;
+
+import org.apache.myfaces.util.lang.Hex;
+
+/**
+ * Application scoped cache of the content hashes of the resources, keyed by the URL of the resource.
+ * 
+ * <p>The hash is used as fingerprint in the request path and as strong ETag. Only the first 64 bits of the
+ * SHA-256 digest are kept, which is enough to tell two versions of a resource apart.</p>
+ */
+public class ResourceFingerprints
+{
+    private static final Logger log = Logger.getLogger(ResourceFingerprints.class.getName());
+
+    private static final String APPLICATION_MAP_KEY = ResourceFingerprints.class.getName();
+
+    /**
+     * Request parameter that carries the fingerprint of the resource.
+     */
+    public static final String FINGERPRINT_PARAM = "v";
+
+    private static final String META_INF_RESOURCES = "META-INF/resources";
+
+    private static final int FINGERPRINT_BYTES = 8;
+
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    public static ResourceFingerprints getInstance(ExternalContext externalContext)
+    {
+        Map<String, Object> applicationMap = externalContext.getApplicationMap();
+        ResourceFingerprints instance = (ResourceFingerprints) applicationMap.get(APPLICATION_MAP_KEY);
+        if (instance == null)
+        {
+            instance = new ResourceFingerprints();
+            applicationMap.put(APPLICATION_MAP_KEY, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * The compressed bodies are other representations of the resource, so each Content-Encoding gets its own
+     * strong ETag, the encoding is appended to the ETag of the identity content.
+     * 
+     * @return the ETag of the resource sent with the encoding, or the ETag itself if encoding is null.
+     */
+    public static String getEncodedETag(String etag, String encoding)
+    {
+        if (encoding == null || etag.length() < 2 || etag.charAt(etag.length() - 1) != '"')
+        {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + '-' + encoding + '"';
+    }
+
+    /**
+     * @return the fingerprint of the content behind the url, or null if it cannot be read.
+     */
+    public String getFingerprint(URL url)
+    {
+        if (url == null)
+        {
+            return null;
+        }
+        String key = url.toExternalForm();
+        String fingerprint = fingerprints.get(key);
+        if (fingerprint == null)
+        {
+            try
+            {
+                URLConnection connection = url.openConnection();
+                connection.setUseCaches(false);
+                try (InputStream in = connection.getInputStream())
+                {
+                    fingerprint = digest(in);
+                }
+                fingerprints.put(key, fingerprint);
+            }
+            catch (IOException e)
+            {
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Cannot compute the fingerprint of " + key, e);
+                }
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Compute the fingerprints of all the resources under META-INF/resources of the classpath, so the first
+     * requests do not have to read them.
+     */
+    public void precompute(ClassLoader classLoader)
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            Enumeration<URL> urls = classLoader.getResources(META_INF_RESOURCES);
+            while (urls.hasMoreElements())
+            {
+                URL url = urls.nextElement();
+                if ("file".equals(url.getProtocol()))
+                {
+                    String baseUrl = url.toExternalForm();
+                    if (baseUrl.endsWith("/"))
+                    {
+                        baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+                    }
+                    precomputeDirectory(baseUrl, new File(url.toURI()));
+                }
+                else if ("jar".equals(url.getProtocol()))
+                {
+                    precomputeJar(url);
+                }
+            }
+        }
+        catch (IOException | URISyntaxException e)
+        {
+            log.log(Level.WARNING, "Cannot compute the fingerprints of the resources", e);
+        }
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine("Computed " + fingerprints.size() + " resource fingerprints in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        }
+    }
+
+    private void precomputeDirectory(String baseUrl, File directory) throws IOException
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+        {
+            return;
+        }
+        for (File file : files)
+        {
+            String url = baseUrl + '/' + file.getName();
+            if (file.isDirectory())
+            {
+                precomputeDirectory(url, file);
+            }
+            else
+            {
+                try (InputStream in = file.toURI().toURL().openStream())
+                {
+                    fingerprints.put(url, digest(in));
+                }
+            }
+        }
+    }
+
+    private void precomputeJar(URL url) throws IOException
+    {
+        JarURLConnection connection = (JarURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        // jar:file:/path/lib.jar!/META-INF/resources -> jar:file:/path/lib.jar!/
+        String baseUrl = url.toExternalForm();
+        baseUrl = baseUrl.substring(0, baseUrl.lastIndexOf(META_INF_RESOURCES));
+        try (JarFile jarFile = connection.getJarFile())
+        {
+            for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();)
+            {
+                JarEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && entry.getName().startsWith(META_INF_RESOURCES + '/'))
+                {
+                    try (InputStream in = jarFile.getInputStream(entry))
+                    {
+                        fingerprints.put(baseUrl + entry.getName(), digest(in));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String digest(InputStream in) throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = in.read(buffer)) >= 0)
+        {
+            digest.update(buffer, 0, length);
+        }
+        byte[] hash = digest.digest();
+        byte[] fingerprint = new byte[FINGERPRINT_BYTES];
+        System.arraycopy(hash, 0, fingerprint, 0, FINGERPRINT_BYTES);
+        return new String(Hex.encodeHex(fingerprint));
+    }
+}
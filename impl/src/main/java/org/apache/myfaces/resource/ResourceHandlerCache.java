@@ -35,6 +35,7 @@
     private volatile ConcurrentLRUCache<Object, ResourceValue> _resourceCacheMap = null;
     private volatile ConcurrentLRUCache<Object, ResourceValue> _viewResourceCacheMap = null;
     private volatile ConcurrentLRUCache<Object, Boolean> _libraryExistsCacheMap = null;
+    private volatile ConcurrentLRUCache<Object, ResourceContent> _resourceContentCacheMap = null;
 
     public ResourceHandlerCache()
     {
@@ -55,6 +56,12 @@ public ResourceHandlerCache()
             _resourceCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize);
             _viewResourceCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize);
             _libraryExistsCacheMap = new ConcurrentLRUCache<>((maxSize * 4 + 3) / 3, maxSize / 5);
+
+            int contentSize = myfacesConfig.getResourceContentCacheSize();
+            if (contentSize > 0)
+            {
+                _resourceContentCacheMap = new ConcurrentLRUCache<>((contentSize * 4 + 3) / 3, contentSize);
+            }
         }
     }
     
@@ -62,6 +69,32 @@ public boolean isResourceHandlerCacheEnabled()
     {
         return _resourceCacheEnabled;
     }
+
+    public boolean isResourceContentCacheEnabled()
+    {
+        return _resourceContentCacheMap != null;
+    }
+
+    /**
+     * @param url the external form of the resource url
+     */
+    public ResourceContent getResourceContent(String url)
+    {
+        if (!isResourceContentCacheEnabled())
+        {
+            return null;
+        }
+        return _resourceContentCacheMap.get(url);
+    }
+
+    public void putResourceContent(String url, ResourceContent content)
+    {
+        if (!isResourceContentCacheEnabled())
+        {
+            return;
+        }
+        _resourceContentCacheMap.put(url, content);
+    }
     
     public ResourceValue getResource(String resourceName, String libraryName, String contentType, String localePrefix)
     {
@@ -40,6 +40,11 @@ public class ResourceImpl extends Resource implements ContractResource
     protected final static String JAKARTA_FACES_LIBRARY_NAME = "jakarta.faces";
     protected final static String JSF_JS_RESOURCE_NAME = "jsf.js";
 
+    /**
+     * One year, the maximum recommended by RFC 2616 for max-age.
+     */
+    private static final long FINGERPRINT_MAX_AGE = 31536000L;
+
 
     private ResourceMeta _resourceMeta;
     private ResourceLoader _resourceLoader;
@@ -47,6 +52,8 @@ public class ResourceImpl extends Resource implements ContractResource
     
     private URL _url;
     private String _requestPath;
+    private String _fingerprint;
+    private boolean _fingerprintResolved;
     
     public ResourceImpl(ResourceMeta resourceMeta, 
             ResourceLoader resourceLoader, ResourceHandlerSupport support, String contentType)
@@ -74,6 +81,16 @@ public ResourceImpl(ResourceMeta resourceMeta,
         setContentType(contentType);
     }
     
+    public ResourceImpl(ResourceMeta resourceMeta, 
+            ResourceLoader resourceLoader, ResourceHandlerSupport support, String contentType,
+            URL url, String requestPath, String fingerprint)
+    {
+        this(resourceMeta, resourceLoader, support, contentType, url, requestPath);
+        _fingerprint = fingerprint;
+        // the request path is calculated using the fingerprint
+        _fingerprintResolved = requestPath != null;
+    }
+    
     public ResourceLoader getResourceLoader()
     {
         return _resourceLoader;
@@ -93,7 +110,7 @@ public InputStream getInputStream() throws IOException
         }
     }
     
-    private boolean couldResourceContainValueExpressions()
+    boolean couldResourceContainValueExpressions()
     {
         if (_resourceMeta.couldResourceContainValueExpressions())
         {
@@ -159,6 +176,12 @@ public String getRequestPath()
                 path = path + (useAmp ? '&' : '?') + "con=" + _resourceMeta.getContractName();
                 useAmp = true;
             }
+            String fingerprint = getFingerprint();
+            if (fingerprint != null)
+            {
+                path = path + (useAmp ? '&' : '?') + ResourceFingerprints.FINGERPRINT_PARAM + '=' + fingerprint;
+                useAmp = true;
+            }
             _requestPath = context.getApplication().getViewHandler().getResourceURL(context, path);
         }
         return _requestPath;
@@ -171,7 +194,7 @@ public Map<String, String> getResponseHeaders()
         
         if (facesContext.getApplication().getResourceHandler().isResourceRequest(facesContext))
         {
-            Map<String, String> headers = new HashMap<>(2, 1f);
+            Map<String, String> headers = new HashMap<>(4, 1f);
             
             long lastModified = getLastModified(facesContext);
             
@@ -208,6 +231,21 @@ else if (_resourceMeta instanceof AliasResourceMetaImpl
                 headers.put("Expires", ResourceLoaderUtils.formatDateHeader(expires));
             }
             
+            String fingerprint = getFingerprint();
+            if (fingerprint != null)
+            {
+                headers.put("ETag", '"' + fingerprint + '"');
+                
+                // A new version of the resource gets another URL, so this one never changes
+                if (fingerprint.equals(facesContext.getExternalContext().getRequestParameterMap().get(
+                        ResourceFingerprints.FINGERPRINT_PARAM)))
+                {
+                    headers.put("Cache-Control", "public, max-age=" + FINGERPRINT_MAX_AGE + ", immutable");
+                    headers.put("Expires", ResourceLoaderUtils.formatDateHeader(
+                            System.currentTimeMillis() + FINGERPRINT_MAX_AGE * 1000L));
+                }
+            }
+            
             return headers;
         }
         else
@@ -243,6 +281,17 @@ public boolean userAgentNeedsUpdate(FacesContext context)
         // This method is called from ResourceHandlerImpl.handleResourceRequest and if
         // returns false send a 304 Not Modified response.
         
+        // RFC 7232: If-None-Match takes precedence over If-Modified-Since
+        String ifNoneMatch = context.getExternalContext().getRequestHeaderMap().get("If-None-Match");
+        if (ifNoneMatch != null)
+        {
+            String fingerprint = getFingerprint();
+            if (fingerprint != null)
+            {
+                return !matchesETag(ifNoneMatch, fingerprint);
+            }
+        }
+        
         String ifModifiedSinceString = context.getExternalContext().getRequestHeaderMap().get("If-Modified-Since");
         
         if (ifModifiedSinceString == null)
@@ -281,6 +330,57 @@ public boolean userAgentNeedsUpdate(FacesContext context)
         return true;
     }
     
+    /**
+     * Weak comparison of the If-None-Match header, as required by RFC 7232 for GET requests. The ETags of
+     * the gzip and brotli representations match too, see {@link ResourceFingerprints#getEncodedETag}.
+     */
+    private static boolean matchesETag(String ifNoneMatch, String fingerprint)
+    {
+        for (String tag : ifNoneMatch.split(","))
+        {
+            tag = tag.trim();
+            if (tag.equals("*"))
+            {
+                return true;
+            }
+            if (tag.startsWith("W/"))
+            {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= fingerprint.length() + 2
+                    && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"'
+                    && tag.regionMatches(1, fingerprint, 0, fingerprint.length()))
+            {
+                String encoding = tag.substring(fingerprint.length() + 1, tag.length() - 1);
+                if (encoding.isEmpty() || encoding.equals("-gzip") || encoding.equals("-br"))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return the hash of the content, used in the request path and as ETag, or null if fingerprints
+     *         are disabled or the resource could contain value expressions.
+     */
+    public String getFingerprint()
+    {
+        if (!_fingerprintResolved)
+        {
+            FacesContext facesContext = FacesContext.getCurrentInstance();
+            if (MyfacesConfig.getCurrentInstance(facesContext).isResourceFingerprint()
+                    && !couldResourceContainValueExpressions())
+            {
+                _fingerprint = ResourceFingerprints.getInstance(facesContext.getExternalContext())
+                        .getFingerprint(getURL());
+            }
+            _fingerprintResolved = true;
+        }
+        return _fingerprint;
+    }
+    
     protected ResourceHandlerSupport getResourceHandlerSupport()
     {
         return _resourceHandlerSupport;
@@ -35,13 +35,9 @@ public byte[] toByteArray(Object object) throws IOException
     {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
         {
-            try (ObjectOutputStream oos = getObjectOutputStream(baos))
-            {
-                oos.writeObject(object);
-                oos.flush();
+            writeObject(object, baos);
 
-                return baos.toByteArray();
-            }
+            return baos.toByteArray();
         }
     }
     
@@ -49,16 +45,35 @@ public Object toObject(byte[] bytes) throws IOException, PrivilegedActionExcepti
     {
         try (InputStream bias = new FastByteArrayInputStream(bytes))
         {
-            try (ObjectInputStream ois = getObjectInputStream(bias))
-            {
-                if (System.getSecurityManager() != null)
-                {
-                    return AccessController.doPrivileged((PrivilegedExceptionAction) () -> ois.readObject());
-                }
+            return readObject(bias);
+        }
+    }
+
+    /**
+     * Serializes the given object straight into the passed stream. The stream is flushed but not closed,
+     * so callers can keep chaining (compression, encryption, encoding) behind it without an intermediate
+     * byte array.
+     */
+    public void writeObject(Object object, OutputStream outputStream) throws IOException
+    {
+        ObjectOutputStream oos = getObjectOutputStream(outputStream);
+        oos.writeObject(object);
+        oos.flush();
+    }
 
-                return ois.readObject();
-            }
+    /**
+     * Deserializes one object from the passed stream. The stream is not closed.
+     */
+    public Object readObject(InputStream inputStream)
+            throws IOException, PrivilegedActionException, ClassNotFoundException
+    {
+        ObjectInputStream ois = getObjectInputStream(inputStream);
+        if (System.getSecurityManager() != null)
+        {
+            return AccessController.doPrivileged((PrivilegedExceptionAction) () -> ois.readObject());
         }
+
+        return ois.readObject();
     }
 
     protected abstract ObjectOutputStream getObjectOutputStream(OutputStream outputStream) throws IOException;
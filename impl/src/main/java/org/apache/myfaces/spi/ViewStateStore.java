@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi;
+
+import java.util.Map;
+import java.util.UUID;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+
+/**
+ * Stores the serialized view state outside of the session when server side state saving is used.
+ * 
+ * <p>When <code>org.apache.myfaces.VIEW_STATE_STORE</code> is set, the state of each view is serialized
+ * and handed to the store, and the session only keeps the keys of the views (the precedence and the
+ * discard order), so the session stays small and cheap to replicate.</p>
+ * 
+ * <p>Implementations must be thread safe. A store is allowed to forget a state (expired, quota, restart),
+ * in that case get returns null and the view is handled as expired.</p>
+ * 
+ * <p>The states of a session are identified by a random key kept in the session (see {@link #getSessionKey}),
+ * not by the session id, because the container changes the id on login to prevent session fixation.</p>
+ */
+public abstract class ViewStateStore
+{
+    /**
+     * Session attribute holding the key of the session in the store.
+     */
+    public static final String SESSION_KEY_ATTRIBUTE = "oam.viewStateStore.SESSION_KEY";
+
+    /**
+     * @return the key of the current session in the store, or null if there is no session or no key
+     * and create is false.
+     */
+    public static String getSessionKey(ExternalContext externalContext, boolean create)
+    {
+        if (externalContext.getSession(create) == null)
+        {
+            return null;
+        }
+        Map<String, Object> sessionMap = externalContext.getSessionMap();
+        String sessionKey = (String) sessionMap.get(SESSION_KEY_ATTRIBUTE);
+        if (sessionKey == null && create)
+        {
+            sessionKey = UUID.randomUUID().toString();
+            sessionMap.put(SESSION_KEY_ATTRIBUTE, sessionKey);
+        }
+        return sessionKey;
+    }
+
+    /**
+     * Called once on startup, before any other method.
+     */
+    public void init(ExternalContext externalContext)
+    {
+    }
+
+    /**
+     * Store the state of a view. The store takes ownership of the array. The write could be done
+     * asynchronously, but a subsequent get must return the state.
+     */
+    public abstract void put(FacesContext facesContext, String sessionKey, Object key, byte[] state);
+
+    /**
+     * @return the state stored for the key, or null if it is not available anymore.
+     */
+    public abstract byte[] get(FacesContext facesContext, String sessionKey, Object key);
+
+    public abstract void remove(FacesContext facesContext, String sessionKey, Object key);
+
+    /**
+     * Discard all the states of a session. Called with the {@link #SESSION_KEY_ATTRIBUTE} of the session
+     * when it is destroyed, note there could be no FacesContext available.
+     */
+    public abstract void removeSession(String sessionKey);
+
+    /**
+     * Called on shutdown, release all resources.
+     */
+    public void destroy()
+    {
+    }
+}
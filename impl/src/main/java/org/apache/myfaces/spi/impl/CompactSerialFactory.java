@@ -0,0 +1,627 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.security.PrivilegedActionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.component.UIComponent;
+
+import org.apache.myfaces.util.lang.ClassUtils;
+import org.apache.myfaces.util.lang.HashMapUtils;
+
+/**
+ * {@link org.apache.myfaces.spi.SerialFactory} with a compact binary encoding for the types that dominate the
+ * state produced by the state management strategies: <code>Object[]</code>, <code>String</code>, boxed
+ * primitives, <code>HashMap</code>, <code>ArrayList</code> and the attached state/delta wrappers of
+ * <code>jakarta.faces.component</code> and <code>jakarta.faces.component.behavior</code>.
+ *
+ * <p>Each of these types is written with a one byte tag from a fixed dictionary instead of a class descriptor,
+ * repeated strings are written once and referenced by index afterwards, and shared containers keep their
+ * identity. Any other <code>Serializable</code> falls back to Java serialization on the same stream, so its
+ * class descriptor is still written only once per state.</p>
+ *
+ * <p>Enable it with the <code>org.apache.myfaces.SERIAL_FACTORY</code> web config parameter:
+ * <code>org.apache.myfaces.spi.impl.CompactSerialFactory</code>.</p>
+ */
+public class CompactSerialFactory extends DefaultSerialFactory
+{
+    private static final Logger log = Logger.getLogger(CompactSerialFactory.class.getName());
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte CHARACTER = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte STRING_REF = 11;
+    private static final byte OBJECT_ARRAY = 12;
+    private static final byte HASH_MAP = 13;
+    private static final byte ARRAY_LIST = 14;
+    private static final byte REF = 15;
+    private static final byte WRAPPER = 16;
+    private static final byte SERIALIZABLE = 17;
+
+    /**
+     * writeUTF is limited to 65535 encoded bytes, longer strings go through Java serialization.
+     */
+    private static final int MAX_UTF_LENGTH = 65535 / 3;
+
+    /**
+     * The lengths of the containers are read from the input, so at most this many elements are allocated
+     * before they are actually read, bigger containers grow while their elements are read.
+     */
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    private static final String[] WRAPPER_CLASS_NAMES = {
+        "jakarta.faces.component._AttachedStateWrapper",
+        "jakarta.faces.component._AttachedDeltaWrapper",
+        "jakarta.faces.component.behavior._AttachedStateWrapper",
+        "jakarta.faces.component.behavior._AttachedDeltaWrapper"
+    };
+
+    private final WrapperType[] wrapperTypes;
+    private final Map<Class<?>, Integer> wrapperIndex;
+
+    public CompactSerialFactory()
+    {
+        List<WrapperType> types = new ArrayList<>(WRAPPER_CLASS_NAMES.length);
+        for (String className : WRAPPER_CLASS_NAMES)
+        {
+            WrapperType type = WrapperType.create(className);
+            if (type != null)
+            {
+                types.add(type);
+            }
+        }
+        wrapperTypes = types.toArray(new WrapperType[types.size()]);
+        wrapperIndex = new HashMap<>(HashMapUtils.calcCapacity(wrapperTypes.length));
+        for (int i = 0; i < wrapperTypes.length; i++)
+        {
+            wrapperIndex.put(wrapperTypes[i].type, i);
+        }
+    }
+
+    @Override
+    public void writeObject(Object object, OutputStream outputStream) throws IOException
+    {
+        ObjectOutputStream oos = getObjectOutputStream(outputStream);
+        oos.writeByte(FORMAT_VERSION);
+        new Encoder(oos).write(object);
+        oos.flush();
+    }
+
+    @Override
+    public Object readObject(InputStream inputStream)
+            throws IOException, PrivilegedActionException, ClassNotFoundException
+    {
+        ObjectInputStream ois = getObjectInputStream(inputStream);
+        int version = ois.readUnsignedByte();
+        if (version != FORMAT_VERSION)
+        {
+            throw new StreamCorruptedException("Unsupported state format version " + version);
+        }
+        return new Decoder(ois).read();
+    }
+
+    private final class Encoder
+    {
+        private final ObjectOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+        private final Map<Object, Integer> containers = new IdentityHashMap<>();
+
+        Encoder(ObjectOutputStream out)
+        {
+            this.out = out;
+        }
+
+        void write(Object value) throws IOException
+        {
+            if (value == null)
+            {
+                out.writeByte(NULL);
+                return;
+            }
+
+            Class<?> type = value.getClass();
+            if (type == String.class)
+            {
+                writeString((String) value);
+            }
+            else if (type == Integer.class)
+            {
+                out.writeByte(INTEGER);
+                writeVarInt(zigZag((Integer) value));
+            }
+            else if (type == Boolean.class)
+            {
+                out.writeByte(((Boolean) value) ? TRUE : FALSE);
+            }
+            else if (type == Object[].class || type == HashMap.class || type == ArrayList.class
+                    || wrapperIndex.containsKey(type))
+            {
+                Integer ref = containers.get(value);
+                if (ref != null)
+                {
+                    out.writeByte(REF);
+                    writeVarInt(ref);
+                    return;
+                }
+                containers.put(value, containers.size());
+                writeContainer(value, type);
+            }
+            else if (type == Long.class)
+            {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            }
+            else if (type == Short.class)
+            {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            }
+            else if (type == Byte.class)
+            {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            }
+            else if (type == Character.class)
+            {
+                out.writeByte(CHARACTER);
+                out.writeChar((Character) value);
+            }
+            else if (type == Float.class)
+            {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            }
+            else if (type == Double.class)
+            {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            }
+            else if (value instanceof Serializable)
+            {
+                out.writeByte(SERIALIZABLE);
+                out.writeObject(value);
+            }
+            else
+            {
+                throw new NotSerializableException(type.getName());
+            }
+        }
+
+        private void writeContainer(Object value, Class<?> type) throws IOException
+        {
+            if (type == Object[].class)
+            {
+                Object[] array = (Object[]) value;
+                out.writeByte(OBJECT_ARRAY);
+                writeVarInt(array.length);
+                for (int i = 0; i < array.length; i++)
+                {
+                    write(array[i]);
+                }
+            }
+            else if (type == HashMap.class)
+            {
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeByte(HASH_MAP);
+                writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet())
+                {
+                    write(entry.getKey());
+                    write(entry.getValue());
+                }
+            }
+            else if (type == ArrayList.class)
+            {
+                List<?> list = (List<?>) value;
+                int size = list.size();
+                out.writeByte(ARRAY_LIST);
+                writeVarInt(size);
+                for (int i = 0; i < size; i++)
+                {
+                    write(list.get(i));
+                }
+            }
+            else
+            {
+                int index = wrapperIndex.get(type);
+                WrapperType wrapperType = wrapperTypes[index];
+                out.writeByte(WRAPPER);
+                writeVarInt(index);
+                if (wrapperType.hasClazz())
+                {
+                    Class<?> clazz = wrapperType.getClazz(value);
+                    write(clazz == null ? null : clazz.getName());
+                }
+                write(wrapperType.getWrapped(value));
+            }
+        }
+
+        private void writeString(String value) throws IOException
+        {
+            Integer index = strings.get(value);
+            if (index != null)
+            {
+                out.writeByte(STRING_REF);
+                writeVarInt(index);
+            }
+            else if (value.length() > MAX_UTF_LENGTH)
+            {
+                out.writeByte(SERIALIZABLE);
+                out.writeObject(value);
+            }
+            else
+            {
+                strings.put(value, strings.size());
+                out.writeByte(STRING);
+                out.writeUTF(value);
+            }
+        }
+
+        private void writeVarInt(int value) throws IOException
+        {
+            while ((value & ~0x7F) != 0)
+            {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        private int zigZag(int value)
+        {
+            return (value << 1) ^ (value >> 31);
+        }
+    }
+
+    private final class Decoder
+    {
+        private final ObjectInputStream in;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> containers = new ArrayList<>();
+
+        /**
+         * The arrays that are still growing and their final length.
+         */
+        private Map<Object[], Integer> growingArrays;
+
+        Decoder(ObjectInputStream in)
+        {
+            this.in = in;
+        }
+
+        Object read() throws IOException, ClassNotFoundException
+        {
+            byte tag = in.readByte();
+            switch (tag)
+            {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case INTEGER:
+                    return unZigZag(readVarInt());
+                case LONG:
+                    return in.readLong();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case CHARACTER:
+                    return in.readChar();
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                    return readString();
+                case STRING_REF:
+                    return strings.get(readVarInt());
+                case OBJECT_ARRAY:
+                    return readObjectArray();
+                case HASH_MAP:
+                    return readHashMap();
+                case ARRAY_LIST:
+                    return readArrayList();
+                case REF:
+                    return readRef();
+                case WRAPPER:
+                    return readWrapper();
+                case SERIALIZABLE:
+                    return in.readObject();
+                default:
+                    throw new StreamCorruptedException("Unknown state tag " + tag);
+            }
+        }
+
+        private String readString() throws IOException
+        {
+            String value = in.readUTF();
+            strings.add(value);
+            return value;
+        }
+
+        private int unZigZag(int value)
+        {
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private Object readRef() throws IOException
+        {
+            int index = readVarInt();
+            if (index >= containers.size())
+            {
+                throw new StreamCorruptedException("Unknown reference " + index);
+            }
+            Object container = containers.get(index);
+            if (growingArrays != null && container instanceof Object[])
+            {
+                // An array referenced by its own elements must keep its identity, so it gets its final length
+                Integer length = growingArrays.remove(container);
+                if (length != null)
+                {
+                    container = Arrays.copyOf((Object[]) container, length);
+                    containers.set(index, container);
+                }
+            }
+            return container;
+        }
+
+        private Object[] readObjectArray() throws IOException, ClassNotFoundException
+        {
+            int length = readLength();
+            Object[] array = new Object[Math.min(length, MAX_INITIAL_CAPACITY)];
+            int slot = containers.size();
+            containers.add(array);
+            if (array.length == length)
+            {
+                for (int i = 0; i < length; i++)
+                {
+                    array[i] = read();
+                }
+                return array;
+            }
+
+            if (growingArrays == null)
+            {
+                growingArrays = new IdentityHashMap<>();
+            }
+            growingArrays.put(array, length);
+            for (int i = 0; i < length; i++)
+            {
+                if (i == array.length)
+                {
+                    growingArrays.remove(array);
+                    array = Arrays.copyOf(array, (int) Math.min(length, 2L * array.length));
+                    containers.set(slot, array);
+                    if (array.length < length)
+                    {
+                        growingArrays.put(array, length);
+                    }
+                }
+                Object value = read();
+                // the array could have been replaced by one with the final length
+                array = (Object[]) containers.get(slot);
+                array[i] = value;
+            }
+            growingArrays.remove(array);
+            return array;
+        }
+
+        private HashMap<Object, Object> readHashMap() throws IOException, ClassNotFoundException
+        {
+            int size = readLength();
+            HashMap<Object, Object> map = new HashMap<>(HashMapUtils.calcCapacity(
+                    Math.min(size, MAX_INITIAL_CAPACITY)));
+            containers.add(map);
+            for (int i = 0; i < size; i++)
+            {
+                Object key = read();
+                map.put(key, read());
+            }
+            return map;
+        }
+
+        private ArrayList<Object> readArrayList() throws IOException, ClassNotFoundException
+        {
+            int size = readLength();
+            ArrayList<Object> list = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+            containers.add(list);
+            for (int i = 0; i < size; i++)
+            {
+                list.add(read());
+            }
+            return list;
+        }
+
+        private Object readWrapper() throws IOException, ClassNotFoundException
+        {
+            int index = readVarInt();
+            if (index >= wrapperTypes.length)
+            {
+                throw new StreamCorruptedException("Unknown wrapper type " + index);
+            }
+            WrapperType wrapperType = wrapperTypes[index];
+
+            // the wrapper can only be created once its content is known, reserve its slot first
+            int slot = containers.size();
+            containers.add(null);
+
+            Class<?> clazz = null;
+            if (wrapperType.hasClazz())
+            {
+                String className = (String) read();
+                clazz = className == null ? null : ClassUtils.classForName(className);
+            }
+            Object wrapper = wrapperType.newInstance(clazz, read());
+            containers.set(slot, wrapper);
+            return wrapper;
+        }
+
+        private int readLength() throws IOException
+        {
+            int length = readVarInt();
+            if (length < 0)
+            {
+                throw new StreamCorruptedException("Invalid length " + length);
+            }
+            return length;
+        }
+
+        private int readVarInt() throws IOException
+        {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7)
+            {
+                int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable length int");
+        }
+    }
+
+    /**
+     * Reflective access to the package private attached state wrappers of the API.
+     */
+    private static final class WrapperType
+    {
+        private final Class<?> type;
+        private final Constructor<?> constructor;
+        private final Method getWrappedMethod;
+        private final Method getClazzMethod;
+
+        private WrapperType(Class<?> type, Constructor<?> constructor, Method getWrappedMethod,
+                Method getClazzMethod)
+        {
+            this.type = type;
+            this.constructor = constructor;
+            this.getWrappedMethod = getWrappedMethod;
+            this.getClazzMethod = getClazzMethod;
+        }
+
+        boolean hasClazz()
+        {
+            return getClazzMethod != null;
+        }
+
+        static WrapperType create(String className)
+        {
+            try
+            {
+                Class<?> type = Class.forName(className, false, UIComponent.class.getClassLoader());
+                Constructor<?> constructor = type.getDeclaredConstructor(Class.class, Object.class);
+                constructor.setAccessible(true);
+                Method getWrappedMethod = type.getDeclaredMethod("getWrappedStateObject");
+                getWrappedMethod.setAccessible(true);
+                Method getClazzMethod = null;
+                try
+                {
+                    getClazzMethod = type.getDeclaredMethod("getClazz");
+                    getClazzMethod.setAccessible(true);
+                }
+                catch (NoSuchMethodException e)
+                {
+                    // delta wrappers do not keep the class
+                }
+                return new WrapperType(type, constructor, getWrappedMethod, getClazzMethod);
+            }
+            catch (Exception e)
+            {
+                // the wrapper is simply written with Java serialization then
+                if (log.isLoggable(Level.FINE))
+                {
+                    log.log(Level.FINE, "Compact encoding not available for " + className, e);
+                }
+                return null;
+            }
+        }
+
+        Object getWrapped(Object wrapper) throws IOException
+        {
+            try
+            {
+                return getWrappedMethod.invoke(wrapper);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        Class<?> getClazz(Object wrapper) throws IOException
+        {
+            try
+            {
+                return (Class<?>) getClazzMethod.invoke(wrapper);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                throw new IOException(e);
+            }
+        }
+
+        Object newInstance(Class<?> clazz, Object wrapped) throws IOException
+        {
+            try
+            {
+                return constructor.newInstance(clazz, wrapped);
+            }
+            catch (ReflectiveOperationException | IllegalArgumentException e)
+            {
+                InvalidObjectException ex = new InvalidObjectException("Cannot restore " + type.getName());
+                ex.initCause(e);
+                throw ex;
+            }
+        }
+    }
+}
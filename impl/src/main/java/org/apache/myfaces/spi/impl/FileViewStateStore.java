@@ -0,0 +1,747 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jakarta.faces.FacesException;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.FacesContext;
+import jakarta.servlet.ServletContext;
+import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateStore;
+import org.apache.myfaces.util.WebConfigParamUtils;
+
+/**
+ * ViewStateStore that keeps the states in memory mapped segment files under the temp dir of the web
+ * application.
+ * 
+ * <p>The states are appended to the current segment by a background thread, until they are written a 
+ * get returns the array passed to put. A segment is unmapped and deleted when all its states are discarded,
+ * the live states of a segment that is mostly garbage are moved to the current one, so a few long lived
+ * states do not keep the whole segment.</p>
+ * 
+ * <p>Each session keeps its states in LRU order and is limited by <code>NUMBER_OF_VIEWS_IN_SESSION</code>
+ * and by <code>org.apache.myfaces.VIEW_STATE_STORE_SESSION_QUOTA</code> bytes, states that are not accessed
+ * during <code>org.apache.myfaces.VIEW_STATE_STORE_TTL</code> are discarded.</p>
+ * 
+ * <p>The files are not meant to survive a restart, the directory is cleared on startup and on shutdown.</p>
+ */
+public class FileViewStateStore extends ViewStateStore
+{
+    private static final Logger log = Logger.getLogger(FileViewStateStore.class.getName());
+
+    /**
+     * Time in milliseconds a view state is kept in the store since it was saved or restored for the last time.
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="3600000", group="state")
+    public static final String VIEW_STATE_STORE_TTL = "org.apache.myfaces.VIEW_STATE_STORE_TTL";
+    public static final long VIEW_STATE_STORE_TTL_DEFAULT = 3600000L;
+
+    /**
+     * Max amount of bytes stored for a single session, the least recently used states are discarded first.
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="8388608", group="state")
+    public static final String VIEW_STATE_STORE_SESSION_QUOTA = "org.apache.myfaces.VIEW_STATE_STORE_SESSION_QUOTA";
+    public static final long VIEW_STATE_STORE_SESSION_QUOTA_DEFAULT = 8L * 1024 * 1024;
+
+    /**
+     * Size in bytes of each segment file.
+     */
+    @JSFWebConfigParam(since="4.0", defaultValue="16777216", group="state", tags="performance")
+    public static final String VIEW_STATE_STORE_SEGMENT_SIZE = "org.apache.myfaces.VIEW_STATE_STORE_SEGMENT_SIZE";
+    public static final int VIEW_STATE_STORE_SEGMENT_SIZE_DEFAULT = 16 * 1024 * 1024;
+
+    /**
+     * Subdir of the ServletContext tmp dir to store the segments.
+     */
+    private static final String TEMP_FOLDER_BASE_DIR = "oam-view-state";
+
+    /**
+     * A segment is compacted when less than 1/COMPACTION_RATIO of the written bytes are still live.
+     */
+    private static final int COMPACTION_RATIO = 4;
+
+    private static final Consumer<MappedByteBuffer> UNMAPPER = createUnmapper();
+
+    private final Map<String, SessionStates> sessions = new ConcurrentHashMap<>();
+    private final Set<Segment> segments = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AtomicInteger segmentCount = new AtomicInteger();
+
+    private File directory;
+    private long ttl;
+    private long sessionQuota;
+    private int sessionMaxViews;
+    private int segmentSize;
+    private ScheduledExecutorService executor;
+
+    /**
+     * The segment where the states are appended, only modified by the writer thread.
+     */
+    private volatile Segment currentSegment;
+
+    @Override
+    public void init(ExternalContext externalContext)
+    {
+        ttl = WebConfigParamUtils.getLongInitParameter(externalContext, VIEW_STATE_STORE_TTL,
+                VIEW_STATE_STORE_TTL_DEFAULT);
+        sessionQuota = WebConfigParamUtils.getLongInitParameter(externalContext, VIEW_STATE_STORE_SESSION_QUOTA,
+                VIEW_STATE_STORE_SESSION_QUOTA_DEFAULT);
+        segmentSize = WebConfigParamUtils.getIntegerInitParameter(externalContext, VIEW_STATE_STORE_SEGMENT_SIZE,
+                VIEW_STATE_STORE_SEGMENT_SIZE_DEFAULT);
+        sessionMaxViews = MyfacesConfig.getCurrentInstance(externalContext).getNumberOfViewsInSession();
+
+        try
+        {
+            File tempdir = (File) externalContext.getApplicationMap().get(ServletContext.TEMPDIR);
+            if (tempdir != null)
+            {
+                directory = new File(tempdir, TEMP_FOLDER_BASE_DIR);
+                deleteDir(directory);
+                Files.createDirectories(directory.toPath());
+            }
+            else
+            {
+                directory = Files.createTempDirectory(TEMP_FOLDER_BASE_DIR).toFile();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new FacesException("Cannot create the view state store directory", e);
+        }
+
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, runnable ->
+        {
+            Thread thread = new Thread(runnable, "MyFaces view state store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduledExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor = scheduledExecutor;
+        long period = Math.max(1000L, Math.min(ttl, 60000L));
+        executor.scheduleWithFixedDelay(() ->
+        {
+            removeExpired();
+            compactSegments();
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(FacesContext facesContext, String sessionKey, Object key, byte[] state)
+    {
+        StateRecord record = new StateRecord(state, System.currentTimeMillis() + ttl);
+        while (true)
+        {
+            SessionStates states = sessions.computeIfAbsent(sessionKey, SessionStates::new);
+            synchronized (states)
+            {
+                if (states.discarded)
+                {
+                    continue;
+                }
+                StateRecord old = states.records.put(key, record);
+                if (old != null)
+                {
+                    states.bytes -= old.length;
+                    release(old);
+                }
+                states.bytes += record.length;
+                
+                Iterator<StateRecord> it = states.records.values().iterator();
+                while ((states.records.size() > sessionMaxViews || states.bytes > sessionQuota)
+                        && states.records.size() > 1)
+                {
+                    StateRecord eldest = it.next();
+                    it.remove();
+                    states.bytes -= eldest.length;
+                    release(eldest);
+                }
+                break;
+            }
+        }
+        try
+        {
+            executor.execute(() -> write(record));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // shutting down, the state is still available in memory
+        }
+    }
+
+    @Override
+    public byte[] get(FacesContext facesContext, String sessionKey, Object key)
+    {
+        SessionStates states = sessions.get(sessionKey);
+        if (states == null)
+        {
+            return null;
+        }
+        StateRecord record;
+        synchronized (states)
+        {
+            record = states.records.remove(key);
+            if (record == null)
+            {
+                return null;
+            }
+            record.expires = System.currentTimeMillis() + ttl;
+            states.records.put(key, record);
+        }
+        return read(record);
+    }
+
+    @Override
+    public void remove(FacesContext facesContext, String sessionKey, Object key)
+    {
+        SessionStates states = sessions.get(sessionKey);
+        if (states != null)
+        {
+            synchronized (states)
+            {
+                StateRecord record = states.records.remove(key);
+                if (record != null)
+                {
+                    states.bytes -= record.length;
+                    release(record);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeSession(String sessionKey)
+    {
+        SessionStates states = sessions.remove(sessionKey);
+        if (states != null)
+        {
+            synchronized (states)
+            {
+                states.discarded = true;
+                for (StateRecord record : states.records.values())
+                {
+                    release(record);
+                }
+                states.records.clear();
+                states.bytes = 0;
+            }
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            try
+            {
+                // the buffers cannot be unmapped while the writer thread uses them
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS))
+                {
+                    log.warning("The view state store writer thread did not stop, the segments are not unmapped");
+                    return;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        sessions.clear();
+        currentSegment = null;
+        for (Segment segment : segments)
+        {
+            closeSegment(segment);
+        }
+        if (directory != null)
+        {
+            deleteDir(directory);
+        }
+    }
+
+    /**
+     * Discard the states that were not used during the configured ttl. Called periodically by the writer thread.
+     */
+    protected void removeExpired()
+    {
+        long now = System.currentTimeMillis();
+        for (SessionStates states : sessions.values())
+        {
+            synchronized (states)
+            {
+                // LRU order, so the expired ones are at the beginning
+                Iterator<StateRecord> it = states.records.values().iterator();
+                while (it.hasNext())
+                {
+                    StateRecord record = it.next();
+                    if (record.expires > now)
+                    {
+                        break;
+                    }
+                    it.remove();
+                    states.bytes -= record.length;
+                    release(record);
+                }
+                if (states.records.isEmpty())
+                {
+                    states.discarded = true;
+                    sessions.remove(states.sessionKey, states);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until the states queued before this call are written.
+     */
+    void flush() throws InterruptedException, ExecutionException
+    {
+        executor.submit(() -> { }).get();
+    }
+
+    /**
+     * Wait until the segments are compacted.
+     */
+    void compact() throws InterruptedException, ExecutionException
+    {
+        executor.submit(this::compactSegments).get();
+    }
+
+    /**
+     * @return the number of segments in use.
+     */
+    int getSegmentCount()
+    {
+        return segments.size();
+    }
+
+    /**
+     * Executed by the writer thread.
+     */
+    private void write(StateRecord record)
+    {
+        byte[] state;
+        synchronized (record)
+        {
+            state = record.pending;
+        }
+        if (state == null)
+        {
+            // discarded before it was written
+            return;
+        }
+        try
+        {
+            Segment segment = append(state);
+            synchronized (record)
+            {
+                if (record.pending != null)
+                {
+                    segment.addLive(state.length);
+                    record.segment = segment;
+                    record.offset = segment.position - state.length;
+                    record.pending = null;
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // The state is still available in memory
+            log.log(Level.SEVERE, "Cannot write view state to " + directory, e);
+        }
+    }
+
+    /**
+     * Move the live states of the segments that are mostly garbage to the current segment, so the old
+     * segments can be released. Executed by the writer thread.
+     */
+    private void compactSegments()
+    {
+        Set<Segment> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Segment segment : segments)
+        {
+            if (segment != currentSegment && segment.liveBytes.get() * COMPACTION_RATIO < segment.position)
+            {
+                candidates.add(segment);
+            }
+        }
+        if (candidates.isEmpty())
+        {
+            return;
+        }
+
+        for (SessionStates states : sessions.values())
+        {
+            List<StateRecord> records;
+            synchronized (states)
+            {
+                records = new ArrayList<>(states.records.values());
+            }
+            for (StateRecord record : records)
+            {
+                Segment segment;
+                int offset;
+                synchronized (record)
+                {
+                    segment = record.segment;
+                    offset = record.offset;
+                }
+                if (segment == null || !candidates.contains(segment))
+                {
+                    continue;
+                }
+                byte[] state = new byte[record.length];
+                if (!segment.read(offset, state))
+                {
+                    continue;
+                }
+                try
+                {
+                    Segment target = append(state);
+                    boolean moved = false;
+                    synchronized (record)
+                    {
+                        if (record.segment == segment)
+                        {
+                            target.addLive(state.length);
+                            record.segment = target;
+                            record.offset = target.position - state.length;
+                            moved = true;
+                        }
+                    }
+                    if (moved)
+                    {
+                        removeLive(segment, state.length);
+                    }
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    log.log(Level.SEVERE, "Cannot compact view state segment " + segment.file, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the state to the current segment, or to a new one if it does not fit. Executed by the writer
+     * thread.
+     * 
+     * @return the segment, the state ends at its position
+     */
+    private Segment append(byte[] state) throws IOException
+    {
+        Segment segment = currentSegment;
+        if (segment == null || segment.position + state.length > segment.size)
+        {
+            segment = new Segment(new File(directory, "segment-" + segmentCount.incrementAndGet() + ".dat"),
+                    Math.max(segmentSize, state.length));
+            segments.add(segment);
+            Segment previous = currentSegment;
+            currentSegment = segment;
+            if (previous != null && previous.live.get() == 0)
+            {
+                closeSegment(previous);
+            }
+        }
+        ByteBuffer buffer = segment.buffer.duplicate();
+        buffer.position(segment.position);
+        buffer.put(state);
+        segment.position += state.length;
+        return segment;
+    }
+
+    private byte[] read(StateRecord record)
+    {
+        byte[] state = null;
+        Segment previous = null;
+        while (true)
+        {
+            Segment segment;
+            int offset;
+            synchronized (record)
+            {
+                if (record.pending != null)
+                {
+                    return record.pending;
+                }
+                segment = record.segment;
+                offset = record.offset;
+            }
+            if (segment == null || segment == previous)
+            {
+                // discarded, or the store is destroyed
+                return null;
+            }
+            if (state == null)
+            {
+                state = new byte[record.length];
+            }
+            if (segment.read(offset, state))
+            {
+                return state;
+            }
+            // moved to another segment by the compaction
+            previous = segment;
+        }
+    }
+
+    private void release(StateRecord record)
+    {
+        Segment segment;
+        synchronized (record)
+        {
+            record.pending = null;
+            segment = record.segment;
+            record.segment = null;
+        }
+        if (segment != null)
+        {
+            removeLive(segment, record.length);
+        }
+    }
+
+    private void removeLive(Segment segment, int length)
+    {
+        segment.liveBytes.addAndGet(-length);
+        if (segment.live.decrementAndGet() == 0 && segment != currentSegment)
+        {
+            closeSegment(segment);
+        }
+    }
+
+    private void closeSegment(Segment segment)
+    {
+        if (segments.remove(segment))
+        {
+            segment.close();
+        }
+    }
+
+    /**
+     * The memory of a MappedByteBuffer is only released when the buffer is collected, which could take long
+     * for buffers that survived a few collections, so the buffers are unmapped explicitly where the JDK allows it.
+     */
+    private static Consumer<MappedByteBuffer> createUnmapper()
+    {
+        try
+        {
+            // Java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeQuietly(invokeCleaner, unsafe, buffer);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            // Java 8
+        }
+        try
+        {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> invokeQuietly(clean, invokeQuietly(cleaner, buffer, null), null);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            log.log(Level.FINE, "Cannot unmap the view state segments, they are released by the GC", e);
+            return buffer -> { };
+        }
+    }
+
+    private static Object invokeQuietly(Method method, Object target, Object arg)
+    {
+        if (target == null)
+        {
+            return null;
+        }
+        try
+        {
+            return arg == null ? method.invoke(target) : method.invoke(target, arg);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            log.log(Level.FINE, "Cannot unmap view state segment", e);
+            return null;
+        }
+    }
+
+    private static void deleteDir(File dir)
+    {
+        File[] files = dir.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (file.isDirectory())
+                {
+                    deleteDir(file);
+                }
+                else
+                {
+                    file.delete();
+                }
+            }
+        }
+        dir.delete();
+    }
+
+    private static class SessionStates
+    {
+        private final String sessionKey;
+        private final LinkedHashMap<Object, StateRecord> records = new LinkedHashMap<>();
+        private long bytes;
+        private boolean discarded;
+
+        SessionStates(String sessionKey)
+        {
+            this.sessionKey = sessionKey;
+        }
+    }
+
+    private static class StateRecord
+    {
+        private final int length;
+        private volatile long expires;
+        private byte[] pending;
+        private Segment segment;
+        private int offset;
+
+        StateRecord(byte[] pending, long expires)
+        {
+            this.pending = pending;
+            this.length = pending.length;
+            this.expires = expires;
+        }
+    }
+
+    private static class Segment
+    {
+        private final File file;
+        private final int size;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger live = new AtomicInteger();
+        private final AtomicInteger liveBytes = new AtomicInteger();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private boolean closed;
+
+        /**
+         * Only modified by the writer thread.
+         */
+        private volatile int position;
+
+        Segment(File file, int size) throws IOException
+        {
+            this.file = file;
+            this.size = size;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                // the mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        void addLive(int length)
+        {
+            live.incrementAndGet();
+            liveBytes.addAndGet(length);
+        }
+
+        /**
+         * @return false if the segment is closed
+         */
+        boolean read(int offset, byte[] state)
+        {
+            lock.readLock().lock();
+            try
+            {
+                if (closed)
+                {
+                    return false;
+                }
+                ByteBuffer duplicate = buffer.duplicate();
+                duplicate.position(offset);
+                duplicate.get(state);
+                return true;
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Unmap the buffer and delete the file, waits for the readers using the buffer.
+         */
+        void close()
+        {
+            lock.writeLock().lock();
+            try
+            {
+                if (closed)
+                {
+                    return;
+                }
+                closed = true;
+                UNMAPPER.accept(buffer);
+            }
+            finally
+            {
+                lock.writeLock().unlock();
+            }
+            if (!file.delete() && log.isLoggable(Level.FINE))
+            {
+                log.fine("Cannot delete view state segment " + file);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -126,6 +127,12 @@ public class DefaultFaceletsStateManagementStrategy extends StateManagementStrat
 
     private static final String UNIQUE_ID_COUNTER_KEY =
               "oam.view.uniqueIdCounter";
+
+    /**
+     * Key used on the states map to store the state of the components created by build view,
+     * when the state is saved by position. See MyfacesConfig.POSITIONAL_PARTIAL_STATE_SAVING.
+     */
+    private static final String POSITIONAL_STATE_KEY = "oam.POSITIONAL_STATE";
     
     private ViewDeclarationLanguageFactory _vdlFactory;
     
@@ -135,6 +142,8 @@ public class DefaultFaceletsStateManagementStrategy extends StateManagementStrat
     
     private String checkIdsProductionMode;
 
+    private boolean positionalStateSaving;
+
     private ViewPoolProcessor _viewPoolProcessor;
     
     public DefaultFaceletsStateManagementStrategy()
@@ -148,6 +157,7 @@ public DefaultFaceletsStateManagementStrategy(FacesContext context)
                 FactoryFinder.getFactory(FactoryFinder.VIEW_DECLARATION_LANGUAGE_FACTORY);
         _viewPoolProcessor = ViewPoolProcessor.getInstance(context);
         checkIdsProductionMode = MyfacesConfig.getCurrentInstance(context).getCheckIdProductionMode();
+        positionalStateSaving = MyfacesConfig.getCurrentInstance(context).isPositionalPartialStateSaving();
     }
     
     @SuppressWarnings("unchecked")
@@ -349,7 +359,13 @@ else if (states.size() == 1 && containsFaceletState)
                 }
 
                 //Restore state of current components
-                if (!emptyState)
+                Object[] positionalState = (Object[]) states.get(POSITIONAL_STATE_KEY);
+                if (positionalState != null)
+                {
+                    restoreViewRootOnlyFromMap(context, states.get(view.getClientId(context)), view);
+                    restoreStateFromPositions(context, positionalState, view);
+                }
+                else if (!emptyState)
                 {
                     // Check if there is only one component state
                     // and that state is UIViewRoot instance (for example when using ViewScope)
@@ -740,6 +756,10 @@ else if (MyfacesConfig.CHECK_ID_PRODUCTION_MODE_TRUE.equals(checkIdsProductionMo
                     viewResetable = cb.isViewResetable();
                     count = cb.getCount();
                 }
+                else if (positionalStateSaving)
+                {
+                    saveStateOnPositions(context, (Map<String,Object>) states, view);
+                }
                 else
                 {
                     saveStateOnMapVisitTree(context,(Map<String,Object>) states, view);
@@ -876,6 +896,110 @@ private void restoreStateFromMap(final FacesContext context, final Map<String,Ob
         }
     }
 
+    /**
+     * Restore the state saved by saveStateOnPositions. The tree created by build view is walked once, matching
+     * each saved node against the component at the same child index or facet name, so no clientId is calculated
+     * unless some component was removed dynamically from the view.
+     */
+    private void restoreStateFromPositions(final FacesContext context, final Object[] node, final UIViewRoot view)
+    {
+        Set<String> idsRemovedSet = null;
+        List<String> clientIdsRemoved = getClientIdsRemoved(view);
+        if (clientIdsRemoved != null && !clientIdsRemoved.isEmpty())
+        {
+            idsRemovedSet = new HashSet<>(clientIdsRemoved);
+        }
+        
+        try
+        {
+            view.pushComponentToEL(context, view);
+            restoreChildrenStateFromPositions(context, node, view, idsRemovedSet);
+        }
+        finally
+        {
+            view.popComponentFromEL(context);
+        }
+    }
+    
+    private void restoreStateFromPositions(final FacesContext context, final Object[] node,
+            final UIComponent component, final Set<String> idsRemovedSet)
+    {
+        try
+        {
+            component.pushComponentToEL(context, component);
+            if (((Integer) node[0]) != positionHash(component))
+            {
+                throw new IllegalStateException("The component tree does not match the saved state at component: "
+                        + component.getClientId(context));
+            }
+            if (node[1] != null)
+            {
+                try
+                {
+                    component.restoreState(context, node[1]);
+                }
+                catch(Exception e)
+                {
+                    throw new IllegalStateException(
+                            "Error restoring component: " + component.getClientId(context), e);
+                }
+            }
+            restoreChildrenStateFromPositions(context, node, component, idsRemovedSet);
+        }
+        finally
+        {
+            component.popComponentFromEL(context);
+        }
+    }
+    
+    private void restoreChildrenStateFromPositions(final FacesContext context, final Object[] node,
+            final UIComponent component, final Set<String> idsRemovedSet)
+    {
+        Object[] children = (Object[]) node[2];
+        if (children != null)
+        {
+            int position = 0;
+            if (component.getChildCount() > 0)
+            {
+                List<UIComponent> childList = component.getChildren();
+                for (int i = 0; i < childList.size() && position < children.length; i++)
+                {
+                    UIComponent child = childList.get(i);
+                    if (child == null || child.isTransient()
+                            || (idsRemovedSet != null && idsRemovedSet.contains(child.getClientId(context))))
+                    {
+                        continue;
+                    }
+                    Object[] childNode = (Object[]) children[position++];
+                    if (childNode != null)
+                    {
+                        restoreStateFromPositions(context, childNode, child, idsRemovedSet);
+                    }
+                }
+            }
+            if (position < children.length)
+            {
+                throw new IllegalStateException("The component tree does not match the saved state, missing "
+                        + "children at component: " + component.getClientId(context));
+            }
+        }
+        
+        Object[] facets = (Object[]) node[3];
+        if (facets != null)
+        {
+            for (int i = 0; i < facets.length; i += 2)
+            {
+                UIComponent facet = component.getFacet((String) facets[i]);
+                if (facet == null)
+                {
+                    throw new IllegalStateException("The component tree does not match the saved state, missing "
+                            + "facet " + facets[i] + " at component: " + component.getClientId(context));
+                }
+                restoreStateFromPositions(context, (Object[]) facets[i + 1], facet, idsRemovedSet);
+            }
+        }
+    }
+
     static List<String> getClientIdsAdded(UIViewRoot root)
     {
         return (List<String>) root.getAttributes().get(CLIENTIDS_ADDED);
@@ -961,62 +1085,9 @@ public VisitResult visit(VisitContext context, UIComponent target)
                         return VisitResult.REJECT;
                     }
                     
-                    ComponentState componentAddedAfterBuildView
-                            = (ComponentState) target.getAttributes().get(COMPONENT_ADDED_AFTER_BUILD_VIEW);
-                    
                     //Note if UIViewRoot has this marker, JSF 1.2 like state saving is used.
-                    if (componentAddedAfterBuildView != null && (target.getParent() != null))
+                    if (target.getParent() != null && saveAddedComponentState(facesContext, states, target))
                     {
-                        if (ComponentState.REMOVE_ADD.equals(componentAddedAfterBuildView))
-                        {
-                            registerOnAddRemoveList(facesContext, target.getClientId(facesContext));
-                            target.getAttributes().put(COMPONENT_ADDED_AFTER_BUILD_VIEW, ComponentState.ADDED);
-                        }
-                        else if (ComponentState.ADD.equals(componentAddedAfterBuildView))
-                        {
-                            registerOnAddList(facesContext, target.getClientId(facesContext));
-                            target.getAttributes().put(COMPONENT_ADDED_AFTER_BUILD_VIEW, ComponentState.ADDED);
-                        }
-                        else if (ComponentState.ADDED.equals(componentAddedAfterBuildView))
-                        {
-                            registerOnAddList(facesContext, target.getClientId(facesContext));
-                        }
-                        ensureClearInitialState(target);
-                        //Save all required info to restore the subtree.
-                        //This includes position, structure and state of subtree
-                        
-                        int childIndex = target.getParent().getChildren().indexOf(target);
-                        if (childIndex >= 0)
-                        {
-                            states.put(target.getClientId(facesContext), new AttachedFullStateWrapper( 
-                                    new Object[]{
-                                        target.getParent().getClientId(facesContext),
-                                        null,
-                                        childIndex,
-                                        internalBuildTreeStructureToSave(target),
-                                        target.processSaveState(facesContext)}));
-                        }
-                        else
-                        {
-                            String facetName = null;
-                            if (target.getParent().getFacetCount() > 0)
-                            {
-                                for (Map.Entry<String, UIComponent> entry : target.getParent().getFacets().entrySet()) 
-                                {
-                                    if (target.equals(entry.getValue()))
-                                    {
-                                        facetName = entry.getKey();
-                                        break;
-                                    }
-                                }
-                            }
-                            states.put(target.getClientId(facesContext),new AttachedFullStateWrapper(new Object[]{
-                                    target.getParent().getClientId(facesContext),
-                                    facetName,
-                                    null,
-                                    internalBuildTreeStructureToSave(target),
-                                    target.processSaveState(facesContext)}));
-                        }
                         return VisitResult.REJECT;
                     }
                     else if (target.getParent() != null)
@@ -1054,6 +1125,209 @@ else if (target.getParent() != null)
     }
     
     
+    /**
+     * Save the state of the components created by build view as a tree of nodes that follows the component tree:
+     * 
+     * <pre>
+     * node = [positionHash, state, children (node per non transient child, by index), facets (name, node pairs)]
+     * </pre>
+     * 
+     * <p>A subtree without state is saved as null, so the tree only contains the path to the components with 
+     * some delta. UIViewRoot state and the state of the components added after build view are still saved by
+     * clientId, because they are required before (view scope) and after (handleDynamicAddedRemovedComponents)
+     * the tree is restored.</p>
+     */
+    private void saveStateOnPositions(final FacesContext facesContext, final Map<String,Object> states,
+            final UIViewRoot uiViewRoot)
+    {
+        if (uiViewRoot.isTransient())
+        {
+            return;
+        }
+        
+        Object[] node;
+        try
+        {
+            uiViewRoot.pushComponentToEL(facesContext, uiViewRoot);
+            node = saveChildrenStateOnPositions(facesContext, states, uiViewRoot, null);
+        }
+        finally
+        {
+            uiViewRoot.popComponentFromEL(facesContext);
+        }
+        if (node != null)
+        {
+            states.put(POSITIONAL_STATE_KEY, node);
+        }
+        
+        Object state = uiViewRoot.saveState(facesContext);
+        if (state != null)
+        {
+            states.put(uiViewRoot.getClientId(facesContext), state);
+        }
+    }
+    
+    private Object[] saveStateOnPositions(final FacesContext facesContext, final Map<String,Object> states,
+            final UIComponent component)
+    {
+        try
+        {
+            component.pushComponentToEL(facesContext, component);
+            return saveChildrenStateOnPositions(facesContext, states, component, component.saveState(facesContext));
+        }
+        finally
+        {
+            component.popComponentFromEL(facesContext);
+        }
+    }
+    
+    private Object[] saveChildrenStateOnPositions(final FacesContext facesContext, final Map<String,Object> states,
+            final UIComponent component, final Object state)
+    {
+        Object[] children = null;
+        if (component.getChildCount() > 0)
+        {
+            List<UIComponent> childList = component.getChildren();
+            int position = 0;
+            int length = 0;
+            for (int i = 0, size = childList.size(); i < size; i++)
+            {
+                UIComponent child = childList.get(i);
+                if (child == null || child.isTransient() || saveAddedComponentState(facesContext, states, child))
+                {
+                    continue;
+                }
+                Object[] childNode = saveStateOnPositions(facesContext, states, child);
+                if (childNode != null)
+                {
+                    if (children == null)
+                    {
+                        children = new Object[size];
+                    }
+                    children[position] = childNode;
+                    length = position + 1;
+                }
+                position++;
+            }
+            if (children != null && length < children.length)
+            {
+                children = Arrays.copyOf(children, length);
+            }
+        }
+        
+        Object[] facets = null;
+        if (component.getFacetCount() > 0)
+        {
+            int length = 0;
+            for (Map.Entry<String, UIComponent> entry : component.getFacets().entrySet())
+            {
+                UIComponent facet = entry.getValue();
+                if (facet == null || facet.isTransient() || saveAddedComponentState(facesContext, states, facet))
+                {
+                    continue;
+                }
+                Object[] facetNode = saveStateOnPositions(facesContext, states, facet);
+                if (facetNode != null)
+                {
+                    if (facets == null)
+                    {
+                        facets = new Object[component.getFacetCount() * 2];
+                    }
+                    facets[length++] = entry.getKey();
+                    facets[length++] = facetNode;
+                }
+            }
+            if (facets != null && length < facets.length)
+            {
+                facets = Arrays.copyOf(facets, length);
+            }
+        }
+        
+        if (state == null && children == null && facets == null)
+        {
+            return null;
+        }
+        return new Object[] { positionHash(component), state, children, facets };
+    }
+    
+    /**
+     * Cheap check used to detect a saved state that does not match the view built on restore. 
+     */
+    private static int positionHash(UIComponent component)
+    {
+        String id = component.getId();
+        return id == null ? 0 : id.hashCode();
+    }
+    
+    /**
+     * Save the full state of a component added after build view (and its subtree) by clientId, so it can be
+     * added back by handleDynamicAddedRemovedComponents.
+     * 
+     * @return true if the component was added after build view and its state was saved, false otherwise.
+     */
+    private boolean saveAddedComponentState(FacesContext facesContext, Map<String,Object> states,
+            UIComponent target)
+    {
+        ComponentState componentAddedAfterBuildView
+                = (ComponentState) target.getAttributes().get(COMPONENT_ADDED_AFTER_BUILD_VIEW);
+        if (componentAddedAfterBuildView == null)
+        {
+            return false;
+        }
+        
+        if (ComponentState.REMOVE_ADD.equals(componentAddedAfterBuildView))
+        {
+            registerOnAddRemoveList(facesContext, target.getClientId(facesContext));
+            target.getAttributes().put(COMPONENT_ADDED_AFTER_BUILD_VIEW, ComponentState.ADDED);
+        }
+        else if (ComponentState.ADD.equals(componentAddedAfterBuildView))
+        {
+            registerOnAddList(facesContext, target.getClientId(facesContext));
+            target.getAttributes().put(COMPONENT_ADDED_AFTER_BUILD_VIEW, ComponentState.ADDED);
+        }
+        else if (ComponentState.ADDED.equals(componentAddedAfterBuildView))
+        {
+            registerOnAddList(facesContext, target.getClientId(facesContext));
+        }
+        ensureClearInitialState(target);
+        //Save all required info to restore the subtree.
+        //This includes position, structure and state of subtree
+        
+        int childIndex = target.getParent().getChildren().indexOf(target);
+        if (childIndex >= 0)
+        {
+            states.put(target.getClientId(facesContext), new AttachedFullStateWrapper( 
+                    new Object[]{
+                        target.getParent().getClientId(facesContext),
+                        null,
+                        childIndex,
+                        internalBuildTreeStructureToSave(target),
+                        target.processSaveState(facesContext)}));
+        }
+        else
+        {
+            String facetName = null;
+            if (target.getParent().getFacetCount() > 0)
+            {
+                for (Map.Entry<String, UIComponent> entry : target.getParent().getFacets().entrySet()) 
+                {
+                    if (target.equals(entry.getValue()))
+                    {
+                        facetName = entry.getKey();
+                        break;
+                    }
+                }
+            }
+            states.put(target.getClientId(facesContext),new AttachedFullStateWrapper(new Object[]{
+                    target.getParent().getClientId(facesContext),
+                    facetName,
+                    null,
+                    internalBuildTreeStructureToSave(target),
+                    target.processSaveState(facesContext)}));
+        }
+        return true;
+    }
+    
     private SaveStateAndResetViewCallback saveStateOnMapVisitTreeAndReset(final FacesContext facesContext,
             final Map<String,Object> states, final UIViewRoot uiViewRoot, boolean forceHardReset)
     {
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELContextEvent;
+import jakarta.el.ELContextListener;
+import jakarta.faces.FacesException;
+import jakarta.faces.application.ProjectStage;
+import jakarta.faces.application.ResourceHandler;
+import jakarta.faces.application.ViewResource;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.FacesContextWrapper;
+import jakarta.faces.view.ViewDeclarationLanguage;
+
+import org.apache.myfaces.el.FacesELContext;
+import org.apache.myfaces.util.WebConfigParamUtils;
+import org.apache.myfaces.util.lang.ClassUtils;
+
+/**
+ * Compiles the facelets of the application at startup, so the first request of every page does not pay for it.
+ *
+ * <p>The facelets are the ones returned by {@link ResourceHandler#getViewResources}, or the ones an integration
+ * found at build time and stored under {@link #FACELETS} in the application map. Views get their view metadata
+ * facelet compiled too, composite components their metadata facelet. All of them are compiled in parallel
+ * through the {@link FaceletFactory}, so they end up in the FaceletCache.</p>
+ */
+public class FaceletsPrecompiler
+{
+    private static final Logger log = Logger.getLogger(FaceletsPrecompiler.class.getName());
+
+    /**
+     * Application map key of a Collection of the facelet paths to compile, instead of looking them up.
+     */
+    public static final String FACELETS = "org.apache.myfaces.view.facelets.PRECOMPILE_FACELETS";
+
+    private static final String RESOURCES = "resources";
+
+    @SuppressWarnings("unchecked")
+    public static void precompile(FacesContext facesContext)
+    {
+        if (!facesContext.isProjectStage(ProjectStage.Production))
+        {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        Collection<String> paths = (Collection<String>) facesContext.getExternalContext().getApplicationMap()
+                .get(FACELETS);
+        if (paths == null)
+        {
+            paths = facesContext.getApplication().getResourceHandler()
+                    .getViewResources(facesContext, "/", Integer.MAX_VALUE)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+
+        String resourcesDirectory = '/' + WebConfigParamUtils.getStringInitParameter(
+                facesContext.getExternalContext(), ResourceHandler.WEBAPP_RESOURCES_DIRECTORY_PARAM_NAME,
+                RESOURCES) + '/';
+
+        List<Callable<Boolean>> tasks = new ArrayList<>(paths.size());
+        for (String path : paths)
+        {
+            boolean compositeComponent = path.startsWith(resourcesDirectory);
+            tasks.add(() -> compile(FacesContext.getCurrentInstance(), path, compositeComponent));
+        }
+
+        int compiled = 0;
+        for (Boolean result : invokeAll(facesContext, tasks))
+        {
+            if (result)
+            {
+                compiled++;
+            }
+        }
+
+        if (log.isLoggable(Level.INFO))
+        {
+            log.info("Precompiled " + compiled + " of " + tasks.size() + " facelets in "
+                    + ((System.nanoTime() - start) / 1000000) + " ms");
+        }
+    }
+
+    private static boolean compile(FacesContext facesContext, String path, boolean compositeComponent)
+    {
+        ViewDeclarationLanguage vdl = facesContext.getApplication().getViewHandler()
+                .getViewDeclarationLanguage(facesContext, path);
+        if (!(vdl instanceof FaceletViewDeclarationLanguage))
+        {
+            return false;
+        }
+
+        FaceletFactory faceletFactory = ((FaceletViewDeclarationLanguage) vdl).getFaceletFactory();
+        FaceletFactory.setInstance(faceletFactory);
+        try
+        {
+            URL url = resolveURL(facesContext, path, compositeComponent);
+            if (url == null)
+            {
+                return false;
+            }
+
+            faceletFactory.getFacelet(url);
+            if (compositeComponent)
+            {
+                faceletFactory.getCompositeComponentMetadataFacelet(url);
+            }
+            else if (!path.startsWith("/WEB-INF/"))
+            {
+                faceletFactory.getViewMetadataFacelet(url);
+            }
+            return true;
+        }
+        catch (Exception e)
+        {
+            log.log(Level.WARNING, "Cannot precompile " + path + ", it will be compiled on the first request", e);
+            return false;
+        }
+        finally
+        {
+            FaceletFactory.setInstance(null);
+        }
+    }
+
+    /**
+     * Resolves the url the same way as at request time, because it is the key of the FaceletCache.
+     */
+    private static URL resolveURL(FacesContext facesContext, String path, boolean compositeComponent)
+            throws Exception
+    {
+        if (!compositeComponent)
+        {
+            ViewResource viewResource = facesContext.getApplication().getResourceHandler()
+                    .createViewResource(facesContext, path);
+            if (viewResource != null && viewResource.getURL() != null)
+            {
+                return viewResource.getURL();
+            }
+        }
+        return facesContext.getExternalContext().getResource(path);
+    }
+
+    private static List<Boolean> invokeAll(FacesContext facesContext, List<Callable<Boolean>> tasks)
+    {
+        List<Boolean> results = new ArrayList<>(tasks.size());
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), tasks.size());
+        if (parallelism < 2)
+        {
+            for (Callable<Boolean> task : tasks)
+            {
+                try
+                {
+                    results.add(task.call());
+                }
+                catch (Exception e)
+                {
+                    throw new FacesException(e);
+                }
+            }
+            return results;
+        }
+
+        // the startup FacesContext and the webapp ClassLoader are only current on this thread
+        ClassLoader classLoader = ClassUtils.getContextClassLoader();
+        List<Callable<Boolean>> workerTasks = new ArrayList<>(tasks.size());
+        for (Callable<Boolean> task : tasks)
+        {
+            workerTasks.add(() ->
+            {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                WorkerFacesContext workerFacesContext = new WorkerFacesContext(facesContext);
+                workerFacesContext.setWrapperAsCurrentFacesContext();
+                try
+                {
+                    return task.call();
+                }
+                finally
+                {
+                    workerFacesContext.removeCurrentFacesContext();
+                    thread.setContextClassLoader(previous);
+                }
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            for (Future<Boolean> future : pool.invokeAll(workerTasks))
+            {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FacesException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new FacesException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Makes the startup FacesContext current on a worker thread, with its own attributes and ELContext because
+     * the compilation stores values there. The startup ExternalContext only gives access to the application, so
+     * it is shared.
+     */
+    private static class WorkerFacesContext extends FacesContextWrapper
+    {
+        private final FacesContext delegate;
+        private final Map<Object, Object> attributes = new HashMap<>();
+        private ELContext elContext;
+
+        WorkerFacesContext(FacesContext delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public FacesContext getWrapped()
+        {
+            return delegate;
+        }
+
+        @Override
+        public Map<Object, Object> getAttributes()
+        {
+            return attributes;
+        }
+
+        @Override
+        public ELContext getELContext()
+        {
+            if (elContext == null)
+            {
+                elContext = new FacesELContext(getApplication().getELResolver(), this);
+                ELContextEvent event = new ELContextEvent(elContext);
+                for (ELContextListener listener : getApplication().getELContextListeners())
+                {
+                    listener.contextCreated(event);
+                }
+            }
+            return elContext;
+        }
+
+        void setWrapperAsCurrentFacesContext()
+        {
+            setCurrentInstance(this);
+        }
+
+        void removeCurrentFacesContext()
+        {
+            setCurrentInstance(null);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+import jakarta.el.ELContext;
+import jakarta.el.ELContextEvent;
+import jakarta.el.ELContextListener;
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.application.FacesMessage;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.context.ExternalContext;
+import jakarta.faces.context.ExternalContextWrapper;
+import jakarta.faces.context.FacesContext;
+import jakarta.faces.context.FacesContextWrapper;
+import jakarta.faces.context.PartialViewContext;
+import jakarta.faces.context.PartialViewContextFactory;
+import jakarta.faces.event.PhaseId;
+import jakarta.faces.render.RenderKit;
+import jakarta.faces.render.RenderKitFactory;
+
+import org.apache.myfaces.el.FacesELContext;
+
+/**
+ * Lets the startup FacesContext build the views to prewarm in the view pool, like the render response phase of a
+ * request without parameters, headers or session would.
+ * 
+ * <p>It has its own attributes, ELContext and view root. Setting the view root does not clear the view map of the
+ * view it replaces, because that view was just put in the pool.</p>
+ */
+class PrewarmFacesContext extends FacesContextWrapper
+{
+    private final FacesContext delegate;
+    private final ExternalContext externalContext;
+    private final Map<Object, Object> attributes = new HashMap<>();
+    private ELContext elContext;
+    private PartialViewContext partialViewContext;
+    private UIViewRoot viewRoot;
+    private PhaseId currentPhaseId = PhaseId.RENDER_RESPONSE;
+
+    PrewarmFacesContext(FacesContext delegate)
+    {
+        this.delegate = delegate;
+        this.externalContext = new PrewarmExternalContext(delegate.getExternalContext(),
+                delegate.getApplication().getDefaultLocale());
+    }
+
+    @Override
+    public FacesContext getWrapped()
+    {
+        return delegate;
+    }
+
+    @Override
+    public ExternalContext getExternalContext()
+    {
+        return externalContext;
+    }
+
+    @Override
+    public Map<Object, Object> getAttributes()
+    {
+        return attributes;
+    }
+
+    @Override
+    public ELContext getELContext()
+    {
+        if (elContext == null)
+        {
+            elContext = new FacesELContext(getApplication().getELResolver(), this);
+            ELContextEvent event = new ELContextEvent(elContext);
+            for (ELContextListener listener : getApplication().getELContextListeners())
+            {
+                listener.contextCreated(event);
+            }
+        }
+        return elContext;
+    }
+
+    @Override
+    public UIViewRoot getViewRoot()
+    {
+        return viewRoot;
+    }
+
+    @Override
+    public void setViewRoot(UIViewRoot root)
+    {
+        viewRoot = root;
+    }
+
+    @Override
+    public RenderKit getRenderKit()
+    {
+        if (viewRoot == null || viewRoot.getRenderKitId() == null)
+        {
+            return null;
+        }
+        RenderKitFactory renderKitFactory = (RenderKitFactory) FactoryFinder.getFactory(
+                FactoryFinder.RENDER_KIT_FACTORY);
+        return renderKitFactory.getRenderKit(this, viewRoot.getRenderKitId());
+    }
+
+    @Override
+    public PartialViewContext getPartialViewContext()
+    {
+        if (partialViewContext == null)
+        {
+            PartialViewContextFactory partialViewContextFactory = (PartialViewContextFactory)
+                    FactoryFinder.getFactory(FactoryFinder.PARTIAL_VIEW_CONTEXT_FACTORY);
+            partialViewContext = partialViewContextFactory.getPartialViewContext(this);
+        }
+        return partialViewContext;
+    }
+
+    @Override
+    public PhaseId getCurrentPhaseId()
+    {
+        return currentPhaseId;
+    }
+
+    @Override
+    public void setCurrentPhaseId(PhaseId currentPhaseId)
+    {
+        this.currentPhaseId = currentPhaseId;
+    }
+
+    @Override
+    public boolean isPostback()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isValidationFailed()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean getRenderResponse()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean getResponseComplete()
+    {
+        return false;
+    }
+
+    @Override
+    public FacesMessage.Severity getMaximumSeverity()
+    {
+        return null;
+    }
+
+    @Override
+    public Iterator<FacesMessage> getMessages()
+    {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public Iterator<FacesMessage> getMessages(String clientId)
+    {
+        return Collections.emptyIterator();
+    }
+
+    void setWrapperAsCurrentFacesContext()
+    {
+        setCurrentInstance(this);
+    }
+
+    void restoreCurrentFacesContext()
+    {
+        setCurrentInstance(delegate);
+    }
+
+    /**
+     * A request without parameters, headers or cookies, in the default locale of the application.
+     */
+    private static class PrewarmExternalContext extends ExternalContextWrapper
+    {
+        private final ExternalContext delegate;
+        private final Map<String, Object> requestMap = new HashMap<>();
+        private final Locale locale;
+
+        PrewarmExternalContext(ExternalContext delegate, Locale defaultLocale)
+        {
+            this.delegate = delegate;
+            this.locale = defaultLocale == null ? Locale.getDefault() : defaultLocale;
+        }
+
+        @Override
+        public ExternalContext getWrapped()
+        {
+            return delegate;
+        }
+
+        @Override
+        public Map<String, Object> getRequestMap()
+        {
+            return requestMap;
+        }
+
+        @Override
+        public Map<String, String> getRequestParameterMap()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, String[]> getRequestParameterValuesMap()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Iterator<String> getRequestParameterNames()
+        {
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        public Map<String, String> getRequestHeaderMap()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, String[]> getRequestHeaderValuesMap()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Map<String, Object> getRequestCookieMap()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Locale getRequestLocale()
+        {
+            return locale;
+        }
+
+        @Override
+        public Iterator<Locale> getRequestLocales()
+        {
+            return Collections.singletonList(locale).iterator();
+        }
+    }
+}
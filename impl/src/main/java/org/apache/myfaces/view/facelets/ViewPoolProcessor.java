@@ -18,6 +18,7 @@
  */
 package org.apache.myfaces.view.facelets;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -42,10 +43,12 @@
 import org.apache.myfaces.lifecycle.RestoreViewSupport;
 import org.apache.myfaces.config.MyfacesConfig;
 import org.apache.myfaces.util.WebConfigParamUtils;
+import org.apache.myfaces.util.lang.StringUtils;
 import org.apache.myfaces.view.facelets.impl.FaceletCompositionContextImpl;
 import org.apache.myfaces.view.facelets.pool.ViewPool;
 import org.apache.myfaces.view.facelets.pool.ViewPoolFactory;
 import org.apache.myfaces.view.facelets.pool.ViewEntry;
+import org.apache.myfaces.view.facelets.pool.ViewPoolStatistics;
 import org.apache.myfaces.view.facelets.pool.ViewStructureMetadata;
 import org.apache.myfaces.view.facelets.pool.impl.ViewPoolFactoryImpl;
 import org.apache.myfaces.view.facelets.tag.jsf.ComponentSupport;
@@ -139,11 +142,14 @@
 
     private ViewPoolFactory viewPoolFactory;
     private RestoreViewSupport restoreViewSupport;
+    private String[] prewarmViewIds;
     
     public ViewPoolProcessor(FacesContext context)
     {
         viewPoolFactory = new ViewPoolFactoryImpl(context);
         restoreViewSupport = new RestoreViewSupport(context);
+        prewarmViewIds = StringUtils.splitShortString(WebConfigParamUtils.getStringInitParameter(
+                context.getExternalContext(), ViewPool.INIT_PARAM_VIEW_POOL_PREWARM_VIEWS, ""), ',');
     }
     
     public static ViewPoolProcessor getInstance(FacesContext context)
@@ -298,6 +304,101 @@ public void setViewPoolDisabledOnThisView(FacesContext context, UIViewRoot root,
     {
         root.getAttributes().put(ViewPoolProcessor.ENABLE_VIEW_POOL, !value);
     }
+
+    /**
+     * @return a snapshot of the pooled instances of each view, for all the view pools
+     */
+    public List<ViewPoolStatistics> getStatistics()
+    {
+        List<ViewPoolStatistics> statistics = new ArrayList<>();
+        for (ViewPool viewPool : viewPoolFactory.getViewPools())
+        {
+            statistics.addAll(viewPool.getStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Fills the pool of the views listed in org.apache.myfaces.VIEW_POOL_PREWARM_VIEWS. This should be called at
+     * startup, after {@link #initialize(FacesContext)}. The views are built with a FacesContext of their own, made
+     * from the startup one, so no user request pays for it.
+     * 
+     * @param context the startup FacesContext
+     */
+    public void prewarmViews(FacesContext context)
+    {
+        if (prewarmViewIds.length == 0)
+        {
+            return;
+        }
+
+        PrewarmFacesContext prewarmContext = new PrewarmFacesContext(context);
+        prewarmContext.setWrapperAsCurrentFacesContext();
+        try
+        {
+            for (String viewId : prewarmViewIds)
+            {
+                try
+                {
+                    prewarmView(prewarmContext, viewId.trim());
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    Logger.getLogger(ViewPoolProcessor.class.getName()).log(Level.WARNING,
+                            "Cannot prewarm the view pool with " + viewId, e);
+                }
+            }
+        }
+        finally
+        {
+            prewarmContext.restoreCurrentFacesContext();
+        }
+    }
+
+    private void prewarmView(FacesContext context, String viewId) throws IOException
+    {
+        ViewHandler viewHandler = context.getApplication().getViewHandler();
+        ViewDeclarationLanguage vdl = viewHandler.getViewDeclarationLanguage(context, viewId);
+        if (vdl == null || !ViewDeclarationLanguage.FACELETS_VIEW_DECLARATION_LANGUAGE_ID.equals(vdl.getId()))
+        {
+            return;
+        }
+
+        int count = 1;
+        for (int i = 0; i < count; i++)
+        {
+            UIViewRoot view = viewHandler.createView(context, viewId);
+            context.setViewRoot(view);
+            vdl.buildView(context, view);
+
+            ViewPool viewPool = getViewPool(context, view);
+            StateManagementStrategy sms = vdl.getStateManagementStrategy(context, viewId);
+            if (viewPool == null || sms == null || viewPool.retrieveStaticViewStructureMetadata(context, view) == null)
+            {
+                // not pooled, or its structure is dynamic
+                Logger.getLogger(ViewPoolProcessor.class.getName()).log(Level.WARNING,
+                        "View " + viewId + " cannot be prewarmed, its structure is not pooled as static");
+                return;
+            }
+            if (i == 0)
+            {
+                count = viewPool.getPrewarmSize();
+                viewPool.reserveStaticStructureViews(context, view, count);
+            }
+
+            // Store the view in the pool like disposeView does
+            context.getAttributes().put(ViewPoolProcessor.FORCE_HARD_RESET, Boolean.TRUE);
+            try
+            {
+                sms.saveView(context);
+            }
+            finally
+            {
+                context.getAttributes().remove(ViewPoolProcessor.FORCE_HARD_RESET);
+                context.getAttributes().remove(StateManagerImpl.SERIALIZED_VIEW_REQUEST_ATTR);
+            }
+        }
+    }
     
     /**
      * Takes the newView and restore the state taken as base the provided ViewEntry,
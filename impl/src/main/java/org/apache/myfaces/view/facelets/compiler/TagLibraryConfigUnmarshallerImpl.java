@@ -59,6 +59,14 @@
 {
     private static final Logger log = Logger.getLogger(TagLibraryConfigUnmarshallerImpl.class.getName());
 
+    /**
+     * Parses the tag library without validating it, for the tools that read it before the application runs.
+     */
+    public static FaceletTagLibrary create(URL url) throws IOException
+    {
+        return create(null, url);
+    }
+
     public static FaceletTagLibrary create(ExternalContext externalContext, URL url) throws IOException
     {
         InputStream is = null;
@@ -66,10 +74,12 @@ public static FaceletTagLibrary create(ExternalContext externalContext, URL url)
         URLConnection conn = null;
         try
         {
+            boolean validateXML = externalContext != null
+                    && MyfacesConfig.getCurrentInstance(externalContext).isValidateXML();
             boolean schemaValidating = false;
 
             // validate XML
-            if (MyfacesConfig.getCurrentInstance(externalContext).isValidateXML())
+            if (validateXML)
             {
                 String version = ConfigFilesXmlValidationUtils.getFaceletTagLibVersion(url);
                 schemaValidating = "2.0".equals(version);
@@ -81,7 +91,7 @@ public static FaceletTagLibrary create(ExternalContext externalContext, URL url)
             
             // parse file
             LibraryHandler handler = new LibraryHandler(url);
-            SAXParser parser = createSAXParser(handler, externalContext, schemaValidating);
+            SAXParser parser = createSAXParser(handler, validateXML, schemaValidating);
             conn = url.openConnection();
             conn.setUseCaches(false);
             is = conn.getInputStream();
@@ -110,7 +120,7 @@ public static FaceletTagLibrary create(ExternalContext externalContext, URL url)
         return t;
     }    
     
-    private static final SAXParser createSAXParser(LibraryHandler handler, ExternalContext externalContext,
+    private static final SAXParser createSAXParser(LibraryHandler handler, boolean validateXML,
                                                    boolean schemaValidating)
             throws SAXException, ParserConfigurationException
     {
@@ -127,7 +137,7 @@ private static final SAXParser createSAXParser(LibraryHandler handler, ExternalC
         {
             log.log(Level.WARNING, "SAXParserFactory#setFeature not implemented. Skipping...", e);
         }
-        if (MyfacesConfig.getCurrentInstance(externalContext).isValidateXML() && !schemaValidating)
+        if (validateXML && !schemaValidating)
         {
             // DTD validating
             factory.setNamespaceAware(false);
@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.faces.view.facelets.FaceletCache;
+import jakarta.faces.view.facelets.FaceletException;
+
+import org.apache.myfaces.resource.ResourceLoaderUtils;
+import org.apache.myfaces.util.lang.Assert;
+
+/**
+ * FaceletCache that compiles a facelet only once, no matter how many requests ask for it at the same time.
+ *
+ * <p>The first request that misses registers a task and compiles the facelet, the others wait for the
+ * result of that task. A failed compilation is not cached, the next request tries again.</p>
+ *
+ * <p>Requests never check if a facelet has changed. With a refresh period, a daemon thread removes the
+ * facelets whose file changed, using a WatchService for the ones that are files of an exploded deployment
+ * and checking the last modified time of the others every refresh period.</p>
+ *
+ * @see FaceletCacheImpl
+ */
+class ConcurrentFaceletCacheImpl extends FaceletCache<DefaultFacelet> implements Closeable
+{
+    private static final Logger log = Logger.getLogger(ConcurrentFaceletCacheImpl.class.getName());
+
+    private static final long INFINITE_DELAY = -1;
+    private static final long NO_CACHE_DELAY = 0;
+
+    private final Map<String, FutureTask<DefaultFacelet>> _facelets = new ConcurrentHashMap<>();
+
+    private final Map<String, FutureTask<DefaultFacelet>> _viewMetadataFacelets = new ConcurrentHashMap<>();
+
+    /**
+     * The facelets invalidated by the WatchService, with their file.
+     */
+    private final Map<String, Path> _watchedFiles = new ConcurrentHashMap<>();
+
+    private final Set<Path> _watchedDirectories = ConcurrentHashMap.newKeySet();
+
+    private final long _refreshPeriod;
+
+    private WatchService _watchService;
+
+    private Thread _watcher;
+
+    ConcurrentFaceletCacheImpl(long refreshPeriod)
+    {
+        _refreshPeriod = refreshPeriod < 0 ? INFINITE_DELAY : refreshPeriod * 1000;
+
+        if (_refreshPeriod > 0)
+        {
+            try
+            {
+                _watchService = FileSystems.getDefault().newWatchService();
+            }
+            catch (IOException | UnsupportedOperationException e)
+            {
+                log.log(Level.FINE, "No WatchService available, facelets are checked every refresh period", e);
+            }
+
+            _watcher = new Thread(new Watcher(this, _watchService, _refreshPeriod),
+                    "MyFaces FaceletCache watcher");
+            _watcher.setDaemon(true);
+            _watcher.start();
+        }
+    }
+
+    @Override
+    public DefaultFacelet getFacelet(URL url) throws IOException
+    {
+        Assert.notNull(url, "url");
+
+        if (_refreshPeriod == NO_CACHE_DELAY)
+        {
+            return getMemberFactory().newInstance(url);
+        }
+        return get(_facelets, url, getMemberFactory());
+    }
+
+    @Override
+    public boolean isFaceletCached(URL url)
+    {
+        return _facelets.containsKey(url.toString());
+    }
+
+    @Override
+    public DefaultFacelet getViewMetadataFacelet(URL url) throws IOException
+    {
+        Assert.notNull(url, "url");
+
+        if (_refreshPeriod == NO_CACHE_DELAY)
+        {
+            return getMetadataMemberFactory().newInstance(url);
+        }
+        return get(_viewMetadataFacelets, url, getMetadataMemberFactory());
+    }
+
+    @Override
+    public boolean isViewMetadataFaceletCached(URL url)
+    {
+        return _viewMetadataFacelets.containsKey(url.toString());
+    }
+
+    private DefaultFacelet get(Map<String, FutureTask<DefaultFacelet>> facelets, URL url,
+            MemberFactory<DefaultFacelet> factory) throws IOException
+    {
+        String key = url.toString();
+
+        FutureTask<DefaultFacelet> task = facelets.get(key);
+        if (task == null)
+        {
+            FutureTask<DefaultFacelet> newTask = new FutureTask<>(() -> factory.newInstance(url));
+            task = facelets.putIfAbsent(key, newTask);
+            if (task == null)
+            {
+                task = newTask;
+                watch(key, url);
+                task.run();
+            }
+        }
+
+        try
+        {
+            return task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the compilation of " + key);
+        }
+        catch (ExecutionException e)
+        {
+            facelets.remove(key, task);
+
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new FaceletException(cause);
+        }
+    }
+
+    /**
+     * Registers the directory of the facelet in the WatchService, if it is a file.
+     */
+    private void watch(String key, URL url)
+    {
+        if (_watchService == null || !"file".equals(url.getProtocol()) || _watchedFiles.containsKey(key))
+        {
+            return;
+        }
+
+        try
+        {
+            Path file = Paths.get(url.toURI()).toAbsolutePath().normalize();
+            Path directory = file.getParent();
+            if (directory != null && !_watchedDirectories.contains(directory))
+            {
+                directory.register(_watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                _watchedDirectories.add(directory);
+            }
+            _watchedFiles.put(key, file);
+        }
+        catch (Exception e)
+        {
+            // checked every refresh period instead
+            if (log.isLoggable(Level.FINE))
+            {
+                log.log(Level.FINE, "Cannot watch " + url, e);
+            }
+        }
+    }
+
+    /**
+     * Removes the facelets compiled from the given file.
+     */
+    void invalidate(Path file)
+    {
+        for (Map.Entry<String, Path> entry : _watchedFiles.entrySet())
+        {
+            if (entry.getValue().equals(file))
+            {
+                _facelets.remove(entry.getKey());
+                _viewMetadataFacelets.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Removes all the watched facelets, used when the WatchService lost events.
+     */
+    void invalidateWatched()
+    {
+        for (String key : _watchedFiles.keySet())
+        {
+            _facelets.remove(key);
+            _viewMetadataFacelets.remove(key);
+        }
+    }
+
+    /**
+     * Removes the facelets that are not watched and have been modified since they were compiled.
+     */
+    void invalidateModified()
+    {
+        invalidateModified(_facelets);
+        invalidateModified(_viewMetadataFacelets);
+    }
+
+    private void invalidateModified(Map<String, FutureTask<DefaultFacelet>> facelets)
+    {
+        for (Map.Entry<String, FutureTask<DefaultFacelet>> entry : facelets.entrySet())
+        {
+            FutureTask<DefaultFacelet> task = entry.getValue();
+            if (_watchedFiles.containsKey(entry.getKey()) || !task.isDone())
+            {
+                continue;
+            }
+
+            try
+            {
+                DefaultFacelet facelet = task.get();
+                long lastModified = ResourceLoaderUtils.getResourceLastModified(facelet.getSource());
+                if (lastModified == 0 || lastModified > facelet.getCreateTime())
+                {
+                    facelets.remove(entry.getKey(), task);
+                }
+            }
+            catch (Exception e)
+            {
+                facelets.remove(entry.getKey(), task);
+            }
+        }
+    }
+
+    /**
+     * Stops the watcher thread.
+     */
+    @Override
+    public void close()
+    {
+        if (_watcher != null)
+        {
+            _watcher.interrupt();
+        }
+        if (_watchService != null)
+        {
+            try
+            {
+                _watchService.close();
+            }
+            catch (IOException e)
+            {
+                log.log(Level.FINE, "Cannot close the WatchService", e);
+            }
+        }
+    }
+
+    /**
+     * Only keeps a weak reference to the cache, so the thread ends when the application that created the
+     * cache is gone, even if nobody calls close.
+     */
+    private static class Watcher implements Runnable
+    {
+        private final WeakReference<ConcurrentFaceletCacheImpl> cache;
+        private final WatchService watchService;
+        private final long refreshPeriod;
+
+        Watcher(ConcurrentFaceletCacheImpl cache, WatchService watchService, long refreshPeriod)
+        {
+            this.cache = new WeakReference<>(cache);
+            this.watchService = watchService;
+            this.refreshPeriod = refreshPeriod;
+        }
+
+        @Override
+        public void run()
+        {
+            long nextCheck = System.currentTimeMillis() + refreshPeriod;
+            try
+            {
+                while (!Thread.currentThread().isInterrupted())
+                {
+                    WatchKey key = null;
+                    if (watchService == null)
+                    {
+                        Thread.sleep(refreshPeriod);
+                    }
+                    else
+                    {
+                        key = watchService.poll(refreshPeriod, TimeUnit.MILLISECONDS);
+                    }
+
+                    ConcurrentFaceletCacheImpl current = cache.get();
+                    if (current == null)
+                    {
+                        break;
+                    }
+
+                    if (key != null)
+                    {
+                        Path directory = (Path) key.watchable();
+                        for (WatchEvent<?> event : key.pollEvents())
+                        {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                            {
+                                current.invalidateWatched();
+                            }
+                            else
+                            {
+                                current.invalidate(directory.resolve((Path) event.context()));
+                            }
+                        }
+                        key.reset();
+                    }
+
+                    if (System.currentTimeMillis() >= nextCheck)
+                    {
+                        current.invalidateModified();
+                        nextCheck = System.currentTimeMillis() + refreshPeriod;
+                    }
+                    current = null;
+                }
+            }
+            catch (InterruptedException | ClosedWatchServiceException e)
+            {
+                // closed
+            }
+            finally
+            {
+                if (watchService != null)
+                {
+                    try
+                    {
+                        watchService.close();
+                    }
+                    catch (IOException e)
+                    {
+                        // ignore
+                    }
+                }
+            }
+        }
+    }
+}
@@ -37,6 +37,10 @@
  */
 public class FaceletCacheFactoryImpl extends FaceletCacheFactory
 {
+    /**
+     * Application map key of the concurrent FaceletCache, whose watcher thread must be stopped on shutdown.
+     */
+    public static final String CONCURRENT_FACELET_CACHE = "org.apache.myfaces.view.facelets.CONCURRENT_FACELET_CACHE";
 
     @Override
     public FaceletCache getFaceletCache()
@@ -62,6 +66,17 @@ public FaceletCache getFaceletCache()
         {
             return new CacheELFaceletCacheImpl(refreshPeriod);
         }
+        else if (myfacesConfig.isConcurrentFaceletCache())
+        {
+            ConcurrentFaceletCacheImpl cache = new ConcurrentFaceletCacheImpl(refreshPeriod);
+            // closed by AbstractFacesInitializer.destroyFaces
+            Object previous = context.getExternalContext().getApplicationMap().put(CONCURRENT_FACELET_CACHE, cache);
+            if (previous instanceof ConcurrentFaceletCacheImpl)
+            {
+                ((ConcurrentFaceletCacheImpl) previous).close();
+            }
+            return cache;
+        }
         else
         {
             return new FaceletCacheImpl(refreshPeriod);
@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.view.facelets.pool;
 
+import java.util.Collections;
+import java.util.List;
 import jakarta.faces.component.UIViewRoot;
 import jakarta.faces.context.FacesContext;
 import org.apache.myfaces.buildtools.maven2.plugin.builder.annotation.JSFWebConfigParam;
@@ -92,6 +94,45 @@
     @JSFWebConfigParam(defaultValue="false", expectedValues="true, false", tags="performance")
     public static final String INIT_PARAM_VIEW_POOL_DEFERRED_NAVIGATION =
             "org.apache.myfaces.VIEW_POOL_DEFERRED_NAVIGATION";    
+
+    /**
+     * Defines if the number of views held per view metadata definition adapts to the traffic of each view,
+     * instead of being fixed by org.apache.myfaces.VIEW_POOL_MAX_POOL_SIZE. A view gets one more pooled
+     * instance each time a request finds none, within the limit of org.apache.myfaces.VIEW_POOL_MAX_TOTAL_SIZE
+     * for all the views of the pool. Views that are not requested for a while give their instances back,
+     * so the views requested now can take them.
+     */
+    @JSFWebConfigParam(defaultValue="false", expectedValues="true, false", since="4.0", tags="performance")
+    public static final String INIT_PARAM_VIEW_POOL_ADAPTIVE =
+            "org.apache.myfaces.VIEW_POOL_ADAPTIVE";
+
+    /**
+     * Defines the number of views held by an adaptive view pool, all view metadata definitions together.
+     */
+    @JSFWebConfigParam(defaultValue="100", since="4.0", tags="performance")
+    public static final String INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE =
+            "org.apache.myfaces.VIEW_POOL_MAX_TOTAL_SIZE";
+    public static final int INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE_DEFAULT = 100;
+
+    /**
+     * Comma separated list of the view ids whose pool is filled at startup, so the first users of these
+     * views do not have to wait for organic traffic to fill it. The views are built without request
+     * parameters, headers or session, so only views with a static structure, and that do not depend on
+     * request data to be built, should be listed.
+     */
+    @JSFWebConfigParam(since="4.0", tags="performance")
+    public static final String INIT_PARAM_VIEW_POOL_PREWARM_VIEWS =
+            "org.apache.myfaces.VIEW_POOL_PREWARM_VIEWS";
+
+    /**
+     * Defines the number of instances built for each view listed in org.apache.myfaces.VIEW_POOL_PREWARM_VIEWS.
+     * The pool keeps at most org.apache.myfaces.VIEW_POOL_MAX_POOL_SIZE of them, or in an adaptive pool as
+     * many as org.apache.myfaces.VIEW_POOL_MAX_TOTAL_SIZE has free.
+     */
+    @JSFWebConfigParam(defaultValue="2", since="4.0", tags="performance")
+    public static final String INIT_PARAM_VIEW_POOL_PREWARM_SIZE =
+            "org.apache.myfaces.VIEW_POOL_PREWARM_SIZE";
+    public static final int INIT_PARAM_VIEW_POOL_PREWARM_SIZE_DEFAULT = 2;
     
     /**
      * Indicate if the view pool uses deferred navigation.
@@ -126,4 +167,28 @@ public abstract void pushDynamicStructureView(FacesContext context, UIViewRoot r
     public abstract ViewEntry popDynamicStructureView(FacesContext context, UIViewRoot root,
             FaceletState faceletDynamicState);
 
+    /**
+     * Lets the pool hold at least count instances of the view, if its size allows it. Called before the
+     * instances of a view listed in VIEW_POOL_PREWARM_VIEWS are pushed, the default does nothing.
+     */
+    public void reserveStaticStructureViews(FacesContext context, UIViewRoot root, int count)
+    {
+    }
+
+    /**
+     * @return the number of instances to build for a view listed in VIEW_POOL_PREWARM_VIEWS
+     */
+    public int getPrewarmSize()
+    {
+        return INIT_PARAM_VIEW_POOL_PREWARM_SIZE_DEFAULT;
+    }
+
+    /**
+     * @return a snapshot of the pooled instances of each view, empty if the pool does not keep statistics
+     */
+    public List<ViewPoolStatistics> getStatistics()
+    {
+        return Collections.emptyList();
+    }
+
 }
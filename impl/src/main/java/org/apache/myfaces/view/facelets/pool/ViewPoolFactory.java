@@ -18,6 +18,8 @@
  */
 package org.apache.myfaces.view.facelets.pool;
 
+import java.util.Collections;
+import java.util.List;
 import jakarta.faces.FacesWrapper;
 import jakarta.faces.component.UIViewRoot;
 import jakarta.faces.context.FacesContext;
@@ -31,6 +33,14 @@ public abstract class ViewPoolFactory implements FacesWrapper<ViewPoolFactory>
     
     public abstract ViewPool getViewPool(FacesContext context, UIViewRoot recyclableRoot);
 
+    /**
+     * @return all the view pools created by this factory
+     */
+    public List<ViewPool> getViewPools()
+    {
+        return Collections.emptyList();
+    }
+
     @Override
     public ViewPoolFactory getWrapped()
     {
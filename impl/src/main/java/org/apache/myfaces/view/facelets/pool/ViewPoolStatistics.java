@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.pool;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the pooled instances of a view and of how often they were reused.
+ */
+public class ViewPoolStatistics
+{
+    /**
+     * The kind of view structure the instances are pooled for.
+     */
+    public enum Structure
+    {
+        STATIC,
+        PARTIAL,
+        DYNAMIC
+    }
+
+    private final String viewId;
+    private final Locale locale;
+    private final Structure structure;
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long rejects;
+    private final long evictions;
+
+    public ViewPoolStatistics(String viewId, Locale locale, Structure structure, int size, int maxSize,
+            long hits, long misses, long rejects, long evictions)
+    {
+        this.viewId = viewId;
+        this.locale = locale;
+        this.structure = structure;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.rejects = rejects;
+        this.evictions = evictions;
+    }
+
+    public String getViewId()
+    {
+        return viewId;
+    }
+
+    public Locale getLocale()
+    {
+        return locale;
+    }
+
+    public Structure getStructure()
+    {
+        return structure;
+    }
+
+    /**
+     * @return the number of instances in the pool
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return the number of instances the pool currently accepts
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of times an instance was taken from the pool
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the number of times the pool had no instance and the view was built
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return the number of instances not pooled because the pool was full
+     */
+    public long getRejects()
+    {
+        return rejects;
+    }
+
+    /**
+     * @return the number of instances dropped because they were garbage collected or the pool shrank
+     */
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ViewPoolStatistics[viewId=" + viewId + ", locale=" + locale + ", structure=" + structure
+                + ", size=" + size + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses
+                + ", rejects=" + rejects + ", evictions=" + evictions + "]";
+    }
+}
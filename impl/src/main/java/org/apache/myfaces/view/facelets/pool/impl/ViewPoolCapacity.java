@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.pool.impl;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The number of views an adaptive view pool can hold, shared by all its holders.
+ *
+ * <p>Every pop and push of a holder is a tick of the clock of the capacity. A holder that was not used during
+ * the last idle ticks gives all its capacity back, either when a sweep finds it, every idle ticks, or as soon as
+ * a holder that needs a view finds no free capacity.</p>
+ */
+public class ViewPoolCapacity
+{
+    private final AtomicInteger free;
+    private final long idleTicks;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong lastReclaim = new AtomicLong();
+    private final Set<ViewPoolEntryHolder> holders = ConcurrentHashMap.newKeySet();
+
+    public ViewPoolCapacity(int maxCount)
+    {
+        this(maxCount, Math.max(ViewPoolEntryHolder.WINDOW * 32L, maxCount * 4L));
+    }
+
+    /**
+     * @param maxCount the number of views of all the holders together
+     * @param idleTicks the number of pops and pushes of the pool after which an unused holder is idle
+     */
+    public ViewPoolCapacity(int maxCount, long idleTicks)
+    {
+        this.free = new AtomicInteger(maxCount);
+        this.idleTicks = idleTicks;
+    }
+
+    /**
+     * @return the current tick
+     */
+    long register(ViewPoolEntryHolder holder)
+    {
+        holders.add(holder);
+        return clock.get();
+    }
+
+    /**
+     * Advances the clock, and every idle ticks releases the capacity of the idle holders.
+     * 
+     * @return the new tick
+     */
+    long tick()
+    {
+        long now = clock.incrementAndGet();
+        if (now % idleTicks == 0)
+        {
+            releaseIdle(null, now);
+        }
+        return now;
+    }
+
+    /**
+     * Takes one view for the given holder, from the free capacity or else from the holders that are idle.
+     * 
+     * @return 1, or 0 if there is nothing to take
+     */
+    int reserve(ViewPoolEntryHolder holder)
+    {
+        int reserved = reserve(1);
+        if (reserved == 0)
+        {
+            long now = clock.get();
+            long last = lastReclaim.get();
+            // a full scan at most once per window, when all the holders are busy
+            if (now - last >= ViewPoolEntryHolder.WINDOW && lastReclaim.compareAndSet(last, now)
+                    && releaseIdle(holder, now) > 0)
+            {
+                reserved = reserve(1);
+            }
+        }
+        return reserved;
+    }
+
+    private int releaseIdle(ViewPoolEntryHolder except, long now)
+    {
+        int released = 0;
+        for (ViewPoolEntryHolder holder : holders)
+        {
+            if (holder != except && now - holder.getLastUsed() >= idleTicks && holder.getMaxCount() > 0)
+            {
+                released += holder.releaseCapacity();
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Takes up to the requested number of views from the free capacity.
+     * 
+     * @return the number of views taken, between 0 and count
+     */
+    public int reserve(int count)
+    {
+        while (true)
+        {
+            int current = free.get();
+            int reserved = Math.min(current, count);
+            if (reserved <= 0)
+            {
+                return 0;
+            }
+            if (free.compareAndSet(current, current - reserved))
+            {
+                return reserved;
+            }
+        }
+    }
+
+    public void release(int count)
+    {
+        free.addAndGet(count);
+    }
+
+    public int getFree()
+    {
+        return free.get();
+    }
+}
@@ -21,6 +21,7 @@
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.myfaces.view.facelets.pool.ViewEntry;
 
 /**
@@ -36,46 +37,266 @@
  * include any syncronized method in this code will produce worse performance.</li>
  * </ol>
  *
+ * <p>When the holder takes its capacity from a {@link ViewPoolCapacity}, maxCount is not fixed. It starts at 0,
+ * and every pop that finds the holder empty lets the holder take one more view from the capacity when that view
+ * is added back, so the holder grows to the number of concurrent requests of the view. Every {@link #WINDOW} pops
+ * and pushes, a holder that had no miss and still had a view left after every pop gives one back, down to one.
+ * A holder that is not used for a while gives all its capacity back, see {@link ViewPoolCapacity}.</p>
+ *
  * @author Leonardo Uribe
  */
 public class ViewPoolEntryHolder
 {
+    /**
+     * Number of pops and pushes between two adjustments of an adaptive holder.
+     */
+    static final int WINDOW = 32;
+
     private Queue<ViewEntry> queue;
     private AtomicInteger count;
-    private int maxCount;
+    private AtomicInteger maxCount;
+    private final ViewPoolCapacity capacity;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejects = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final AtomicInteger windowEvents = new AtomicInteger();
+    private final AtomicInteger windowMisses = new AtomicInteger();
+    private final AtomicInteger windowMinCount = new AtomicInteger(Integer.MAX_VALUE);
+
+    /**
+     * Views the holder may take from the capacity, one per miss.
+     */
+    private final AtomicInteger pendingGrowth = new AtomicInteger();
+
+    /**
+     * Tick of the capacity clock when the holder was last used.
+     */
+    private volatile long lastUsed;
     
     public ViewPoolEntryHolder(int maxCount)
+    {
+        this(maxCount, null);
+    }
+
+    /**
+     * @param maxCount the max count, or with a capacity the number of views the holder may take from it when
+     * they are added
+     * @param capacity the capacity shared by the holders of an adaptive pool, or null for a fixed max count
+     */
+    public ViewPoolEntryHolder(int maxCount, ViewPoolCapacity capacity)
     {
         this.queue = new ConcurrentLinkedQueue<>();
         this.count = new AtomicInteger();
-        this.maxCount = maxCount;
+        this.capacity = capacity;
+        if (capacity == null)
+        {
+            this.maxCount = new AtomicInteger(maxCount);
+        }
+        else
+        {
+            this.maxCount = new AtomicInteger();
+            this.pendingGrowth.set(maxCount);
+            this.lastUsed = capacity.register(this);
+        }
     }
     
     public boolean add(ViewEntry entry)
     {
-        if (count.get() < maxCount)
+        if (count.get() < maxCount.get() || grow())
         {
             queue.add(entry);
             count.incrementAndGet();
+            sample(false);
             return true;
         }
+        rejects.increment();
+        sample(false);
         return false;
     }
     
     public ViewEntry poll()
     {
         ViewEntry entry = queue.poll();
-        count.decrementAndGet();
+        if (entry != null)
+        {
+            count.decrementAndGet();
+        }
         return entry;
     }
+
+    /**
+     * Takes the next entry whose view has not been garbage collected, and records it as a hit or a miss.
+     * 
+     * @return the activated entry, or null if there is none
+     */
+    public ViewEntry pop()
+    {
+        ViewEntry entry = poll();
+        while (entry != null)
+        {
+            if (entry.activate())
+            {
+                hits.increment();
+                if (capacity != null)
+                {
+                    windowMinCount.accumulateAndGet(count.get(), Math::min);
+                }
+                sample(false);
+                return entry;
+            }
+            evictions.increment();
+            entry = poll();
+        }
+        misses.increment();
+        if (capacity != null && pendingGrowth.get() < WINDOW)
+        {
+            // the view built for this request may stay in the pool
+            pendingGrowth.incrementAndGet();
+        }
+        sample(true);
+        return null;
+    }
+
+    /**
+     * Lets the holder take up to the given number of views from the capacity when they are added, used before
+     * the pool of a view is prewarmed. Does nothing with a fixed max count.
+     */
+    public void reserve(int views)
+    {
+        if (capacity != null)
+        {
+            pendingGrowth.accumulateAndGet(views - maxCount.get(), Math::max);
+        }
+    }
     
     public boolean isFull()
     {
-        return count.get() >= maxCount;
+        return count.get() >= maxCount.get();
     }
     
     public int getCount()
     {
         return count.get();
     }
+
+    public int getMaxCount()
+    {
+        return maxCount.get();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public long getRejects()
+    {
+        return rejects.sum();
+    }
+
+    /**
+     * @return the number of entries dropped because their view was garbage collected or the holder shrank
+     */
+    public long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    /**
+     * The tick of the capacity clock when the holder was last used, 0 with a fixed max count.
+     */
+    long getLastUsed()
+    {
+        return lastUsed;
+    }
+
+    /**
+     * Gives all the capacity of the holder back and drops its views, called on idle holders.
+     * 
+     * @return the number of views given back
+     */
+    int releaseCapacity()
+    {
+        pendingGrowth.set(0);
+        int released = maxCount.getAndSet(0);
+        if (released > 0)
+        {
+            capacity.release(released);
+        }
+        while (poll() != null)
+        {
+            evictions.increment();
+        }
+        return released;
+    }
+
+    private boolean grow()
+    {
+        if (capacity == null)
+        {
+            return false;
+        }
+        int pending = pendingGrowth.get();
+        while (pending > 0)
+        {
+            if (pendingGrowth.compareAndSet(pending, pending - 1))
+            {
+                if (capacity.reserve(this) == 0)
+                {
+                    // nothing free and nothing idle, the next miss tries again
+                    return false;
+                }
+                maxCount.incrementAndGet();
+                return true;
+            }
+            pending = pendingGrowth.get();
+        }
+        return false;
+    }
+
+    private void sample(boolean miss)
+    {
+        if (capacity == null)
+        {
+            return;
+        }
+
+        lastUsed = capacity.tick();
+        if (miss)
+        {
+            windowMisses.incrementAndGet();
+        }
+
+        if (windowEvents.incrementAndGet() == WINDOW)
+        {
+            windowEvents.set(0);
+            adapt(windowMisses.getAndSet(0), windowMinCount.getAndSet(Integer.MAX_VALUE));
+        }
+    }
+
+    private void adapt(int missCount, int minCount)
+    {
+        if (missCount == 0 && minCount > 0 && minCount != Integer.MAX_VALUE)
+        {
+            // a view was left in the holder after every pop, one less would have been enough
+            int current = maxCount.get();
+            if (current <= 1 || !maxCount.compareAndSet(current, current - 1))
+            {
+                return;
+            }
+            capacity.release(1);
+            if (count.get() > current - 1 && poll() != null)
+            {
+                evictions.increment();
+            }
+        }
+    }
 }
@@ -88,4 +88,15 @@ public ViewPool getViewPool(FacesContext context, UIViewRoot root)
         }
         return null;
     }
+
+    @Override
+    public List<ViewPool> getViewPools()
+    {
+        List<ViewPool> viewPools = new ArrayList<>(viewPoolList);
+        if (defaultViewPool != null)
+        {
+            viewPools.add(defaultViewPool);
+        }
+        return viewPools;
+    }
 }
@@ -18,8 +18,10 @@
  */
 package org.apache.myfaces.view.facelets.pool.impl;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import jakarta.faces.component.UIViewRoot;
@@ -29,6 +31,7 @@
 import org.apache.myfaces.view.facelets.pool.RestoreViewFromPoolResult;
 import org.apache.myfaces.view.facelets.pool.ViewPool;
 import org.apache.myfaces.view.facelets.pool.ViewEntry;
+import org.apache.myfaces.view.facelets.pool.ViewPoolStatistics;
 import org.apache.myfaces.view.facelets.pool.ViewStructureMetadata;
 import org.apache.myfaces.view.facelets.tag.jsf.FaceletState;
 
@@ -50,6 +53,12 @@ public class ViewPoolImpl extends ViewPool
     
     private final int maxCount;
     private final int dynamicPartialLimit;
+    private final int prewarmSize;
+    
+    /**
+     * The capacity shared by the holders when the pool is adaptive, null otherwise.
+     */
+    private final ViewPoolCapacity capacity;
     
     private final boolean entryWeak;
     private final boolean deferredNavigation;
@@ -86,14 +95,46 @@ public ViewPoolImpl(FacesContext facesContext, Map<String, String> parameters)
                 parameters.get(INIT_PARAM_VIEW_POOL_DEFERRED_NAVIGATION) :
                 "false");
         deferredNavigation = Boolean.valueOf(deferredNavigationVal);
+        String adaptiveVal = WebConfigParamUtils.getStringInitParameter(facesContext.getExternalContext(),
+                INIT_PARAM_VIEW_POOL_ADAPTIVE,
+                parameters.containsKey(INIT_PARAM_VIEW_POOL_ADAPTIVE) ?
+                parameters.get(INIT_PARAM_VIEW_POOL_ADAPTIVE) :
+                "false");
+        if (Boolean.valueOf(adaptiveVal))
+        {
+            capacity = new ViewPoolCapacity(WebConfigParamUtils.getIntegerInitParameter(
+                    facesContext.getExternalContext(),
+                    INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE,
+                    parameters.containsKey(INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE) ?
+                    Integer.parseInt(parameters.get(INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE)) :
+                    INIT_PARAM_VIEW_POOL_MAX_TOTAL_SIZE_DEFAULT));
+        }
+        else
+        {
+            capacity = null;
+        }
+        prewarmSize = WebConfigParamUtils.getIntegerInitParameter(facesContext.getExternalContext(),
+                INIT_PARAM_VIEW_POOL_PREWARM_SIZE,
+                parameters.containsKey(INIT_PARAM_VIEW_POOL_PREWARM_SIZE) ?
+                Integer.parseInt(parameters.get(INIT_PARAM_VIEW_POOL_PREWARM_SIZE)) :
+                INIT_PARAM_VIEW_POOL_PREWARM_SIZE_DEFAULT);
         
         staticStructureViewMetadataMap = new ConcurrentHashMap<>();
         dynamicStructureViewMetadataMap = new ConcurrentHashMap<>();
     }
     
+    /**
+     * Creates the holder of the instances of one view, when the first one is pushed. In an adaptive pool the
+     * holder takes that instance from the capacity, and more as its views are missed.
+     */
+    protected ViewPoolEntryHolder createViewPoolEntryHolder()
+    {
+        return capacity == null ? new ViewPoolEntryHolder(maxCount) : new ViewPoolEntryHolder(1, capacity);
+    }
+    
     protected void pushStaticStructureView(FacesContext context, MetadataViewKey key, ViewEntry entry)
     {
-        ViewPoolEntryHolder q = staticStructureViewPool.computeIfAbsent(key, k -> new ViewPoolEntryHolder(maxCount));
+        ViewPoolEntryHolder q = staticStructureViewPool.computeIfAbsent(key, k -> createViewPoolEntryHolder());
         q.add(entry);
     }
     
@@ -104,32 +145,12 @@ protected ViewEntry popStaticStructureView(FacesContext context, MetadataViewKey
         {
             return null;
         }
-
-        ViewEntry entry = q.poll();
-        if (entry == null)
-        {
-            return null;
-        }
-        do
-        {
-            if (entry.activate())
-            {
-                return entry;
-            }
-            entry = q.poll();
-        }
-        while (entry != null);
-        return null;
+        return q.pop();
     }
     
     protected void pushPartialStructureView(FacesContext context, MetadataViewKey key, ViewEntry entry)
     {
-        ViewPoolEntryHolder q = partialStructureViewPool.get(key);
-        if (q == null)
-        {
-            q = new ViewPoolEntryHolder(maxCount);
-            partialStructureViewPool.put(key, q);
-        }
+        ViewPoolEntryHolder q = partialStructureViewPool.computeIfAbsent(key, k -> createViewPoolEntryHolder());
         q.add(entry);
     }
     
@@ -140,23 +161,7 @@ protected ViewEntry popPartialStructureView(FacesContext context, MetadataViewKe
         {
             return null;
         }
-
-        ViewEntry entry = q.poll();
-        if (entry == null)
-        {
-            return null;
-        }
-
-        do
-        {
-            if (entry.activate())
-            {
-                return entry;
-            }
-            entry = q.poll();
-        } while (entry != null);
-
-        return null;
+        return q.pop();
     }
 
     /**
@@ -202,7 +207,7 @@ protected void pushDynamicStructureView(FacesContext context, UIViewRoot root, D
         Map<DynamicViewKey, ViewPoolEntryHolder> map = dynamicStructureViewPool.computeIfAbsent(ordinaryKey,
                 k -> new ConcurrentHashMap<>());
 
-        ViewPoolEntryHolder q = map.computeIfAbsent(key, k -> new ViewPoolEntryHolder(maxCount));
+        ViewPoolEntryHolder q = map.computeIfAbsent(key, k -> createViewPoolEntryHolder());
         if (!q.add(entry))
         {
             pushPartialStructureView(context, ordinaryKey, entry);
@@ -223,17 +228,7 @@ protected ViewEntry popDynamicStructureView(FacesContext context, UIViewRoot roo
         {
             return null;
         }
-
-        ViewEntry entry = q.poll();
-        while (entry != null)
-        {
-            if (entry.activate())
-            {
-                return entry;
-            }
-            entry = q.poll();
-        }
-        return null;
+        return q.pop();
     }
 
     @Override
@@ -247,6 +242,13 @@ public void pushStaticStructureView(FacesContext context, UIViewRoot root)
         }
     }
 
+    @Override
+    public void reserveStaticStructureViews(FacesContext context, UIViewRoot root, int count)
+    {
+        MetadataViewKey key = deriveViewKey(context, root);
+        staticStructureViewPool.computeIfAbsent(key, k -> createViewPoolEntryHolder()).reserve(count);
+    }
+
     @Override
     public ViewEntry popStaticOrPartialStructureView(FacesContext context, UIViewRoot root)
     {
@@ -284,22 +286,10 @@ public ViewEntry popStaticOrPartialStructureView(FacesContext context, UIViewRoo
                         }
                         if (maxEntry != null)
                         {
-                            entry = maxEntry.poll();
+                            entry = maxEntry.pop();
                             if (entry != null)
                             {
-                                do
-                                {
-                                    if (entry.activate())
-                                    {
-                                        break;
-                                    }
-                                    entry = maxEntry.poll();
-                                }
-                                while (entry != null);
-                                if (entry != null)
-                                {
-                                    entry.setResult(RestoreViewFromPoolResult.REFRESH_REQUIRED);
-                                }
+                                entry.setResult(RestoreViewFromPoolResult.REFRESH_REQUIRED);
                             }
                         }
                     }
@@ -444,5 +434,41 @@ public boolean isDeferredNavigationEnabled()
     {
         return deferredNavigation;
     }
+
+    @Override
+    public int getPrewarmSize()
+    {
+        return prewarmSize;
+    }
+
+    @Override
+    public List<ViewPoolStatistics> getStatistics()
+    {
+        List<ViewPoolStatistics> statistics = new ArrayList<>();
+        for (Map.Entry<MetadataViewKey, ViewPoolEntryHolder> entry : staticStructureViewPool.entrySet())
+        {
+            statistics.add(createStatistics(entry.getKey(), ViewPoolStatistics.Structure.STATIC, entry.getValue()));
+        }
+        for (Map.Entry<MetadataViewKey, ViewPoolEntryHolder> entry : partialStructureViewPool.entrySet())
+        {
+            statistics.add(createStatistics(entry.getKey(), ViewPoolStatistics.Structure.PARTIAL, entry.getValue()));
+        }
+        for (Map.Entry<MetadataViewKey, Map<DynamicViewKey, ViewPoolEntryHolder>> entry
+                : dynamicStructureViewPool.entrySet())
+        {
+            for (ViewPoolEntryHolder q : entry.getValue().values())
+            {
+                statistics.add(createStatistics(entry.getKey(), ViewPoolStatistics.Structure.DYNAMIC, q));
+            }
+        }
+        return statistics;
+    }
+
+    private ViewPoolStatistics createStatistics(MetadataViewKey key, ViewPoolStatistics.Structure structure,
+            ViewPoolEntryHolder q)
+    {
+        return new ViewPoolStatistics(key.getViewId(), key.getLocale(), structure, q.getCount(), q.getMaxCount(),
+                q.getHits(), q.getMisses(), q.getRejects(), q.getEvictions());
+    }
     
 }
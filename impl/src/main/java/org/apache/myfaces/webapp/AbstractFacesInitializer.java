@@ -33,6 +33,7 @@
 import org.apache.myfaces.spi.InjectionProviderFactory;
 import org.apache.myfaces.spi.ViewScopeProvider;
 import org.apache.myfaces.spi.ViewScopeProviderFactory;
+import org.apache.myfaces.spi.ViewStateStore;
 import org.apache.myfaces.util.ExternalSpecifications;
 import org.apache.myfaces.view.facelets.tag.MetaRulesetImpl;
 
@@ -47,6 +48,8 @@
 import jakarta.faces.event.PreDestroyApplicationEvent;
 import jakarta.faces.event.SystemEvent;
 import jakarta.servlet.ServletContext;
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
@@ -67,12 +70,15 @@
 import org.apache.myfaces.push.EndpointImpl;
 import org.apache.myfaces.push.WebsocketConfigurator;
 import org.apache.myfaces.push.WebsocketFacesInit;
+import org.apache.myfaces.resource.ResourceFingerprints;
 import org.apache.myfaces.util.lang.ClassUtils;
 import org.apache.myfaces.spi.FacesFlowProvider;
 import org.apache.myfaces.spi.FacesFlowProviderFactory;
 import org.apache.myfaces.spi.ServiceProviderFinder;
 import org.apache.myfaces.spi.ServiceProviderFinderFactory;
+import org.apache.myfaces.view.facelets.FaceletsPrecompiler;
 import org.apache.myfaces.view.facelets.ViewPoolProcessor;
+import org.apache.myfaces.view.facelets.impl.FaceletCacheFactoryImpl;
 import org.apache.myfaces.util.lang.StringUtils;
 
 /**
@@ -181,6 +187,8 @@ public void initFaces(ServletContext servletContext)
             {
                 listener.setViewScopeProvider(viewScopeProvider);
                 listener.setFacesFlowProvider(facesFlowProvider);
+                listener.setViewStateStore((ViewStateStore) externalContext.getApplicationMap()
+                        .get(MyfacesConfig.VIEW_STATE_STORE));
             }
             
             String useEncryption = servletContext.getInitParameter(StateUtils.USE_ENCRYPTION);
@@ -214,6 +222,22 @@ public void initFaces(ServletContext servletContext)
                 initAutomaticExtensionlessMapping(facesContext, servletContext);
             }
 
+            if (config.isResourceFingerprint())
+            {
+                ResourceFingerprints.getInstance(externalContext).precompute(ClassUtils.getContextClassLoader());
+            }
+
+            if (config.isFaceletsPrecompile())
+            {
+                FaceletsPrecompiler.precompile(facesContext);
+            }
+
+            ViewPoolProcessor viewPoolProcessor = ViewPoolProcessor.getInstance(facesContext);
+            if (viewPoolProcessor != null)
+            {
+                viewPoolProcessor.prewarmViews(facesContext);
+            }
+
             // publish resourceBundleControl to applicationMap, to make it available to the API
             ResourceBundle.Control resourceBundleControl = config.getResourceBundleControl();
             if (resourceBundleControl != null)
@@ -351,6 +375,27 @@ public void destroyFaces(ServletContext servletContext)
         // clear the cache of MetaRulesetImpl in order to prevent a memory leak
         MetaRulesetImpl.clearMetadataTargetCache();
         
+        ViewStateStore viewStateStore = (ViewStateStore) facesContext.getExternalContext().getApplicationMap()
+                .remove(MyfacesConfig.VIEW_STATE_STORE);
+        if (viewStateStore != null)
+        {
+            viewStateStore.destroy();
+        }
+
+        Closeable faceletCache = (Closeable) facesContext.getExternalContext().getApplicationMap()
+                .remove(FaceletCacheFactoryImpl.CONCURRENT_FACELET_CACHE);
+        if (faceletCache != null)
+        {
+            try
+            {
+                faceletCache.close();
+            }
+            catch (IOException e)
+            {
+                log.log(Level.WARNING, "Error closing the FaceletCache", e);
+            }
+        }
+        
         if (facesContext.getExternalContext().getApplicationMap().containsKey("org.apache.myfaces.push"))
         {
             WebsocketFacesInit.clearWebsocketSessionLRUCache(facesContext.getExternalContext());
@@ -29,6 +29,7 @@
 import org.apache.myfaces.context.servlet.StartupServletExternalContextImpl;
 import org.apache.myfaces.spi.FacesFlowProvider;
 import org.apache.myfaces.spi.ViewScopeProvider;
+import org.apache.myfaces.spi.ViewStateStore;
 
 public class MyFacesHttpSessionListener implements HttpSessionListener
 {
@@ -36,6 +37,7 @@ public class MyFacesHttpSessionListener implements HttpSessionListener
 
     private ViewScopeProvider viewScopeProvider = null;
     private FacesFlowProvider facesFlowProvider = null;
+    private ViewStateStore viewStateStore = null;
     
     public void setViewScopeProvider(ViewScopeProvider viewScopeProvider)
     {
@@ -47,6 +49,11 @@ public void setFacesFlowProvider(FacesFlowProvider facesFlowProvider)
         this.facesFlowProvider = facesFlowProvider;
     }
     
+    public void setViewStateStore(ViewStateStore viewStateStore)
+    {
+        this.viewStateStore = viewStateStore;
+    }
+    
     @Override
     public void sessionCreated(HttpSessionEvent event)
     {
@@ -55,6 +62,15 @@ public void sessionCreated(HttpSessionEvent event)
     @Override
     public void sessionDestroyed(HttpSessionEvent event)
     {
+        if (viewStateStore != null)
+        {
+            Object sessionKey = event.getSession().getAttribute(ViewStateStore.SESSION_KEY_ATTRIBUTE);
+            if (sessionKey instanceof String)
+            {
+                viewStateStore.removeSession((String) sessionKey);
+            }
+        }
+
         // If we don't propagate this event, CDI will do for us but outside JSF control
         // so when @PreDestroy methods are called there will not be an active FacesContext.
         // The trick here is ensure clean the affected scopes to avoid duplicates.
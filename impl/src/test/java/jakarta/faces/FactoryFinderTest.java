@@ -21,8 +21,13 @@
 
 import jakarta.faces.FactoryFinder;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.myfaces.test.mock.api.Mock2ApplicationFactory;
 import org.apache.myfaces.test.mock.api.MockApplicationFactory;
@@ -186,6 +191,30 @@ public void testGetFactoryNoConfiguration() throws Exception
         }
     }
 
+    /*
+     * Without a context class loader the lock free lookup is skipped, so the usual message is reported
+     */
+    @Test
+    public void testGetFactoryNoContextClassLoader() throws Exception
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader classLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(null);
+        try
+        {
+            FactoryFinder.getFactory(FactoryFinder.APPLICATION_FACTORY);
+            Assert.fail("Should have thrown an illegal state exception");
+        }
+        catch (IllegalStateException e)
+        {
+            Assert.assertTrue(e.getMessage().startsWith("No Factories configured for this Application"));
+        }
+        finally
+        {
+            thread.setContextClassLoader(classLoader);
+        }
+    }
+
     /*
      * Bogus factory name test Test method for 'jakarta.faces.FactoryFinder.setFactory(String, String)'
      */
@@ -277,6 +306,73 @@ public void testSetFactoryAdditiveClassNames() throws Exception
         }
     }
 
+    /*
+     * Test method for 'jakarta.faces.FactoryFinder.getFactory(String)'
+     */
+    @Test
+    public void testGetFactoryConcurrently() throws Exception
+    {
+        FactoryFinder.setFactory(FactoryFinder.APPLICATION_FACTORY, MockApplicationFactory.class.getName());
+
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        int threads = 8;
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (int i = 0; i < threads; i++)
+        {
+            tasks.add(() ->
+            {
+                Thread.currentThread().setContextClassLoader(classLoader);
+                Object factory = FactoryFinder.getFactory(FactoryFinder.APPLICATION_FACTORY);
+                for (int j = 0; j < 1000; j++)
+                {
+                    Assert.assertSame(factory, FactoryFinder.getFactory(FactoryFinder.APPLICATION_FACTORY));
+                }
+                return factory;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            Object expected = null;
+            for (Future<Object> future : executor.invokeAll(tasks))
+            {
+                Object factory = future.get();
+                Assert.assertTrue(factory.getClass().equals(MockApplicationFactory.class));
+                if (expected == null)
+                {
+                    expected = factory;
+                }
+                Assert.assertSame(expected, factory);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Test method for 'jakarta.faces.FactoryFinder.getFactory(String)'
+     */
+    @Test
+    public void testGetFactoryAfterRelease() throws Exception
+    {
+        FactoryFinder.setFactory(FactoryFinder.APPLICATION_FACTORY, MockApplicationFactory.class.getName());
+        Assert.assertNotNull(FactoryFinder.getFactory(FactoryFinder.APPLICATION_FACTORY));
+
+        FactoryFinder.releaseFactories();
+        try
+        {
+            FactoryFinder.getFactory(FactoryFinder.APPLICATION_FACTORY);
+            Assert.fail("Should have thrown an illegal state exception");
+        }
+        catch (IllegalStateException e)
+        {
+            // released factories must not be returned anymore
+        }
+    }
+
     /*
      * Test method for 'jakarta.faces.FactoryFinder.releaseFactories()'
      */
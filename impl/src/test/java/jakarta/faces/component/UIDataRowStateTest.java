@@ -280,4 +280,73 @@ public void testEditableValueHolderState()
             Assert.assertEquals("someString"+i, inputText.getSubmittedValue());
         }
     }
+
+    /**
+     * Check that only the edited rows keep their state, and that a row edited back to
+     * the initial state gets the initial state.
+     */
+    @Test
+    public void testEditableValueHolderStateOfEditedRows()
+    {
+        List<Item> list = new ArrayList<Item>();
+        int rowCount = 10;
+        for (int i = 0; i < rowCount; i++)
+        {
+            list.add(new Item(i, "name"+i, "lastName"+i));
+        }
+
+        UIViewRoot root = facesContext.getViewRoot();
+        UIData data = new HtmlDataTable();
+        data.setId("table");
+        root.getChildren().add(data);
+        data.setValue(new ListDataModel(list));
+        data.setVar("item");
+        data.setRows(rowCount);
+
+        UIColumn col = new HtmlColumn();
+        data.getChildren().add(col);
+
+        UIInput inputText = new HtmlInputText();
+        inputText.setId("text");
+        col.getChildren().add(inputText);
+
+        for (int i = 0; i < rowCount ; i++)
+        {
+            data.setRowIndex(i);
+            if (i % 3 == 0)
+            {
+                inputText.setSubmittedValue("someString"+i);
+                inputText.setValid(false);
+            }
+        }
+        data.setRowIndex(-1);
+        Assert.assertNull(inputText.getSubmittedValue());
+        Assert.assertTrue(inputText.isValid());
+
+        for (int i = 0; i < rowCount ; i++)
+        {
+            data.setRowIndex(i);
+            if (i % 3 == 0)
+            {
+                Assert.assertEquals("someString"+i, inputText.getSubmittedValue());
+                Assert.assertFalse(inputText.isValid());
+            }
+            else
+            {
+                Assert.assertNull(inputText.getSubmittedValue());
+                Assert.assertTrue(inputText.isValid());
+            }
+        }
+
+        data.setRowIndex(3);
+        inputText.setSubmittedValue(null);
+        inputText.setValid(true);
+        data.setRowIndex(4);
+        data.setRowIndex(3);
+        Assert.assertNull(inputText.getSubmittedValue());
+        Assert.assertTrue(inputText.isValid());
+        data.setRowIndex(6);
+        Assert.assertEquals("someString6", inputText.getSubmittedValue());
+        data.setRowIndex(-1);
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package jakarta.faces.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.faces.component.visit.VisitContext;
+import jakarta.faces.component.visit.VisitResult;
+import jakarta.faces.model.ListDataModel;
+
+import org.apache.myfaces.component.visit.PartialVisitContext;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UIViewRootClientIdIndexTest extends AbstractJsfTestCase
+{
+    private UIForm form;
+    private UIInput input;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        servletContext.addInitParameter("org.apache.myfaces.CLIENT_ID_INDEX", "true");
+
+        form = new UIForm();
+        form.setId("form");
+        facesContext.getViewRoot().getChildren().add(form);
+
+        input = new UIInput();
+        input.setId("input");
+        form.getChildren().add(input);
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        form = null;
+        input = null;
+        super.tearDown();
+    }
+
+    private List<UIComponent> invoke(String clientId)
+    {
+        List<UIComponent> targets = new ArrayList<>();
+        facesContext.getViewRoot().invokeOnComponent(facesContext, clientId, (context, target) ->
+        {
+            Assert.assertSame(target, UIComponent.getCurrentComponent(context));
+            targets.add(target);
+        });
+        return targets;
+    }
+
+    @Test
+    public void testInvokeOnIndexedComponent()
+    {
+        Assert.assertEquals(Arrays.asList(input), invoke("form:input"));
+        Assert.assertEquals(Arrays.asList(form), invoke("form"));
+        Assert.assertTrue(invoke("form:missing").isEmpty());
+    }
+
+    @Test
+    public void testInvokeAfterTreeChanges()
+    {
+        Assert.assertEquals(Arrays.asList(input), invoke("form:input"));
+
+        UIInput added = new UIInput();
+        added.setId("added");
+        form.getChildren().add(added);
+        Assert.assertEquals(Arrays.asList(added), invoke("form:added"));
+
+        form.getChildren().remove(input);
+        Assert.assertTrue(invoke("form:input").isEmpty());
+
+        added.setId("renamed");
+        Assert.assertTrue(invoke("form:added").isEmpty());
+        Assert.assertEquals(Arrays.asList(added), invoke("form:renamed"));
+    }
+
+    @Test
+    public void testInvokeOnComponentInRow()
+    {
+        UIData data = new UIData();
+        data.setId("table");
+        data.setValue(new ListDataModel<>(Arrays.asList("a", "b", "c")));
+        form.getChildren().add(data);
+
+        UIColumn column = new UIColumn();
+        column.setId("column");
+        data.getChildren().add(column);
+
+        UIInput rowInput = new UIInput();
+        rowInput.setId("rowInput");
+        column.getChildren().add(rowInput);
+
+        List<Integer> rowIndexes = new ArrayList<>();
+        facesContext.getViewRoot().invokeOnComponent(facesContext, "form:table:1:rowInput", (context, target) ->
+        {
+            Assert.assertSame(rowInput, target);
+            rowIndexes.add(data.getRowIndex());
+        });
+        Assert.assertEquals(Arrays.asList(1), rowIndexes);
+        Assert.assertEquals(-1, data.getRowIndex());
+    }
+
+    private List<UIComponent> visit(String... clientIds)
+    {
+        List<UIComponent> targets = new ArrayList<>();
+        facesContext.getViewRoot().visitTree(new PartialVisitContext(facesContext, Arrays.asList(clientIds)),
+                (context, target) ->
+                {
+                    Assert.assertSame(target, UIComponent.getCurrentComponent(context.getFacesContext()));
+                    targets.add(target);
+                    return VisitResult.ACCEPT;
+                });
+        return targets;
+    }
+
+    private UIForm addOtherForm(List<UIComponent> visitable)
+    {
+        UIForm other = new UIForm();
+        other.setId("other");
+        facesContext.getViewRoot().getChildren().add(other);
+
+        UIOutput output = new UIOutput()
+        {
+            @Override
+            protected boolean isVisitable(VisitContext context)
+            {
+                visitable.add(this);
+                return super.isVisitable(context);
+            }
+        };
+        output.setId("output");
+        other.getChildren().add(output);
+        return other;
+    }
+
+    @Test
+    public void testPartialVisitSkipsOtherSubtrees()
+    {
+        List<UIComponent> visitable = new ArrayList<>();
+        addOtherForm(visitable);
+
+        UIInput second = new UIInput();
+        second.setId("second");
+        form.getChildren().add(second);
+
+        Assert.assertEquals(Arrays.asList(input, second), visit("form:second", "form:input"));
+        Assert.assertTrue(visitable.isEmpty());
+
+        Assert.assertEquals(1, visit("other:output").size());
+        Assert.assertEquals(1, visitable.size());
+    }
+
+    @Test
+    public void testPartialVisitOfMissingComponent()
+    {
+        List<UIComponent> visitable = new ArrayList<>();
+        addOtherForm(visitable);
+
+        Assert.assertEquals(Arrays.asList(input), visit("form:input", "form:missing"));
+        Assert.assertEquals(1, visitable.size());
+    }
+
+    @Test
+    public void testPartialVisitOfComponentInRow()
+    {
+        List<UIComponent> visitable = new ArrayList<>();
+        addOtherForm(visitable);
+
+        UIData data = new UIData();
+        data.setId("table");
+        data.setValue(new ListDataModel<>(Arrays.asList("a", "b", "c")));
+        form.getChildren().add(data);
+
+        UIColumn column = new UIColumn();
+        column.setId("column");
+        data.getChildren().add(column);
+
+        UIInput rowInput = new UIInput();
+        rowInput.setId("rowInput");
+        column.getChildren().add(rowInput);
+
+        List<Integer> rowIndexes = new ArrayList<>();
+        facesContext.getViewRoot().visitTree(new PartialVisitContext(facesContext,
+                Arrays.asList("form:table:1:rowInput")), (context, target) ->
+                {
+                    Assert.assertSame(rowInput, target);
+                    rowIndexes.add(data.getRowIndex());
+                    return VisitResult.ACCEPT;
+                });
+        Assert.assertEquals(Arrays.asList(1), rowIndexes);
+        Assert.assertTrue(visitable.isEmpty());
+    }
+}
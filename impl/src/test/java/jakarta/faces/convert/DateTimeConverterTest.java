@@ -31,6 +31,7 @@
 
 import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
 import org.junit.Assert;
+import org.junit.Test;
 
 public class DateTimeConverterTest extends AbstractJsfTestCase
 {
@@ -102,4 +103,23 @@ public void testGetAsObject()
             Assert.assertTrue("this date should not be parsable - and it is, so this is wrong.", false);
         }
     }
+
+    @Test
+    public void testCachedFormatNotModified()
+    {
+        UIInput input = new UIInput();
+        Date date = new Date(0);
+
+        DateTimeConverter gmt = new DateTimeConverter();
+        gmt.setPattern("yyyy-MM-dd HH:mm");
+        gmt.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        DateTimeConverter tokyo = new DateTimeConverter();
+        tokyo.setPattern("yyyy-MM-dd HH:mm");
+        tokyo.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
+
+        Assert.assertEquals("1970-01-01 00:00", gmt.getAsString(facesContext, input, date));
+        Assert.assertEquals("1970-01-01 09:00", tokyo.getAsString(facesContext, input, date));
+        Assert.assertEquals("1970-01-01 00:00", gmt.getAsString(facesContext, input, date));
+    }
 }
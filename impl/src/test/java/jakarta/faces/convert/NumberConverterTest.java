@@ -222,4 +222,21 @@ public void testGetAsObjectWithBigIntegerAndParsePosition()
             // expected
         }
     }
+
+    @Test
+    public void testCachedFormatNotModified()
+    {
+        facesContext.getViewRoot().setLocale(Locale.US);
+        UIInput input = new UIInput();
+
+        NumberConverter rounding = new NumberConverter();
+        rounding.setType("number");
+        rounding.setMaxFractionDigits(0);
+        rounding.setGroupingUsed(false);
+        Assert.assertEquals("12346", rounding.getAsString(facesContext, input, 12345.68d));
+
+        mock.setType("number");
+        Assert.assertEquals("12,345.68", mock.getAsString(facesContext, input, 12345.68d));
+        Assert.assertEquals("12346", rounding.getAsString(facesContext, input, 12345.68d));
+    }
 }
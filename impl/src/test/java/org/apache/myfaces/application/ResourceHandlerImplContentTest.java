@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.resource.ResourceContent;
+import org.apache.myfaces.resource.ResourceImpl;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceHandlerImplContentTest extends AbstractJsfTestCase
+{
+    private ResourceHandlerImpl resourceHandler;
+
+    @Override
+    protected void setUpServletObjects() throws Exception
+    {
+        super.setUpServletObjects();
+        servletContext.addInitParameter(MyfacesConfig.RESOURCE_CONTENT_CACHE_SIZE, "10");
+    }
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        resourceHandler = new ResourceHandlerImpl();
+        application.setResourceHandler(resourceHandler);
+        request.setPathElements("/xxx", "/yyy", "/test.xhtml", null);
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        resourceHandler = null;
+
+        super.tearDown();
+    }
+
+    private static byte[] read(InputStream in) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int length;
+        while ((length = in.read(buffer)) >= 0)
+        {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testLoad() throws Exception
+    {
+        Assert.assertTrue(resourceHandler.getResourceHandlerCache().isResourceContentCacheEnabled());
+
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        byte[] expected = read(resource.getInputStream());
+
+        ResourceContent content = ResourceContent.load(resource, 64);
+        Assert.assertEquals(expected.length, content.getLength());
+        Assert.assertNull(content.getBrotli());
+
+        // the small buffer forces several writes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out, 0, content.getLength(), new byte[64]);
+        Assert.assertArrayEquals(expected, out.toByteArray());
+
+        out.reset();
+        content.writeTo(out, 10, 20, new byte[64]);
+        Assert.assertEquals(new String(expected, 10, 20, "UTF-8"), out.toString("UTF-8"));
+
+        Assert.assertNotNull(content.getGzip());
+        Assert.assertTrue(content.getGzip().length < expected.length);
+        Assert.assertArrayEquals(expected,
+                read(new GZIPInputStream(new ByteArrayInputStream(content.getGzip()))));
+    }
+
+    @Test
+    public void testParseRange()
+    {
+        Assert.assertArrayEquals(new int[] { 0, 99 }, ResourceHandlerImpl.parseRange("bytes=0-99", 1000));
+        Assert.assertArrayEquals(new int[] { 500, 999 }, ResourceHandlerImpl.parseRange("bytes=500-", 1000));
+        Assert.assertArrayEquals(new int[] { 900, 999 }, ResourceHandlerImpl.parseRange("bytes=-100", 1000));
+        Assert.assertArrayEquals(new int[] { 0, 999 }, ResourceHandlerImpl.parseRange("bytes=-2000", 1000));
+        Assert.assertArrayEquals(new int[] { 990, 999 }, ResourceHandlerImpl.parseRange("bytes=990-5000", 1000));
+
+        // not satisfiable
+        Assert.assertEquals(0, ResourceHandlerImpl.parseRange("bytes=1000-", 1000).length);
+        Assert.assertEquals(0, ResourceHandlerImpl.parseRange("bytes=-0", 1000).length);
+
+        // ignored, the whole content is sent
+        Assert.assertNull(ResourceHandlerImpl.parseRange("bytes=0-10,20-30", 1000));
+        Assert.assertNull(ResourceHandlerImpl.parseRange("bytes=20-10", 1000));
+        Assert.assertNull(ResourceHandlerImpl.parseRange("bytes=a-b", 1000));
+        Assert.assertNull(ResourceHandlerImpl.parseRange("items=0-10", 1000));
+    }
+
+    @Test
+    public void testEncodingAccepted()
+    {
+        Assert.assertTrue(ResourceHandlerImpl.isEncodingAccepted("gzip, deflate, br", "br"));
+        Assert.assertTrue(ResourceHandlerImpl.isEncodingAccepted("gzip;q=0.5", "gzip"));
+        Assert.assertTrue(ResourceHandlerImpl.isEncodingAccepted("*", "gzip"));
+        Assert.assertFalse(ResourceHandlerImpl.isEncodingAccepted("gzip, deflate", "br"));
+        Assert.assertFalse(ResourceHandlerImpl.isEncodingAccepted("br;q=0, gzip", "br"));
+        Assert.assertFalse(ResourceHandlerImpl.isEncodingAccepted("*, gzip;q=0", "gzip"));
+        Assert.assertFalse(ResourceHandlerImpl.isEncodingAccepted(null, "gzip"));
+    }
+
+    @Test
+    public void testContentEncoding() throws Exception
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        ResourceContent content = ResourceContent.load(resource, 64);
+        Assert.assertNotNull(content.getGzip());
+
+        Map<String, String> requestHeaders = new HashMap<>();
+        Assert.assertNull(ResourceHandlerImpl.getContentEncoding(content, requestHeaders));
+
+        requestHeaders.put("Accept-Encoding", "gzip, br");
+        Assert.assertEquals("gzip", ResourceHandlerImpl.getContentEncoding(content, requestHeaders));
+
+        // ranges are served from the identity content
+        requestHeaders.put("Range", "bytes=0-10");
+        Assert.assertNull(ResourceHandlerImpl.getContentEncoding(content, requestHeaders));
+    }
+}
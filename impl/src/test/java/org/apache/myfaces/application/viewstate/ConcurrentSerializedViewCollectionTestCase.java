@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jakarta.faces.context.FacesContext;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Runs the SerializedViewCollection tests over ConcurrentSerializedViewCollection, plus some
+ * tests with multiple client windows.
+ */
+public class ConcurrentSerializedViewCollectionTestCase extends SerializedViewCollectionTestCase
+{
+    private final ThreadLocal<String> windowId = new ThreadLocal<>();
+
+    @Override
+    protected AbstractSerializedViewCollection createSerializedViewCollection()
+    {
+        return new ConcurrentSerializedViewCollection()
+        {
+            @Override
+            protected String getWindowId(FacesContext context)
+            {
+                String id = windowId.get();
+                return id == null ? super.getWindowId(context) : id;
+            }
+        };
+    }
+
+    @Test
+    public void testOldestViewIsDiscardedBetweenWindows()
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "3");
+
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
+        String viewId = "/test.xhtml";
+        SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
+        SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
+        SerializedViewKey key3 = new SerializedViewKeyIntInt(viewId.hashCode(), 3);
+        SerializedViewKey key4 = new SerializedViewKeyIntInt(viewId.hashCode(), 4);
+        SerializedViewKey key5 = new SerializedViewKeyIntInt(viewId.hashCode(), 5);
+
+        TestViewScopeProvider provider = new TestViewScopeProvider();
+
+        windowId.set("w1");
+        collection.put(facesContext, new Object[]{null,null,2}, key1, null, provider, "1");
+        collection.putLastWindowKey(facesContext, "w1", key1);
+        windowId.set("w2");
+        collection.put(facesContext, new Object[]{null,null,2}, key2, null, provider, "2");
+        collection.putLastWindowKey(facesContext, "w2", key2);
+        windowId.set("w1");
+        collection.put(facesContext, new Object[]{null,null,2}, key3, null, provider, "3");
+        collection.putLastWindowKey(facesContext, "w1", key3);
+
+        Assert.assertEquals(key3, collection.getLastWindowKey(facesContext, "w1"));
+        Assert.assertEquals(key2, collection.getLastWindowKey(facesContext, "w2"));
+
+        // key1 is the oldest one, even if it belongs to other window
+        windowId.set("w3");
+        collection.put(facesContext, new Object[]{null,null,2}, key4, null, provider, "4");
+        Assert.assertNull(collection.get(key1));
+        Assert.assertNotNull(collection.get(key2));
+        Assert.assertNotNull(collection.get(key3));
+        Assert.assertNotNull(collection.get(key4));
+
+        // refresh key2, so key3 is the oldest one and w1 has no views anymore
+        windowId.set("w2");
+        collection.put(facesContext, new Object[]{null,null,2}, key2, null, provider, "2");
+        windowId.set("w3");
+        collection.put(facesContext, new Object[]{null,null,2}, key5, null, provider, "5");
+        Assert.assertNotNull(collection.get(key2));
+        Assert.assertNull(collection.get(key3));
+        Assert.assertNotNull(collection.get(key4));
+        Assert.assertNotNull(collection.get(key5));
+        Assert.assertNull(collection.getLastWindowKey(facesContext, "w1"));
+        Assert.assertEquals(key2, collection.getLastWindowKey(facesContext, "w2"));
+
+        Assert.assertEquals(2, provider.getDestroyCount());
+        windowId.remove();
+    }
+
+    @Test
+    public void testParallelWindows() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "20");
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "4");
+        // init the config before start the threads
+        MyfacesConfig.getCurrentInstance(facesContext);
+
+        final AbstractSerializedViewCollection collection = createSerializedViewCollection();
+        final int threads = 8;
+        final int views = 2000;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<SerializedViewKey>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                final int thread = i;
+                results.add(executor.submit(() ->
+                {
+                    windowId.set("w" + thread);
+                    start.await();
+                    SerializedViewKey previous = null;
+                    SerializedViewKey key = null;
+                    for (int j = 0; j < views; j++)
+                    {
+                        key = new SerializedViewKeyIntInt(thread, j);
+                        collection.put(facesContext, new Object[]{null, null, j}, key, previous);
+                        collection.putLastWindowKey(facesContext, "w" + thread, key);
+                        previous = key;
+                    }
+                    return key;
+                }));
+            }
+            start.countDown();
+            for (Future<SerializedViewKey> result : results)
+            {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        int stored = 0;
+        for (int i = 0; i < threads; i++)
+        {
+            for (int j = 0; j < views; j++)
+            {
+                if (collection.get(new SerializedViewKeyIntInt(i, j)) != null)
+                {
+                    stored++;
+                }
+            }
+        }
+        Assert.assertTrue("stored views: " + stored, stored > 0 && stored <= 20);
+    }
+}
@@ -30,12 +30,17 @@
 public class SerializedViewCollectionTestCase extends AbstractJsfTestCase
 {
     
+    protected AbstractSerializedViewCollection createSerializedViewCollection()
+    {
+        return new SerializedViewCollection();
+    }
+    
     @Test
     public void testSerializedViewCollection1()
     {
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "1");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -57,7 +62,7 @@ public void testSerializedViewCollection2()
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "2");
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "1");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -83,7 +88,7 @@ public void testSerializedViewCollection3()
     {
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "1");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -111,7 +116,7 @@ public void testSerializedViewCollection4()
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "2");
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "1");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -138,7 +143,7 @@ public void testSerializedViewCollection5()
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "3");
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "1");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -179,7 +184,7 @@ public void testSerializedViewCollection6()
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "4");
         servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_SEQUENTIAL_VIEWS_IN_SESSION, "2");
         
-        SerializedViewCollection collection = new SerializedViewCollection();
+        AbstractSerializedViewCollection collection = createSerializedViewCollection();
         String viewId = "/test.xhtml";
         SerializedViewKey key1 = new SerializedViewKeyIntInt(viewId.hashCode(), 1);
         SerializedViewKey key2 = new SerializedViewKeyIntInt(viewId.hashCode(), 2);
@@ -268,7 +273,7 @@ public void testSerializedViewCollection6()
         Assert.assertEquals(provider.getDestroyCount(), 5);
     }
     
-    private static class TestViewScopeProvider extends ViewScopeProvider
+    static class TestViewScopeProvider extends ViewScopeProvider
     {
         private int destroyCount = 0;
 
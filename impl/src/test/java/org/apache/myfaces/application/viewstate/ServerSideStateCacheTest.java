@@ -22,11 +22,16 @@
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Arrays;
 import java.util.Map;
 import jakarta.faces.application.ProjectStage;
 import jakarta.faces.application.StateManager;
 
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateStore;
+import org.apache.myfaces.spi.impl.FileViewStateStore;
 import org.apache.myfaces.test.base.junit.AbstractJsfConfigurableMultipleRequestsTestCase;
+import org.apache.myfaces.test.mock.MockSessionReplicationRecorder;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -197,6 +202,170 @@ public void testNonExistingViewId() throws Exception
 
     }
 
+    @Test
+    public void testViewSessionAttributePerView() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.STATE_SAVING_METHOD_SERVER);
+        servletContext.addInitParameter("org.apache.myfaces.NUMBER_OF_VIEWS_IN_SESSION", "5");
+        servletContext.addInitParameter(StateManager.SERIALIZE_SERVER_STATE_PARAM_NAME, "true");
+        servletContext.addInitParameter(MyfacesConfig.VIEW_SESSION_ATTRIBUTE_PER_VIEW, "true");
+
+        MockSessionReplicationRecorder recorder = new MockSessionReplicationRecorder();
+        session.addAttributeListener(recorder);
+
+        // Initialization
+        setupRequest();
+        StateCache stateCache = new StateCacheServerSide();
+        tearDownRequest();
+
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String largeState = new String(chars);
+
+        Object firstSavedToken = null;
+        Object savedToken;
+        for (int i = 0; i < 10; i++)
+        {
+            try
+            {
+                setupRequest();
+                recorder.reset();
+
+                facesContext.getViewRoot().setViewId("/view" + i + ".xhtml");
+                savedToken = stateCache.saveSerializedView(facesContext, new Object[] { largeState, i });
+                if (i == 0)
+                {
+                    firstSavedToken = savedToken;
+                }
+
+                // the collection and the new view
+                Assert.assertTrue(recorder.getDirtyAttributes().contains(
+                        StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR));
+                Assert.assertEquals(2, recorder.getDirtyAttributes().stream()
+                        .filter(name -> name.startsWith(StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR))
+                        .count());
+                Assert.assertEquals(i < 5 ? 0 : 1, recorder.getRemovedAttributes().size());
+                Assert.assertTrue("replicated " + recorder.getReplicatedBytes(),
+                        recorder.getReplicatedBytes() < 2 * chars.length);
+            }
+            finally
+            {
+                tearDownRequest();
+            }
+
+            try
+            {
+                setupRequest();
+
+                Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext,
+                        "/view" + i + ".xhtml", savedToken);
+                Assert.assertEquals(i, value[1]);
+            }
+            finally
+            {
+                tearDownRequest();
+            }
+        }
+
+        try
+        {
+            setupRequest();
+
+            // discarded with its session attribute
+            Assert.assertNull(stateCache.restoreSerializedView(facesContext, "/view0.xhtml", firstSavedToken));
+            int views = 0;
+            for (String name : externalContext.getSessionMap().keySet())
+            {
+                if (name.startsWith(StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR + '.'))
+                {
+                    views++;
+                }
+            }
+            Assert.assertEquals(5, views);
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+    }
+
+    @Test
+    public void testViewStateStore() throws Exception
+    {
+        servletContext.addInitParameter(StateManager.STATE_SAVING_METHOD_PARAM_NAME, StateManager.STATE_SAVING_METHOD_SERVER);
+        servletContext.addInitParameter("org.apache.myfaces.NUMBER_OF_VIEWS_IN_SESSION", "2");
+
+        // Initialization
+        setupRequest();
+        FileViewStateStore viewStateStore = new FileViewStateStore();
+        viewStateStore.init(externalContext);
+        externalContext.getApplicationMap().put(MyfacesConfig.VIEW_STATE_STORE, viewStateStore);
+        StateCache stateCache = new StateCacheServerSide();
+        tearDownRequest();
+        
+        Object firstSavedToken;
+        Object savedToken;
+        
+        try
+        {
+            setupRequest();
+           
+            facesContext.getViewRoot().setViewId("/view1.xhtml");
+            firstSavedToken = stateCache.saveSerializedView(facesContext, new Object[] { "state", 1 });
+            
+            // only the key is kept in session
+            Assert.assertNotNull(externalContext.getSessionMap().get(
+                    StateCacheServerSide.SERIALIZED_VIEW_SESSION_ATTR));
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+        
+        try
+        {
+            setupRequest();
+            
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view1.xhtml", firstSavedToken);
+            Assert.assertEquals("state", value[0]);
+            Assert.assertEquals(1, value[1]);
+            
+            facesContext.getViewRoot().setViewId("/view2.xhtml");
+            savedToken = stateCache.saveSerializedView(facesContext, new Object[] { "state", 2 });
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+        
+        try
+        {
+            setupRequest();
+            
+            Object[] value = (Object[]) stateCache.restoreSerializedView(facesContext, "/view2.xhtml", savedToken);
+            Assert.assertEquals(2, value[1]);
+            
+            // The session is destroyed, so the states are not available anymore
+            viewStateStore.removeSession(ViewStateStore.getSessionKey(externalContext, false));
+        }
+        finally
+        {
+            tearDownRequest();
+        }
+        
+        try
+        {
+            setupRequest();
+            
+            Assert.assertNull(stateCache.restoreSerializedView(facesContext, "/view1.xhtml", firstSavedToken));
+        }
+        finally
+        {
+            tearDownRequest();
+            viewStateStore.destroy();
+        }
+    }
+
     public void tryStateKeySerialization() throws Exception
     {
         // Initialization
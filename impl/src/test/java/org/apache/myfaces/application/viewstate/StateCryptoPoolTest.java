@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import jakarta.faces.FacesException;
+
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StateCryptoPoolTest extends AbstractJsfTestCase
+{
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        externalContext.getApplicationMap().put(StateUtils.SERIAL_FACTORY, new DefaultSerialFactory());
+        servletContext.addInitParameter(StateUtils.INIT_SECRET, AbstractStateUtilsTest.BASE64_KEY_SIZE_16);
+        servletContext.addInitParameter(StateUtils.INIT_MAC_SECRET, AbstractStateUtilsTest.BASE64_KEY_SIZE_8);
+    }
+
+    @Test
+    public void testInstancesAreReused() throws Exception
+    {
+        StateUtils.initSecret(servletContext);
+
+        StateCryptoPool pool = StateUtils.getCryptoPool(externalContext);
+        Assert.assertNotNull(pool);
+        Assert.assertSame(pool, StateUtils.getCryptoPool(externalContext));
+
+        Cipher cipher = pool.borrowCipher(Cipher.ENCRYPT_MODE);
+        Mac mac = pool.borrowMac();
+        byte[] first = cipher.doFinal("state".getBytes());
+        pool.releaseCipher(Cipher.ENCRYPT_MODE, cipher);
+        pool.releaseMac(mac);
+
+        Assert.assertSame(cipher, pool.borrowCipher(Cipher.ENCRYPT_MODE));
+        Assert.assertSame(mac, pool.borrowMac());
+        Assert.assertNotSame(cipher, pool.borrowCipher(Cipher.DECRYPT_MODE));
+
+        // a reused cipher starts from its initial state again
+        Assert.assertArrayEquals(first, cipher.doFinal("state".getBytes()));
+    }
+
+    @Test
+    public void testRoundTripWithPooledInstances()
+    {
+        StateUtils.initSecret(servletContext);
+
+        byte[] insecure = "this is my secret".getBytes();
+        for (int i = 0; i < 10; i++)
+        {
+            byte[] secure = StateUtils.encrypt(insecure, externalContext);
+            Assert.assertArrayEquals(insecure, StateUtils.decrypt(secure, externalContext));
+            Assert.assertEquals("state" + i, StateUtils.reconstruct(
+                    StateUtils.construct("state" + i, externalContext), externalContext));
+        }
+    }
+
+    @Test
+    public void testNoPoolWithoutSecretKeyCache()
+    {
+        servletContext.addInitParameter(StateUtils.INIT_SECRET_KEY_CACHE, "false");
+        StateUtils.initSecret(servletContext);
+
+        Assert.assertNull(StateUtils.getCryptoPool(externalContext));
+    }
+
+    @Test
+    public void testAeadUsesRandomIv()
+    {
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM_PARAM, "GCM/NoPadding");
+        StateUtils.initSecret(servletContext);
+
+        byte[] insecure = "this is my secret".getBytes();
+        byte[] secure1 = StateUtils.encrypt(insecure, externalContext);
+        byte[] secure2 = StateUtils.encrypt(insecure, externalContext);
+        Assert.assertFalse(Arrays.equals(secure1, secure2));
+        Assert.assertArrayEquals(insecure, StateUtils.decrypt(secure1, externalContext));
+        Assert.assertArrayEquals(insecure, StateUtils.decrypt(secure2, externalContext));
+
+        // IV + plain text length + 16 bytes tag, no separate MAC
+        Assert.assertEquals(StateUtils.GCM_IV_LENGTH + insecure.length + 16, secure1.length);
+
+        String token = StateUtils.construct("state", externalContext);
+        Assert.assertEquals("state", StateUtils.reconstruct(token, externalContext));
+    }
+
+    @Test(expected = FacesException.class)
+    public void testAeadRejectsStaticIv()
+    {
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM_PARAM, "GCM/NoPadding");
+        servletContext.addInitParameter(StateUtils.INIT_ALGORITHM_IV, AbstractStateUtilsTest.BASE64_KEY_SIZE_16);
+        StateUtils.initSecret(servletContext);
+
+        StateUtils.encrypt("this is my secret".getBytes(), externalContext);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.application.viewstate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.myfaces.spi.impl.DefaultSerialFactory;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that the streaming codec produces the same tokens as the array based pipeline of StateUtils.
+ */
+public class StreamingStateCodecTest extends AbstractJsfTestCase
+{
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        externalContext.getApplicationMap().put(StateUtils.SERIAL_FACTORY, new DefaultSerialFactory());
+        servletContext.addInitParameter(StateUtils.INIT_SECRET, AbstractStateUtilsTest.BASE64_KEY_SIZE_16);
+        servletContext.addInitParameter(StateUtils.INIT_MAC_SECRET, AbstractStateUtilsTest.BASE64_KEY_SIZE_8);
+    }
+
+    private void secure(boolean secure, boolean compress)
+    {
+        servletContext.addInitParameter(StateUtils.USE_ENCRYPTION, Boolean.toString(secure));
+        servletContext.addInitParameter(StateUtils.COMPRESS_STATE_IN_CLIENT, Boolean.toString(compress));
+        StateUtils.initSecret(servletContext);
+    }
+
+    private static Object createState(int components)
+    {
+        Map<String, Object> deltas = new HashMap<>();
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < components; i++)
+        {
+            deltas.put("form:table:" + i + ":input", new Object[] { "value" + i, i, Boolean.TRUE, null });
+            values.add("row" + i);
+        }
+        return new Object[] { deltas, values, "/test.xhtml" };
+    }
+
+    private String legacyConstruct(Object state)
+    {
+        byte[] bytes = StateUtils.getAsByteArray(state, externalContext);
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.compress(bytes);
+        }
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.encrypt(bytes, externalContext);
+        }
+        return new String(StateUtils.encode(bytes), StandardCharsets.ISO_8859_1);
+    }
+
+    private Object legacyReconstruct(String token)
+    {
+        byte[] bytes = StateUtils.decode(token.getBytes(StandardCharsets.ISO_8859_1));
+        if (StateUtils.isSecure(externalContext))
+        {
+            bytes = StateUtils.decrypt(bytes, externalContext);
+        }
+        if (StateUtils.enableCompression(externalContext))
+        {
+            bytes = StateUtils.decompress(bytes);
+        }
+        return StateUtils.getAsObject(bytes, externalContext);
+    }
+
+    private void assertCompatible()
+    {
+        Object state = createState(200);
+
+        String streamed = StateUtils.construct(state, externalContext);
+        Assert.assertEquals(legacyConstruct(state), streamed);
+
+        Object[] restored = (Object[]) StateUtils.reconstruct(legacyConstruct(state), externalContext);
+        Assert.assertEquals("/test.xhtml", restored[2]);
+        Assert.assertEquals(200, ((Map) restored[0]).size());
+
+        restored = (Object[]) legacyReconstruct(streamed);
+        Assert.assertEquals(((List) ((Object[]) state)[1]), restored[1]);
+    }
+
+    @Test
+    public void testPlain()
+    {
+        secure(false, false);
+        assertCompatible();
+    }
+
+    @Test
+    public void testCompressed()
+    {
+        secure(false, true);
+        assertCompatible();
+    }
+
+    @Test
+    public void testEncrypted()
+    {
+        secure(true, false);
+        assertCompatible();
+    }
+
+    @Test
+    public void testCompressedAndEncrypted()
+    {
+        secure(true, true);
+        assertCompatible();
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected()
+    {
+        secure(true, true);
+        String token = StateUtils.construct(createState(10), externalContext);
+        char[] chars = token.toCharArray();
+        chars[10] = chars[10] == 'A' ? 'B' : 'A';
+        Assert.assertNull(StateUtils.reconstruct(new String(chars), externalContext));
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        secure(true, true);
+        Object[] state = (Object[]) createState(5000);
+
+        Object[] restored = (Object[]) StateUtils.reconstruct(StateUtils.construct(state, externalContext),
+                externalContext);
+        Assert.assertEquals(state.length, restored.length);
+        Assert.assertEquals(state[0].getClass(), restored[0].getClass());
+        Map<?, ?> deltas = (Map<?, ?>) state[0];
+        Map<?, ?> restoredDeltas = (Map<?, ?>) restored[0];
+        Assert.assertEquals(deltas.keySet(), restoredDeltas.keySet());
+        for (Map.Entry<?, ?> entry : deltas.entrySet())
+        {
+            Assert.assertArrayEquals((Object[]) entry.getValue(), (Object[]) restoredDeltas.get(entry.getKey()));
+        }
+        Assert.assertEquals(state[1], restored[1]);
+        Assert.assertEquals(state[2], restored[2]);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.config.annotation;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationScanIndexTest
+{
+    private static final List<String> ANNOTATIONS = Arrays.asList("Lcom/acme/A;", "Lcom/acme/B;");
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = Files.createTempDirectory("myfaces-scan-index").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        for (File file : directory.listFiles())
+        {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testUnchangedJarIsNotScannedAgain()
+    {
+        File jar = new File(directory, "a.jar");
+        AnnotationScanIndex index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        Assert.assertNull(index.get(jar, 10, 1000));
+        index.put(jar, 10, 1000, Arrays.asList("com.acme.Foo", "com.acme.Bar"));
+        index.store();
+
+        index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        Assert.assertEquals(Arrays.asList("com.acme.Foo", "com.acme.Bar"), index.get(jar, 10, 1000));
+        Assert.assertNull(index.get(jar, 11, 1000));
+        Assert.assertNull(index.get(jar, 10, 2000));
+    }
+
+    @Test
+    public void testOtherAnnotationsDiscardTheIndex()
+    {
+        File jar = new File(directory, "a.jar");
+        AnnotationScanIndex index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        index.put(jar, 10, 1000, Collections.singletonList("com.acme.Foo"));
+        index.store();
+
+        index = AnnotationScanIndex.load(directory, Collections.singletonList("Lcom/acme/A;"));
+        Assert.assertNull(index.get(jar, 10, 1000));
+    }
+
+    @Test
+    public void testRemovedJarIsPruned()
+    {
+        File a = new File(directory, "a.jar");
+        File b = new File(directory, "b.jar");
+        AnnotationScanIndex index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        index.put(a, 10, 1000, Collections.singletonList("com.acme.Foo"));
+        index.put(b, 20, 1000, Collections.<String>emptyList());
+        index.store();
+
+        // b.jar is gone, only a.jar is looked up
+        index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        Assert.assertNotNull(index.get(a, 10, 1000));
+        index.store();
+
+        index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        Assert.assertNull(index.get(b, 20, 1000));
+        Assert.assertNotNull(index.get(a, 10, 1000));
+    }
+
+    @Test
+    public void testCorruptIndexIsIgnored() throws Exception
+    {
+        Files.write(new File(directory, AnnotationScanIndex.FILE_NAME).toPath(), new byte[] {0, 0, 0, 1, 0});
+        AnnotationScanIndex index = AnnotationScanIndex.load(directory, ANNOTATIONS);
+        Assert.assertNull(index.get(new File(directory, "a.jar"), 10, 1000));
+    }
+}
@@ -30,6 +30,9 @@
 
 import jakarta.el.ELContext;
 import jakarta.el.ELResolver;
+import jakarta.el.FunctionMapper;
+import jakarta.el.MapELResolver;
+import jakarta.el.VariableMapper;
 
 import org.easymock.IAnswer;
 import org.easymock.classextension.EasyMock;
@@ -100,4 +103,205 @@ public Iterator<FeatureDescriptor> answer() throws Throwable
         Assert.assertEquals(false, descriptors.hasNext());
 
     }
+
+    @Test
+    public void testResolverCacheHit()
+    {
+        ValueResolver unresolved = new ValueResolver("unresolved");
+        ValueResolver resolver = new ValueResolver("value");
+        resolver.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver(true);
+        composite.add(unresolved);
+        composite.add(resolver);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("value", composite.getValue(context, null, "foo"));
+        Assert.assertEquals("value", composite.getValue(context, null, "foo"));
+        Assert.assertTrue(context.isPropertyResolved());
+
+        Assert.assertEquals(1, composite.getCacheMisses());
+        Assert.assertEquals(1, composite.getCacheHits());
+        // not known to only depend on the base and the property, still asked
+        Assert.assertEquals(2, unresolved.calls);
+        Assert.assertEquals(2, resolver.calls);
+    }
+
+    @Test
+    public void testResolverCacheEarlierResolverAsked()
+    {
+        ValueResolver first = new ValueResolver("first");
+        ValueResolver second = new ValueResolver("second");
+        second.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver(true);
+        composite.add(first);
+        composite.add(second);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("second", composite.getValue(context, null, "foo"));
+
+        first.resolving = true;
+        Assert.assertEquals("first", composite.getValue(context, null, "foo"));
+        Assert.assertEquals(1, second.calls);
+        Assert.assertEquals(1, composite.getCacheHits());
+    }
+
+    @Test
+    public void testResolverCacheInvalidated()
+    {
+        ValueResolver second = new ValueResolver("second");
+        second.resolving = true;
+        ValueResolver third = new ValueResolver("third");
+        third.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver(true);
+        composite.add(new ValueResolver("first"));
+        composite.add(second);
+        composite.add(third);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("second", composite.getValue(context, "base", "foo"));
+
+        second.resolving = false;
+        Assert.assertEquals("third", composite.getValue(context, "base", "foo"));
+        Assert.assertEquals("third", composite.getValue(context, "base", "foo"));
+
+        // the failed plan and the whole chain, then the new plan
+        Assert.assertEquals(4, second.calls);
+        Assert.assertEquals(2, third.calls);
+        Assert.assertEquals(2, composite.getCacheMisses());
+        Assert.assertEquals(1, composite.getCacheHits());
+    }
+
+    @Test
+    public void testResolverCachePerBaseClass()
+    {
+        ValueResolver resolver = new ValueResolver("value");
+        resolver.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver(true);
+        composite.add(new MapELResolver());
+        composite.add(resolver);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("value", composite.getValue(context, "base", "foo"));
+        Assert.assertEquals("value", composite.getValue(context, "other base", "foo"));
+        Assert.assertEquals("map value", composite.getValue(context,
+                Collections.singletonMap("foo", "map value"), "foo"));
+        Assert.assertEquals("value", composite.getValue(context, "base", "bar"));
+        Assert.assertEquals(3, resolver.calls);
+        Assert.assertEquals(2, composite.getCacheMisses());
+        Assert.assertEquals(2, composite.getCacheHits());
+    }
+
+    @Test
+    public void testResolverCachePerIdentifier()
+    {
+        ValueResolver resolver = new ValueResolver("value");
+        resolver.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver(true);
+        composite.add(new MapELResolver());
+        composite.add(resolver);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("value", composite.getValue(context, null, "foo"));
+        resolver.resolving = false;
+        Assert.assertNull(composite.getValue(context, null, "bar"));
+        Assert.assertFalse(context.isPropertyResolved());
+        Assert.assertEquals(2, composite.getCacheMisses());
+        Assert.assertEquals(0, composite.getCacheHits());
+    }
+
+    @Test
+    public void testResolverCacheDisabled()
+    {
+        ValueResolver resolver = new ValueResolver("value");
+        resolver.resolving = true;
+
+        CompositeELResolver composite = new CompositeELResolver();
+        composite.add(resolver);
+
+        ELContext context = new TestELContext();
+        Assert.assertEquals("value", composite.getValue(context, null, "foo"));
+        Assert.assertEquals("value", composite.getValue(context, null, "foo"));
+        Assert.assertEquals(2, resolver.calls);
+        Assert.assertEquals(0, composite.getCacheMisses());
+        Assert.assertEquals(0, composite.getCacheHits());
+    }
+
+    private static class ValueResolver extends ELResolver
+    {
+        private final Object value;
+        private boolean resolving;
+        private int calls;
+
+        ValueResolver(Object value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public Object getValue(ELContext context, Object base, Object property)
+        {
+            calls++;
+            if (resolving)
+            {
+                context.setPropertyResolved(true);
+                return value;
+            }
+            return null;
+        }
+
+        @Override
+        public Class<?> getType(ELContext context, Object base, Object property)
+        {
+            return null;
+        }
+
+        @Override
+        public void setValue(ELContext context, Object base, Object property, Object value)
+        {
+        }
+
+        @Override
+        public boolean isReadOnly(ELContext context, Object base, Object property)
+        {
+            return true;
+        }
+
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(ELContext context, Object base)
+        {
+            return null;
+        }
+
+        @Override
+        public Class<?> getCommonPropertyType(ELContext context, Object base)
+        {
+            return null;
+        }
+    }
+
+    private static class TestELContext extends ELContext
+    {
+        @Override
+        public ELResolver getELResolver()
+        {
+            return null;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper()
+        {
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper()
+        {
+            return null;
+        }
+    }
 }
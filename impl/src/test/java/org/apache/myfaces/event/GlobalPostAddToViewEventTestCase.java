@@ -18,6 +18,9 @@
  */
 package org.apache.myfaces.event;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import jakarta.faces.component.UIComponent;
 import jakarta.faces.component.UIOutput;
 import jakarta.faces.component.html.HtmlHead;
@@ -95,4 +98,65 @@ public void testPostAddToViewSourceUnmatching() throws Exception
 
         Assert.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
     }
+
+    @Test
+    public void testPostAddToViewSubscribeAfterPublish() throws Exception
+    {
+        ApplicationImplEventManager eventManager = new ApplicationImplEventManager();
+
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, HtmlInputText.class, new HeadResourceListener());
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assert.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+
+        HeadResourceListener listener = new HeadResourceListener();
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, UIOutput.class, listener);
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assert.assertTrue(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+
+        facesContext.getAttributes().remove("SystemEventListenerInvokedForHead");
+        eventManager.unsubscribeFromEvent(PostAddToViewEvent.class, UIOutput.class, listener);
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        Assert.assertFalse(facesContext.getAttributes().containsKey("SystemEventListenerInvokedForHead"));
+    }
+
+    @Test
+    public void testPostAddToViewSubscriptionOrder() throws Exception
+    {
+        ApplicationImplEventManager eventManager = new ApplicationImplEventManager();
+        List<String> invoked = new ArrayList<>();
+
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, new OrderListener(invoked, "1"));
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, HtmlInputText.class, new OrderListener(invoked, "2"));
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, UIOutput.class, new OrderListener(invoked, "3"));
+        eventManager.subscribeToEvent(PostAddToViewEvent.class, new OrderListener(invoked, "4"));
+
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlHead.class, new HtmlHead());
+        eventManager.publishEvent(facesContext, PostAddToViewEvent.class, HtmlInputText.class, new HtmlInputText());
+
+        Assert.assertEquals("[1, 3, 4, 1, 2, 3, 4]", invoked.toString());
+    }
+
+    public static class OrderListener implements SystemEventListener
+    {
+        private final List<String> invoked;
+        private final String name;
+
+        public OrderListener(List<String> invoked, String name)
+        {
+            this.invoked = invoked;
+            this.name = name;
+        }
+
+        @Override
+        public boolean isListenerForSource(Object source)
+        {
+            return true;
+        }
+
+        @Override
+        public void processEvent(SystemEvent event)
+        {
+            invoked.add(name);
+        }
+    }
 }
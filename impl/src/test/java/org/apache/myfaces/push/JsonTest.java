@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonTest
+{
+    public static class Item
+    {
+        private final String name;
+        private final int count;
+        private final Item child;
+
+        public Item(String name, int count, Item child)
+        {
+            this.name = name;
+            this.count = count;
+            this.child = child;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public Item getChild()
+        {
+            return child;
+        }
+    }
+
+    @Test
+    public void testEncodeBean()
+    {
+        Item item = new Item("a\"b", 2, new Item("c", 3, null));
+        Assert.assertEquals("{\"child\":{\"count\":3,\"name\":\"c\"},\"count\":2,\"name\":\"a\\\"b\"}",
+                Json.encode(item));
+        // the properties are cached per class
+        Assert.assertEquals("{\"count\":1,\"name\":\"x\"}", Json.encode(new Item("x", 1, null)));
+    }
+
+    @Test
+    public void testEncodeStructures()
+    {
+        List<Object> list = Arrays.asList(1, null, true, new int[] {1, 2}, Collections.singletonMap("k", "v"),
+                String.class, new Date(0));
+        Assert.assertEquals("[1,null,true,[1,2],{\"k\":\"v\"},\"java.lang.String\",\"Thu, 01 Jan 1970 00:00:00 GMT\"]",
+                Json.encode(list));
+    }
+
+    @Test
+    public void testEscape()
+    {
+        Assert.assertEquals("\"<\\/script>\\n\\u0001\\u00e9\\u20ac'\"", Json.encode("</script>\n\u0001\u00e9\u20ac'"));
+        Assert.assertEquals("it\\'s", Json.escapeJS("it's", true));
+        Assert.assertEquals("it's", Json.escapeJS("it's", false));
+    }
+
+    @Test
+    public void testEncodeToWriter() throws Exception
+    {
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'x');
+        chars[4000] = '"';
+        String value = new String(chars);
+
+        StringWriter writer = new StringWriter();
+        Json.encode(Arrays.asList(value, value), writer);
+        Assert.assertEquals(Json.encode(Arrays.asList(value, value)), writer.toString());
+        Assert.assertEquals(2 * 5003 + 3, writer.toString().length());
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.push.EndpointImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class WebsocketBroadcasterTest
+{
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+    @After
+    public void tearDown()
+    {
+        WebsocketApplicationSessionHolder.clearWebsocketSessionLRUCache();
+    }
+
+    private Session openSession(String channel)
+    {
+        Session session = Mockito.mock(Session.class);
+        RemoteEndpoint.Async async = Mockito.mock(RemoteEndpoint.Async.class);
+        Mockito.when(session.getPathParameters()).thenReturn(
+                Collections.singletonMap(EndpointImpl.PUSH_CHANNEL_PARAMETER, channel));
+        Mockito.when(session.isOpen()).thenReturn(true);
+        Mockito.when(session.getAsyncRemote()).thenReturn(async);
+        Mockito.doAnswer(invocation ->
+        {
+            sent.add((String) invocation.getArguments()[0]);
+            ((SendHandler) invocation.getArguments()[1]).onResult(new SendResult());
+            return null;
+        }).when(async).sendText(Mockito.anyString(), Mockito.any(SendHandler.class));
+        return session;
+    }
+
+    @Test
+    public void testBroadcast() throws Exception
+    {
+        int open = WebsocketBroadcaster.BATCH_SIZE * 3 + 5;
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < open; i++)
+        {
+            String token = "token" + i;
+            WebsocketApplicationSessionHolder.addOrUpdateSession(token, openSession("news"));
+            tokens.add(token);
+        }
+        // tokens of connections that are gone, and a session of another channel
+        for (int i = 0; i < 1000; i++)
+        {
+            tokens.add("closed" + i);
+        }
+        WebsocketApplicationSessionHolder.addOrUpdateSession("other", openSession("sports"));
+        tokens.add("other");
+
+        Map<String, Object> message = new HashMap<>();
+        message.put("title", "hello");
+        Set<Future<Void>> futures = WebsocketApplicationSessionHolder.send("news", tokens,
+                new WebsocketMessage(message));
+
+        Assert.assertEquals(open, futures.size());
+        for (Future<Void> future : futures)
+        {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(open, sent.size());
+        // encoded once, every session got the same String
+        for (String text : sent)
+        {
+            Assert.assertSame(sent.get(0), text);
+        }
+
+        WebsocketBroadcaster broadcaster = WebsocketApplicationSessionHolder.getBroadcaster();
+        Assert.assertEquals(1, broadcaster.getMessages());
+        Assert.assertEquals(open, broadcaster.getRecipients());
+        Assert.assertEquals(0, broadcaster.getFailures());
+    }
+
+    @Test
+    public void testBroadcastOrderPerSession() throws Exception
+    {
+        int open = WebsocketBroadcaster.BATCH_SIZE * 4 + 1;
+        List<String> tokens = new ArrayList<>();
+        List<List<String>> received = new ArrayList<>();
+        for (int i = 0; i < open; i++)
+        {
+            List<String> messages = Collections.synchronizedList(new ArrayList<>());
+            Session session = openSession("news");
+            Mockito.doAnswer(invocation ->
+            {
+                messages.add((String) invocation.getArguments()[0]);
+                ((SendHandler) invocation.getArguments()[1]).onResult(new SendResult());
+                return null;
+            }).when(session.getAsyncRemote()).sendText(Mockito.anyString(), Mockito.any(SendHandler.class));
+            WebsocketApplicationSessionHolder.addOrUpdateSession("token" + i, session);
+            tokens.add("token" + i);
+            received.add(messages);
+        }
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 1; i <= 5; i++)
+        {
+            futures.addAll(WebsocketApplicationSessionHolder.send("news", tokens, new WebsocketMessage(i)));
+        }
+        // and a direct send, that must not overtake the broadcasts
+        futures.addAll(WebsocketApplicationSessionHolder.send("news", Collections.singletonList("token0"),
+                new WebsocketMessage(6)));
+        for (Future<Void> future : futures)
+        {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6"), received.get(0));
+        for (int i = 1; i < open; i++)
+        {
+            Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), received.get(i));
+        }
+    }
+
+    @Test
+    public void testSessionWithoutChannelIsRegistered() throws Exception
+    {
+        List<SendHandler> pending = new ArrayList<>();
+        Session session = slowSession(null, pending);
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", session);
+
+        // both sends find the queue of the session, so the second one waits for the first
+        WebsocketApplicationSessionHolder.send(null, Collections.singletonList("token"), new WebsocketMessage(1));
+        WebsocketApplicationSessionHolder.send(null, Collections.singletonList("token"), new WebsocketMessage(2));
+        Assert.assertEquals(1, pending.size());
+        Assert.assertEquals(1, WebsocketApplicationSessionHolder.getBroadcaster().getQueuedMessages());
+
+        completeAll(pending);
+        Assert.assertEquals(Arrays.asList("1", "2"), sent);
+    }
+
+    @Test
+    public void testClosedSessionIsRemoved() throws Exception
+    {
+        Session session = openSession("news");
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", session);
+        Mockito.when(session.isOpen()).thenReturn(false);
+
+        Assert.assertTrue(WebsocketApplicationSessionHolder.send("news", Collections.singletonList("token"),
+                new WebsocketMessage("hello")).isEmpty());
+        Assert.assertNull(WebsocketApplicationSessionHolder.getWebsocketSessionLRUCache().get("token"));
+        Assert.assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testFailure() throws Exception
+    {
+        Session session = openSession("news");
+        Mockito.doAnswer(invocation ->
+        {
+            ((SendHandler) invocation.getArguments()[1]).onResult(new SendResult(new IllegalStateException("gone")));
+            return null;
+        }).when(session.getAsyncRemote()).sendText(Mockito.anyString(), Mockito.any(SendHandler.class));
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", session);
+
+        Set<Future<Void>> futures = WebsocketApplicationSessionHolder.send("news",
+                Collections.singletonList("token"), new WebsocketMessage("hello"));
+        Assert.assertEquals(1, futures.size());
+        try
+        {
+            futures.iterator().next().get();
+            Assert.fail();
+        }
+        catch (java.util.concurrent.ExecutionException e)
+        {
+            Assert.assertEquals("gone", e.getCause().getMessage());
+        }
+        Assert.assertEquals(1, WebsocketApplicationSessionHolder.getBroadcaster().getFailures());
+    }
+
+    /**
+     * A session whose messages are only sent when the test completes them.
+     */
+    private Session slowSession(String channel, List<SendHandler> pending)
+    {
+        Session session = openSession(channel);
+        Mockito.doAnswer(invocation ->
+        {
+            Assert.assertTrue("concurrent send", pending.isEmpty());
+            sent.add((String) invocation.getArguments()[0]);
+            pending.add((SendHandler) invocation.getArguments()[1]);
+            return null;
+        }).when(session.getAsyncRemote()).sendText(Mockito.anyString(), Mockito.any(SendHandler.class));
+        return session;
+    }
+
+    private List<Future<Void>> sendAll(int count)
+    {
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 1; i <= count; i++)
+        {
+            futures.addAll(WebsocketApplicationSessionHolder.send("news", Collections.singletonList("token"),
+                    new WebsocketMessage(i)));
+        }
+        return futures;
+    }
+
+    private void completeAll(List<SendHandler> pending)
+    {
+        while (!pending.isEmpty())
+        {
+            pending.remove(0).onResult(new SendResult());
+        }
+    }
+
+    @Test
+    public void testSlowConsumerDropOldest() throws Exception
+    {
+        List<SendHandler> pending = new ArrayList<>();
+        WebsocketApplicationSessionHolder.getBroadcaster().configure(3,
+                MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_DROP_OLDEST);
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", slowSession("news", pending));
+
+        // the first message is in flight, the producer does not wait for it
+        List<Future<Void>> futures = sendAll(5);
+        Assert.assertEquals(1, pending.size());
+        Assert.assertEquals(3, WebsocketApplicationSessionHolder.getBroadcaster().getQueuedMessages());
+        Assert.assertTrue(futures.get(1).isCancelled());
+
+        completeAll(pending);
+        Assert.assertEquals(Arrays.asList("1", "3", "4", "5"), sent);
+        Assert.assertEquals(0, WebsocketApplicationSessionHolder.getBroadcaster().getQueuedMessages());
+        Assert.assertEquals(1, WebsocketApplicationSessionHolder.getBroadcaster().getDroppedMessages());
+        for (Future<Void> future : futures)
+        {
+            Assert.assertTrue(future.isDone());
+        }
+    }
+
+    @Test
+    public void testSlowConsumerCoalesce() throws Exception
+    {
+        List<SendHandler> pending = new ArrayList<>();
+        WebsocketApplicationSessionHolder.getBroadcaster().configure(3,
+                MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_COALESCE);
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", slowSession("news", pending));
+
+        sendAll(5);
+        Assert.assertEquals(1, WebsocketApplicationSessionHolder.getBroadcaster().getMaxQueueDepth());
+
+        completeAll(pending);
+        Assert.assertEquals(Arrays.asList("1", "5"), sent);
+        Assert.assertEquals(3, WebsocketApplicationSessionHolder.getBroadcaster().getDroppedMessages());
+    }
+
+    @Test
+    public void testSlowConsumerDisconnect() throws Exception
+    {
+        List<SendHandler> pending = new ArrayList<>();
+        WebsocketApplicationSessionHolder.getBroadcaster().configure(1,
+                MyfacesConfig.WEBSOCKET_QUEUE_OVERFLOW_POLICY_DISCONNECT);
+        Session session = slowSession("news", pending);
+        WebsocketApplicationSessionHolder.addOrUpdateSession("token", session);
+
+        List<Future<Void>> futures = sendAll(3);
+        Mockito.verify(session).close(Mockito.any(CloseReason.class));
+        Assert.assertTrue(futures.get(1).isCancelled());
+        Assert.assertTrue(futures.get(2).isCancelled());
+        Assert.assertEquals(1, WebsocketApplicationSessionHolder.getBroadcaster().getDisconnectedSessions());
+
+        completeAll(pending);
+        Assert.assertEquals(Arrays.asList("1"), sent);
+        Assert.assertTrue(futures.get(0).isDone());
+    }
+}
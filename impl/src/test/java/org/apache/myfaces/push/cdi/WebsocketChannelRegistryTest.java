@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.push.cdi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WebsocketChannelRegistryTest
+{
+    private static WebsocketChannelMetadata metadata(String channel, String user)
+    {
+        return new WebsocketChannelMetadata(channel, "application", user, true);
+    }
+
+    private static Set<String> set(String... tokens)
+    {
+        return new HashSet<>(Arrays.asList(tokens));
+    }
+
+    @Test
+    public void testIndexByChannelAndUser()
+    {
+        WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
+        Assert.assertTrue(registry.register("t1", metadata("chat", "alice")));
+        Assert.assertTrue(registry.register("t2", metadata("chat", "bob")));
+        Assert.assertTrue(registry.register("t3", metadata("chat", "alice")));
+        Assert.assertTrue(registry.register("t4", metadata("news", null)));
+
+        // rendering the same view again does not duplicate the token
+        Assert.assertFalse(registry.register("t1", metadata("chat", "alice")));
+
+        Assert.assertTrue(registry.isChannelAvailable("chat"));
+        Assert.assertEquals(3, registry.getChannelTokens("chat").size());
+        Assert.assertEquals(set("t1", "t3"), registry.getChannelTokens("chat", "alice"));
+        Assert.assertEquals(set("t2"), registry.getChannelTokens("chat", "bob"));
+        Assert.assertTrue(registry.getChannelTokens("chat", "carol").isEmpty());
+        Assert.assertTrue(registry.getChannelTokens("news", null).isEmpty());
+        Assert.assertEquals(set("t4"), registry.getChannelTokens("news"));
+        Assert.assertTrue(registry.getChannelTokens("unknown").isEmpty());
+    }
+
+    @Test
+    public void testDeregisterRemovesEmptyChannels()
+    {
+        WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
+        registry.register("t1", metadata("chat", "alice"));
+        registry.register("t2", metadata("chat", "alice"));
+
+        Assert.assertTrue(registry.deregister("t1"));
+        Assert.assertFalse(registry.deregister("t1"));
+        Assert.assertEquals(set("t2"), registry.getChannelTokens("chat", "alice"));
+
+        Assert.assertTrue(registry.deregister("t2"));
+        Assert.assertFalse(registry.isChannelAvailable("chat"));
+        Assert.assertTrue(registry.getChannelTokens("chat", "alice").isEmpty());
+
+        // a reconnection registers the token again
+        Assert.assertTrue(registry.register("t2", metadata("chat", "alice")));
+        Assert.assertEquals(set("t2"), registry.getChannelTokens("chat", "alice"));
+    }
+
+    @Test
+    public void testApplicationBeanKeepsChannelAvailable()
+    {
+        WebsocketApplicationBean bean = new WebsocketApplicationBean();
+        bean.registerWebsocketSession("t1", metadata("chat", "alice"));
+        bean.registerWebsocketSession("t2", new WebsocketChannelMetadata("chat", "session", "alice", true));
+        Assert.assertEquals(set("t1"), bean.getChannelTokensFor("chat"));
+
+        bean.deregisterWebsocketSession("t1");
+        Assert.assertTrue(bean.getChannelTokensFor("chat").isEmpty());
+        Assert.assertTrue(bean.isChannelAvailable("chat"));
+    }
+
+    @Test
+    public void testConcurrentRegistration() throws Exception
+    {
+        WebsocketChannelRegistry registry = new WebsocketChannelRegistry();
+        int threads = 8;
+        int tokens = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++)
+        {
+            String prefix = "w" + i + "-";
+            Thread worker = new Thread(() ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+                for (int j = 0; j < tokens; j++)
+                {
+                    registry.register(prefix + j, metadata("chat", "user" + (j % 10)));
+                    if (j % 2 == 1)
+                    {
+                        registry.deregister(prefix + (j - 1));
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        Assert.assertEquals(threads * tokens / 2, registry.getChannelTokens("chat").size());
+        int byUser = 0;
+        for (int u = 0; u < 10; u++)
+        {
+            byUser += registry.getChannelTokens("chat", "user" + u).size();
+        }
+        Assert.assertEquals(threads * tokens / 2, byUser);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.resource;
+
+import java.util.Map;
+
+import org.apache.myfaces.application.ResourceHandlerImpl;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceFingerprintsTest extends AbstractJsfTestCase
+{
+    private ResourceHandlerImpl resourceHandler;
+
+    @Override
+    protected void setUpServletObjects() throws Exception
+    {
+        super.setUpServletObjects();
+        servletContext.addInitParameter(MyfacesConfig.RESOURCE_FINGERPRINT, "true");
+    }
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        resourceHandler = new ResourceHandlerImpl();
+        application.setResourceHandler(resourceHandler);
+        request.setPathElements("/xxx", "/yyy", "/test.xhtml", null);
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        resourceHandler = null;
+
+        super.tearDown();
+    }
+
+    @Test
+    public void testPrecompute()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+
+        ResourceFingerprints precomputed = new ResourceFingerprints();
+        precomputed.precompute(Thread.currentThread().getContextClassLoader());
+
+        String fingerprint = new ResourceFingerprints().getFingerprint(resource.getURL());
+        Assert.assertNotNull(fingerprint);
+        Assert.assertEquals(16, fingerprint.length());
+        Assert.assertEquals(fingerprint, precomputed.getFingerprint(resource.getURL()));
+    }
+
+    @Test
+    public void testRequestPath()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        String fingerprint = resource.getFingerprint();
+
+        Assert.assertNotNull(fingerprint);
+        Assert.assertTrue(resource.getRequestPath(), resource.getRequestPath().endsWith(
+                "?" + ResourceFingerprints.FINGERPRINT_PARAM + "=" + fingerprint));
+
+        // the same resource gets the same fingerprint
+        Assert.assertEquals(fingerprint, resourceHandler.createResource("testResource.xhtml").getRequestPath()
+                .substring(resource.getRequestPath().length() - fingerprint.length()));
+    }
+
+    @Test
+    public void testResponseHeaders()
+    {
+        facesContext.getAttributes().put("org.apache.myfaces.IS_RESOURCE_REQUEST", Boolean.TRUE);
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        String fingerprint = resource.getFingerprint();
+
+        Map<String, String> headers = resource.getResponseHeaders();
+        Assert.assertEquals('"' + fingerprint + '"', headers.get("ETag"));
+        Assert.assertNull(headers.get("Cache-Control"));
+
+        request.addParameter(ResourceFingerprints.FINGERPRINT_PARAM, fingerprint);
+        headers = resource.getResponseHeaders();
+        Assert.assertEquals("public, max-age=31536000, immutable", headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void testIfNoneMatch()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        String fingerprint = resource.getFingerprint();
+
+        Assert.assertTrue(resource.userAgentNeedsUpdate(facesContext));
+
+        request.addHeader("If-None-Match", "\"0000\", W/\"" + fingerprint + '"');
+        Assert.assertFalse(resource.userAgentNeedsUpdate(facesContext));
+    }
+
+    @Test
+    public void testIfNoneMatchEncoded()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+        String etag = '"' + resource.getFingerprint() + '"';
+
+        Assert.assertEquals(etag, ResourceFingerprints.getEncodedETag(etag, null));
+        Assert.assertEquals('"' + resource.getFingerprint() + "-gzip\"",
+                ResourceFingerprints.getEncodedETag(etag, "gzip"));
+
+        request.addHeader("If-None-Match", ResourceFingerprints.getEncodedETag(etag, "br"));
+        Assert.assertFalse(resource.userAgentNeedsUpdate(facesContext));
+    }
+
+    @Test
+    public void testIfNoneMatchOtherEncoding()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+
+        request.addHeader("If-None-Match", '"' + resource.getFingerprint() + "-deflate\"");
+        Assert.assertTrue(resource.userAgentNeedsUpdate(facesContext));
+    }
+
+    @Test
+    public void testIfNoneMatchChanged()
+    {
+        ResourceImpl resource = (ResourceImpl) resourceHandler.createResource("testResource.xhtml");
+
+        // If-Modified-Since is ignored when If-None-Match is present
+        request.addHeader("If-None-Match", "\"0000\"");
+        request.addHeader("If-Modified-Since", ResourceLoaderUtils.formatDateHeader(System.currentTimeMillis()));
+        Assert.assertTrue(resource.userAgentNeedsUpdate(facesContext));
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import jakarta.faces.component.UIComponentBase;
+import jakarta.faces.component.UIViewRoot;
+import jakarta.faces.component.html.HtmlInputText;
+import jakarta.faces.convert.IntegerConverter;
+
+import org.apache.myfaces.spi.SerialFactory;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactSerialFactoryTest extends AbstractJsfTestCase
+{
+    private final SerialFactory compact = new CompactSerialFactory();
+    private final SerialFactory java = new DefaultSerialFactory();
+
+    private Object roundTrip(Object state) throws Exception
+    {
+        return compact.toObject(compact.toByteArray(state));
+    }
+
+    @Test
+    public void testCommonTypes() throws Exception
+    {
+        HashMap<String, Object> map = new HashMap<>();
+        map.put("a", 1);
+        map.put("b", null);
+        map.put("c", Long.MAX_VALUE);
+        ArrayList<Object> list = new ArrayList<>(Arrays.asList("x", "x", (short) 3, (byte) 4, 'c', 1.5f, 2.5d));
+
+        Object[] state = new Object[] { null, Boolean.TRUE, Boolean.FALSE, Integer.MIN_VALUE, -1, 0, 300,
+            "text", "text", map, list, new Object[0] };
+        Object[] restored = (Object[]) roundTrip(state);
+
+        Assert.assertArrayEquals(new Object[] { null, true, false, Integer.MIN_VALUE, -1, 0, 300, "text", "text" },
+                Arrays.copyOf(restored, 9));
+        Assert.assertEquals(map, restored[9]);
+        Assert.assertEquals(HashMap.class, restored[9].getClass());
+        Assert.assertEquals(list, restored[10]);
+        Assert.assertEquals(ArrayList.class, restored[10].getClass());
+        Assert.assertEquals(0, ((Object[]) restored[11]).length);
+    }
+
+    @Test
+    public void testSharedReferencesAndCycles() throws Exception
+    {
+        ArrayList<Object> shared = new ArrayList<>();
+        shared.add("value");
+        Object[] state = new Object[] { shared, shared, null };
+        state[2] = state;
+
+        Object[] restored = (Object[]) roundTrip(state);
+        Assert.assertSame(restored[0], restored[1]);
+        Assert.assertSame(restored, restored[2]);
+    }
+
+    @Test
+    public void testFallbackToJavaSerialization() throws Exception
+    {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 70000; i++)
+        {
+            longString.append('x');
+        }
+        Object[] state = new Object[] { new Custom("one"), new Custom("two"), longString.toString(),
+            new String[] { "array" } };
+        Object[] restored = (Object[]) roundTrip(state);
+
+        Assert.assertEquals("one", ((Custom) restored[0]).value);
+        Assert.assertEquals("two", ((Custom) restored[1]).value);
+        Assert.assertEquals(longString.toString(), restored[2]);
+        Assert.assertArrayEquals(new String[] { "array" }, (String[]) restored[3]);
+    }
+
+    @Test
+    public void testAttachedStateWrapper() throws Exception
+    {
+        Object saved = UIComponentBase.saveAttachedState(facesContext, new IntegerConverter());
+        Object restored = roundTrip(saved);
+
+        Assert.assertEquals(saved.getClass(), restored.getClass());
+        Assert.assertTrue(UIComponentBase.restoreAttachedState(facesContext, restored) instanceof IntegerConverter);
+    }
+
+    private UIViewRoot createView(int count)
+    {
+        UIViewRoot root = new UIViewRoot();
+        root.setViewId("/test.xhtml");
+        for (int i = 0; i < count; i++)
+        {
+            HtmlInputText input = new HtmlInputText();
+            input.setId("input" + i);
+            input.setStyleClass("field");
+            input.setConverter(new IntegerConverter());
+            root.getChildren().add(input);
+        }
+        return root;
+    }
+
+    @Test
+    public void testComponentState() throws Exception
+    {
+        UIViewRoot root = createView(20);
+        for (int i = 0; i < 20; i++)
+        {
+            ((HtmlInputText) root.getChildren().get(i)).setValue(i);
+        }
+        Object state = root.processSaveState(facesContext);
+
+        UIViewRoot restoredRoot = createView(20);
+        restoredRoot.processRestoreState(facesContext, roundTrip(state));
+        for (int i = 0; i < 20; i++)
+        {
+            HtmlInputText input = (HtmlInputText) restoredRoot.getChildren().get(i);
+            Assert.assertEquals(i, input.getValue());
+            Assert.assertEquals("field", input.getStyleClass());
+            Assert.assertTrue(input.getConverter() instanceof IntegerConverter);
+        }
+    }
+
+    /**
+     * Size and throughput comparison against plain Java serialization for a 500 component view.
+     */
+    @Test
+    public void testSize() throws Exception
+    {
+        Object state = createView(500).processSaveState(facesContext);
+
+        byte[] compactBytes = compact.toByteArray(state);
+        byte[] javaBytes = java.toByteArray(state);
+        Assert.assertTrue("compact: " + compactBytes.length + " java: " + javaBytes.length,
+                compactBytes.length < javaBytes.length);
+    }
+
+    @Test
+    public void testLargeContainers() throws Exception
+    {
+        Object[] array = new Object[5000];
+        ArrayList<Object> list = new ArrayList<>();
+        HashMap<Object, Object> map = new HashMap<>();
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = i;
+            list.add(i);
+            map.put(i, "value" + i);
+        }
+        // referenced by its own elements before and after it had to grow
+        array[10] = array;
+        array[4000] = array;
+        Object[] state = new Object[] { array, list, map, array };
+
+        Object[] restored = (Object[]) roundTrip(state);
+        Object[] restoredArray = (Object[]) restored[0];
+        Assert.assertEquals(5000, restoredArray.length);
+        Assert.assertSame(restoredArray, restoredArray[10]);
+        Assert.assertSame(restoredArray, restoredArray[4000]);
+        Assert.assertSame(restoredArray, restored[3]);
+        Assert.assertEquals(4999, restoredArray[4999]);
+        Assert.assertEquals(list, restored[1]);
+        Assert.assertEquals(map, restored[2]);
+    }
+
+    @Test
+    public void testCorruptLength() throws Exception
+    {
+        // an array, a map and a list claiming Integer.MAX_VALUE elements without any content
+        byte[] length = new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 };
+        for (int tag : new int[] { 12, 13, 14 })
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+            {
+                out.writeByte(1);
+                out.writeByte(tag);
+                out.write(length);
+            }
+            try
+            {
+                compact.toObject(bytes.toByteArray());
+                Assert.fail();
+            }
+            catch (IOException e)
+            {
+                // expected, the content is missing
+            }
+        }
+    }
+
+    public static class Custom implements Serializable
+    {
+        private final String value;
+
+        public Custom(String value)
+        {
+            this.value = value;
+        }
+    }
+}
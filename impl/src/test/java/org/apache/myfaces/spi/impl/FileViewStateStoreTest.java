@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.spi.impl;
+
+import java.io.File;
+import java.nio.file.Files;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpSessionEvent;
+import org.apache.myfaces.config.MyfacesConfig;
+import org.apache.myfaces.spi.ViewStateStore;
+import org.apache.myfaces.test.base.junit.AbstractJsfTestCase;
+import org.apache.myfaces.webapp.MyFacesHttpSessionListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileViewStateStoreTest extends AbstractJsfTestCase
+{
+    private static final String SESSION_ID = "session";
+
+    private FileViewStateStore store;
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        if (store != null)
+        {
+            store.destroy();
+            store = null;
+        }
+        super.tearDown();
+    }
+
+    private void createStore()
+    {
+        store = new FileViewStateStore();
+        store.init(externalContext);
+    }
+
+    private static byte[] state(int length, int seed)
+    {
+        byte[] state = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            state[i] = (byte) (seed + i);
+        }
+        return state;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        servletContext.addInitParameter(FileViewStateStore.VIEW_STATE_STORE_SEGMENT_SIZE, "1024");
+        createStore();
+
+        for (int i = 0; i < 10; i++)
+        {
+            store.put(facesContext, SESSION_ID, i, state(300, i));
+        }
+        // still pending
+        Assert.assertArrayEquals(state(300, 9), store.get(facesContext, SESSION_ID, 9));
+
+        store.flush();
+        for (int i = 0; i < 10; i++)
+        {
+            Assert.assertArrayEquals(state(300, i), store.get(facesContext, SESSION_ID, i));
+        }
+
+        // bigger than a segment
+        store.put(facesContext, SESSION_ID, "big", state(5000, 7));
+        store.flush();
+        Assert.assertArrayEquals(state(5000, 7), store.get(facesContext, SESSION_ID, "big"));
+
+        Assert.assertNull(store.get(facesContext, SESSION_ID, "unknown"));
+        Assert.assertNull(store.get(facesContext, "unknown", 1));
+
+        store.remove(facesContext, SESSION_ID, 1);
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 1));
+    }
+
+    @Test
+    public void testNumberOfViewsQuota() throws Exception
+    {
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "3");
+        createStore();
+
+        for (int i = 0; i < 5; i++)
+        {
+            store.put(facesContext, SESSION_ID, i, state(10, i));
+        }
+        // touch 2, so 3 is the least recently used one
+        store.get(facesContext, SESSION_ID, 2);
+        store.put(facesContext, SESSION_ID, 5, state(10, 5));
+
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 0));
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 1));
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 3));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 2));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 4));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 5));
+
+        // other sessions are not affected
+        store.put(facesContext, "other", 0, state(10, 0));
+        Assert.assertNotNull(store.get(facesContext, "other", 0));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 5));
+    }
+
+    @Test
+    public void testSessionQuota() throws Exception
+    {
+        servletContext.addInitParameter(FileViewStateStore.VIEW_STATE_STORE_SESSION_QUOTA, "1000");
+        createStore();
+
+        store.put(facesContext, SESSION_ID, 1, state(400, 1));
+        store.put(facesContext, SESSION_ID, 2, state(400, 2));
+        store.put(facesContext, SESSION_ID, 3, state(400, 3));
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 1));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 2));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 3));
+
+        // the last state is always kept
+        store.put(facesContext, SESSION_ID, 4, state(2000, 4));
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 2));
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 3));
+        Assert.assertArrayEquals(state(2000, 4), store.get(facesContext, SESSION_ID, 4));
+    }
+
+    @Test
+    public void testExpiration() throws Exception
+    {
+        servletContext.addInitParameter(FileViewStateStore.VIEW_STATE_STORE_TTL, "50");
+        createStore();
+
+        store.put(facesContext, SESSION_ID, 1, state(10, 1));
+        store.flush();
+        Thread.sleep(100);
+        store.put(facesContext, SESSION_ID, 2, state(10, 2));
+        store.removeExpired();
+
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 1));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 2));
+
+        Thread.sleep(100);
+        store.removeExpired();
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 2));
+
+        // the session can be used again
+        store.put(facesContext, SESSION_ID, 3, state(10, 3));
+        Assert.assertNotNull(store.get(facesContext, SESSION_ID, 3));
+    }
+
+    @Test
+    public void testRemoveSession() throws Exception
+    {
+        createStore();
+
+        store.put(facesContext, SESSION_ID, 1, state(10, 1));
+        store.put(facesContext, "other", 1, state(10, 2));
+        store.flush();
+        store.removeSession(SESSION_ID);
+
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 1));
+        Assert.assertArrayEquals(state(10, 2), store.get(facesContext, "other", 1));
+    }
+
+    @Test
+    public void testSessionKeySurvivesSessionIdChange() throws Exception
+    {
+        createStore();
+
+        String sessionKey = ViewStateStore.getSessionKey(externalContext, true);
+        store.put(facesContext, sessionKey, 1, state(10, 1));
+        store.flush();
+
+        // as done by the container on login
+        session.setId("changed");
+        Assert.assertEquals(sessionKey, ViewStateStore.getSessionKey(externalContext, false));
+        Assert.assertArrayEquals(state(10, 1), store.get(facesContext, sessionKey, 1));
+
+        MyFacesHttpSessionListener listener = new MyFacesHttpSessionListener();
+        listener.setViewStateStore(store);
+        listener.sessionDestroyed(new HttpSessionEvent(session));
+        Assert.assertNull(store.get(facesContext, sessionKey, 1));
+    }
+
+    @Test
+    public void testCompaction() throws Exception
+    {
+        File tempdir = Files.createTempDirectory("oam-test").toFile();
+        servletContext.setAttribute(ServletContext.TEMPDIR, tempdir);
+        servletContext.addInitParameter(FileViewStateStore.VIEW_STATE_STORE_SEGMENT_SIZE, "1024");
+        servletContext.addInitParameter(MyfacesConfig.NUMBER_OF_VIEWS_IN_SESSION, "100");
+        createStore();
+
+        // 10 states per segment
+        for (int i = 0; i < 30; i++)
+        {
+            store.put(facesContext, SESSION_ID, i, state(100, i));
+        }
+        store.flush();
+        File dir = new File(tempdir, "oam-view-state");
+        Assert.assertEquals(3, store.getSegmentCount());
+
+        // keep one state in each of the first two segments
+        for (int i = 1; i < 20; i++)
+        {
+            if (i != 10)
+            {
+                store.remove(facesContext, SESSION_ID, i);
+            }
+        }
+        Assert.assertEquals(3, store.getSegmentCount());
+
+        store.compact();
+        // both moved to a new segment, the current one is full
+        Assert.assertEquals(2, store.getSegmentCount());
+        Assert.assertEquals(2, dir.list().length);
+        Assert.assertArrayEquals(state(100, 0), store.get(facesContext, SESSION_ID, 0));
+        Assert.assertArrayEquals(state(100, 10), store.get(facesContext, SESSION_ID, 10));
+        for (int i = 20; i < 30; i++)
+        {
+            Assert.assertArrayEquals(state(100, i), store.get(facesContext, SESSION_ID, i));
+        }
+
+        // nothing to compact
+        store.compact();
+        Assert.assertEquals(2, store.getSegmentCount());
+    }
+
+    @Test
+    public void testDestroyReleasesSegments() throws Exception
+    {
+        File tempdir = Files.createTempDirectory("oam-test").toFile();
+        servletContext.setAttribute(ServletContext.TEMPDIR, tempdir);
+        servletContext.addInitParameter(FileViewStateStore.VIEW_STATE_STORE_SEGMENT_SIZE, "1024");
+        createStore();
+
+        for (int i = 0; i < 15; i++)
+        {
+            store.put(facesContext, SESSION_ID, i, state(100, i));
+        }
+        store.flush();
+        File dir = new File(tempdir, "oam-view-state");
+        Assert.assertEquals(2, dir.list().length);
+
+        store.destroy();
+        Assert.assertEquals(0, store.getSegmentCount());
+        Assert.assertFalse(dir.exists());
+        Assert.assertNull(store.get(facesContext, SESSION_ID, 14));
+        tempdir.delete();
+    }
+}
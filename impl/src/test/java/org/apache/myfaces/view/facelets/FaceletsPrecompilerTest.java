@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets;
+
+import java.net.URL;
+import java.util.Arrays;
+
+import jakarta.faces.FactoryFinder;
+import jakarta.faces.application.ProjectStage;
+import jakarta.faces.view.facelets.FaceletCache;
+
+import org.apache.myfaces.view.facelets.impl.FaceletCacheFactoryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FaceletsPrecompilerTest extends FaceletTestCase
+{
+    private static final String VIEW = "/testSimpleComposite.xhtml";
+    private static final String COMPOSITE_COMPONENT = "/resources/testComposite/simpleComposite.xhtml";
+
+    @Override
+    protected String getDirectory()
+    {
+        return "org/apache/myfaces/view/facelets/tag/composite/";
+    }
+
+    @Override
+    protected void setFactories() throws Exception
+    {
+        super.setFactories();
+        FactoryFinder.setFactory(FactoryFinder.FACELET_CACHE_FACTORY,
+                RecordingFaceletCacheFactory.class.getName());
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        RecordingFaceletCacheFactory.cache = null;
+        super.tearDown();
+    }
+
+    @Test
+    public void testPrecompile() throws Exception
+    {
+        setProjectStage(ProjectStage.Production);
+        externalContext.getApplicationMap().put(FaceletsPrecompiler.FACELETS,
+                Arrays.asList(VIEW, COMPOSITE_COMPONENT));
+
+        URL viewUrl = application.getResourceHandler().createViewResource(facesContext, VIEW).getURL();
+        URL compositeComponentUrl = externalContext.getResource(COMPOSITE_COMPONENT);
+        AbstractFaceletCache<?> cache = RecordingFaceletCacheFactory.cache;
+        Assert.assertNotNull(cache);
+        Assert.assertFalse(cache.isFaceletCached(viewUrl));
+
+        FaceletsPrecompiler.precompile(facesContext);
+
+        Assert.assertTrue(cache.isFaceletCached(viewUrl));
+        Assert.assertTrue(cache.isViewMetadataFaceletCached(viewUrl));
+        Assert.assertTrue(cache.isFaceletCached(compositeComponentUrl));
+        Assert.assertTrue(cache.isCompositeComponentMetadataFaceletCached(compositeComponentUrl));
+        Assert.assertFalse(cache.isViewMetadataFaceletCached(compositeComponentUrl));
+    }
+
+    @Test
+    public void testOnlyInProduction() throws Exception
+    {
+        externalContext.getApplicationMap().put(FaceletsPrecompiler.FACELETS, Arrays.asList(VIEW));
+
+        FaceletsPrecompiler.precompile(facesContext);
+
+        URL viewUrl = application.getResourceHandler().createViewResource(facesContext, VIEW).getURL();
+        Assert.assertFalse(RecordingFaceletCacheFactory.cache.isFaceletCached(viewUrl));
+    }
+
+    public static class RecordingFaceletCacheFactory extends FaceletCacheFactoryImpl
+    {
+        private static AbstractFaceletCache<?> cache;
+
+        @Override
+        public FaceletCache getFaceletCache()
+        {
+            FaceletCache faceletCache = super.getFaceletCache();
+            cache = (AbstractFaceletCache<?>) faceletCache;
+            return faceletCache;
+        }
+    }
+}
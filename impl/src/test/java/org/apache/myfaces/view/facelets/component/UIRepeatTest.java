@@ -158,6 +158,67 @@ public void testSaveAndRestorePortletLifecycleWithoutPss1() throws Exception
         }
     }
     
+    @Test
+    public void testEditableValueHolderStateOfEditedRows()
+    {
+        List<RowData> list = new ArrayList<RowData>();
+        int rowCount = 10;
+        for (int i = 0; i < rowCount; i++)
+        {
+            list.add(new RowData("text"+i, "style"+i));
+        }
+
+        UIViewRoot root = facesContext.getViewRoot();
+        UIRepeat repeat = new UIRepeat();
+        repeat.setId("repeat");
+        root.getChildren().add(repeat);
+        repeat.setValue(list);
+        repeat.setVar("row");
+
+        UIInput inputText = new UIInput();
+        inputText.setId("text");
+        repeat.getChildren().add(inputText);
+
+        for (int i = 0; i < rowCount ; i++)
+        {
+            repeat.setRowIndex(i);
+            if (i % 3 == 0)
+            {
+                inputText.setSubmittedValue("someString"+i);
+                inputText.setValid(false);
+            }
+        }
+        repeat.setRowIndex(-1);
+        Assert.assertNull(inputText.getSubmittedValue());
+        Assert.assertTrue(inputText.isValid());
+
+        for (int i = 0; i < rowCount ; i++)
+        {
+            repeat.setRowIndex(i);
+            if (i % 3 == 0)
+            {
+                Assert.assertEquals("someString"+i, inputText.getSubmittedValue());
+                Assert.assertFalse(inputText.isValid());
+            }
+            else
+            {
+                Assert.assertNull(inputText.getSubmittedValue());
+                Assert.assertTrue(inputText.isValid());
+            }
+        }
+
+        repeat.setRowIndex(3);
+        inputText.setSubmittedValue(null);
+        inputText.setValid(true);
+        repeat.setRowIndex(4);
+        repeat.setRowIndex(3);
+        Assert.assertNull(inputText.getSubmittedValue());
+        Assert.assertTrue(inputText.isValid());
+        repeat.setRowIndex(6);
+        Assert.assertEquals("someString6", inputText.getSubmittedValue());
+        repeat.setRowIndex(-1);
+    }
+
     private void createSimpleTable(UIViewRoot root)
     {
         createSimpleTable(root, false);
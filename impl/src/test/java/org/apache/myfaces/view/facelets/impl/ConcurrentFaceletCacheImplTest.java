@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.impl;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.faces.view.facelets.FaceletCache;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ConcurrentFaceletCacheImplTest
+{
+    private static class CountingFactory implements FaceletCache.MemberFactory<DefaultFacelet>
+    {
+        private final AtomicInteger compilations = new AtomicInteger();
+        private final DefaultFaceletFactory faceletFactory = Mockito.mock(DefaultFaceletFactory.class);
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+        private volatile boolean fail;
+
+        @Override
+        public DefaultFacelet newInstance(URL url) throws IOException
+        {
+            compilations.incrementAndGet();
+            try
+            {
+                latch.await();
+            }
+            catch (InterruptedException e)
+            {
+                throw new IOException(e);
+            }
+            if (fail)
+            {
+                throw new IOException("broken " + url);
+            }
+            return new DefaultFacelet(faceletFactory, null, url, url.getPath(), url.getPath(), null, false);
+        }
+    }
+
+    private static ConcurrentFaceletCacheImpl createCache(long refreshPeriod, CountingFactory factory)
+    {
+        ConcurrentFaceletCacheImpl cache = new ConcurrentFaceletCacheImpl(refreshPeriod);
+        cache.setCacheFactories(factory, factory);
+        return cache;
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        factory.latch = new CountDownLatch(1);
+        ConcurrentFaceletCacheImpl cache = createCache(-1, factory);
+        URL url = new URL("file:/test/page.xhtml");
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<DefaultFacelet>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+            {
+                results.add(executor.submit((Callable<DefaultFacelet>) () -> cache.getFacelet(url)));
+            }
+            // let the requests pile up on the first compilation
+            Thread.sleep(200);
+            factory.latch.countDown();
+
+            DefaultFacelet facelet = results.get(0).get();
+            for (Future<DefaultFacelet> result : results)
+            {
+                Assert.assertSame(facelet, result.get());
+            }
+            Assert.assertEquals(1, factory.compilations.get());
+            Assert.assertTrue(cache.isFaceletCached(url));
+            Assert.assertFalse(cache.isViewMetadataFaceletCached(url));
+        }
+        finally
+        {
+            executor.shutdownNow();
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testFailureIsNotCached() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        factory.fail = true;
+        ConcurrentFaceletCacheImpl cache = createCache(-1, factory);
+        URL url = new URL("file:/test/broken.xhtml");
+
+        try
+        {
+            cache.getFacelet(url);
+            Assert.fail();
+        }
+        catch (IOException e)
+        {
+            Assert.assertFalse(cache.isFaceletCached(url));
+        }
+
+        factory.fail = false;
+        Assert.assertNotNull(cache.getFacelet(url));
+        Assert.assertEquals(2, factory.compilations.get());
+    }
+
+    @Test
+    public void testNoCache() throws Exception
+    {
+        CountingFactory factory = new CountingFactory();
+        ConcurrentFaceletCacheImpl cache = createCache(0, factory);
+        URL url = new URL("file:/test/page.xhtml");
+
+        Assert.assertNotSame(cache.getFacelet(url), cache.getFacelet(url));
+        Assert.assertFalse(cache.isFaceletCached(url));
+    }
+
+    @Test
+    public void testWatchedFileInvalidation() throws Exception
+    {
+        Path directory = Files.createTempDirectory("facelets");
+        Path file = directory.resolve("page.xhtml");
+        Files.write(file, "<html/>".getBytes(StandardCharsets.UTF_8));
+        URL url = file.toUri().toURL();
+
+        CountingFactory factory = new CountingFactory();
+        ConcurrentFaceletCacheImpl cache = createCache(1, factory);
+        try
+        {
+            DefaultFacelet facelet = cache.getFacelet(url);
+            cache.getViewMetadataFacelet(url);
+            Assert.assertSame(facelet, cache.getFacelet(url));
+
+            Files.write(file, "<html><body/></html>".getBytes(StandardCharsets.UTF_8));
+
+            // invalidated by the watcher thread, not by the request
+            long deadline = System.currentTimeMillis() + 20000;
+            while ((cache.isFaceletCached(url) || cache.isViewMetadataFaceletCached(url))
+                    && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(50);
+            }
+            Assert.assertFalse(cache.isFaceletCached(url));
+            Assert.assertFalse(cache.isViewMetadataFaceletCached(url));
+            Assert.assertNotSame(facelet, cache.getFacelet(url));
+        }
+        finally
+        {
+            cache.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.view.facelets.pool.impl;
+
+import jakarta.faces.component.UIViewRoot;
+import org.apache.myfaces.view.facelets.pool.RestoreViewFromPoolResult;
+import org.apache.myfaces.view.facelets.pool.ViewEntry;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ViewPoolEntryHolderTest
+{
+    @Test
+    public void testFixedMaxCount()
+    {
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(2);
+
+        Assert.assertNull(holder.pop());
+        Assert.assertTrue(holder.add(new TestViewEntry(true)));
+        Assert.assertTrue(holder.add(new TestViewEntry(true)));
+        Assert.assertFalse(holder.add(new TestViewEntry(true)));
+        Assert.assertTrue(holder.isFull());
+        Assert.assertNotNull(holder.pop());
+
+        Assert.assertEquals(1, holder.getCount());
+        Assert.assertEquals(2, holder.getMaxCount());
+        Assert.assertEquals(1, holder.getHits());
+        Assert.assertEquals(1, holder.getMisses());
+        Assert.assertEquals(1, holder.getRejects());
+    }
+
+    @Test
+    public void testCollectedEntriesAreEvicted()
+    {
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(5);
+        holder.add(new TestViewEntry(false));
+        holder.add(new TestViewEntry(false));
+
+        Assert.assertNull(holder.pop());
+        Assert.assertEquals(0, holder.getCount());
+        Assert.assertEquals(2, holder.getEvictions());
+        Assert.assertEquals(1, holder.getMisses());
+
+        // polling an empty holder must not make the count negative
+        Assert.assertNull(holder.poll());
+        Assert.assertEquals(0, holder.getCount());
+    }
+
+    @Test
+    public void testAdaptiveHolderGrowsWithMisses()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(4);
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(1, capacity);
+        Assert.assertEquals(0, holder.getMaxCount());
+        Assert.assertEquals(4, capacity.getFree());
+
+        // two concurrent requests: both views are built the first time, and kept
+        for (int i = 0; i < ViewPoolEntryHolder.WINDOW * 4; i += 4)
+        {
+            ViewEntry first = holder.pop();
+            ViewEntry second = holder.pop();
+            holder.add(first != null ? first : new TestViewEntry(true));
+            holder.add(second != null ? second : new TestViewEntry(true));
+        }
+
+        Assert.assertEquals(2, holder.getMaxCount());
+        Assert.assertEquals(2, capacity.getFree());
+        Assert.assertEquals(2, holder.getMisses());
+        Assert.assertEquals(0, holder.getRejects());
+    }
+
+    @Test
+    public void testAdaptiveHolderShrinksWhenIdle()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(4);
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(4, capacity);
+        for (int i = 0; i < 4; i++)
+        {
+            holder.add(new TestViewEntry(true));
+        }
+        Assert.assertEquals(4, holder.getMaxCount());
+        Assert.assertEquals(0, capacity.getFree());
+
+        // one request at a time, three instances are never used
+        for (int i = 4; i < ViewPoolEntryHolder.WINDOW; i += 2)
+        {
+            holder.add(holder.pop());
+        }
+
+        Assert.assertEquals(3, holder.getMaxCount());
+        Assert.assertEquals(1, capacity.getFree());
+        Assert.assertEquals(3, holder.getCount());
+        Assert.assertEquals(1, holder.getEvictions());
+        Assert.assertEquals(0, holder.getMisses());
+    }
+
+    @Test
+    public void testAdaptiveHolderWithoutCapacity()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(1);
+        ViewPoolEntryHolder first = new ViewPoolEntryHolder(1, capacity);
+        Assert.assertTrue(first.add(new TestViewEntry(true)));
+
+        // the other holder is in use, nothing to take
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(1, capacity);
+        Assert.assertFalse(holder.add(new TestViewEntry(true)));
+        Assert.assertEquals(0, holder.getMaxCount());
+        Assert.assertEquals(1, first.getMaxCount());
+    }
+
+    @Test
+    public void testStarvedHolderTakesCapacityOfIdleHolder()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(2, 64);
+        ViewPoolEntryHolder rare = new ViewPoolEntryHolder(1, capacity);
+        ViewPoolEntryHolder hot = new ViewPoolEntryHolder(1, capacity);
+        Assert.assertTrue(rare.add(new TestViewEntry(true)));
+        Assert.assertTrue(hot.add(new TestViewEntry(true)));
+        Assert.assertEquals(0, capacity.getFree());
+
+        // 100 ticks of one request at a time on the hot view, the rare view is idle but not swept yet
+        for (int i = 0; i < 50; i++)
+        {
+            hot.add(hot.pop());
+        }
+        Assert.assertEquals(1, rare.getMaxCount());
+
+        // two concurrent requests, the second view takes the capacity of the rare view
+        ViewEntry first = hot.pop();
+        Assert.assertNull(hot.pop());
+        Assert.assertTrue(hot.add(first));
+        Assert.assertTrue(hot.add(new TestViewEntry(true)));
+
+        Assert.assertEquals(2, hot.getMaxCount());
+        Assert.assertEquals(0, rare.getMaxCount());
+        Assert.assertEquals(0, rare.getCount());
+        Assert.assertEquals(1, rare.getEvictions());
+        Assert.assertEquals(0, capacity.getFree());
+    }
+
+    @Test
+    public void testIdleHolderReleasesCapacity()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(10, 64);
+        ViewPoolEntryHolder rare = new ViewPoolEntryHolder(1, capacity);
+        ViewPoolEntryHolder hot = new ViewPoolEntryHolder(1, capacity);
+        Assert.assertTrue(rare.add(new TestViewEntry(true)));
+        Assert.assertTrue(hot.add(new TestViewEntry(true)));
+
+        for (int i = 0; i < 70; i++)
+        {
+            hot.add(hot.pop());
+        }
+
+        Assert.assertEquals(0, rare.getMaxCount());
+        Assert.assertEquals(0, rare.getCount());
+        Assert.assertEquals(1, hot.getMaxCount());
+        Assert.assertEquals(9, capacity.getFree());
+
+        // used again, it grows like a new one
+        Assert.assertNull(rare.pop());
+        Assert.assertTrue(rare.add(new TestViewEntry(true)));
+        Assert.assertEquals(1, rare.getMaxCount());
+    }
+
+    @Test
+    public void testReserve()
+    {
+        ViewPoolCapacity capacity = new ViewPoolCapacity(10);
+        ViewPoolEntryHolder holder = new ViewPoolEntryHolder(1, capacity);
+        holder.reserve(3);
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertTrue(holder.add(new TestViewEntry(true)));
+        }
+        Assert.assertFalse(holder.add(new TestViewEntry(true)));
+        Assert.assertEquals(3, holder.getMaxCount());
+        Assert.assertEquals(7, capacity.getFree());
+
+        // nothing changes with a fixed max count
+        ViewPoolEntryHolder fixed = new ViewPoolEntryHolder(2);
+        fixed.reserve(3);
+        Assert.assertEquals(2, fixed.getMaxCount());
+    }
+
+    private static class TestViewEntry extends ViewEntry
+    {
+        private final boolean active;
+        private RestoreViewFromPoolResult result;
+
+        TestViewEntry(boolean active)
+        {
+            this.active = active;
+        }
+
+        @Override
+        public UIViewRoot getViewRoot()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean activate()
+        {
+            return active;
+        }
+
+        @Override
+        public RestoreViewFromPoolResult getResult()
+        {
+            return result;
+        }
+
+        @Override
+        public void setResult(RestoreViewFromPoolResult result)
+        {
+            this.result = result;
+        }
+    }
+}
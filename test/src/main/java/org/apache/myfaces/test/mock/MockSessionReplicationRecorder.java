@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myfaces.test.mock;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+
+/**
+ * <p>Session attribute listener that records what a container with
+ * session replication would ship at the end of a request.</p>
+ *
+ * <p>Containers usually replicate the attributes that were set during the
+ * request, serializing their value as it is when the request ends, plus
+ * the names of the removed attributes. Register an instance with
+ * {@link MockHttpSession#addAttributeListener(HttpSessionAttributeListener)},
+ * call {@link #reset()} before each request and read the counters after it.</p>
+ *
+ * @since 1.0.0
+ */
+public class MockSessionReplicationRecorder implements HttpSessionAttributeListener
+{
+
+    // ------------------------------------------------------ Instance Variables
+
+    private final Set<String> dirtyAttributes = new LinkedHashSet<>();
+    private final Set<String> removedAttributes = new LinkedHashSet<>();
+    private int attributeWrites;
+    private HttpSession session;
+
+    // ----------------------------------------------------- Mock Object Methods
+
+    /**
+     * <p>Forget the changes recorded so far, usually called when a new
+     * request starts.</p>
+     */
+    public void reset()
+    {
+        dirtyAttributes.clear();
+        removedAttributes.clear();
+        attributeWrites = 0;
+    }
+
+    /**
+     * <p>Return the number of <code>setAttribute</code> calls, including
+     * the ones that replaced the same attribute several times.</p>
+     */
+    public int getAttributeWrites()
+    {
+        return attributeWrites;
+    }
+
+    /**
+     * <p>Return the names of the attributes that would be replicated.</p>
+     */
+    public Set<String> getDirtyAttributes()
+    {
+        return Collections.unmodifiableSet(dirtyAttributes);
+    }
+
+    /**
+     * <p>Return the names of the attributes removed since the last reset.</p>
+     */
+    public Set<String> getRemovedAttributes()
+    {
+        return Collections.unmodifiableSet(removedAttributes);
+    }
+
+    /**
+     * <p>Return the size of the serialized form of the dirty attributes,
+     * as they are now.</p>
+     */
+    public long getReplicatedBytes()
+    {
+        if (session == null)
+        {
+            return 0;
+        }
+        CountingOutputStream counter = new CountingOutputStream();
+        for (String name : dirtyAttributes)
+        {
+            Object value = session.getAttribute(name);
+            if (value == null)
+            {
+                continue;
+            }
+            try (ObjectOutputStream oos = new ObjectOutputStream(counter))
+            {
+                oos.writeObject(value);
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException("Session attribute " + name + " cannot be serialized", e);
+            }
+        }
+        return counter.count;
+    }
+
+    // ------------------------------------ HttpSessionAttributeListener Methods
+
+    /** {@inheritDoc} */
+    public void attributeAdded(HttpSessionBindingEvent event)
+    {
+        written(event);
+    }
+
+    /** {@inheritDoc} */
+    public void attributeReplaced(HttpSessionBindingEvent event)
+    {
+        written(event);
+    }
+
+    /** {@inheritDoc} */
+    public void attributeRemoved(HttpSessionBindingEvent event)
+    {
+        session = event.getSession();
+        dirtyAttributes.remove(event.getName());
+        removedAttributes.add(event.getName());
+    }
+
+    // --------------------------------------------------------- Support Methods
+
+    private void written(HttpSessionBindingEvent event)
+    {
+        session = event.getSession();
+        attributeWrites++;
+        dirtyAttributes.add(event.getName());
+        removedAttributes.remove(event.getName());
+    }
+
+    private static class CountingOutputStream extends OutputStream
+    {
+        private long count;
+
+        @Override
+        public void write(int b)
+        {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            count += len;
+        }
+    }
+}